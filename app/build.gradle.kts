@@ -90,6 +90,25 @@ android {
         dataBinding = true
         buildConfig = true
     }
+
+    sourceSets {
+        // share the html fixtures with the benchmarks
+        getByName("test").resources.srcDir("src/androidTest/resources")
+    }
+
+    testOptions {
+        unitTests {
+            // the benchmarks run code that logs, e.g. the parsers on unexpected input
+            isReturnDefaultValues = project.hasProperty("benchmark")
+
+            // run the benchmarks with ./gradlew testGithubDebugUnitTest --tests "*JmhRunner" -Pbenchmark
+            all {
+                it.systemProperty("qed.benchmark", project.hasProperty("benchmark"))
+                it.systemProperty("qed.benchmark.include", project.findProperty("benchmark") ?: "")
+                it.systemProperty("qed.benchmark.result", layout.buildDirectory.file("reports/jmh/${it.name}.json").get().asFile.path)
+            }
+        }
+    }
 }
 
 
@@ -107,6 +126,7 @@ dependencies {
     implementation("androidx.vectordrawable:vectordrawable-seekable:1.0.0")
     implementation("com.google.android.material:material:1.12.0")
     implementation("com.squareup.okhttp3:okhttp:4.12.0")
+    implementation("com.squareup.okhttp3:okhttp-urlconnection:4.12.0")
     implementation("com.x5dev:chunk-templates:3.6.2")
     implementation("org.jsoup:jsoup:1.18.1")
     implementation("it.unimi.dsi:fastutil-core:8.5.13")
@@ -126,10 +146,14 @@ dependencies {
 
     testImplementation("junit:junit:4.13.2")
     testImplementation("org.mockito:mockito-core:5.11.0")
+    testImplementation("org.json:json:20240303")
+    testImplementation("org.openjdk.jmh:jmh-core:1.37")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 
     androidTestImplementation("androidx.test:core:1.6.1")
     androidTestImplementation("androidx.test.ext:junit:1.2.1")
     androidTestImplementation("androidx.test:rules:1.6.1")
     androidTestImplementation("androidx.test:runner:1.6.2")
     androidTestImplementation("com.google.truth:truth:1.4.2")
+    androidTestImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
 }
\ No newline at end of file
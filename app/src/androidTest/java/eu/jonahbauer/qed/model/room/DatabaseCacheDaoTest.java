@@ -0,0 +1,153 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.room.Room;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import eu.jonahbauer.qed.model.Event;
+import eu.jonahbauer.qed.model.Person;
+import eu.jonahbauer.qed.model.Registration;
+import eu.jonahbauer.qed.model.contact.ContactDetail;
+import eu.jonahbauer.qed.model.util.ParsedInstant;
+import eu.jonahbauer.qed.model.util.ParsedLocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class DatabaseCacheDaoTest {
+    private Database mDatabase;
+    private DatabaseCacheDao mDao;
+
+    @Before
+    public void setup() {
+        var context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mDatabase = Room.inMemoryDatabaseBuilder(context, Database.class).build();
+        mDao = mDatabase.databaseCacheDao();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void testUnchangedListIsNotWritten() {
+        assertTrue(mDao.updatePersonsSync(List.of(person(1, "Alice"), person(2, "Bob"))));
+        assertFalse(mDao.updatePersonsSync(List.of(person(1, "Alice"), person(2, "Bob"))));
+        assertTrue(mDao.updatePersonsSync(List.of(person(1, "Alice"), person(2, "Carol"))));
+
+        var persons = mDao.getPersons().blockingGet();
+        assertNotNull(persons);
+        assertEquals(2, persons.size());
+    }
+
+    @Test
+    public void testRemovedEntriesAreDeleted() {
+        mDao.updateEventsSync(List.of(event(1, "Pfingsten"), event(2, "Akademie")));
+        assertTrue(mDao.updateEventsSync(List.of(event(2, "Akademie"))));
+
+        var events = mDao.getEvents().blockingGet();
+        assertNotNull(events);
+        assertEquals(List.of(2L), events.stream().map(Event::getId).collect(Collectors.toList()));
+        assertNull(mDao.getEvent(1).blockingGet());
+    }
+
+    @Test
+    public void testDetailIsPreferredOverSummary() {
+        mDao.updatePersonsSync(List.of(person(1, "Alice")));
+
+        var detail = person(1, "Alice");
+        detail.setEmail("alice@example.org");
+        mDao.updatePersonSync(detail);
+
+        var cached = mDao.getPerson(1).blockingGet();
+        assertNotNull(cached);
+        assertEquals("alice@example.org", cached.getEmail());
+
+        // the detail does not replace the list entry
+        assertTrue(mDao.updatePersonsSync(List.of(person(1, "Alicia"))));
+        assertEquals("alice@example.org", mDao.getPerson(1).blockingGet().getEmail());
+    }
+
+    @Test
+    public void testDetailWithoutSummary() {
+        var event = event(1, "Pfingsten");
+        mDao.updateEventSync(event);
+        assertEquals("Pfingsten", mDao.getEvent(1).blockingGet().getTitle());
+        assertNull(mDao.getEvents().blockingGet());
+
+        var registration = new Registration(3);
+        registration.setStatus(Registration.Status.CONFIRMED);
+        mDao.updateRegistrationSync(registration);
+        assertEquals(Registration.Status.CONFIRMED, mDao.getRegistration(3).blockingGet().getStatus());
+    }
+
+    @Test
+    public void testDetailRoundTrip() {
+        var person = person(1, "Alice");
+        person.setLastName("Example");
+        person.setGender(Person.Gender.FEMALE);
+        person.setBirthday(new ParsedLocalDate("01.02.2000", LocalDate.of(2000, 2, 1)));
+        person.setMember(true);
+        person.setLoaded(Instant.parse("2023-06-01T12:00:00Z"));
+        person.getContacts().add(new ContactDetail("mobil", "0123"));
+        person.getAddresses().add("Musterstraße 1");
+        person.setPrivacy(EnumSet.of(Person.Privacy.NEWSLETTER));
+
+        var registration = new Registration(3);
+        registration.setStatus(Registration.Status.CONFIRMED);
+        registration.setEventId(2);
+        registration.setEventTitle("Pfingsten");
+        registration.setTimeOfArrival(new ParsedInstant("morgens", null));
+        person.getEvents().add(registration);
+        mDao.updatePersonSync(person);
+
+        var cached = mDao.getPerson(1).blockingGet();
+        assertEquals(person.toString(), cached.toString());
+        assertEquals(person.getLoaded(), cached.getLoaded());
+        assertEquals(person.getPrivacy(), cached.getPrivacy());
+
+        var cachedRegistration = cached.getEvents().iterator().next();
+        assertEquals(Registration.Status.CONFIRMED, cachedRegistration.getStatus());
+        assertEquals("morgens", cachedRegistration.getTimeOfArrival().getString());
+        assertNull(cachedRegistration.getTimeOfArrival().getInstant());
+    }
+
+    @Test
+    public void testUndecodableEntryIsIgnored() {
+        mDao.updatePersonsSync(List.of(person(1, "Alice")));
+
+        var db = mDatabase.getOpenHelper().getWritableDatabase();
+        db.execSQL("UPDATE person_cache SET summary = 'not json'");
+        assertNull(mDao.getPerson(1).blockingGet());
+    }
+
+    @Test
+    public void testClear() {
+        mDao.updatePersonsSync(List.of(person(1, "Alice")));
+        mDao.updateEventSync(event(1, "Pfingsten"));
+        mDao.clearSync();
+
+        assertNull(mDao.getPersons().blockingGet());
+        assertNull(mDao.getEvent(1).blockingGet());
+    }
+
+    private static Person person(long id, String firstName) {
+        var person = new Person(id);
+        person.setFirstName(firstName);
+        return person;
+    }
+
+    private static Event event(long id, String title) {
+        var event = new Event(id);
+        event.setTitle(title);
+        return event;
+    }
+}
@@ -0,0 +1,132 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.room.Room;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.network.parser.chat.ChatLogParser;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class MessageExporterTest {
+    private Database mDatabase;
+    private final AtomicBoolean mDiscarded = new AtomicBoolean();
+
+    @Before
+    public void setup() {
+        var context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mDatabase = Room.inMemoryDatabaseBuilder(context, Database.class).build();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void testExportCanBeParsed() {
+        var messages = messages(100);
+        mDatabase.messageDao().insertSync(messages);
+
+        var out = new ByteArrayOutputStream();
+        Observable.create(new MessageExporter(mDatabase, () -> out, () -> mDiscarded.set(true), false)).blockingSubscribe();
+        assertFalse(mDiscarded.get());
+
+        var result = new ArrayList<Message>();
+        Observable.create(new ChatLogParser(() -> new ByteArrayInputStream(out.toByteArray()), result::add)).blockingSubscribe();
+        assertMessagesEqual(messages, result);
+    }
+
+    @Test
+    public void testCompressedExportCanBeParsed() {
+        var messages = messages(100);
+        mDatabase.messageDao().insertSync(messages);
+
+        var out = new ByteArrayOutputStream();
+        Observable.create(new MessageExporter(mDatabase, () -> out, () -> mDiscarded.set(true), true)).blockingSubscribe();
+
+        var result = new ArrayList<Message>();
+        Observable.create(new ChatLogParser(() -> new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), result::add)).blockingSubscribe();
+        assertMessagesEqual(messages, result);
+    }
+
+    @Test
+    public void testFailedExportIsDiscarded() {
+        mDatabase.messageDao().insertSync(messages(10));
+
+        var out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException();
+            }
+        };
+        Observable.create(new MessageExporter(mDatabase, () -> out, () -> mDiscarded.set(true), false))
+                  .test()
+                  .assertError(IOException.class);
+        assertTrue(mDiscarded.get());
+    }
+
+    @Test
+    public void testCancelledExportIsDiscarded() {
+        // enough messages to fill the write buffer
+        mDatabase.messageDao().insertSync(messages(2000));
+
+        var observer = new TestObserver<LongLongPair>();
+        var out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                observer.dispose();
+                super.write(b, off, len);
+            }
+        };
+        Observable.create(new MessageExporter(mDatabase, () -> out, () -> mDiscarded.set(true), false)).subscribe(observer);
+
+        assertTrue(observer.isDisposed());
+        assertTrue(mDiscarded.get());
+    }
+
+    private static List<Message> messages(int count) {
+        var out = new ArrayList<Message>(count);
+        var date = Instant.parse("2023-06-01T12:00:00Z");
+        for (int i = 0; i < count; i++) {
+            out.add(new Message(
+                    i + 1, "Alice " + i % 3, "Hello \"wörld\"\n" + i, date.plusSeconds(i), i % 3,
+                    i % 2 == 0 ? null : "alice", "FF0000", i % 5 == 0 ? "test" : "", i % 2
+            ));
+        }
+        return out;
+    }
+
+    private static void assertMessagesEqual(List<Message> expected, List<Message> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            var e = expected.get(i);
+            var a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getRawName(), a.getRawName());
+            assertEquals(e.getMessage(), a.getMessage());
+            assertEquals(e.getDate(), a.getDate());
+            assertEquals(e.getUserId(), a.getUserId());
+            assertEquals(e.getUserName(), a.getUserName());
+            assertEquals(e.getColor(), a.getColor());
+            assertEquals(e.getChannel(), a.getChannel());
+            assertEquals(e.getBottag(), a.getBottag());
+        }
+    }
+}
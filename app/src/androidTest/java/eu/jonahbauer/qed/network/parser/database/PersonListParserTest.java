@@ -2,13 +2,17 @@ package eu.jonahbauer.qed.network.parser.database;
 
 import eu.jonahbauer.qed.model.Person;
 import eu.jonahbauer.qed.network.util.NetworkUtil;
+import org.jsoup.Jsoup;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -83,4 +87,43 @@ public class PersonListParserTest {
         assertEquals(LocalDate.of(2015, 2, 28), list.get(3).getDateOfJoining().getLocalDate());
         assertNull(list.get(3).getDateOfQuitting());
     }
+
+    @Test
+    public void streamMatchesParse() throws IOException {
+        var html = read();
+
+        var expected = PersonListParser.INSTANCE.apply(new ArrayList<>(), html);
+        var actual = PersonListParser.INSTANCE.apply(new ArrayList<>(), new StringReader(html));
+        assertEquals(4, expected.size());
+        assertEquals(toString(expected), toString(actual));
+    }
+
+    @Test
+    public void streamMatchesParseInParallel() throws IOException {
+        // repeat the rows until they are parsed in parallel
+        var document = Jsoup.parse(read());
+        var table = Objects.requireNonNull(document.selectFirst("#people_table tbody"));
+        var rows = new ArrayList<>(table.children());
+        while (table.childrenSize() < DatabaseListParser.PARALLEL_THRESHOLD) {
+            rows.forEach(row -> table.appendChild(row.clone()));
+        }
+        var html = document.outerHtml();
+
+        var sequential = PersonListParser.INSTANCE.parse(new ArrayList<>(), Jsoup.parse(html), false);
+        var parallel = PersonListParser.INSTANCE.parse(new ArrayList<>(), Jsoup.parse(html), true);
+        var streamed = PersonListParser.INSTANCE.apply(new ArrayList<>(), new StringReader(html));
+        assertEquals(table.childrenSize(), sequential.size());
+        assertEquals(toString(sequential), toString(parallel));
+        assertEquals(toString(sequential), toString(streamed));
+    }
+
+    private String read() throws IOException {
+        try (var in = getClass().getResourceAsStream("/person_list.html")) {
+            return new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<String> toString(List<Person> list) {
+        return list.stream().map(Person::toString).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,42 @@
+package eu.jonahbauer.qed.network.parser.gallery;
+
+import eu.jonahbauer.qed.model.Album;
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Objects;
+
+import static org.junit.Assert.*;
+
+public class AlbumListParserTest {
+
+    @Test
+    public void parse() throws IOException {
+        String html;
+        try (var in = getClass().getResourceAsStream("/album_list.html")) {
+            html = new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+        }
+
+        var list = new ArrayList<Album>();
+
+        var parser = AlbumListParser.INSTANCE;
+        parser.apply(list, html);
+
+        assertEquals(112, list.size());
+
+        assertEquals(1, list.get(0).getId());
+        assertEquals("Sommerakademie 2010", list.get(0).getName());
+
+        assertEquals(2, list.get(1).getId());
+        assertEquals("Winterseminar 2010", list.get(1).getName());
+
+        assertEquals(112, list.get(111).getId());
+        assertEquals("Musikwochenende 2023", list.get(111).getName());
+
+        // navigation links are not albums
+        assertTrue(list.stream().noneMatch(album -> album.getId() == Album.NO_ID));
+    }
+}
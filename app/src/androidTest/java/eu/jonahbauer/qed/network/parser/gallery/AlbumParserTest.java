@@ -0,0 +1,65 @@
+package eu.jonahbauer.qed.network.parser.gallery;
+
+import eu.jonahbauer.qed.model.Album;
+import eu.jonahbauer.qed.model.Person;
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class AlbumParserTest {
+
+    @Test
+    public void parse() throws IOException {
+        String html;
+        try (var in = getClass().getResourceAsStream("/album.html")) {
+            html = new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+        }
+
+        var album = new Album(105);
+
+        var parser = AlbumParser.INSTANCE;
+        parser.apply(album, html);
+
+        assertEquals("Sommerakademie 2023", album.getName());
+        assertEquals("Stefani Rivas", album.getOwner());
+        assertEquals("01.08.2023", album.getCreationDate());
+        assertFalse(album.isPrivate());
+
+        assertEquals(List.of(349L, 12L, 57L), album.getPersons().stream().map(Person::getId).collect(Collectors.toList()));
+        assertEquals(
+                List.of("Stefani Rivas", "Assol Vespa", "Natasha Gilbert"),
+                album.getPersons().stream().map(Person::getUsername).collect(Collectors.toList())
+        );
+
+        assertEquals(7, album.getDates().size());
+        assertEquals(LocalDate.of(2023, 8, 1), album.getDates().get(0));
+        assertEquals(LocalDate.of(2023, 8, 7), album.getDates().get(6));
+
+        assertEquals(
+                List.of(LocalDate.of(2023, 8, 9), LocalDate.of(2023, 8, 10), LocalDate.of(2023, 8, 11)),
+                album.getUploadDates()
+        );
+        assertEquals(List.of("Ausflug", "Workshops", "Abendprogramm"), album.getCategories());
+
+        var images = album.getImages();
+        assertEquals(120, images.size());
+
+        assertEquals(48001, images.get(0).getId());
+        assertEquals("IMG_0001.jpg", images.get(0).getName());
+        assertEquals(105, images.get(0).getAlbumId());
+        assertEquals("Sommerakademie 2023", images.get(0).getAlbumName());
+        assertEquals(1, images.get(0).getOrder());
+
+        assertEquals(48120, images.get(119).getId());
+        assertEquals("IMG_0120.jpg", images.get(119).getName());
+        assertEquals(120, images.get(119).getOrder());
+    }
+}
@@ -0,0 +1,52 @@
+package eu.jonahbauer.qed.network.parser.gallery;
+
+import eu.jonahbauer.qed.model.Image;
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Objects;
+
+import static org.junit.Assert.*;
+
+public class ImageParserTest {
+
+    @Test
+    public void parse() throws IOException {
+        String html;
+        try (var in = getClass().getResourceAsStream("/image.html")) {
+            html = new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+        }
+
+        var image = new Image(48042);
+
+        var parser = ImageParser.INSTANCE;
+        parser.apply(image, html);
+
+        assertEquals("IMG_0042.jpg", image.getName());
+        assertEquals(105, image.getAlbumId());
+        assertEquals("Sommerakademie 2023", image.getAlbumName());
+        assertEquals("Stefani Rivas", image.getOwner());
+        assertEquals("image/jpeg", image.getFormat());
+
+        // server time is CEST
+        assertEquals(Instant.parse("2023-08-09T16:42:07Z"), image.getUploadTime());
+        assertEquals(Instant.parse("2023-08-03T12:13:55Z"), image.getCreationTime());
+
+        var data = image.getData();
+        assertEquals("Sommerakademie 2023", data.get(Image.DATA_KEY_ALBUM));
+        assertEquals("09.08.2023 18:42:07", data.get(Image.DATA_KEY_UPLOAD_DATE));
+        assertEquals("Querformat", data.get(Image.DATA_KEY_ORIENTATION));
+        assertEquals("Canon", data.get(Image.DATA_KEY_MANUFACTURER));
+        assertEquals("Canon EOS 80D", data.get(Image.DATA_KEY_MODEL));
+        assertEquals("35 mm", data.get(Image.DATA_KEY_FOCAL_LENGTH));
+        assertEquals("f/4.0", data.get(Image.DATA_KEY_FOCAL_RATIO));
+        assertEquals("1/250 s", data.get(Image.DATA_KEY_EXPOSURE_TIME));
+        assertEquals("200", data.get(Image.DATA_KEY_ISO));
+        assertEquals("Nein", data.get(Image.DATA_KEY_FLASH));
+        assertEquals("17", data.get(Image.DATA_KEY_VISITS));
+        assertNull(data.get(Image.DATA_KEY_POSITION));
+    }
+}
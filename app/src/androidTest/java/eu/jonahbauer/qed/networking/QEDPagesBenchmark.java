@@ -0,0 +1,148 @@
+package eu.jonahbauer.qed.networking;
+
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import eu.jonahbauer.qed.model.Album;
+import eu.jonahbauer.qed.model.LogRequest;
+import eu.jonahbauer.qed.model.Person;
+import eu.jonahbauer.qed.network.parser.database.EventListParser;
+import eu.jonahbauer.qed.network.parser.database.PersonListParser;
+import eu.jonahbauer.qed.network.parser.database.PersonParser;
+import eu.jonahbauer.qed.network.parser.gallery.AlbumListParser;
+import eu.jonahbauer.qed.network.parser.gallery.AlbumParser;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPage;
+import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageToStream;
+import eu.jonahbauer.qed.networking.pages.QEDChatPages;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Observable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures downloading and parsing of the QED pages end-to-end against a {@link QEDStandInServer}
+ * with a mobile-like latency and bandwidth. The timings are written to the log.
+ */
+public class QEDPagesBenchmark {
+    private static final String LOG_TAG = QEDPagesBenchmark.class.getName();
+    private static final int SCALE = 10;
+    private static final long LATENCY = 50;
+    private static final long BANDWIDTH = 4 * 1024 * 1024;
+    private static final int ITERATIONS = 5;
+
+    private QEDStandInServer mServer;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new QEDStandInServer();
+        mServer.setScale(SCALE);
+        mServer.setLatency(LATENCY);
+        mServer.setBandwidth(BANDWIDTH);
+        mServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.close();
+    }
+
+    @Test
+    public void benchmarkPersonList() throws Exception {
+        var count = measure("person list", () -> PersonListParser.INSTANCE.apply(
+                new ArrayList<>(),
+                new AsyncLoadQEDPage(Feature.DATABASE, NetworkConstants.getDatabaseServerPersons()).call()
+        ).size());
+        assertTrue(count > 0);
+    }
+
+    @Test
+    public void benchmarkEventList() throws Exception {
+        var count = measure("event list", () -> EventListParser.INSTANCE.apply(
+                new ArrayList<>(),
+                new AsyncLoadQEDPage(Feature.DATABASE, NetworkConstants.getDatabaseServerEvents()).call()
+        ).size());
+        assertTrue(count > 0);
+    }
+
+    @Test
+    public void benchmarkPerson() throws Exception {
+        var url = String.format(Locale.ROOT, NetworkConstants.getDatabaseServerPerson(), 1);
+        var count = measure("person", () -> {
+            var person = PersonParser.INSTANCE.apply(new Person(1), new AsyncLoadQEDPage(Feature.DATABASE, url).call());
+            return person.getFirstName() != null ? 1 : 0;
+        });
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void benchmarkAlbumList() throws Exception {
+        var count = measure("album list", () -> AlbumListParser.INSTANCE.apply(
+                new ArrayList<>(),
+                new AsyncLoadQEDPage(Feature.GALLERY, NetworkConstants.getGalleryServerList()).call()
+        ).size());
+        assertTrue(count > 0);
+    }
+
+    @Test
+    public void benchmarkAlbum() throws Exception {
+        var url = String.format(Locale.ROOT, NetworkConstants.getGalleryServerAlbum(), 1, "");
+        var count = measure("album", () -> AlbumParser.INSTANCE.apply(
+                new Album(1),
+                new AsyncLoadQEDPage(Feature.GALLERY, url).call()
+        ).getImages().size());
+        assertTrue(count > 0);
+    }
+
+    @Test
+    public void benchmarkImage() throws Exception {
+        var url = String.format(Locale.ROOT, NetworkConstants.getGalleryServerImage(), "normal", 1);
+        var count = measure("image", () -> {
+            var out = new ByteArrayOutputStream();
+            Observable.create(new AsyncLoadQEDPageToStream(Feature.GALLERY, url, out, null)).blockingSubscribe();
+            return out.size();
+        });
+        assertTrue(count > 0);
+    }
+
+    @Test
+    public void benchmarkChatLog() throws Exception {
+        var context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        var request = new LogRequest.PostRecentLogRequest("", 10_000);
+        var count = measure("chat log", () -> {
+            var messages = new AtomicInteger();
+            QEDChatPages.getChatLogSync(context, request, message -> messages.incrementAndGet());
+            return messages.get();
+        });
+        assertEquals(10_000, count);
+    }
+
+    /**
+     * Runs the given action a few times and logs the average time.
+     * @param action an action returning the number of items it loaded
+     * @return the number of items loaded in the last iteration
+     */
+    private int measure(String name, Callable<Integer> action) throws Exception {
+        int count = action.call();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            count = action.call();
+        }
+        long time = (System.nanoTime() - start) / ITERATIONS / 1_000_000;
+
+        Log.i(LOG_TAG, String.format(Locale.ROOT, "%s (%d items): %d ms", name, count, time));
+        return count;
+    }
+}
@@ -0,0 +1,433 @@
+package eu.jonahbauer.qed.networking;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.jsoup.Jsoup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * A local stand-in for the chat, database and gallery servers, so that end-to-end tests and
+ * benchmarks do not depend on the live servers.
+ * <br>
+ * Pages of the database are served from the fixtures in {@code androidTest/resources}, everything
+ * else is generated. The size of lists, chat logs and images is multiplied by the
+ * {@linkplain #setScale(int) scale}. Recorded responses can be {@linkplain #putFixture(String, String, String) replayed}
+ * in place of the generated ones. The server does not record responses of the live servers itself,
+ * they have to be captured by other means. Every response is delayed by the {@linkplain #setLatency(long) latency}
+ * and its body is throttled to the {@linkplain #setBandwidth(long) bandwidth}.
+ * <br>
+ * While the server is {@linkplain #start() running}, all requests to the QED servers are sent to it.
+ */
+public class QEDStandInServer implements Closeable {
+    private static final String LOG_TAG = QEDStandInServer.class.getName();
+
+    private static final String CHAT = "/chat";
+    private static final String DATABASE = "/db";
+    private static final String GALLERY = "/gallery";
+
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String TEXT_HTML = "text/html; charset=utf-8";
+    private static final String TEXT_PLAIN = "text/plain; charset=utf-8";
+    private static final String IMAGE_JPEG = "image/jpeg";
+
+    private static final int ALBUMS = 50;
+    private static final int IMAGES = 100;
+    private static final int MESSAGES = 1000;
+    private static final int WEBSOCKET_MESSAGES = 100;
+    private static final int LIST_SCALE = 10;
+    private static final int IMAGE_SIZE = 256;
+    private static final int THUMBNAIL_SIZE = 64;
+
+    private final MockWebServer mServer = new MockWebServer();
+    private final Map<String, MockResponse> mFixtures = new ConcurrentHashMap<>();
+    private final Map<String, Object> mCache = new ConcurrentHashMap<>();
+    private final AtomicLong mMessageId = new AtomicLong();
+
+    private volatile long mLatency;
+    private volatile long mBandwidth;
+    private volatile int mScale = 1;
+
+    public QEDStandInServer() {
+        mServer.setDispatcher(new StandInDispatcher());
+    }
+
+    /**
+     * Starts the server and redirects all requests to the QED servers to it.
+     */
+    public void start() throws IOException {
+        mServer.start();
+
+        var base = mServer.url("/");
+        var websocket = "ws://" + base.host() + ":" + base.port();
+        NetworkConstants.setBaseUrls(base(CHAT), websocket + CHAT, base(DATABASE), base(GALLERY));
+        CircuitBreaker.getInstance().reset();
+    }
+
+    /**
+     * Shuts down the server and sends requests to the QED servers again.
+     */
+    @Override
+    public void close() throws IOException {
+        NetworkConstants.resetBaseUrls();
+        mServer.shutdown();
+    }
+
+    /**
+     * @param latency the delay before the response headers are sent in milliseconds
+     */
+    public void setLatency(long latency) {
+        this.mLatency = latency;
+    }
+
+    /**
+     * @param bandwidth the maximum transfer rate of response bodies in bytes per second, or {@code 0} for no limit
+     */
+    public void setBandwidth(long bandwidth) {
+        this.mBandwidth = bandwidth;
+    }
+
+    /**
+     * @param scale the factor by which lists, chat logs and images are enlarged
+     */
+    public void setScale(int scale) {
+        if (scale < 1) throw new IllegalArgumentException();
+        this.mScale = scale;
+        mCache.clear();
+    }
+
+    /**
+     * Replays the given body for all requests to the given path, e.g. {@code /gallery/album_list.php},
+     * instead of the generated response.
+     */
+    public void putFixture(@NonNull String path, @NonNull String contentType, @NonNull String body) {
+        mFixtures.put(path, new MockResponse().setHeader(CONTENT_TYPE, contentType).setBody(body));
+    }
+
+    public int getRequestCount() {
+        return mServer.getRequestCount();
+    }
+
+    private @NonNull String base(@NonNull String path) {
+        var url = mServer.url(path).toString();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private @NonNull MockResponse dispatch(@NonNull HttpUrl url) throws IOException {
+        var path = url.encodedPath();
+
+        var fixture = mFixtures.get(path);
+        if (fixture != null) return fixture.clone();
+
+        if (path.startsWith(CHAT + "/")) {
+            return dispatchChat(path.substring(CHAT.length()), url);
+        } else if (path.startsWith(DATABASE + "/")) {
+            return dispatchDatabase(path.substring(DATABASE.length()));
+        } else if (path.startsWith(GALLERY + "/")) {
+            return dispatchGallery(path.substring(GALLERY.length()), url);
+        } else {
+            return new MockResponse().setResponseCode(404);
+        }
+    }
+
+    //<editor-fold desc="Chat" defaultstate="collapsed">
+    private @NonNull MockResponse dispatchChat(@NonNull String path, @NonNull HttpUrl url) {
+        switch (path) {
+            case "/rubychat/account":
+                return new MockResponse();
+            case "/rubychat/history": {
+                var last = url.queryParameter("last");
+                int count = "postrecent".equals(url.queryParameter("mode")) && last != null
+                        ? Integer.parseInt(last)
+                        : MESSAGES * mScale;
+                return body(TEXT_PLAIN, history(channel(url), count));
+            }
+            case "/websocket":
+                return new MockResponse().withWebSocketUpgrade(new ChatListener(channel(url)));
+            default:
+                return new MockResponse().setResponseCode(404);
+        }
+    }
+
+    private @NonNull String history(@NonNull String channel, int count) {
+        var out = new StringBuilder(count * 200);
+        for (int i = 0; i < count; i++) {
+            out.append(message(channel, mMessageId.incrementAndGet(), "Message " + i)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static @NonNull String message(@NonNull String channel, long id, @NonNull String text) {
+        try {
+            return new JSONObject()
+                    .put("type", "post")
+                    .put("id", id)
+                    .put("name", "User " + (id % 17))
+                    .put("message", text)
+                    .put("username", id % 3 == 0 ? JSONObject.NULL : "user" + (id % 17))
+                    .put("user_id", id % 17)
+                    .put("color", "3f51b5")
+                    .put("date", Message.DATE_TIME_FORMATTER.format(Instant.now()))
+                    .put("channel", channel)
+                    .put("bottag", 0)
+                    .toString();
+        } catch (JSONException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Answers pings and echoes posts after sending the most recent messages of the channel.
+     */
+    private class ChatListener extends WebSocketListener {
+        private final String mChannel;
+
+        private ChatListener(@NonNull String channel) {
+            this.mChannel = channel;
+        }
+
+        @Override
+        public void onOpen(@NonNull WebSocket webSocket, @NonNull Response response) {
+            for (int i = 0; i < WEBSOCKET_MESSAGES * mScale; i++) {
+                webSocket.send(message(mChannel, mMessageId.incrementAndGet(), "Message " + i));
+            }
+        }
+
+        @Override
+        public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
+            try {
+                var json = new JSONObject(text);
+                switch (json.getString("type")) {
+                    case "ping":
+                        webSocket.send("{\"type\":\"pong\"}");
+                        break;
+                    case "post":
+                        webSocket.send("{\"type\":\"ack\"}");
+                        webSocket.send(message(json.optString("channel", mChannel), mMessageId.incrementAndGet(), json.getString("message")));
+                        break;
+                }
+            } catch (JSONException e) {
+                Log.w(LOG_TAG, "Invalid message: " + text, e);
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Database" defaultstate="collapsed">
+    private @NonNull MockResponse dispatchDatabase(@NonNull String path) throws IOException {
+        if (path.equals("/people_as_table")) {
+            return body(TEXT_HTML, scaledFixture("/person_list.html", "#people_table tbody"));
+        } else if (path.equals("/events_as_table")) {
+            return body(TEXT_HTML, scaledFixture("/event_list.html", "#events_table tbody"));
+        } else if (path.startsWith("/people/")) {
+            return body(TEXT_HTML, fixture("/person.html"));
+        } else if (path.startsWith("/events/")) {
+            return body(TEXT_HTML, fixture("/event.html"));
+        } else if (path.startsWith("/registrations/")) {
+            return body(TEXT_HTML, fixture("/registration.html"));
+        } else {
+            return new MockResponse().setResponseCode(404);
+        }
+    }
+
+    private @NonNull String fixture(@NonNull String resource) throws IOException {
+        var cached = (String) mCache.get(resource);
+        if (cached != null) return cached;
+
+        try (var in = getClass().getResourceAsStream(resource)) {
+            var html = new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+            mCache.put(resource, html);
+            return html;
+        }
+    }
+
+    /**
+     * Repeats each row of the given table of the fixture {@link #LIST_SCALE} times the scale.
+     */
+    private @NonNull String scaledFixture(@NonNull String resource, @NonNull String table) throws IOException {
+        var key = resource + table;
+        var cached = (String) mCache.get(key);
+        if (cached != null) return cached;
+
+        var document = Jsoup.parse(fixture(resource));
+        var tbody = Objects.requireNonNull(document.selectFirst(table));
+        var rows = new ArrayList<>(tbody.children());
+        for (int i = 1; i < LIST_SCALE * mScale; i++) {
+            for (var row : rows) {
+                tbody.appendChild(row.clone());
+            }
+        }
+
+        var html = document.outerHtml();
+        mCache.put(key, html);
+        return html;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Gallery" defaultstate="collapsed">
+    private @NonNull MockResponse dispatchGallery(@NonNull String path, @NonNull HttpUrl url) {
+        switch (path) {
+            case "/account.php":
+                return new MockResponse();
+            case "/album_list.php":
+                return body(TEXT_HTML, albumList());
+            case "/album_view.php":
+                return body(TEXT_HTML, album(parseId(url, "albumid")));
+            case "/image_view.php":
+                return body(TEXT_HTML, imageInfo(parseId(url, "imageid")));
+            case "/image.php":
+                var thumbnail = "thumbnail".equals(url.queryParameter("type"));
+                return new MockResponse()
+                        .setHeader(CONTENT_TYPE, IMAGE_JPEG)
+                        .setBody(new Buffer().write(image(thumbnail)));
+            default:
+                return new MockResponse().setResponseCode(404);
+        }
+    }
+
+    private @NonNull String albumList() {
+        var out = new StringBuilder("<html><body><main><div class=\"menu\"><ul>");
+        for (int i = 1; i <= ALBUMS * mScale; i++) {
+            out.append("<li><a href=\"album_view.php?albumid=").append(i).append("\">Album ").append(i).append("</a></li>");
+        }
+        return out.append("</ul></div></main></body></html>").toString();
+    }
+
+    private @NonNull String album(long id) {
+        var out = new StringBuilder("<html><body><main>");
+        out.append("<h2>Album ").append(id).append(" - QED-Galerie</h2>");
+        out.append("<nav class=\"image_filter_nav\">");
+        out.append("<section><b>Nach Besitzer:</b><div><a href=\"album_view.php?albumid=").append(id)
+           .append("&byowner=1\">Bilder von User 1</a></div></section>");
+        out.append("<section><b>Nach Datum:</b><div><a href=\"album_view.php?albumid=").append(id)
+           .append("&byday=2020-01-01\">01.01.2020</a></div></section>");
+        out.append("</nav>");
+        out.append("<table class=\"infotable\">");
+        out.append("<tr><th>Albumersteller:</th><td>User 1</td></tr>");
+        out.append("<tr><th>Erstellt am:</th><td>01.01.2020</td></tr>");
+        out.append("</table>");
+        out.append("<div class=\"imagetable\">");
+        for (int i = 1; i <= IMAGES * mScale; i++) {
+            long image = id * 1_000_000 + i;
+            out.append("<a href=\"image_view.php?imageid=").append(image).append("\">")
+               .append("<img src=\"image.php?type=thumbnail&amp;imageid=").append(image)
+               .append("\" alt=\"IMG_").append(i).append(".jpg\"></a>");
+        }
+        return out.append("</div></main></body></html>").toString();
+    }
+
+    private @NonNull String imageInfo(long id) {
+        long album = id / 1_000_000;
+        return "<html><body><main>"
+                + "<div></div>"
+                + "<div><div><b>IMG_" + (id % 1_000_000) + ".jpg</b></div></div>"
+                + "<div><a href=\"album_view.php?albumid=" + album + "\">Album " + album + "</a></div>"
+                + "<table class=\"infotable\">"
+                + "<tr><th>Album:</th><td>Album " + album + "</td></tr>"
+                + "<tr><th>Besitzer:</th><td>User 1</td></tr>"
+                + "<tr><th>Dateiformat:</th><td>image/jpeg</td></tr>"
+                + "<tr><th>Hochgeladen am:</th><td>01.01.2020 12:00:00</td></tr>"
+                + "</table>"
+                + "</main></body></html>";
+    }
+
+    private @NonNull byte[] image(boolean thumbnail) {
+        var key = thumbnail ? "thumbnail" : "image";
+        var cached = (byte[]) mCache.get(key);
+        if (cached != null) return cached;
+
+        int size = thumbnail ? THUMBNAIL_SIZE : IMAGE_SIZE * mScale;
+        var bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        var canvas = new Canvas(bitmap);
+        var paint = new Paint();
+        for (int i = 0; i < 16; i++) {
+            paint.setColor(Color.HSVToColor(new float[] {i * 22.5f, 1, 1}));
+            canvas.drawRect(0, i * size / 16f, size, (i + 1) * size / 16f, paint);
+        }
+
+        var out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        bitmap.recycle();
+
+        var bytes = out.toByteArray();
+        mCache.put(key, bytes);
+        return bytes;
+    }
+
+    private static @NonNull String channel(@NonNull HttpUrl url) {
+        var channel = url.queryParameter("channel");
+        return channel != null ? channel : "";
+    }
+
+    private static long parseId(@NonNull HttpUrl url, @NonNull String parameter) {
+        var value = url.queryParameter(parameter);
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    //</editor-fold>
+
+    private static @NonNull MockResponse body(@NonNull String contentType, @NonNull String body) {
+        return new MockResponse().setHeader(CONTENT_TYPE, contentType).setBody(body);
+    }
+
+    private @NonNull MockResponse configure(@NonNull MockResponse response) {
+        if (mLatency > 0) {
+            response.setHeadersDelay(mLatency, TimeUnit.MILLISECONDS);
+        }
+        if (mBandwidth > 0) {
+            // throttle in steps of 100ms
+            response.throttleBody(Math.max(1, mBandwidth / 10), 100, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private class StandInDispatcher extends Dispatcher {
+        @Override
+        public @NonNull MockResponse dispatch(@NonNull RecordedRequest request) {
+            var url = request.getRequestUrl();
+            if (url == null) return new MockResponse().setResponseCode(400);
+
+            try {
+                return configure(QEDStandInServer.this.dispatch(url));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
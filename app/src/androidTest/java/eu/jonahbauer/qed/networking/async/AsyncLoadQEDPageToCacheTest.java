@@ -0,0 +1,123 @@
+package eu.jonahbauer.qed.networking.async;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+import eu.jonahbauer.qed.networking.CircuitBreaker;
+import eu.jonahbauer.qed.networking.Feature;
+import eu.jonahbauer.qed.util.cache.LogCache;
+import eu.jonahbauer.qed.util.cache.Validators;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import io.reactivex.rxjava3.core.Observable;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+public class AsyncLoadQEDPageToCacheTest {
+    private static final String KEY = "test";
+    private static final String ETAG = "\"v1\"";
+
+    private final MockWebServer mServer = new MockWebServer();
+    private LogCache mCache;
+
+    @Before
+    public void setUp() throws IOException {
+        mServer.start();
+        CircuitBreaker.getInstance().reset();
+
+        var context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mCache = LogCache.getInstance(context);
+        mCache.clear();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mServer.shutdown();
+        mCache.clear();
+    }
+
+    @Test
+    public void testNotModifiedReusesCachedLog() throws Exception {
+        mServer.enqueue(new MockResponse().setHeader("ETag", ETAG).setBody("abcdefgh"));
+        assertEquals("abcdefgh", load(false));
+
+        mServer.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", ETAG));
+        assertEquals("abcdefgh", load(false));
+
+        assertNull(mServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals(ETAG, mServer.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testImmutableLogIsNotRevalidated() throws Exception {
+        mServer.enqueue(new MockResponse().setHeader("ETag", ETAG).setBody("abcdefgh"));
+        assertEquals("abcdefgh", load(true));
+        assertEquals("abcdefgh", load(true));
+        assertEquals(1, mServer.getRequestCount());
+    }
+
+    @Test
+    public void testPartialDownloadIsResumed() throws Exception {
+        writePartial(new Validators(ETAG, null, 8), "abcd");
+        mServer.enqueue(new MockResponse()
+                .setResponseCode(206)
+                .setHeader("ETag", ETAG)
+                .setHeader("Content-Range", "bytes 4-7/8")
+                .setBody("efgh"));
+        assertEquals("abcdefgh", load(true));
+
+        var request = mServer.takeRequest();
+        assertEquals("bytes=4-", request.getHeader("Range"));
+        assertEquals(ETAG, request.getHeader("If-Range"));
+    }
+
+    @Test
+    public void testPartialDownloadWithoutValidatorIsRestarted() throws Exception {
+        writePartial(new Validators(null, null, 8), "abcd");
+        mServer.enqueue(new MockResponse().setBody("abcdefgh"));
+        assertEquals("abcdefgh", load(true));
+
+        var request = mServer.takeRequest();
+        assertNull(request.getHeader("Range"));
+        assertNull(request.getHeader("If-Range"));
+    }
+
+    @Test
+    public void testChangedLogIsDownloadedAgain() throws Exception {
+        writePartial(new Validators(ETAG, null, 8), "abcd");
+        mServer.enqueue(new MockResponse().setHeader("ETag", "\"v2\"").setBody("ijklmnop"));
+        assertEquals("ijklmnop", load(true));
+    }
+
+    /**
+     * Loads the log into the cache and returns its content.
+     */
+    private String load(boolean immutable) throws IOException {
+        var network = new AsyncLoadQEDPageToCache(Feature.CHAT, mServer.url("/history").toString(), mCache, KEY, immutable);
+        Observable.create(network).ignoreElements().blockingAwait();
+
+        try (var entry = network.getEntry()) {
+            assertNotNull(entry);
+            try (var in = new FileInputStream(entry.getFile())) {
+                return new String(NetworkUtil.readAllBytes(in), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    private void writePartial(Validators validators, String content) throws IOException {
+        mCache.setPartial(KEY, validators);
+        try (var out = new FileOutputStream(mCache.getPartialFile(KEY))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
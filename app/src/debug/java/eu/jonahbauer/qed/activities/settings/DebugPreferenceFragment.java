@@ -1,19 +1,54 @@
 package eu.jonahbauer.qed.activities.settings;
 
+import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
+import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.preference.Preference;
+import eu.jonahbauer.qed.Application;
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.activities.sheets.album.AlbumInfoBottomSheet;
+import eu.jonahbauer.qed.model.room.QueryProfiler;
+import eu.jonahbauer.qed.networking.RequestTracer;
+import eu.jonahbauer.qed.networking.RequestTracer.Phase;
 import eu.jonahbauer.qed.util.Actions;
 import eu.jonahbauer.qed.util.Debug;
+import eu.jonahbauer.qed.util.StartupGraph;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
 
 public class DebugPreferenceFragment extends AbstractPreferenceFragment implements PreferenceFragment, Preference.OnPreferenceClickListener {
+    private static final String LOG_TAG = DebugPreferenceFragment.class.getName();
+    private static final int QUERY_PROFILE_LIMIT = 15;
+    private static final int REQUEST_TRACE_LIMIT = 15;
+
     private Preference mPersonInfoSheet;
     private Preference mEventInfoSheet;
     private Preference mRegistrationInfoSheet;
     private Preference mAlbumInfoSheet;
     private Preference mMessageInfoSheet;
+    private Preference mQueryProfile;
+    private Preference mQueryProfileExport;
+    private Preference mQueryProfileReset;
+    private Preference mRequestTrace;
+    private Preference mRequestTraceReset;
+    private Preference mStartupPhases;
+
+    private final ActivityResultLauncher<String> mQueryProfileExportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"),
+            this::exportQueryProfile
+    );
 
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
@@ -38,6 +73,38 @@ public class DebugPreferenceFragment extends AbstractPreferenceFragment implemen
         mMessageInfoSheet = findPreference("messageInfoSheet");
         assert mMessageInfoSheet != null;
         mMessageInfoSheet.setOnPreferenceClickListener(this);
+
+        mQueryProfile = findPreference("queryProfile");
+        assert mQueryProfile != null;
+        mQueryProfile.setOnPreferenceClickListener(this);
+
+        mQueryProfileExport = findPreference("queryProfileExport");
+        assert mQueryProfileExport != null;
+        mQueryProfileExport.setOnPreferenceClickListener(this);
+
+        mQueryProfileReset = findPreference("queryProfileReset");
+        assert mQueryProfileReset != null;
+        mQueryProfileReset.setOnPreferenceClickListener(this);
+
+        mRequestTrace = findPreference("requestTrace");
+        assert mRequestTrace != null;
+        mRequestTrace.setOnPreferenceClickListener(this);
+
+        mRequestTraceReset = findPreference("requestTraceReset");
+        assert mRequestTraceReset != null;
+        mRequestTraceReset.setOnPreferenceClickListener(this);
+
+        mStartupPhases = findPreference("startupPhases");
+        assert mStartupPhases != null;
+        mStartupPhases.setOnPreferenceClickListener(this);
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        updateQueryProfileSummary();
+        updateRequestTraceSummary();
+        updateStartupPhasesSummary();
     }
 
     @Override
@@ -58,11 +125,186 @@ public class DebugPreferenceFragment extends AbstractPreferenceFragment implemen
         } else if (preference == mMessageInfoSheet) {
             Actions.showInfoSheet(this, Debug.dummyMessage());
             return true;
+        } else if (preference == mQueryProfile) {
+            showQueryProfile();
+            return true;
+        } else if (preference == mQueryProfileExport) {
+            mQueryProfileExportLauncher.launch("query_profile.csv");
+            return true;
+        } else if (preference == mQueryProfileReset) {
+            QueryProfiler.getInstance().reset();
+            updateQueryProfileSummary();
+            return true;
+        } else if (preference == mRequestTrace) {
+            showRequestTrace();
+            return true;
+        } else if (preference == mRequestTraceReset) {
+            RequestTracer.getInstance().reset();
+            updateRequestTraceSummary();
+            return true;
+        } else if (preference == mStartupPhases) {
+            showStartupPhases();
+            return true;
         }
 
         return false;
     }
 
+    private void updateQueryProfileSummary() {
+        var statistics = QueryProfiler.getInstance().getStatistics();
+        long count = 0;
+        long mainThread = 0;
+        for (var statement : statistics) {
+            count += statement.getCount();
+            mainThread += statement.getMainThreadCount();
+        }
+        mQueryProfile.setSummary(String.format(Locale.ROOT,
+                "%d executions of %d statements, %d on the main thread",
+                count, statistics.size(), mainThread
+        ));
+    }
+
+    private void showQueryProfile() {
+        var statistics = QueryProfiler.getInstance().getStatistics();
+        var text = new StringBuilder();
+        for (int i = 0; i < Math.min(QUERY_PROFILE_LIMIT, statistics.size()); i++) {
+            var statement = statistics.get(i);
+            if (i > 0) text.append("\n\n");
+            text.append(String.format(Locale.ROOT,
+                    "%d\u00D7, total %.1f ms, mean %.2f ms, p95 \u2264 %.2f ms, max %.2f ms, %d rows",
+                    statement.getCount(),
+                    statement.getTotalNanos() / 1e6,
+                    statement.getMeanNanos() / 1e6,
+                    statement.getPercentileMicros(0.95) / 1e3,
+                    statement.getMaxNanos() / 1e6,
+                    statement.getRows()
+            ));
+            if (statement.getMainThreadCount() > 0) {
+                text.append(", ").append(statement.getMainThreadCount()).append("\u00D7 ON MAIN THREAD");
+            }
+            text.append("\n").append(String.join(", ", statement.getThreads()));
+            text.append("\n").append(statement.getSql());
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Query Profile")
+                .setMessage(statistics.isEmpty() ? "No statements recorded." : text)
+                .setPositiveButton(R.string.ok, (dialog, which) -> dialog.dismiss())
+                .show();
+    }
+
+    private void updateRequestTraceSummary() {
+        var statistics = RequestTracer.getInstance().getStatistics();
+        long count = 0;
+        long failures = 0;
+        for (var endpoint : statistics) {
+            count += endpoint.getCount();
+            failures += endpoint.getFailures();
+        }
+        mRequestTrace.setSummary(String.format(Locale.ROOT,
+                "%d requests to %d endpoints, %d failed",
+                count, statistics.size(), failures
+        ));
+    }
+
+    private void showRequestTrace() {
+        var statistics = RequestTracer.getInstance().getStatistics();
+        var text = new StringBuilder();
+        for (int i = 0; i < Math.min(REQUEST_TRACE_LIMIT, statistics.size()); i++) {
+            var endpoint = statistics.get(i);
+            if (i > 0) text.append("\n\n");
+            text.append(endpoint.getEndpoint()).append("\n");
+            text.append(String.format(Locale.ROOT,
+                    "%d\u00D7, %d failed, %d re-logins, mean %.1f KiB",
+                    endpoint.getCount(),
+                    endpoint.getFailures(),
+                    endpoint.getRelogins(),
+                    endpoint.getMeanBytes() / 1024d
+            ));
+            for (Phase phase : Phase.values()) {
+                text.append(String.format(Locale.ROOT,
+                        "\n%s p50 %.1f ms, p95 %.1f ms",
+                        phase.name().toLowerCase(Locale.ROOT),
+                        endpoint.getPercentileNanos(phase, 0.5) / 1e6,
+                        endpoint.getPercentileNanos(phase, 0.95) / 1e6
+                ));
+            }
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Request Trace")
+                .setMessage(statistics.isEmpty() ? "No requests recorded." : text)
+                .setPositiveButton(R.string.ok, (dialog, which) -> dialog.dismiss())
+                .show();
+    }
+
+    private List<StartupGraph.Phase> getStartupPhases() {
+        var application = (Application) requireContext().getApplicationContext();
+        return application.getStartupGraph().getPhases();
+    }
+
+    private void updateStartupPhasesSummary() {
+        var phases = getStartupPhases();
+        long end = 0;
+        long failures = 0;
+        for (var phase : phases) {
+            end = Math.max(end, phase.getStartNanos() + phase.getDurationNanos());
+            if (phase.isFailed()) failures++;
+        }
+        mStartupPhases.setSummary(String.format(Locale.ROOT,
+                "%d phases in %.1f ms, %d failed",
+                phases.size(), end / 1e6, failures
+        ));
+    }
+
+    private void showStartupPhases() {
+        var phases = getStartupPhases();
+        var text = new StringBuilder();
+        for (int i = 0; i < phases.size(); i++) {
+            var phase = phases.get(i);
+            if (i > 0) text.append("\n\n");
+            text.append(phase.getName()).append("\n");
+            text.append(String.format(Locale.ROOT,
+                    "+%.1f ms, %.1f ms on %s",
+                    phase.getStartNanos() / 1e6,
+                    phase.getDurationNanos() / 1e6,
+                    phase.getThread()
+            ));
+            if (phase.isFailed()) {
+                text.append(", FAILED: ").append(phase.getError());
+            }
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Startup Phases")
+                .setMessage(phases.isEmpty() ? "No phases recorded." : text)
+                .setPositiveButton(R.string.ok, (dialog, which) -> dialog.dismiss())
+                .show();
+    }
+
+    private void exportQueryProfile(Uri uri) {
+        if (uri == null) return;
+
+        var context = requireContext().getApplicationContext();
+        //noinspection ResultOfMethodCallIgnored
+        Completable.fromAction(() -> {
+            var out = context.getContentResolver().openOutputStream(uri);
+            if (out == null) throw new IOException("Could not open output stream for uri " + uri + ".");
+            try (var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                QueryProfiler.getInstance().writeCsv(writer);
+            }
+        })
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(
+                        () -> Toast.makeText(context, "Query profile exported.", Toast.LENGTH_SHORT).show(),
+                        e -> {
+                            Log.e(LOG_TAG, "Could not export query profile.", e);
+                            Toast.makeText(context, "Could not export query profile.", Toast.LENGTH_SHORT).show();
+                        }
+                );
+    }
+
     @Override
     public int getTitle() {
         return R.string.preferences_header_debug;
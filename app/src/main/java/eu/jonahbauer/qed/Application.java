@@ -5,7 +5,6 @@ import android.app.Activity;
 import android.app.ActivityManager;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.security.keystore.KeyGenParameterSpec;
 import android.util.Log;
 import android.widget.Toast;
 
@@ -16,11 +15,13 @@ import androidx.security.crypto.EncryptedSharedPreferences;
 import androidx.security.crypto.MasterKeys;
 
 import eu.jonahbauer.qed.crypt.PasswordStorage;
+import eu.jonahbauer.qed.networking.ChatHistorySync;
 import eu.jonahbauer.qed.ui.themes.Theme;
 import eu.jonahbauer.qed.ui.themes.ThemeListener;
 import eu.jonahbauer.qed.networking.cookies.QEDCookieHandler;
 import eu.jonahbauer.qed.util.Preferences;
 
+import eu.jonahbauer.qed.util.StartupGraph;
 import eu.jonahbauer.qed.util.UpdateChecker;
 import eu.jonahbauer.qed.util.preferences.RecentsSharedPreferenceListener;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
@@ -30,7 +31,7 @@ import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.security.GeneralSecurityException;
 
-import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.exceptions.UndeliverableException;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -40,12 +41,20 @@ public class Application extends android.app.Application implements android.app.
     private static final String COOKIE_SHARED_PREFERENCE_FILE = "eu.jonahbauer.qed_cookies";
     private static final String ENCRYPTED_SHARED_PREFERENCE_FILE = "eu.jonahbauer.qed_encrypted";
 
+    private static final String STARTUP_KEYSTORE = "keystore";
+    private static final String STARTUP_COOKIES = "cookies";
+    private static final String STARTUP_PASSWORDS = "passwords";
+
     public static int MEMORY_CLASS;
 
     private static SoftReference<Application> sContext;
 
     private Activity mActivity;
     private ConnectionStateMonitor mConnectionStateMonitor;
+    private ChatHistorySync mChatHistorySync;
+
+    private final StartupGraph mStartupGraph = new StartupGraph(Schedulers.io(), Application::logStartupPhase);
+    private volatile String mMasterKeyAlias;
 
     private boolean mUpdateCheckPending = true;
     private final CompositeDisposable mActivityDisposable = new CompositeDisposable();
@@ -79,27 +88,53 @@ public class Application extends android.app.Application implements android.app.
             Log.e(LOG_TAG, "Undeliverable Exception", e);
         });
 
-        initSharedPreferences();
+        initEncryptedSharedPreferences();
+        mStartupGraph.run("preferences", this::initSharedPreferences);
 
-        mConnectionStateMonitor = new ConnectionStateMonitor(this);
-        mConnectionStateMonitor.enable();
+        mStartupGraph.run("connection state", () -> {
+            mConnectionStateMonitor = new ConnectionStateMonitor(this);
+            mConnectionStateMonitor.enable();
+        });
+
+        mStartupGraph.run("chat history sync", () -> {
+            mChatHistorySync = new ChatHistorySync(this, mConnectionStateMonitor);
+            mChatHistorySync.enable();
+        });
 
         // create account if necessary
-        initAccount();
+        mStartupGraph.run("account", this::initAccount);
     }
 
-    private void initSharedPreferences() {
-        // handle encrypted shared preferences asynchronously
-        Observable.fromRunnable(() -> {
-            // Setup cookie handler
-            SharedPreferences cookieSharedPreferences = Application.this.getEncryptedSharedPreferences(COOKIE_SHARED_PREFERENCE_FILE);
-            QEDCookieHandler.init(cookieSharedPreferences);
-
-            // Setup password storage
-            SharedPreferences passwordSharedPreferences = Application.this.getEncryptedSharedPreferences(ENCRYPTED_SHARED_PREFERENCE_FILE);
-            PasswordStorage.init(passwordSharedPreferences);
-        }).subscribeOn(Schedulers.computation()).subscribe();
+    /**
+     * Sets up the cookie handler and the password storage in the background, while the rest of the
+     * app is initialized on the main thread. Both need the master key, so the keystore is warmed up
+     * first. Requests to the QED servers wait for the cookie handler.
+     */
+    private void initEncryptedSharedPreferences() {
+        mStartupGraph
+                .add(STARTUP_KEYSTORE, () -> mMasterKeyAlias = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC))
+                .add(STARTUP_COOKIES, () -> {
+                    var cookieSharedPreferences = getEncryptedSharedPreferences(COOKIE_SHARED_PREFERENCE_FILE);
+                    QEDCookieHandler.init(cookieSharedPreferences);
+                }, STARTUP_KEYSTORE)
+                .add(STARTUP_PASSWORDS, () -> {
+                    var passwordSharedPreferences = getEncryptedSharedPreferences(ENCRYPTED_SHARED_PREFERENCE_FILE);
+                    PasswordStorage.init(passwordSharedPreferences);
+                }, STARTUP_KEYSTORE)
+                .start();
+
+        //noinspection ResultOfMethodCallIgnored
+        mStartupGraph.get(STARTUP_COOKIES)
+                .mergeWith(mStartupGraph.get(STARTUP_PASSWORDS))
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(() -> {}, e -> {
+                    if (e instanceof GeneralSecurityException || e instanceof IOException) {
+                        Toast.makeText(this, R.string.master_key_error, Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
+    private void initSharedPreferences() {
         // setup preferences
         SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(this);
         Preferences.init(preferences, this.getResources());
@@ -133,6 +168,7 @@ public class Application extends android.app.Application implements android.app.
     @Override
     public void onTerminate() {
         super.onTerminate();
+        if (mChatHistorySync != null) mChatHistorySync.disable();
         if (mConnectionStateMonitor != null) mConnectionStateMonitor.disable();
         unregisterActivityLifecycleCallbacks(this);
     }
@@ -185,6 +221,18 @@ public class Application extends android.app.Application implements android.app.
         return mConnectionStateMonitor;
     }
 
+    public StartupGraph getStartupGraph() {
+        return mStartupGraph;
+    }
+
+    private static void logStartupPhase(@NonNull StartupGraph.Phase phase) {
+        if (phase.isFailed()) {
+            Log.e(LOG_TAG, "Startup task " + phase.getName() + " failed.", phase.getError());
+        } else if (BuildConfig.DEBUG) {
+            Log.d(LOG_TAG, phase.toString());
+        }
+    }
+
     /**
      * Returns the currently active Activity.
      * @return the currently active Activity
@@ -193,21 +241,13 @@ public class Application extends android.app.Application implements android.app.
         return mActivity;
     }
 
-    private SharedPreferences getEncryptedSharedPreferences(String name) {
-        try {
-            KeyGenParameterSpec keyGenParameterSpec = MasterKeys.AES256_GCM_SPEC;
-            String masterKeyAlias = MasterKeys.getOrCreate(keyGenParameterSpec);
-
-            return EncryptedSharedPreferences.create(
-                    name,
-                    masterKeyAlias,
-                    this,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-        } catch (GeneralSecurityException | IOException e) {
-            Toast.makeText(this, R.string.master_key_error, Toast.LENGTH_SHORT).show();
-            throw new NullPointerException();
-        }
+    private SharedPreferences getEncryptedSharedPreferences(String name) throws GeneralSecurityException, IOException {
+        return EncryptedSharedPreferences.create(
+                name,
+                mMasterKeyAlias,
+                this,
+                EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
+        );
     }
 }
@@ -8,15 +8,24 @@ import android.net.NetworkRequest;
 
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import eu.jonahbauer.qed.networking.CircuitBreaker;
+
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+
+import okhttp3.HttpUrl;
 
 /**
- * Monitors the network connection state using the {@link ConnectivityManager}.
+ * Monitors the network connection state using the {@link ConnectivityManager}. Additionally, the
+ * QED servers the {@link CircuitBreaker} currently considers unavailable are tracked, even when the
+ * device itself is connected.
  */
 public class ConnectionStateMonitor {
     private static final String LOG_TAG = ConnectionStateMonitor.class.getSimpleName();
@@ -27,6 +36,8 @@ public class ConnectionStateMonitor {
     private final MutableLiveData<State> mConnectionStateRaw = new MutableLiveData<>(State.UNKNOWN);
     private final LiveData<State> mConnectionState;
 
+    private final MutableLiveData<Set<String>> mUnavailableHosts = new MutableLiveData<>(Collections.emptySet());
+
     private final Map<Network, State> mNetworks = new HashMap<>();
     private final NetworkCallback mCallback = new NetworkCallback();
 
@@ -46,10 +57,14 @@ public class ConnectionStateMonitor {
                 .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
                 .addCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)
                 .build();
+        CircuitBreaker.getInstance().addListener(mUnavailableHosts::postValue);
         if (BuildConfig.DEBUG) {
             mConnectionState.observeForever(state -> {
                 Log.d(LOG_TAG, "Connection state changed to " + state);
             });
+            mUnavailableHosts.observeForever(hosts -> {
+                Log.d(LOG_TAG, "Unavailable hosts changed to " + hosts);
+            });
         }
     }
 
@@ -81,9 +96,53 @@ public class ConnectionStateMonitor {
         return mConnectionState;
     }
 
+    /**
+     * Returns the hosts that are currently considered unavailable, because the last requests to
+     * them have failed.
+     */
+    public LiveData<Set<String>> getUnavailableHosts() {
+        return mUnavailableHosts;
+    }
+
+    /**
+     * Checks whether the host of the given url is actually unreachable, i.e. whether the device has
+     * lost its connection or the {@link CircuitBreaker} considers the host unavailable. A single failed
+     * request while the device is connected does not make a host unreachable.
+     */
+    public boolean isUnreachable(@NonNull String url) {
+        if (mConnectionStateRaw.getValue() == State.NOT_CONNECTED) return true;
+        return isUnavailable(url);
+    }
+
+    /**
+     * Checks whether loading the given url failed because the device is offline or the host is down,
+     * so that cached content should be shown instead.
+     * @see #isUnreachable(String)
+     */
+    public static boolean isUnreachable(@NonNull Context context, @NonNull String url) {
+        var application = context.getApplicationContext();
+        if (application instanceof Application) {
+            var monitor = ((Application) application).getConnectionStateMonitor();
+            if (monitor != null) return monitor.isUnreachable(url);
+        }
+        return isUnavailable(url);
+    }
+
+    private static boolean isUnavailable(@NonNull String url) {
+        var host = getHost(url);
+        return host != null && !CircuitBreaker.getInstance().isAvailable(host);
+    }
+
+    private static @Nullable String getHost(@NonNull String url) {
+        var httpUrl = HttpUrl.parse(url);
+        return httpUrl != null ? httpUrl.host() : null;
+    }
+
     private class NetworkCallback extends ConnectivityManager.NetworkCallback {
         @Override
         public void onAvailable(@NonNull Network network) {
+            // hosts that failed on the previous network might be reachable now
+            CircuitBreaker.getInstance().reset();
             synchronized (mNetworks) {
                 mNetworks.put(network, State.NOT_CONNECTED);
                 updateLiveData();
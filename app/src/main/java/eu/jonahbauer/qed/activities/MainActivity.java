@@ -51,7 +51,7 @@ public class MainActivity extends AppCompatActivity implements NavController.OnD
     private ActivityMainBinding mBinding;
 
     private final IntSet mTopLevelDestinations = IntSet.of(
-            R.id.nav_chat, R.id.nav_chat_log, R.id.nav_chat_db,
+            R.id.nav_chat, R.id.nav_chat_log, R.id.nav_chat_db, R.id.nav_chat_stats,
             R.id.nav_database_persons, R.id.nav_database_events,
             R.id.nav_gallery,
             R.id.nav_login
@@ -251,6 +251,7 @@ public class MainActivity extends AppCompatActivity implements NavController.OnD
         CHAT(R.id.nav_chat),
         CHAT_LOG(R.id.nav_chat_log),
         CHAT_DATABASE(R.id.nav_chat_db),
+        CHAT_STATISTICS(R.id.nav_chat_stats),
         DATABASE_PEOPLE(R.id.nav_database_persons),
         DATABASE_EVENTS(R.id.nav_database_events),
         GALLERY(R.id.nav_gallery);
@@ -211,7 +211,7 @@ public class ImageFragment extends Fragment implements Toolbar.OnMenuItemClickLi
             Actions.openContent(requireContext(), uri, mImage.getFormat());
             return true;
         } else if (id == R.id.image_copy_link) {
-            String link = String.format(Locale.ROOT, NetworkConstants.GALLERY_SERVER_IMAGE_VIEW, mImage.getId());
+            String link = String.format(Locale.ROOT, NetworkConstants.getGalleryServerImageView(), mImage.getId());
             Actions.copy(requireContext(), getView(), getString(R.string.image_clip_label_link, mImage.getId()), link);
             return true;
         } else if (id == R.id.image_share) {
@@ -33,6 +33,7 @@ import eu.jonahbauer.qed.networking.pages.QEDGalleryPages;
 import eu.jonahbauer.qed.networking.pages.QEDGalleryPages.Mode;
 import eu.jonahbauer.qed.util.Preferences;
 import eu.jonahbauer.qed.util.StatusWrapper;
+import eu.jonahbauer.qed.util.cache.ThumbnailCache;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
@@ -52,6 +53,7 @@ public class ImageViewHolder extends RecyclerView.ViewHolder implements QEDPageR
 
     private final Context mContext;
     private final AlbumDao mAlbumDao;
+    private final ThumbnailCache mThumbnailCache;
 
     private final ViewHolderImageBinding mBinding;
     private final MutableLiveData<StatusWrapper<Image>> mStatus = new MutableLiveData<>();
@@ -71,6 +73,7 @@ public class ImageViewHolder extends RecyclerView.ViewHolder implements QEDPageR
 
         this.mContext = inflater.getContext();
         this.mAlbumDao = Database.getInstance(mContext.getApplicationContext()).albumDao();
+        this.mThumbnailCache = ThumbnailCache.getInstance(mContext);
 
         this.mBinding = ViewHolderImageBinding.inflate(inflater, (ViewGroup) this.itemView, true);
     }
@@ -140,6 +143,12 @@ public class ImageViewHolder extends RecyclerView.ViewHolder implements QEDPageR
         if (!image.isDatabaseLoaded()) {
             mDisposable.add(
                     mAlbumDao.findImageById(image.getId())
+                             .map(img -> {
+                                 if (image.getThumbnail() == null) {
+                                     img.setThumbnail(mThumbnailCache.get(img.getThumbnailKey()));
+                                 }
+                                 return img;
+                             })
                              .subscribeOn(Schedulers.io())
                              .observeOn(AndroidSchedulers.mainThread())
                              .subscribe(
@@ -0,0 +1,172 @@
+package eu.jonahbauer.qed.activities.main;
+
+import android.os.Bundle;
+import android.view.KeyEvent;
+import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.MenuProvider;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+import eu.jonahbauer.qed.R;
+import eu.jonahbauer.qed.databinding.FragmentChatStatisticsBinding;
+import eu.jonahbauer.qed.model.ChatStatistics;
+import eu.jonahbauer.qed.model.viewmodel.ChatStatisticsViewModel;
+import eu.jonahbauer.qed.model.viewmodel.ChatStatisticsViewModel.Period;
+import eu.jonahbauer.qed.ui.views.ListItem;
+import eu.jonahbauer.qed.util.StatusWrapper;
+import eu.jonahbauer.qed.util.TransitionUtils;
+import eu.jonahbauer.qed.util.ViewUtils;
+
+import java.text.NumberFormat;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+public class ChatStatisticsFragment extends Fragment implements MenuProvider {
+    private FragmentChatStatisticsBinding mBinding;
+    private ChatStatisticsViewModel mChatStatisticsViewModel;
+    private MenuItem mRebuild;
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        TransitionUtils.setupDefaultTransitions(this);
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        mBinding = FragmentChatStatisticsBinding.inflate(inflater, container, false);
+        mChatStatisticsViewModel = ViewUtils.getViewModelProvider(this, R.id.nav_chat_stats).get(ChatStatisticsViewModel.class);
+        return mBinding.getRoot();
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        requireActivity().addMenuProvider(this, getViewLifecycleOwner(), Lifecycle.State.RESUMED);
+
+        var channel = mChatStatisticsViewModel.getChannel().getValue();
+        var period = mChatStatisticsViewModel.getPeriod().getValue();
+        mBinding.statisticsChannelEditText.setText(channel);
+        mBinding.statisticsPeriodSpinner.setSelection(period != null ? period.ordinal() : Period.MONTH.ordinal());
+
+        mBinding.searchButton.setOnClickListener(v -> search());
+        mBinding.statisticsChannelEditText.setOnEditorActionListener((v, actionId, event) -> {
+            if (actionId == EditorInfo.IME_ACTION_SEARCH
+                    || event != null && event.getKeyCode() == KeyEvent.KEYCODE_ENTER && event.getAction() == KeyEvent.ACTION_DOWN) {
+                search();
+                return true;
+            }
+            return false;
+        });
+
+        mChatStatisticsViewModel.getStatistics().observe(getViewLifecycleOwner(), statistics -> {
+            mBinding.setStatus(statistics.getCode());
+            mBinding.setStatistics(statistics.getValue());
+
+            if (mRebuild != null) {
+                mRebuild.setEnabled(statistics.getCode() != StatusWrapper.STATUS_PRELOADED);
+            }
+
+            if (statistics.getCode() == StatusWrapper.STATUS_LOADED) {
+                bindStatistics(statistics.getValue());
+            }
+        });
+    }
+
+    private void search() {
+        var channel = mBinding.statisticsChannelEditText.getText().toString();
+        var position = mBinding.statisticsPeriodSpinner.getSelectedItemPosition();
+        var period = position >= 0 ? Period.values()[position] : Period.MONTH;
+        mChatStatisticsViewModel.load(channel.isEmpty() ? null : channel, period);
+    }
+
+    private void bindStatistics(@NonNull ChatStatistics statistics) {
+        var total = statistics.getTotal();
+        var format = NumberFormat.getIntegerInstance();
+        var percent = NumberFormat.getPercentInstance();
+        percent.setMaximumFractionDigits(1);
+
+        mBinding.statisticsPosts.setTitle(format.format(total.getCount()));
+        mBinding.statisticsBotShare.setTitle(percent.format(statistics.getBotShare()));
+        mBinding.statisticsDays.setTitle(format.format(total.getDays()));
+        mBinding.statisticsNames.setTitle(format.format(total.getNames()));
+
+        mBinding.statisticsHours.setValues(statistics.getHours());
+        mBinding.statisticsDaysChart.setValues(toDayArray(statistics.getDays()));
+
+        bindCounts(mBinding.statisticsPosters, statistics.getPosters(), R.drawable.ic_drawer_persons);
+        bindCounts(mBinding.statisticsChannels, statistics.getChannels(), R.drawable.ic_drawer_chat);
+    }
+
+    private void bindCounts(@NonNull ViewGroup parent, @NonNull List<ChatStatistics.NameCount> counts, int icon) {
+        var context = parent.getContext();
+        var childCount = parent.getChildCount();
+        var count = counts.size();
+        if (childCount > count) {
+            parent.removeViews(count, childCount - count);
+        }
+
+        for (int i = 0; i < count; i++) {
+            ListItem item;
+            if (i < childCount) {
+                item = (ListItem) parent.getChildAt(i);
+            } else {
+                item = new ListItem(context);
+                item.setIcon(icon);
+                parent.addView(item);
+            }
+
+            var value = counts.get(i);
+            if (value.getName().isEmpty()) {
+                item.setTitle(getText(R.string.message_channel_main));
+            } else {
+                item.setTitle(value.getName());
+            }
+            if (value.getBotCount() > 0) {
+                item.setSubtitle(getString(R.string.chat_statistics_count_with_bots, value.getCount(), value.getBotCount()));
+            } else {
+                item.setSubtitle(getString(R.string.chat_statistics_count, value.getCount()));
+            }
+        }
+    }
+
+    /**
+     * Converts the sparse list of days with posts into a dense array including days without posts.
+     */
+    private static long[] toDayArray(@NonNull List<ChatStatistics.DayCount> days) {
+        if (days.isEmpty()) return new long[0];
+
+        var first = days.get(0).getDay();
+        var last = days.get(days.size() - 1).getDay();
+        var out = new long[(int) ChronoUnit.DAYS.between(first, last) + 1];
+        for (var day : days) {
+            out[(int) ChronoUnit.DAYS.between(first, day.getDay())] = day.getCount();
+        }
+        return out;
+    }
+
+    @Override
+    public void onCreateMenu(@NonNull Menu menu, @NonNull MenuInflater menuInflater) {
+        menuInflater.inflate(R.menu.menu_chat_statistics, menu);
+        mRebuild = menu.findItem(R.id.chat_statistics_rebuild);
+
+        var statistics = mChatStatisticsViewModel.getStatistics().getValue();
+        mRebuild.setEnabled(statistics == null || statistics.getCode() != StatusWrapper.STATUS_PRELOADED);
+    }
+
+    @Override
+    public boolean onMenuItemSelected(@NonNull MenuItem menuItem) {
+        if (menuItem.getItemId() == R.id.chat_statistics_rebuild) {
+            mChatStatisticsViewModel.rebuild();
+            return true;
+        }
+        return false;
+    }
+}
@@ -17,6 +17,7 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.Lifecycle;
 import androidx.navigation.Navigation;
 import androidx.navigation.fragment.FragmentNavigator;
+import com.google.android.material.snackbar.Snackbar;
 
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.databinding.FragmentEventsDatabaseBinding;
@@ -60,6 +61,14 @@ public class EventDatabaseFragment extends Fragment implements AdapterView.OnIte
         mBinding.list.setOnItemClickListener(this);
         mBinding.list.setAdapter(mEventAdapter);
 
+        mEventListViewModel.getOffline().observe(getViewLifecycleOwner(), offline -> {
+            if (offline) {
+                Snackbar.make(mBinding.getRoot(), R.string.database_offline, Snackbar.LENGTH_LONG)
+                        .setAction(R.string.retry, v -> mEventListViewModel.load())
+                        .show();
+            }
+        });
+
         mEventListViewModel.getEvents().observe(getViewLifecycleOwner(), events -> {
             mBinding.setStatus(events.getCode());
 
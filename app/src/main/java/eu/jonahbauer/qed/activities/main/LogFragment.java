@@ -1,11 +1,15 @@
 package eu.jonahbauer.qed.activities.main;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.*;
 import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.widget.SearchView;
 import androidx.core.view.MenuProvider;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.Lifecycle;
@@ -18,11 +22,11 @@ import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.databinding.FragmentLogBinding;
 import eu.jonahbauer.qed.model.LogRequest;
 import eu.jonahbauer.qed.ui.adapter.MessageAdapter;
-import eu.jonahbauer.qed.model.room.Database;
 import eu.jonahbauer.qed.model.viewmodel.LogViewModel;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.util.*;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 import java.util.Objects;
@@ -32,6 +36,8 @@ import static eu.jonahbauer.qed.model.LogRequest.DateRecentLogRequest;
 
 public class LogFragment extends Fragment implements MenuProvider {
     public static final String LOG_REQUEST_KEY = "logRequest";
+    private static final String SNAPSHOT_MIME_TYPE = "application/octet-stream";
+    private static final String SNAPSHOT_FILE_NAME = "chat.qedlog";
     private final LogRequest DEFAULT_REQUEST = new DateRecentLogRequest(Preferences.getChat().getChannel(), 24, TimeUnit.HOURS);
 
     private static final int STATUS_PENDING = 0;
@@ -43,9 +49,16 @@ public class LogFragment extends Fragment implements MenuProvider {
 
     private LogViewModel mLogViewModel;
 
+    private ActivityResultLauncher<String> mExportLauncher;
+    private @NonNull Disposable mSaveDisposable = Disposable.disposed();
+
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        mExportLauncher = registerForActivityResult(
+                new ActivityResultContracts.CreateDocument(SNAPSHOT_MIME_TYPE),
+                this::export
+        );
 
         // handle deep link
         Bundle arguments = getArguments();
@@ -167,9 +180,55 @@ public class LogFragment extends Fragment implements MenuProvider {
         });
 
         mLogViewModel.getLogRequest().observe(getViewLifecycleOwner(), logRequest -> {
-            mBinding.setSubtitle(logRequest.getSubtitle(getResources()));
+            updateSubtitle();
             mBinding.setStatusText(null);
         });
+
+        mLogViewModel.getSearchResults().observe(getViewLifecycleOwner(), results -> {
+            var position = mLogViewModel.getSearchPosition();
+            if (results != null && (position < 0 || position >= results.size())) {
+                // start with the first match at or below the top of the visible part of the list
+                var first = mBinding.list.getFirstVisiblePosition();
+                position = 0;
+                while (position < results.size() - 1 && results.getInt(position) < first) position++;
+            }
+            showSearchResult(position);
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // chunks that have already been imported are kept and skipped when saving again
+        mSaveDisposable.dispose();
+    }
+
+    /**
+     * Scrolls to and highlights the search result with the given index.
+     */
+    private void showSearchResult(int position) {
+        var results = mLogViewModel.getSearchResults().getValue();
+        if (results == null || results.isEmpty()) {
+            mMessageAdapter.setHighlightedItemPosition(MessageAdapter.INVALID_POSITION);
+        } else {
+            mLogViewModel.setSearchPosition(position);
+            var item = results.getInt(position);
+            mMessageAdapter.setHighlightedItemPosition(item);
+            mBinding.list.setSelection(item);
+        }
+        updateSubtitle();
+    }
+
+    private void updateSubtitle() {
+        var results = mLogViewModel.getSearchResults().getValue();
+        var logRequest = mLogViewModel.getLogRequest().getValue();
+        if (results != null && results.isEmpty()) {
+            mBinding.setSubtitle(getString(R.string.log_search_no_results));
+        } else if (results != null) {
+            mBinding.setSubtitle(getString(R.string.log_search_result, mLogViewModel.getSearchPosition() + 1, results.size()));
+        } else if (logRequest != null) {
+            mBinding.setSubtitle(logRequest.getSubtitle(getResources()));
+        }
     }
 
     /**
@@ -193,28 +252,108 @@ public class LogFragment extends Fragment implements MenuProvider {
     @Override
     public void onCreateMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
         inflater.inflate(R.menu.menu_log, menu);
+
+        var searchItem = menu.findItem(R.id.log_search);
+        var searchView = (SearchView) searchItem.getActionView();
+        Objects.requireNonNull(searchView);
+        searchView.setQueryHint(getString(R.string.log_search_hint));
+
+        var query = mLogViewModel.getSearchQuery();
+        if (query != null) {
+            searchItem.expandActionView();
+            searchView.setQuery(query, false);
+        }
+
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                // jump to the next match
+                var results = mLogViewModel.getSearchResults().getValue();
+                if (results != null && !results.isEmpty()) {
+                    showSearchResult((mLogViewModel.getSearchPosition() + 1) % results.size());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                mLogViewModel.search(newText);
+                return true;
+            }
+        });
+        searchItem.setOnActionExpandListener(new MenuItem.OnActionExpandListener() {
+            @Override
+            public boolean onMenuItemActionExpand(@NonNull MenuItem item) {
+                return true;
+            }
+
+            @Override
+            public boolean onMenuItemActionCollapse(@NonNull MenuItem item) {
+                mLogViewModel.search(null);
+                return true;
+            }
+        });
     }
 
     @Override
     public boolean onMenuItemSelected(@NonNull MenuItem item) {
         if (item.getItemId() == R.id.log_save) {
-            mBinding.setSaving(true);
-            item.setEnabled(false);
-            //noinspection ResultOfMethodCallIgnored
-            Database.getInstance(requireContext()).messageDao()
-                    .insert(mMessageAdapter.getData())
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                        mBinding.setSaving(false);
-                        item.setEnabled(true);
-                    })
-                    .subscribe(
-                            () -> Snackbar.make(requireView(), R.string.saved, Snackbar.LENGTH_SHORT).show(),
-                            (e) -> Snackbar.make(requireView(), R.string.save_error, Snackbar.LENGTH_SHORT).show()
-                    );
+            save(item);
+            return true;
+        } else if (item.getItemId() == R.id.log_summary) {
+            var dialog = new LogSummaryDialog();
+            dialog.show(getChildFragmentManager(), null);
+            return true;
+        } else if (item.getItemId() == R.id.log_export) {
+            mExportLauncher.launch(SNAPSHOT_FILE_NAME);
             return true;
         }
         return false;
     }
+
+    private void save(@NonNull MenuItem item) {
+        if (!mSaveDisposable.isDisposed()) return;
+
+        mBinding.setSaving(true);
+        mBinding.setSaveProgress(-1);
+        item.setEnabled(false);
+
+        var snackbar = Snackbar.make(requireView(), R.string.log_saving, Snackbar.LENGTH_INDEFINITE);
+        snackbar.setAction(R.string.cancel, v -> mSaveDisposable.dispose());
+        snackbar.show();
+
+        mSaveDisposable = mLogViewModel.save()
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doFinally(() -> {
+                    mBinding.setSaving(false);
+                    item.setEnabled(true);
+                    snackbar.dismiss();
+                })
+                .subscribe(
+                        progress -> {
+                            if (progress.secondLong() > 0) {
+                                mBinding.setSaveProgress((int) (100 * progress.firstLong() / progress.secondLong()));
+                            }
+                        },
+                        (e) -> Snackbar.make(requireView(), R.string.save_error, Snackbar.LENGTH_SHORT).show(),
+                        () -> Snackbar.make(requireView(), R.string.saved, Snackbar.LENGTH_SHORT).show()
+                );
+    }
+
+    private void export(@Nullable Uri uri) {
+        if (uri == null) return;
+
+        mBinding.setSaving(true);
+        mBinding.setSaveProgress(-1);
+        //noinspection ResultOfMethodCallIgnored
+        mLogViewModel.export(uri)
+                     .subscribeOn(Schedulers.io())
+                     .observeOn(AndroidSchedulers.mainThread())
+                     .doFinally(() -> mBinding.setSaving(false))
+                     .subscribe(
+                             () -> Snackbar.make(requireView(), R.string.saved, Snackbar.LENGTH_SHORT).show(),
+                             (e) -> Snackbar.make(requireView(), R.string.log_export_error, Snackbar.LENGTH_SHORT).show()
+                     );
+    }
 }
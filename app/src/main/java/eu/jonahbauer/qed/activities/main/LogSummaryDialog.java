@@ -0,0 +1,100 @@
+package eu.jonahbauer.qed.activities.main;
+
+import android.app.Dialog;
+import android.os.Bundle;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.DialogFragment;
+
+import eu.jonahbauer.qed.R;
+import eu.jonahbauer.qed.databinding.AlertDialogLogSummaryBinding;
+import eu.jonahbauer.qed.model.ChatStatistics;
+import eu.jonahbauer.qed.model.LogSummary;
+import eu.jonahbauer.qed.model.viewmodel.LogViewModel;
+import eu.jonahbauer.qed.ui.views.ListItem;
+import eu.jonahbauer.qed.util.StatusWrapper;
+import eu.jonahbauer.qed.util.TimeUtils;
+import eu.jonahbauer.qed.util.ViewUtils;
+
+import java.text.NumberFormat;
+import java.util.List;
+
+/**
+ * Shows the {@link LogSummary} of the log currently shown in the {@link LogFragment}.
+ */
+public class LogSummaryDialog extends DialogFragment {
+    private static final int POSTER_LIMIT = 10;
+
+    private AlertDialogLogSummaryBinding mBinding;
+
+    @NonNull
+    @Override
+    public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
+        mBinding = AlertDialogLogSummaryBinding.inflate(getLayoutInflater());
+
+        var logViewModel = ViewUtils.getViewModelProvider(this, R.id.nav_chat_log).get(LogViewModel.class);
+        logViewModel.getSummary().observe(this, summary -> {
+            if (summary == null) return;
+
+            mBinding.setStatus(summary.getCode());
+            if (summary.getCode() == StatusWrapper.STATUS_LOADED) {
+                bindSummary(summary.getValue());
+            } else if (summary.getCode() == StatusWrapper.STATUS_ERROR) {
+                mBinding.setError(getString(summary.getErrorMessage()));
+            }
+        });
+        logViewModel.summarize();
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
+        builder.setTitle(R.string.log_action_summary);
+        builder.setCancelable(true);
+        builder.setPositiveButton(R.string.ok, null);
+        builder.setView(mBinding.getRoot());
+        return builder.create();
+    }
+
+    private void bindSummary(@NonNull LogSummary summary) {
+        var format = NumberFormat.getIntegerInstance();
+        var percent = NumberFormat.getPercentInstance();
+        percent.setMaximumFractionDigits(1);
+
+        mBinding.summaryPosts.setTitle(format.format(summary.getCount()));
+        mBinding.summaryBotShare.setTitle(percent.format(summary.getBotShare()));
+        mBinding.summaryNames.setTitle(format.format(summary.getNameCount()));
+        if (summary.getFirst() != null && summary.getLast() != null) {
+            mBinding.summaryPeriod.setTitle(getString(
+                    R.string.log_summary_period,
+                    TimeUtils.format(summary.getFirst()),
+                    TimeUtils.format(summary.getLast())
+            ));
+        }
+
+        mBinding.summaryHours.setValues(summary.getHours());
+        mBinding.summaryWeekdays.setValues(summary.getWeekdays());
+
+        bindCounts(mBinding.summaryPosters, summary.getNames(POSTER_LIMIT), R.drawable.ic_drawer_persons);
+        bindCounts(mBinding.summaryChannels, summary.getChannels(), R.drawable.ic_drawer_chat);
+    }
+
+    private void bindCounts(@NonNull ViewGroup parent, @NonNull List<ChatStatistics.NameCount> counts, int icon) {
+        parent.removeAllViews();
+        for (var value : counts) {
+            var item = new ListItem(parent.getContext());
+            item.setIcon(icon);
+            if (value.getName().isEmpty()) {
+                item.setTitle(getText(R.string.message_channel_main));
+            } else {
+                item.setTitle(value.getName());
+            }
+            if (value.getBotCount() > 0) {
+                item.setSubtitle(getString(R.string.chat_statistics_count_with_bots, value.getCount(), value.getBotCount()));
+            } else {
+                item.setSubtitle(getString(R.string.chat_statistics_count, value.getCount()));
+            }
+            parent.addView(item);
+        }
+    }
+}
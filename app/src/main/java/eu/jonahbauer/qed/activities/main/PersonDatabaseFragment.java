@@ -17,6 +17,7 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.Lifecycle;
 import androidx.navigation.Navigation;
 import androidx.navigation.fragment.FragmentNavigator;
+import com.google.android.material.snackbar.Snackbar;
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.databinding.FragmentPersonsDatabaseBinding;
 import eu.jonahbauer.qed.model.Person;
@@ -61,6 +62,14 @@ public class PersonDatabaseFragment extends Fragment implements AdapterView.OnIt
         mBinding.list.setOnScrollListener(mPersonAdapter);
         mBinding.list.setAdapter(mPersonAdapter);
 
+        mPersonListViewModel.getOffline().observe(getViewLifecycleOwner(), offline -> {
+            if (offline) {
+                Snackbar.make(mBinding.getRoot(), R.string.database_offline, Snackbar.LENGTH_LONG)
+                        .setAction(R.string.retry, v -> mPersonListViewModel.load())
+                        .show();
+            }
+        });
+
         mPersonListViewModel.getPersons().observe(getViewLifecycleOwner(), persons -> {
             mBinding.setStatus(persons.getCode());
 
@@ -2,7 +2,10 @@ package eu.jonahbauer.qed.activities.settings;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.net.Uri;
 import android.os.Bundle;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
 
 import androidx.navigation.fragment.NavHostFragment;
 import com.google.android.material.snackbar.Snackbar;
@@ -12,18 +15,27 @@ import eu.jonahbauer.qed.ui.preferences.AdvancedEditTextPreference;
 import eu.jonahbauer.qed.ui.preferences.SeekBarPreference;
 import eu.jonahbauer.qed.ui.themes.Theme;
 import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.model.room.MessageExporter;
 import eu.jonahbauer.qed.util.MessageUtils;
 import eu.jonahbauer.qed.util.Preferences;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceManager;
 import androidx.preference.SwitchPreference;
 import eu.jonahbauer.qed.util.ViewUtils;
+import eu.jonahbauer.qed.util.cache.LogCache;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.stream.Collectors;
 
@@ -31,6 +43,13 @@ public class ChatPreferenceFragment extends AbstractPreferenceFragment implement
     private static final int[] MAX_SHOWN_ROWS_VALUES = {10_000, 20_000, 50_000, 100_000, 200_000, 500_000, Integer.MAX_VALUE};
     private static final String[] MAX_SHOWN_ROWS_STRING_VALUES = {"10.000", "20.000", "50.000", "100.000", "200.000", "500.000", "∞"};
 
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/gzip"),
+            this::exportDatabase
+    );
+    private @NonNull Disposable exportDisposable = Disposable.disposed();
+
+    private Preference exportDatabase;
     private Preference deleteDatabase;
     private AdvancedEditTextPreference name;
     private AdvancedEditTextPreference channel;
@@ -75,6 +94,10 @@ public class ChatPreferenceFragment extends AbstractPreferenceFragment implement
         assert links != null;
         links.setOnPreferenceChangeListener(this);
 
+        exportDatabase = findPreference(Preferences.getChat().getKeys().getExportDb());
+        assert exportDatabase != null;
+        exportDatabase.setOnPreferenceClickListener(this);
+
         deleteDatabase = findPreference(Preferences.getChat().getKeys().getDeleteDb());
         assert deleteDatabase != null;
         deleteDatabase.setOnPreferenceClickListener(this);
@@ -93,13 +116,22 @@ public class ChatPreferenceFragment extends AbstractPreferenceFragment implement
         Context context = getActivity();
         if (context == null) return false;
 
-        if (preference == deleteDatabase) {
+        if (preference == exportDatabase) {
+            if (exportDisposable.isDisposed()) {
+                exportLauncher.launch(getString(R.string.preferences_chat_export_db_file_name));
+            }
+            return true;
+        } else if (preference == deleteDatabase) {
             AlertDialog.Builder alertDialog = new AlertDialog.Builder(context);
             alertDialog.setMessage(R.string.preferences_chat_confirm_delete_db);
             alertDialog.setNegativeButton(R.string.cancel, (dialog, which) -> dialog.dismiss());
             alertDialog.setPositiveButton(R.string.delete, (dialog, which) -> {
+                var appContext = context.getApplicationContext();
                 //noinspection ResultOfMethodCallIgnored
-                Database.getInstance(requireContext()).messageDao().clear()
+                Completable.mergeArrayDelayError(
+                        Database.getInstance(appContext).messageDao().clear(),
+                        Completable.fromAction(() -> LogCache.getInstance(appContext).clear())
+                )
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
@@ -125,6 +157,50 @@ public class ChatPreferenceFragment extends AbstractPreferenceFragment implement
         return false;
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        exportDisposable.dispose();
+    }
+
+    private void exportDatabase(@Nullable Uri uri) {
+        if (uri == null) return;
+
+        var context = requireContext().getApplicationContext();
+        var resolver = context.getContentResolver();
+        var exporter = new MessageExporter(Database.getInstance(context), () -> {
+            var out = resolver.openOutputStream(uri);
+            if (out == null) throw new IOException("Could not open output stream for uri " + uri + ".");
+            return out;
+        }, () -> DocumentsContract.deleteDocument(resolver, uri), isCompressed(context, uri));
+
+        var snackbar = Snackbar.make(requireView(), getString(R.string.preferences_chat_exporting_db, 0, 0), Snackbar.LENGTH_INDEFINITE);
+        snackbar.setAction(R.string.cancel, v -> exportDisposable.dispose());
+        snackbar.show();
+
+        exportDisposable = Observable.create(exporter)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doFinally(snackbar::dismiss)
+                .subscribe(
+                        progress -> snackbar.setText(getString(R.string.preferences_chat_exporting_db, progress.firstLong(), progress.secondLong())),
+                        (e) -> Snackbar.make(requireView(), R.string.preferences_chat_export_db_error, Snackbar.LENGTH_SHORT).show(),
+                        () -> Snackbar.make(requireView(), R.string.saved, Snackbar.LENGTH_SHORT).show()
+                );
+    }
+
+    /**
+     * Checks whether the document's name asks for a compressed export.
+     */
+    private static boolean isCompressed(@NonNull Context context, @NonNull Uri uri) {
+        var projection = new String[] {OpenableColumns.DISPLAY_NAME};
+        try (var cursor = context.getContentResolver().query(uri, projection, null, null, null)) {
+            if (cursor == null || !cursor.moveToFirst()) return false;
+            var name = cursor.getString(0);
+            return name != null && name.endsWith(".gz");
+        }
+    }
+
     @Override
     public void onDisplayPreferenceDialog(@NonNull Preference preference) {
         if (preference == name) {
@@ -15,6 +15,7 @@ import eu.jonahbauer.qed.model.room.Database;
 import eu.jonahbauer.qed.util.Actions;
 import eu.jonahbauer.qed.util.FileUtils;
 import eu.jonahbauer.qed.util.Preferences;
+import eu.jonahbauer.qed.util.cache.ThumbnailCache;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -111,8 +112,11 @@ public class GalleryPreferenceFragment extends AbstractPreferenceFragment implem
     @SuppressWarnings("ResultOfMethodCallIgnored")
     private void deleteThumbnails() {
         var context = requireContext().getApplicationContext();
-        Database.getInstance(requireContext()).albumDao().clearThumbnails()
-                .subscribeOn(Schedulers.io())
+        var completable = Completable.mergeArrayDelayError(
+                Database.getInstance(context).albumDao().clearThumbnails(),
+                Completable.fromAction(() -> ThumbnailCache.getInstance(context).clear())
+        );
+        completable.subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
                         () -> notify(context, getView(), R.string.deleted),
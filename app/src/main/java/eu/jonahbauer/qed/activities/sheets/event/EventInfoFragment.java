@@ -97,7 +97,7 @@ public class EventInfoFragment extends InfoFragment {
 
     @Override
     protected @NonNull String getOpenInBrowserLink() {
-        return String.format(Locale.ROOT, NetworkConstants.DATABASE_SERVER_EVENT, getEvent().getId());
+        return String.format(Locale.ROOT, NetworkConstants.getDatabaseServerEvent(), getEvent().getId());
     }
 
     public void toggleParticipantsExpanded(@Nullable View view) {
@@ -175,7 +175,7 @@ public class PersonInfoFragment extends InfoFragment {
 
     @Override
     protected @NonNull String getOpenInBrowserLink() {
-        return String.format(Locale.ROOT, NetworkConstants.DATABASE_SERVER_PERSON, getPerson().getId());
+        return String.format(Locale.ROOT, NetworkConstants.getDatabaseServerPerson(), getPerson().getId());
     }
 
     @BindingAdapter("person_addresses")
@@ -97,7 +97,7 @@ public class RegistrationInfoFragment extends InfoFragment {
 
     @Override
     protected @NonNull String getOpenInBrowserLink() {
-        return String.format(Locale.ROOT, NetworkConstants.DATABASE_SERVER_REGISTRATION, getRegistration().getId());
+        return String.format(Locale.ROOT, NetworkConstants.getDatabaseServerRegistration(), getRegistration().getId());
     }
 
     private static void showEvent(View view, Registration registration, Event event) {
@@ -0,0 +1,74 @@
+package eu.jonahbauer.qed.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.TypeConverters;
+
+import eu.jonahbauer.qed.model.room.Converters;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Chat statistics for a channel and period as computed from the {@link PosterStatistic} and
+ * {@link HourStatistic} aggregates.
+ */
+@Data
+public class ChatStatistics {
+    private final @NonNull Total total;
+    /**
+     * The number of posts per day, ordered by day. Days without posts are omitted.
+     */
+    private final @NonNull List<DayCount> days;
+    /**
+     * The number of posts per hour of the day, indexed by hour.
+     */
+    private final @NonNull long[] hours;
+    private final @NonNull List<NameCount> posters;
+    private final @NonNull List<NameCount> channels;
+
+    public double getBotShare() {
+        return total.getCount() == 0 ? 0 : (double) total.getBotCount() / total.getCount();
+    }
+
+    @Data
+    public static class Total {
+        @ColumnInfo(name = "count")
+        private long count;
+        @ColumnInfo(name = "bot_count")
+        private long botCount;
+        @ColumnInfo(name = "days")
+        private long days;
+        @ColumnInfo(name = "names")
+        private long names;
+    }
+
+    @Data
+    @TypeConverters(Converters.class)
+    public static class DayCount {
+        @ColumnInfo(name = "day")
+        private LocalDate day;
+        @ColumnInfo(name = "count")
+        private long count;
+    }
+
+    @Data
+    public static class HourCount {
+        @ColumnInfo(name = "hour")
+        private int hour;
+        @ColumnInfo(name = "count")
+        private long count;
+    }
+
+    @Data
+    public static class NameCount {
+        @ColumnInfo(name = "name")
+        private String name;
+        @ColumnInfo(name = "count")
+        private long count;
+        @ColumnInfo(name = "bot_count")
+        private long botCount;
+    }
+}
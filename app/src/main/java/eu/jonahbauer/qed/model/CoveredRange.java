@@ -0,0 +1,64 @@
+package eu.jonahbauer.qed.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * A range of {@linkplain Message#getId() message ids} for which all posts of one channel are stored
+ * in the local database. Ranges of the same channel are kept disjoint and non-adjacent by the
+ * {@link eu.jonahbauer.qed.model.room.MessageDao}, i.e. every range is as large as possible.
+ */
+@Data
+@Entity(
+        tableName = "covered_range",
+        primaryKeys = {"channel", "from_id"}
+)
+public class CoveredRange {
+    @NonNull
+    @ColumnInfo(name = "channel")
+    private final String channel;
+
+    /**
+     * The first id of this range (inclusive).
+     */
+    @ColumnInfo(name = "from_id")
+    private final long from;
+
+    /**
+     * The last id of this range (inclusive).
+     */
+    @ColumnInfo(name = "to_id")
+    private final long to;
+
+    /**
+     * Computes the sub-ranges of {@code [from, to]} that are not covered by any of the given ranges.
+     * @param ranges disjoint ranges sorted by their {@linkplain #getFrom() start}
+     * @return a list of disjoint ranges {@code (from, to)} (both inclusive) sorted in ascending order
+     */
+    public static @NonNull List<LongLongPair> gaps(@NonNull List<CoveredRange> ranges, long from, long to) {
+        var out = new ArrayList<LongLongPair>();
+        long next = from;
+        for (CoveredRange range : ranges) {
+            if (next > to) break;
+            if (range.getTo() < next) continue;
+            if (range.getFrom() > to) break;
+
+            if (range.getFrom() > next) {
+                out.add(LongLongPair.of(next, range.getFrom() - 1));
+            }
+            next = range.getTo() + 1;
+        }
+        if (next <= to) {
+            out.add(LongLongPair.of(next, to));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,46 @@
+package eu.jonahbauer.qed.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.TypeConverters;
+
+import eu.jonahbauer.qed.model.room.Converters;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+/**
+ * The number of messages posted in one channel during one hour of one day.
+ * @see PosterStatistic
+ */
+@Data
+@Entity(
+        tableName = "hour_statistic",
+        primaryKeys = {"channel", "day", "hour"},
+        indices = {@Index("day")}
+)
+@TypeConverters(Converters.class)
+public class HourStatistic {
+    @NonNull
+    @ColumnInfo(name = "channel")
+    private final String channel;
+
+    /**
+     * The day (in the {@linkplain eu.jonahbauer.qed.network.util.NetworkConstants#SERVER_TIME_ZONE server time zone}).
+     */
+    @NonNull
+    @ColumnInfo(name = "day")
+    private final LocalDate day;
+
+    /**
+     * The hour of the day from 0 to 23.
+     */
+    @ColumnInfo(name = "hour")
+    private final int hour;
+
+    @ColumnInfo(name = "count")
+    private long count;
+}
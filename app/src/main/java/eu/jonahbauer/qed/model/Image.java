@@ -114,7 +114,13 @@ public class Image implements Parcelable, HasId {
     @ColumnInfo(name = "original")
     private boolean original;
 
+    /**
+     * The key of this image's thumbnail in the {@link eu.jonahbauer.qed.util.cache.ThumbnailCache}.
+     */
     @ColumnInfo(name = "thumbnail")
+    private String thumbnailKey;
+
+    @Ignore
     private Bitmap thumbnail;
 
     @ColumnInfo(name = "data")
@@ -137,7 +143,8 @@ public class Image implements Parcelable, HasId {
         this.setCreationTime(image.getCreationTime());
         this.setOriginal(image.isOriginal());
         this.setLoaded(image.isLoaded());
-        this.setThumbnail(image.getThumbnail());
+        this.setThumbnailKey(image.getThumbnailKey());
+        if (image.getThumbnail() != null) this.setThumbnail(image.getThumbnail());
         this.setData(image.getData());
     }
 
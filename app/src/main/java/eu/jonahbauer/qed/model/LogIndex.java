@@ -0,0 +1,149 @@
+package eu.jonahbauer.qed.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * An inverted index over the names and texts of the messages of a chat log, mapping each
+ * lower-cased token to the positions of the messages containing it. Messages are assigned
+ * consecutive positions in the order they are {@linkplain #accept(Message) added}, i.e. the
+ * positions match the indices of a list filled with the same messages.
+ * <br>
+ * The index is meant to be built on a background thread while the log is being parsed and must not
+ * be modified once it is queried.
+ */
+public class LogIndex implements Consumer<Message> {
+    private final Object2ObjectOpenHashMap<String, IntArrayList> mPostings = new Object2ObjectOpenHashMap<>();
+    private int mSize;
+
+    /**
+     * All tokens in lexicographic order, built lazily on the first query.
+     */
+    private String[] mTokens;
+
+    @Override
+    public void accept(@NonNull Message message) {
+        add(message.getName(), message.getMessage());
+    }
+
+    /**
+     * Adds a message consisting of the given texts at the next position.
+     */
+    @VisibleForTesting
+    void add(@NonNull String... texts) {
+        int position = mSize++;
+        for (String text : texts) {
+            add(position, text);
+        }
+    }
+
+    /**
+     * Returns the number of indexed messages.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Finds the positions of all messages containing every token of the given query. The last
+     * token of the query is matched as a prefix, so that results are available while the user is
+     * still typing.
+     * @return the matching positions in ascending order
+     */
+    public synchronized @NonNull IntList find(@NonNull String query) {
+        var tokens = tokenize(query);
+        if (tokens.isEmpty()) return new IntArrayList();
+
+        if (mTokens == null) {
+            mTokens = mPostings.keySet().toArray(new String[0]);
+            Arrays.sort(mTokens);
+        }
+
+        BitSet result = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            var token = tokens.get(i);
+            var matches = i == tokens.size() - 1 ? findPrefix(token) : findExact(token);
+
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) break;
+        }
+
+        var out = new IntArrayList(result.cardinality());
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            out.add(i);
+        }
+        return out;
+    }
+
+    private @NonNull BitSet findExact(@NonNull String token) {
+        var out = new BitSet(mSize);
+        var postings = mPostings.get(token);
+        if (postings != null) set(out, postings);
+        return out;
+    }
+
+    private @NonNull BitSet findPrefix(@NonNull String prefix) {
+        var out = new BitSet(mSize);
+        int index = Arrays.binarySearch(mTokens, prefix);
+        if (index < 0) index = -index - 1;
+
+        while (index < mTokens.length && mTokens[index].startsWith(prefix)) {
+            set(out, mPostings.get(mTokens[index]));
+            index++;
+        }
+        return out;
+    }
+
+    private void add(int position, @NonNull String text) {
+        for (String token : tokenize(text)) {
+            var postings = mPostings.get(token);
+            if (postings == null) {
+                postings = new IntArrayList(1);
+                mPostings.put(token, postings);
+            } else if (postings.getInt(postings.size() - 1) == position) {
+                continue;
+            }
+            postings.add(position);
+        }
+    }
+
+    private static void set(@NonNull BitSet bits, @NonNull IntArrayList positions) {
+        for (int i = 0, size = positions.size(); i < size; i++) {
+            bits.set(positions.getInt(i));
+        }
+    }
+
+    /**
+     * Splits the given text into lower-cased tokens consisting of letters and digits.
+     */
+    @VisibleForTesting
+    static @NonNull List<String> tokenize(@NonNull String text) {
+        var out = new ArrayList<String>();
+        int start = -1;
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            boolean part = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (part && start < 0) {
+                start = i;
+            } else if (!part && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return out;
+    }
+}
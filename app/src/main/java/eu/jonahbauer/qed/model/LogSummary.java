@@ -0,0 +1,133 @@
+package eu.jonahbauer.qed.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Counts the messages of a chat log per name, channel, hour of the day and day of the week. The
+ * summary is updated message by message and does not retain the messages themselves. Hence, it
+ * can be computed while parsing logs that are much too large to be loaded at once.
+ */
+public class LogSummary implements Consumer<Message> {
+    private final Object2IntOpenHashMap<String> mNames = new Object2IntOpenHashMap<>();
+    private final Object2IntOpenHashMap<String> mBotNames = new Object2IntOpenHashMap<>();
+    private final Object2IntOpenHashMap<String> mChannels = new Object2IntOpenHashMap<>();
+    private final Object2IntOpenHashMap<String> mBotChannels = new Object2IntOpenHashMap<>();
+    private final int[] mHours = new int[24];
+    private final int[] mWeekdays = new int[7];
+
+    private long mCount;
+    private long mBotCount;
+    private @Nullable Instant mFirst;
+    private @Nullable Instant mLast;
+
+    @Override
+    public void accept(@NonNull Message message) {
+        mCount++;
+        mNames.addTo(message.getName(), 1);
+        mChannels.addTo(message.getChannel(), 1);
+        if (message.isBot()) {
+            mBotCount++;
+            mBotNames.addTo(message.getName(), 1);
+            mBotChannels.addTo(message.getChannel(), 1);
+        }
+
+        var date = message.getDate();
+        var dateTime = ZonedDateTime.ofInstant(date, NetworkConstants.SERVER_TIME_ZONE);
+        mHours[dateTime.getHour()]++;
+        mWeekdays[dateTime.getDayOfWeek().ordinal()]++;
+
+        if (mFirst == null || date.isBefore(mFirst)) mFirst = date;
+        if (mLast == null || date.isAfter(mLast)) mLast = date;
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getBotCount() {
+        return mBotCount;
+    }
+
+    public double getBotShare() {
+        return mCount == 0 ? 0 : (double) mBotCount / mCount;
+    }
+
+    /**
+     * Returns the number of distinct names.
+     */
+    public int getNameCount() {
+        return mNames.size();
+    }
+
+    public @Nullable Instant getFirst() {
+        return mFirst;
+    }
+
+    public @Nullable Instant getLast() {
+        return mLast;
+    }
+
+    /**
+     * Returns the number of posts per hour of the day in the server time zone, indexed by hour.
+     */
+    public @NonNull long[] getHours() {
+        return toLongs(mHours);
+    }
+
+    /**
+     * Returns the number of posts per day of the week, starting with monday.
+     */
+    public @NonNull long[] getWeekdays() {
+        return toLongs(mWeekdays);
+    }
+
+    /**
+     * Returns the {@code limit} names with the most posts in descending order.
+     */
+    public @NonNull List<ChatStatistics.NameCount> getNames(int limit) {
+        return top(mNames, mBotNames, limit);
+    }
+
+    /**
+     * Returns all channels in descending order of their number of posts.
+     */
+    public @NonNull List<ChatStatistics.NameCount> getChannels() {
+        return top(mChannels, mBotChannels, Integer.MAX_VALUE);
+    }
+
+    private static @NonNull List<ChatStatistics.NameCount> top(@NonNull Object2IntOpenHashMap<String> counts,
+                                                               @NonNull Object2IntOpenHashMap<String> botCounts,
+                                                               int limit) {
+        var entries = new ArrayList<>(counts.object2IntEntrySet());
+        entries.sort((a, b) -> Integer.compare(b.getIntValue(), a.getIntValue()));
+
+        var out = new ArrayList<ChatStatistics.NameCount>(Math.min(limit, entries.size()));
+        for (Object2IntMap.Entry<String> entry : entries) {
+            if (out.size() >= limit) break;
+
+            var count = new ChatStatistics.NameCount();
+            count.setName(entry.getKey());
+            count.setCount(entry.getIntValue());
+            count.setBotCount(botCounts.getInt(entry.getKey()));
+            out.add(count);
+        }
+        return out;
+    }
+
+    private static @NonNull long[] toLongs(@NonNull int[] values) {
+        var out = new long[values.length];
+        for (int i = 0; i < values.length; i++) out[i] = values[i];
+        return out;
+    }
+}
@@ -1,7 +1,6 @@
 package eu.jonahbauer.qed.model;
 
 import android.content.Context;
-import android.graphics.Color;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.Log;
@@ -14,6 +13,7 @@ import eu.jonahbauer.qed.model.parcel.LambdaCreator;
 import eu.jonahbauer.qed.model.parcel.ParcelExtensions;
 import eu.jonahbauer.qed.model.room.Converters;
 import eu.jonahbauer.qed.network.util.NetworkConstants;
+import eu.jonahbauer.qed.util.ColorInts;
 import eu.jonahbauer.qed.util.Colors;
 import eu.jonahbauer.qed.util.MessageUtils;
 import lombok.AccessLevel;
@@ -43,7 +43,10 @@ import java.util.Objects;
 @TypeConverters(Converters.class)
 public class Message implements Parcelable, Comparable<Message>, Serializable, HasId {
     private static final String LOG_TAG = Message.class.getName();
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+    /**
+     * The date format used by the chat server.
+     */
+    public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
             .ofPattern("yyyy-MM-dd HH:mm:ss")
             .withLocale(Locale.GERMANY)
             .withZone(NetworkConstants.SERVER_TIME_ZONE);
@@ -144,11 +147,11 @@ public class Message implements Parcelable, Comparable<Message>, Serializable, H
         
         int colorInt, transformedColorInt;
         try {
-            colorInt = Color.parseColor("#" + color);
+            colorInt = ColorInts.parseColor("#" + color);
             transformedColorInt = Colors.transformColor(colorInt);
         } catch (IllegalArgumentException e) {
-            colorInt = Color.WHITE;
-            transformedColorInt = Color.BLACK;
+            colorInt = ColorInts.WHITE;
+            transformedColorInt = ColorInts.BLACK;
         }
         this.colorInt = colorInt;
         this.transformedColorInt = transformedColorInt;
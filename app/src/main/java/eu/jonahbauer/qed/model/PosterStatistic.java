@@ -0,0 +1,58 @@
+package eu.jonahbauer.qed.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.TypeConverters;
+
+import eu.jonahbauer.qed.model.room.Converters;
+import eu.jonahbauer.qed.model.room.MessageDao;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+/**
+ * The number of messages posted by one poster in one channel on one day. Rows of this table are
+ * maintained incrementally by the {@link MessageDao} whenever messages are inserted, so that chat
+ * statistics never have to scan the message table.
+ */
+@Data
+@Entity(
+        tableName = "poster_statistic",
+        primaryKeys = {"channel", "day", "name", "user_id"},
+        indices = {@Index("day")}
+)
+@TypeConverters(Converters.class)
+public class PosterStatistic {
+    @NonNull
+    @ColumnInfo(name = "channel")
+    private final String channel;
+
+    /**
+     * The day (in the {@linkplain eu.jonahbauer.qed.network.util.NetworkConstants#SERVER_TIME_ZONE server time zone}).
+     */
+    @NonNull
+    @ColumnInfo(name = "day")
+    private final LocalDate day;
+
+    /**
+     * The {@linkplain Message#getName() trimmed name}.
+     */
+    @NonNull
+    @ColumnInfo(name = "name")
+    private final String name;
+
+    @ColumnInfo(name = "user_id")
+    private final long userId;
+
+    @ColumnInfo(name = "count")
+    private long count;
+
+    /**
+     * The number of messages with a {@linkplain Message#isBot() bot tag}.
+     */
+    @ColumnInfo(name = "bot_count")
+    private long botCount;
+}
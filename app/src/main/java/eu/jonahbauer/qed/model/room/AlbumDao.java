@@ -1,7 +1,5 @@
 package eu.jonahbauer.qed.model.room;
 
-import android.graphics.Bitmap;
-
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
@@ -47,7 +45,7 @@ public interface AlbumDao {
     Completable insertOrUpdateImage(Image image);
 
     @Query("UPDATE image SET thumbnail = :thumbnail WHERE id = :id")
-    Completable insertThumbnail(long id, Bitmap thumbnail);
+    Completable insertThumbnail(long id, String thumbnail);
 
     @Query("UPDATE image SET path = :path, original = :original, format = :format WHERE id = :id")
     Completable insertImagePath(long id, String path, String format, boolean original);
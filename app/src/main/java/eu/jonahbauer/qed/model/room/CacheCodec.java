@@ -0,0 +1,404 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import eu.jonahbauer.qed.model.Event;
+import eu.jonahbauer.qed.model.Person;
+import eu.jonahbauer.qed.model.Registration;
+import eu.jonahbauer.qed.model.contact.ContactDetail;
+import eu.jonahbauer.qed.model.util.ParsedInstant;
+import eu.jonahbauer.qed.model.util.ParsedLocalDate;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Encodes the objects cached by the {@link DatabaseCacheDao} as JSON. Unlike a marshalled
+ * {@link android.os.Parcel}, the encoding does not depend on the platform version. Unknown keys are
+ * ignored and missing keys are left unset, so that fields can be added without invalidating the cache.
+ */
+@UtilityClass
+class CacheCodec {
+
+    //<editor-fold desc="Person" defaultstate="collapsed">
+    static @NonNull String encode(@NonNull Person person) {
+        try {
+            return toJson(person).toString();
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Could not encode " + person + ".", e);
+        }
+    }
+
+    static @NonNull Person decodePerson(@NonNull String json) throws JSONException {
+        return person(new JSONObject(json));
+    }
+
+    private static @NonNull JSONObject toJson(@NonNull Person person) throws JSONException {
+        var json = new JSONObject();
+        json.put("id", person.getId());
+        json.put("username", person.getUsername());
+        json.put("first_name", person.getFirstName());
+        json.put("last_name", person.getLastName());
+        json.put("full_name", person.getFullName());
+        json.put("email", person.getEmail());
+
+        json.put("gender", name(person.getGender()));
+        json.put("birthday", toJson(person.getBirthday()));
+
+        json.put("home_station", person.getHomeStation());
+        json.put("railcard", person.getRailcard());
+        json.put("food", person.getFood());
+        json.put("notes", person.getNotes());
+
+        json.put("member", person.getMember());
+        json.put("active", person.getActive());
+        json.put("date_of_joining", toJson(person.getDateOfJoining()));
+        json.put("date_of_quitting", toJson(person.getDateOfQuitting()));
+        json.put("member_until", toJson(person.getMemberUntil()));
+        json.put("paid_until", toJson(person.getPaidUntil()));
+
+        json.put("loaded", toJson(person.getLoaded()));
+
+        var contacts = new JSONArray();
+        for (ContactDetail contact : person.getContacts()) {
+            var entry = new JSONObject();
+            entry.put("label", contact.getLabel());
+            entry.put("value", contact.getValue());
+            contacts.put(entry);
+        }
+        json.put("contacts", contacts);
+        json.put("addresses", toJson(person.getAddresses()));
+
+        var events = new JSONArray();
+        for (Registration registration : person.getEvents()) {
+            events.put(toJson(registration));
+        }
+        json.put("events", events);
+        json.put("groups", toJson(person.getGroups()));
+
+        var payments = new JSONArray();
+        for (Person.Payment payment : person.getPayments()) {
+            var entry = new JSONObject();
+            entry.put("start", toJson(payment.getStart()));
+            entry.put("end", toJson(payment.getEnd()));
+            entry.put("comment", payment.getComment());
+            entry.put("type", name(payment.getType()));
+            entry.put("amount", payment.getAmount());
+            payments.put(entry);
+        }
+        json.put("payments", payments);
+
+        var privacy = person.getPrivacy();
+        if (privacy != null) {
+            var array = new JSONArray();
+            privacy.forEach(value -> array.put(value.name()));
+            json.put("privacy", array);
+        }
+        return json;
+    }
+
+    private static @NonNull Person person(@NonNull JSONObject json) throws JSONException {
+        var person = new Person(json.getLong("id"));
+        person.setUsername(string(json, "username"));
+        person.setFirstName(string(json, "first_name"));
+        person.setLastName(string(json, "last_name"));
+        person.setFullName(string(json, "full_name"));
+        person.setEmail(string(json, "email"));
+
+        person.setGender(enumValue(json, "gender", Person.Gender.class));
+        person.setBirthday(localDate(json, "birthday"));
+
+        person.setHomeStation(string(json, "home_station"));
+        person.setRailcard(string(json, "railcard"));
+        person.setFood(string(json, "food"));
+        person.setNotes(string(json, "notes"));
+
+        person.setMember(bool(json, "member"));
+        person.setActive(bool(json, "active"));
+        person.setDateOfJoining(localDate(json, "date_of_joining"));
+        person.setDateOfQuitting(localDate(json, "date_of_quitting"));
+        person.setMemberUntil(localDate(json, "member_until"));
+        person.setPaidUntil(localDate(json, "paid_until"));
+
+        person.setLoaded(instant(json, "loaded"));
+
+        var contacts = json.optJSONArray("contacts");
+        if (contacts != null) {
+            for (int i = 0; i < contacts.length(); i++) {
+                var entry = contacts.getJSONObject(i);
+                person.getContacts().add(new ContactDetail(entry.getString("label"), entry.getString("value")));
+            }
+        }
+        strings(json, "addresses", person.getAddresses());
+
+        var events = json.optJSONArray("events");
+        if (events != null) {
+            for (int i = 0; i < events.length(); i++) {
+                person.getEvents().add(registration(events.getJSONObject(i)));
+            }
+        }
+        strings(json, "groups", person.getGroups());
+
+        var payments = json.optJSONArray("payments");
+        if (payments != null) {
+            for (int i = 0; i < payments.length(); i++) {
+                var entry = payments.getJSONObject(i);
+                var payment = new Person.Payment();
+                payment.setStart(localDate(entry, "start"));
+                payment.setEnd(localDate(entry, "end"));
+                payment.setComment(string(entry, "comment"));
+                payment.setType(enumValue(entry, "type", Person.Payment.Type.class));
+                payment.setAmount(number(entry, "amount"));
+                person.getPayments().add(payment);
+            }
+        }
+
+        var privacy = json.optJSONArray("privacy");
+        if (privacy != null) {
+            var set = EnumSet.noneOf(Person.Privacy.class);
+            for (int i = 0; i < privacy.length(); i++) {
+                set.add(Person.Privacy.valueOf(privacy.getString(i)));
+            }
+            person.setPrivacy(set);
+        }
+        return person;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Event" defaultstate="collapsed">
+    static @NonNull String encode(@NonNull Event event) {
+        try {
+            var json = new JSONObject();
+            json.put("id", event.getId());
+            json.put("title", event.getTitle());
+            json.put("cost", event.getCost());
+            json.put("payment_reference", event.getPaymentReference());
+            json.put("notes", event.getNotes());
+            json.put("max_participants", event.getMaxParticipants());
+
+            json.put("start", toJson(event.getStart()));
+            json.put("end", toJson(event.getEnd()));
+            json.put("deadline", toJson(event.getDeadline()));
+
+            json.put("hotel", event.getHotel());
+            json.put("hotel_address", event.getHotelAddress());
+
+            json.put("email_orga", event.getEmailOrga());
+            json.put("email_all", event.getEmailAll());
+
+            var participants = new JSONArray();
+            for (Registration registration : event.getParticipants()) {
+                participants.put(toJson(registration));
+            }
+            json.put("participants", participants);
+            json.put("loaded", toJson(event.getLoaded()));
+            return json.toString();
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Could not encode " + event + ".", e);
+        }
+    }
+
+    static @NonNull Event decodeEvent(@NonNull String string) throws JSONException {
+        var json = new JSONObject(string);
+        var event = new Event(json.getLong("id"));
+        event.setTitle(string(json, "title"));
+        event.setCost(number(json, "cost"));
+        event.setPaymentReference(string(json, "payment_reference"));
+        event.setNotes(string(json, "notes"));
+        event.setMaxParticipants(json.isNull("max_participants") ? null : json.getInt("max_participants"));
+
+        event.setStart(localDate(json, "start"));
+        event.setEnd(localDate(json, "end"));
+        event.setDeadline(localDate(json, "deadline"));
+
+        event.setHotel(string(json, "hotel"));
+        event.setHotelAddress(string(json, "hotel_address"));
+
+        event.setEmailOrga(string(json, "email_orga"));
+        event.setEmailAll(string(json, "email_all"));
+
+        var participants = json.optJSONArray("participants");
+        if (participants != null) {
+            for (int i = 0; i < participants.length(); i++) {
+                event.getParticipants().add(registration(participants.getJSONObject(i)));
+            }
+        }
+        event.setLoaded(instant(json, "loaded"));
+        return event;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Registration" defaultstate="collapsed">
+    static @NonNull String encode(@NonNull Registration registration) {
+        try {
+            return toJson(registration).toString();
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Could not encode " + registration + ".", e);
+        }
+    }
+
+    static @NonNull Registration decodeRegistration(@NonNull String json) throws JSONException {
+        return registration(new JSONObject(json));
+    }
+
+    private static @NonNull JSONObject toJson(@NonNull Registration registration) throws JSONException {
+        var json = new JSONObject();
+        json.put("id", registration.getId());
+        json.put("status", name(registration.getStatus()));
+        json.put("organizer", registration.getOrganizer());
+
+        json.put("event_id", registration.getEventId());
+        json.put("event_title", registration.getEventTitle());
+
+        json.put("person_id", registration.getPersonId());
+        json.put("person_name", registration.getPersonName());
+        json.put("person_birthday", toJson(registration.getPersonBirthday()));
+        json.put("person_gender", name(registration.getPersonGender()));
+        json.put("person_mail", registration.getPersonMail());
+        json.put("person_address", registration.getPersonAddress());
+        json.put("person_phone", registration.getPersonPhone());
+
+        json.put("time_of_arrival", toJson(registration.getTimeOfArrival()));
+        json.put("time_of_departure", toJson(registration.getTimeOfDeparture()));
+        json.put("source_station", registration.getSourceStation());
+        json.put("target_station", registration.getTargetStation());
+        json.put("railcard", registration.getRailcard());
+        json.put("overnight_stays", registration.getOvernightStays());
+
+        json.put("food", registration.getFood());
+        json.put("talks", registration.getTalks());
+        json.put("notes", registration.getNotes());
+
+        json.put("payment_amount", registration.getPaymentAmount());
+        json.put("payment_done", registration.getPaymentDone());
+        json.put("payment_time", toJson(registration.getPaymentTime()));
+        json.put("member_abatement", registration.getMemberAbatement());
+        json.put("other_abatement", registration.getOtherAbatement());
+
+        json.put("loaded", toJson(registration.getLoaded()));
+        return json;
+    }
+
+    private static @NonNull Registration registration(@NonNull JSONObject json) throws JSONException {
+        var registration = new Registration(json.getLong("id"));
+        registration.setStatus(enumValue(json, "status", Registration.Status.class));
+        registration.setOrganizer(bool(json, "organizer"));
+
+        registration.setEventId(json.optLong("event_id", Event.NO_ID));
+        registration.setEventTitle(string(json, "event_title"));
+
+        registration.setPersonId(json.optLong("person_id", Person.NO_ID));
+        registration.setPersonName(string(json, "person_name"));
+        registration.setPersonBirthday(localDate(json, "person_birthday"));
+        registration.setPersonGender(enumValue(json, "person_gender", Person.Gender.class));
+        registration.setPersonMail(string(json, "person_mail"));
+        registration.setPersonAddress(string(json, "person_address"));
+        registration.setPersonPhone(string(json, "person_phone"));
+
+        registration.setTimeOfArrival(parsedInstant(json, "time_of_arrival"));
+        registration.setTimeOfDeparture(parsedInstant(json, "time_of_departure"));
+        registration.setSourceStation(string(json, "source_station"));
+        registration.setTargetStation(string(json, "target_station"));
+        registration.setRailcard(string(json, "railcard"));
+        registration.setOvernightStays(json.isNull("overnight_stays") ? null : json.getInt("overnight_stays"));
+
+        registration.setFood(string(json, "food"));
+        registration.setTalks(string(json, "talks"));
+        registration.setNotes(string(json, "notes"));
+
+        registration.setPaymentAmount(number(json, "payment_amount"));
+        registration.setPaymentDone(bool(json, "payment_done"));
+        registration.setPaymentTime(localDate(json, "payment_time"));
+        registration.setMemberAbatement(bool(json, "member_abatement"));
+        registration.setOtherAbatement(string(json, "other_abatement"));
+
+        registration.setLoaded(instant(json, "loaded"));
+        return registration;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Values" defaultstate="collapsed">
+    private static @Nullable String name(@Nullable Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private static @Nullable JSONObject toJson(@Nullable ParsedLocalDate date) throws JSONException {
+        if (date == null) return null;
+        var json = new JSONObject();
+        json.put("string", date.getString());
+        json.put("date", date.getLocalDate() == null ? null : date.getLocalDate().toString());
+        return json;
+    }
+
+    private static @Nullable JSONObject toJson(@Nullable ParsedInstant instant) throws JSONException {
+        if (instant == null) return null;
+        var json = new JSONObject();
+        json.put("string", instant.getString());
+        json.put("instant", toJson(instant.getInstant()));
+        return json;
+    }
+
+    private static @Nullable String toJson(@Nullable Instant instant) {
+        return instant == null ? null : instant.toString();
+    }
+
+    private static @NonNull JSONArray toJson(@NonNull Collection<String> strings) {
+        var json = new JSONArray();
+        strings.forEach(json::put);
+        return json;
+    }
+
+    private static @Nullable String string(@NonNull JSONObject json, @NonNull String key) throws JSONException {
+        return json.isNull(key) ? null : json.getString(key);
+    }
+
+    private static @Nullable Boolean bool(@NonNull JSONObject json, @NonNull String key) throws JSONException {
+        return json.isNull(key) ? null : json.getBoolean(key);
+    }
+
+    private static @Nullable Double number(@NonNull JSONObject json, @NonNull String key) throws JSONException {
+        return json.isNull(key) ? null : json.getDouble(key);
+    }
+
+    private static @Nullable <E extends Enum<E>> E enumValue(@NonNull JSONObject json, @NonNull String key,
+                                                             @NonNull Class<E> type) throws JSONException {
+        return json.isNull(key) ? null : Enum.valueOf(type, json.getString(key));
+    }
+
+    private static @Nullable Instant instant(@NonNull JSONObject json, @NonNull String key) throws JSONException {
+        return json.isNull(key) ? null : Instant.parse(json.getString(key));
+    }
+
+    private static @Nullable ParsedLocalDate localDate(@NonNull JSONObject json, @NonNull String key) throws JSONException {
+        if (json.isNull(key)) return null;
+        var date = json.getJSONObject(key);
+        return new ParsedLocalDate(
+                date.getString("string"),
+                date.isNull("date") ? null : LocalDate.parse(date.getString("date"))
+        );
+    }
+
+    private static @Nullable ParsedInstant parsedInstant(@NonNull JSONObject json, @NonNull String key) throws JSONException {
+        if (json.isNull(key)) return null;
+        var instant = json.getJSONObject(key);
+        return new ParsedInstant(instant.getString("string"), instant(instant, "instant"));
+    }
+
+    private static void strings(@NonNull JSONObject json, @NonNull String key, @NonNull Collection<String> out) throws JSONException {
+        var array = json.optJSONArray(key);
+        if (array == null) return;
+        for (int i = 0; i < array.length(); i++) {
+            out.add(array.getString(i));
+        }
+    }
+    //</editor-fold>
+}
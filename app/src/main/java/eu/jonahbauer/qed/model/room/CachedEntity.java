@@ -0,0 +1,21 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.annotation.Nullable;
+
+/**
+ * An offline copy of an object from the qed database. Objects are stored as JSON, see {@link CacheCodec}.
+ * @see DatabaseCacheDao
+ */
+public interface CachedEntity {
+    long getId();
+
+    /**
+     * The object as it appears in a list, or {@code null} if it is not part of the cached list.
+     */
+    @Nullable String getSummary();
+
+    /**
+     * The fully loaded object, or {@code null} if it has not been loaded yet.
+     */
+    @Nullable String getDetail();
+}
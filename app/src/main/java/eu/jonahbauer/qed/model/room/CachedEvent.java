@@ -0,0 +1,27 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import lombok.Data;
+
+/**
+ * An offline copy of a {@link eu.jonahbauer.qed.model.Event}.
+ */
+@Data
+@Entity(tableName = "event_cache")
+public class CachedEvent implements CachedEntity {
+    @PrimaryKey
+    @ColumnInfo(name = "id")
+    private final long id;
+
+    @Nullable
+    @ColumnInfo(name = "summary", typeAffinity = ColumnInfo.TEXT)
+    private final String summary;
+
+    @Nullable
+    @ColumnInfo(name = "detail", typeAffinity = ColumnInfo.TEXT)
+    private final String detail;
+}
@@ -0,0 +1,30 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import lombok.Data;
+
+/**
+ * An offline copy of a {@link eu.jonahbauer.qed.model.Registration}.
+ */
+@Data
+@Entity(tableName = "registration_cache")
+public class CachedRegistration implements CachedEntity {
+    @PrimaryKey
+    @ColumnInfo(name = "id")
+    private final long id;
+
+    /**
+     * Always {@code null}, since there is no list of all registrations.
+     */
+    @Nullable
+    @ColumnInfo(name = "summary", typeAffinity = ColumnInfo.TEXT)
+    private final String summary;
+
+    @Nullable
+    @ColumnInfo(name = "detail", typeAffinity = ColumnInfo.TEXT)
+    private final String detail;
+}
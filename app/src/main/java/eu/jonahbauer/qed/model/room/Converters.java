@@ -1,8 +1,5 @@
 package eu.jonahbauer.qed.model.room;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-
 import androidx.room.TypeConverter;
 
 import eu.jonahbauer.qed.model.Person;
@@ -11,7 +8,6 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.LongBuffer;
 import java.time.Instant;
@@ -128,22 +124,6 @@ public class Converters {
     }
     //</editor-fold>
 
-    @TypeConverter
-    public static Bitmap bitmapFromBlob(byte[] blob) {
-        if (blob == null) return null;
-
-        return BitmapFactory.decodeByteArray(blob, 0, blob.length);
-    }
-
-    @TypeConverter
-    public static byte[] bitmapToBlob(Bitmap bitmap) {
-        if (bitmap == null) return null;
-
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 100, stream);
-        return stream.toByteArray();
-    }
-
     @TypeConverter
     public static List<Person> personListFromString(String str) {
         try {
@@ -4,21 +4,32 @@ import android.content.Context;
 
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 
+import eu.jonahbauer.qed.BuildConfig;
 import eu.jonahbauer.qed.model.Album;
+import eu.jonahbauer.qed.model.CoveredRange;
+import eu.jonahbauer.qed.model.HourStatistic;
 import eu.jonahbauer.qed.model.Image;
 import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.model.PosterStatistic;
 
-@androidx.room.Database(entities = {Album.class, Message.class, Image.class}, version = 10, exportSchema = false)
+@androidx.room.Database(entities = {
+        Album.class, Message.class, Image.class, PosterStatistic.class, HourStatistic.class,
+        CachedPerson.class, CachedEvent.class, CachedRegistration.class, CoveredRange.class
+}, version = 15, exportSchema = false)
 public abstract class Database extends RoomDatabase {
     private static final String DB_NAME = "qed_db";
     private static Database INSTANCE;
 
     public static synchronized Database getInstance(Context context) {
         if (INSTANCE == null) {
-            INSTANCE = Room.databaseBuilder(context.getApplicationContext(), Database.class, DB_NAME)
-                           .fallbackToDestructiveMigration()
-                           .build();
+            var builder = Room.databaseBuilder(context.getApplicationContext(), Database.class, DB_NAME)
+                              .fallbackToDestructiveMigration();
+            if (BuildConfig.DEBUG) {
+                builder.openHelperFactory(QueryProfiler.getInstance().wrap(new FrameworkSQLiteOpenHelperFactory()));
+            }
+            INSTANCE = builder.build();
         }
 
         return INSTANCE;
@@ -26,4 +37,5 @@ public abstract class Database extends RoomDatabase {
 
     public abstract AlbumDao albumDao();
     public abstract MessageDao messageDao();
+    public abstract DatabaseCacheDao databaseCacheDao();
 }
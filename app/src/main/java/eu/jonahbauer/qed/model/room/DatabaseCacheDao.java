@@ -0,0 +1,304 @@
+package eu.jonahbauer.qed.model.room;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import eu.jonahbauer.qed.model.Event;
+import eu.jonahbauer.qed.model.HasId;
+import eu.jonahbauer.qed.model.Person;
+import eu.jonahbauer.qed.model.Registration;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Provides access to the offline copies of persons, events and registrations from the qed database.
+ * Lists are only written when they differ from the cached copy, so that callers can avoid
+ * redundant updates of the ui.
+ * @see CachedEntity
+ */
+@Dao
+public abstract class DatabaseCacheDao {
+    private static final String LOG_TAG = DatabaseCacheDao.class.getName();
+
+    /**
+     * The maximum number of bind parameters per statement supported by older SQLite versions.
+     */
+    private static final int MAX_PARAMETERS = 999;
+
+    //<editor-fold desc="Person" defaultstate="collapsed">
+    /**
+     * Returns the cached person list or nothing if there is no cached person list.
+     */
+    public Maybe<List<Person>> getPersons() {
+        return Maybe.fromCallable(() -> decodeSummaries(findPersonSummaries(), CacheCodec::decodePerson));
+    }
+
+    /**
+     * Returns the cached copy of the given person, preferring fully loaded copies over list entries.
+     */
+    public Maybe<Person> getPerson(long id) {
+        return Maybe.fromCallable(() -> decode(findPerson(id), CacheCodec::decodePerson));
+    }
+
+    /**
+     * Replaces the cached person list.
+     * @return {@code true} iff the list differs from the cached list
+     */
+    public Single<Boolean> updatePersons(@NonNull Collection<Person> persons) {
+        return Single.fromCallable(() -> updatePersonsSync(persons));
+    }
+
+    @Transaction
+    public boolean updatePersonsSync(@NonNull Collection<Person> persons) {
+        return updateSummaries(
+                persons, findPersonSummaries(), CacheCodec::encode,
+                (id, summary) -> {
+                    createPerson(id);
+                    updatePersonSummary(id, summary);
+                },
+                this::deletePersons
+        );
+    }
+
+    public Completable updatePerson(@NonNull Person person) {
+        return Completable.fromAction(() -> updatePersonSync(person));
+    }
+
+    @Transaction
+    public void updatePersonSync(@NonNull Person person) {
+        updateDetail(person, CacheCodec::encode, (id, detail) -> {
+            createPerson(id);
+            updatePersonDetail(id, detail);
+        });
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Event" defaultstate="collapsed">
+    /**
+     * Returns the cached event list or nothing if there is no cached event list.
+     */
+    public Maybe<List<Event>> getEvents() {
+        return Maybe.fromCallable(() -> decodeSummaries(findEventSummaries(), CacheCodec::decodeEvent));
+    }
+
+    /**
+     * Returns the cached copy of the given event, preferring fully loaded copies over list entries.
+     */
+    public Maybe<Event> getEvent(long id) {
+        return Maybe.fromCallable(() -> decode(findEvent(id), CacheCodec::decodeEvent));
+    }
+
+    /**
+     * Replaces the cached event list.
+     * @return {@code true} iff the list differs from the cached list
+     */
+    public Single<Boolean> updateEvents(@NonNull Collection<Event> events) {
+        return Single.fromCallable(() -> updateEventsSync(events));
+    }
+
+    @Transaction
+    public boolean updateEventsSync(@NonNull Collection<Event> events) {
+        return updateSummaries(
+                events, findEventSummaries(), CacheCodec::encode,
+                (id, summary) -> {
+                    createEvent(id);
+                    updateEventSummary(id, summary);
+                },
+                this::deleteEvents
+        );
+    }
+
+    public Completable updateEvent(@NonNull Event event) {
+        return Completable.fromAction(() -> updateEventSync(event));
+    }
+
+    @Transaction
+    public void updateEventSync(@NonNull Event event) {
+        updateDetail(event, CacheCodec::encode, (id, detail) -> {
+            createEvent(id);
+            updateEventDetail(id, detail);
+        });
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Registration" defaultstate="collapsed">
+    public Maybe<Registration> getRegistration(long id) {
+        return Maybe.fromCallable(() -> decode(findRegistration(id), CacheCodec::decodeRegistration));
+    }
+
+    public Completable updateRegistration(@NonNull Registration registration) {
+        return Completable.fromAction(() -> updateRegistrationSync(registration));
+    }
+
+    @Transaction
+    public void updateRegistrationSync(@NonNull Registration registration) {
+        updateDetail(registration, CacheCodec::encode, (id, detail) -> {
+            createRegistration(id);
+            updateRegistrationDetail(id, detail);
+        });
+    }
+    //</editor-fold>
+
+    public Completable clear() {
+        return Completable.fromAction(this::clearSync);
+    }
+
+    @Transaction
+    public void clearSync() {
+        clearPersons();
+        clearEvents();
+        clearRegistrations();
+    }
+
+    //<editor-fold desc="Internal" defaultstate="collapsed">
+    @Query("SELECT * FROM person_cache WHERE summary IS NOT NULL")
+    protected abstract List<CachedPerson> findPersonSummaries();
+
+    @Query("SELECT * FROM person_cache WHERE id = :id")
+    protected abstract CachedPerson findPerson(long id);
+
+    @Query("INSERT OR IGNORE INTO person_cache (id) VALUES (:id)")
+    protected abstract void createPerson(long id);
+
+    @Query("UPDATE person_cache SET summary = :summary WHERE id = :id")
+    protected abstract void updatePersonSummary(long id, String summary);
+
+    @Query("UPDATE person_cache SET detail = :detail WHERE id = :id")
+    protected abstract void updatePersonDetail(long id, String detail);
+
+    @Query("DELETE FROM person_cache WHERE id IN (:ids)")
+    protected abstract void deletePersons(long[] ids);
+
+    @Query("DELETE FROM person_cache")
+    protected abstract void clearPersons();
+
+    @Query("SELECT * FROM event_cache WHERE summary IS NOT NULL")
+    protected abstract List<CachedEvent> findEventSummaries();
+
+    @Query("SELECT * FROM event_cache WHERE id = :id")
+    protected abstract CachedEvent findEvent(long id);
+
+    @Query("INSERT OR IGNORE INTO event_cache (id) VALUES (:id)")
+    protected abstract void createEvent(long id);
+
+    @Query("UPDATE event_cache SET summary = :summary WHERE id = :id")
+    protected abstract void updateEventSummary(long id, String summary);
+
+    @Query("UPDATE event_cache SET detail = :detail WHERE id = :id")
+    protected abstract void updateEventDetail(long id, String detail);
+
+    @Query("DELETE FROM event_cache WHERE id IN (:ids)")
+    protected abstract void deleteEvents(long[] ids);
+
+    @Query("DELETE FROM event_cache")
+    protected abstract void clearEvents();
+
+    @Query("SELECT * FROM registration_cache WHERE id = :id")
+    protected abstract CachedRegistration findRegistration(long id);
+
+    @Query("INSERT OR IGNORE INTO registration_cache (id) VALUES (:id)")
+    protected abstract void createRegistration(long id);
+
+    @Query("UPDATE registration_cache SET detail = :detail WHERE id = :id")
+    protected abstract void updateRegistrationDetail(long id, String detail);
+
+    @Query("DELETE FROM registration_cache")
+    protected abstract void clearRegistrations();
+
+    /**
+     * Diffs the given list against the cached list and only writes list entries that have changed.
+     * Cached entries that are no longer part of the list are deleted.
+     */
+    private static <T extends HasId> boolean updateSummaries(@NonNull Collection<T> values,
+                                                             @NonNull List<? extends CachedEntity> cached,
+                                                             @NonNull Function<T, String> encoder,
+                                                             @NonNull Writer write,
+                                                             @NonNull Consumer<long[]> delete) {
+        var removed = new Long2ObjectOpenHashMap<String>(cached.size());
+        for (CachedEntity entity : cached) {
+            removed.put(entity.getId(), entity.getSummary());
+        }
+
+        boolean changed = false;
+        for (T value : values) {
+            var summary = encoder.apply(value);
+            var old = removed.remove(value.getId());
+            if (!Objects.equals(old, summary)) {
+                write.write(value.getId(), summary);
+                changed = true;
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            var ids = removed.keySet().toLongArray();
+            for (int from = 0; from < ids.length; from += MAX_PARAMETERS) {
+                delete.accept(Arrays.copyOfRange(ids, from, Math.min(ids.length, from + MAX_PARAMETERS)));
+            }
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private static <T extends HasId> void updateDetail(@NonNull T value, @NonNull Function<T, String> encoder,
+                                                       @NonNull Writer write) {
+        write.write(value.getId(), encoder.apply(value));
+    }
+
+    private static @Nullable <T> List<T> decodeSummaries(@NonNull List<? extends CachedEntity> cached,
+                                                         @NonNull Decoder<T> decoder) {
+        if (cached.isEmpty()) return null;
+
+        var out = new ArrayList<T>(cached.size());
+        for (CachedEntity entity : cached) {
+            var value = decode(entity.getSummary(), decoder);
+            if (value != null) out.add(value);
+        }
+        return out;
+    }
+
+    private static @Nullable <T> T decode(@Nullable CachedEntity entity, @NonNull Decoder<T> decoder) {
+        if (entity == null) return null;
+        var detail = decode(entity.getDetail(), decoder);
+        return detail != null ? detail : decode(entity.getSummary(), decoder);
+    }
+
+    private static @Nullable <T> T decode(@Nullable String data, @NonNull Decoder<T> decoder) {
+        if (data == null) return null;
+        try {
+            return decoder.decode(data);
+        } catch (JSONException | RuntimeException e) {
+            Log.w(LOG_TAG, "Could not decode cached object.", e);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(long id, String data);
+    }
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(@NonNull String data) throws JSONException;
+    }
+    //</editor-fold>
+}
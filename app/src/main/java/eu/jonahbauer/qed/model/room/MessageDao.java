@@ -1,27 +1,44 @@
 package eu.jonahbauer.qed.model.room;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.TypeConverters;
 
+import eu.jonahbauer.qed.model.ChatStatistics;
+import eu.jonahbauer.qed.model.CoveredRange;
 import eu.jonahbauer.qed.model.Message;
 import eu.jonahbauer.qed.util.MessageUtils;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
 
+/**
+ * Provides access to the message table and the chat statistics aggregates derived from it. All
+ * modifications of the message table go through this dao, which keeps the aggregates consistent
+ * within the same transaction.
+ */
 @Dao
 @TypeConverters({Converters.class})
-public interface MessageDao {
+public abstract class MessageDao {
+    /**
+     * The maximum number of bind parameters per statement supported by older SQLite versions.
+     */
+    private static final int MAX_PARAMETERS = 999;
+    private static final int REBUILD_PAGE_SIZE = 5000;
+
     @Query("SELECT * FROM message")
-    Single<List<Message>> getAll();
+    public abstract Single<List<Message>> getAll();
 
     @Query("SELECT * FROM message " +
             "WHERE (:channel  IS NULL OR channel LIKE :channel)" +
@@ -32,31 +49,262 @@ public interface MessageDao {
             "  AND (:fromId   IS NULL OR id       >=  :fromId)" +
             "  AND (:toId     IS NULL OR id       <=  :toId)" +
             "LIMIT :limit")
-    Single<List<Message>> findAll(@Nullable String channel,
-                                  @Nullable String message,
-                                  @Nullable String name,
-                                  @Nullable Instant fromDate,
-                                  @Nullable Instant toDate,
-                                  @Nullable Long fromId,
-                                  @Nullable Long toId,
-                                  long limit);
+    public abstract Single<List<Message>> findAll(@Nullable String channel,
+                                                  @Nullable String message,
+                                                  @Nullable String name,
+                                                  @Nullable Instant fromDate,
+                                                  @Nullable Instant toDate,
+                                                  @Nullable Long fromId,
+                                                  @Nullable Long toId,
+                                                  long limit);
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    Completable insert(Message... messages);
+    public Completable insert(Message... messages) {
+        return insert(Arrays.asList(messages));
+    }
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    Completable insert(Collection<Message> messages);
+    public Completable insert(Collection<Message> messages) {
+        return Completable.fromAction(() -> insertSync(messages));
+    }
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertSync(Collection<Message> messages);
+    /**
+     * Inserts the given messages, replacing existing messages with the same id, and updates the
+     * statistics aggregates accordingly.
+     */
+    @Transaction
+    public void insertSync(Collection<Message> messages) {
+        if (messages.isEmpty()) return;
 
-    @Query("DELETE FROM message")
-    Completable clear();
+        var accumulator = new StatisticsAccumulator();
+
+        // subtract replaced messages first so that re-inserting a message is idempotent
+        var ids = new long[messages.size()];
+        int i = 0;
+        for (Message message : messages) {
+            ids[i++] = message.getId();
+        }
+        for (int from = 0; from < ids.length; from += MAX_PARAMETERS) {
+            var chunk = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + MAX_PARAMETERS));
+            findAllById(chunk).forEach(accumulator::remove);
+        }
+
+        insertMessages(messages);
+        messages.forEach(accumulator::add);
+
+        apply(accumulator);
+    }
+
+    public Completable clear() {
+        return Completable.fromAction(this::clearSync);
+    }
+
+    @Transaction
+    public void clearSync() {
+        clearMessages();
+        clearStatistics();
+        clearCoverage();
+    }
+
+    /**
+     * Inserts the given messages, which must be all posts of the given channel with an id between
+     * {@code from} and {@code to} (both inclusive), and marks that range as covered.
+     * @see #getCoverageSync(String)
+     */
+    @Transaction
+    public void insertRangeSync(@NonNull String channel, long from, long to, Collection<Message> messages) {
+        insertSync(messages);
+
+        for (CoveredRange range : findAdjacentRanges(channel, from - 1, to + 1)) {
+            from = Math.min(from, range.getFrom());
+            to = Math.max(to, range.getTo());
+        }
+        deleteRanges(channel, from, to);
+        insertRange(new CoveredRange(channel, from, to));
+    }
+
+    /**
+     * Returns the ranges of message ids for which all posts of the given channel are stored, sorted
+     * in ascending order.
+     */
+    @Query("SELECT * FROM covered_range WHERE channel = :channel ORDER BY from_id")
+    public abstract List<CoveredRange> getCoverageSync(@NonNull String channel);
+
+    @Query("SELECT * FROM covered_range WHERE channel = :channel ORDER BY from_id")
+    public abstract Single<List<CoveredRange>> getCoverage(@NonNull String channel);
+
+    @Query("SELECT MAX(id) FROM message")
+    public abstract @Nullable Long findNewestIdSync();
+
+    @Query("SELECT * FROM message WHERE channel = :channel AND id BETWEEN :fromId AND :toId ORDER BY id")
+    public abstract List<Message> findRangeSync(@NonNull String channel, long fromId, long toId);
+
+    /**
+     * Returns the id of the last message of the given channel posted before the given date.
+     */
+    @Query("SELECT MAX(id) FROM message WHERE channel = :channel AND date < :date")
+    public abstract @Nullable Long findLastIdBeforeSync(@NonNull String channel, @NonNull Instant date);
+
+    /**
+     * Returns the id of the first message of the given channel posted after the given date.
+     */
+    @Query("SELECT MIN(id) FROM message WHERE channel = :channel AND date > :date")
+    public abstract @Nullable Long findFirstIdAfterSync(@NonNull String channel, @NonNull Instant date);
+
+    /**
+     * Recomputes the statistics aggregates from the message table. This is only necessary when the
+     * aggregates have been lost, since they are otherwise kept up-to-date on every insert.
+     */
+    @Transaction
+    public void rebuildStatisticsSync() {
+        clearStatistics();
+
+        var accumulator = new StatisticsAccumulator();
+        long after = Long.MIN_VALUE;
+        List<Message> page;
+        do {
+            page = findPage(after, REBUILD_PAGE_SIZE);
+            if (page.isEmpty()) break;
+
+            page.forEach(accumulator::add);
+            apply(accumulator);
+            accumulator.clear();
+
+            after = page.get(page.size() - 1).getId();
+        } while (page.size() == REBUILD_PAGE_SIZE);
+    }
+
+    public Completable rebuildStatistics() {
+        return Completable.fromAction(this::rebuildStatisticsSync);
+    }
 
     /**
      * Returns all messages that are "near" a local time overlap due to daylight savings time.
      * @see MessageUtils#dateFixer()
      */
     @Query("SELECT * FROM message WHERE (date / 86400) % 7 == 3 AND strftime('%m-%d', date, 'unixepoch') BETWEEN '10-25' AND '10-31' ORDER BY id")
-    Single<List<Message>> possibleDateErrors();
+    public abstract Single<List<Message>> possibleDateErrors();
+
+    //<editor-fold desc="Statistics" defaultstate="collapsed">
+    @Query("SELECT COALESCE(SUM(count), 0) AS count, COALESCE(SUM(bot_count), 0) AS bot_count, " +
+            "COUNT(DISTINCT day) AS days, COUNT(DISTINCT name) AS names FROM poster_statistic " +
+            "WHERE (:channel  IS NULL OR channel LIKE :channel)" +
+            "  AND (:fromDay  IS NULL OR day     >=  :fromDay)" +
+            "  AND (:toDay    IS NULL OR day     <=  :toDay)")
+    public abstract Single<ChatStatistics.Total> getTotal(@Nullable String channel,
+                                                          @Nullable LocalDate fromDay,
+                                                          @Nullable LocalDate toDay);
+
+    @Query("SELECT day, SUM(count) AS count FROM poster_statistic " +
+            "WHERE (:channel  IS NULL OR channel LIKE :channel)" +
+            "  AND (:fromDay  IS NULL OR day     >=  :fromDay)" +
+            "  AND (:toDay    IS NULL OR day     <=  :toDay)" +
+            "GROUP BY day ORDER BY day")
+    public abstract Single<List<ChatStatistics.DayCount>> getPostsPerDay(@Nullable String channel,
+                                                                         @Nullable LocalDate fromDay,
+                                                                         @Nullable LocalDate toDay);
+
+    @Query("SELECT hour, SUM(count) AS count FROM hour_statistic " +
+            "WHERE (:channel  IS NULL OR channel LIKE :channel)" +
+            "  AND (:fromDay  IS NULL OR day     >=  :fromDay)" +
+            "  AND (:toDay    IS NULL OR day     <=  :toDay)" +
+            "GROUP BY hour ORDER BY hour")
+    public abstract Single<List<ChatStatistics.HourCount>> getPostsPerHour(@Nullable String channel,
+                                                                           @Nullable LocalDate fromDay,
+                                                                           @Nullable LocalDate toDay);
+
+    @Query("SELECT name, SUM(count) AS count, SUM(bot_count) AS bot_count FROM poster_statistic " +
+            "WHERE (:channel  IS NULL OR channel LIKE :channel)" +
+            "  AND (:fromDay  IS NULL OR day     >=  :fromDay)" +
+            "  AND (:toDay    IS NULL OR day     <=  :toDay)" +
+            "GROUP BY name ORDER BY count DESC LIMIT :limit")
+    public abstract Single<List<ChatStatistics.NameCount>> getTopPosters(@Nullable String channel,
+                                                                         @Nullable LocalDate fromDay,
+                                                                         @Nullable LocalDate toDay,
+                                                                         long limit);
+
+    @Query("SELECT channel AS name, SUM(count) AS count, SUM(bot_count) AS bot_count FROM poster_statistic " +
+            "WHERE (:channel  IS NULL OR channel LIKE :channel)" +
+            "  AND (:fromDay  IS NULL OR day     >=  :fromDay)" +
+            "  AND (:toDay    IS NULL OR day     <=  :toDay)" +
+            "GROUP BY channel ORDER BY count DESC LIMIT :limit")
+    public abstract Single<List<ChatStatistics.NameCount>> getTopChannels(@Nullable String channel,
+                                                                          @Nullable LocalDate fromDay,
+                                                                          @Nullable LocalDate toDay,
+                                                                          long limit);
+    //</editor-fold>
+
+    //<editor-fold desc="Internal" defaultstate="collapsed">
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertMessages(Collection<Message> messages);
+
+    @Query("SELECT * FROM message WHERE id IN (:ids)")
+    protected abstract List<Message> findAllById(long[] ids);
+
+    @Query("SELECT * FROM message WHERE id > :after ORDER BY id LIMIT :limit")
+    protected abstract List<Message> findPage(long after, int limit);
+
+    @Query("DELETE FROM message")
+    protected abstract void clearMessages();
+
+    @Query("SELECT * FROM covered_range WHERE channel = :channel AND from_id <= :to AND to_id >= :from")
+    protected abstract List<CoveredRange> findAdjacentRanges(@NonNull String channel, long from, long to);
+
+    @Query("DELETE FROM covered_range WHERE channel = :channel AND from_id BETWEEN :from AND :to")
+    protected abstract void deleteRanges(@NonNull String channel, long from, long to);
+
+    @Insert
+    protected abstract void insertRange(CoveredRange range);
+
+    @Query("DELETE FROM covered_range")
+    protected abstract void clearCoverage();
+
+    @Query("INSERT OR IGNORE INTO poster_statistic (channel, day, name, user_id, count, bot_count) " +
+            "VALUES (:channel, :day, :name, :userId, 0, 0)")
+    protected abstract void createPosterStatistic(@NonNull String channel, @NonNull LocalDate day, @NonNull String name, long userId);
+
+    @Query("UPDATE poster_statistic SET count = count + :count, bot_count = bot_count + :botCount " +
+            "WHERE channel = :channel AND day = :day AND name = :name AND user_id = :userId")
+    protected abstract void updatePosterStatistic(@NonNull String channel, @NonNull LocalDate day, @NonNull String name, long userId, long count, long botCount);
+
+    @Query("INSERT OR IGNORE INTO hour_statistic (channel, day, hour, count) VALUES (:channel, :day, :hour, 0)")
+    protected abstract void createHourStatistic(@NonNull String channel, @NonNull LocalDate day, int hour);
+
+    @Query("UPDATE hour_statistic SET count = count + :count WHERE channel = :channel AND day = :day AND hour = :hour")
+    protected abstract void updateHourStatistic(@NonNull String channel, @NonNull LocalDate day, int hour, long count);
+
+    @Query("DELETE FROM poster_statistic WHERE count <= 0")
+    protected abstract void deleteEmptyPosterStatistics();
+
+    @Query("DELETE FROM hour_statistic WHERE count <= 0")
+    protected abstract void deleteEmptyHourStatistics();
+
+    @Query("DELETE FROM poster_statistic")
+    protected abstract void clearPosterStatistics();
+
+    @Query("DELETE FROM hour_statistic")
+    protected abstract void clearHourStatistics();
+
+    private void clearStatistics() {
+        clearPosterStatistics();
+        clearHourStatistics();
+    }
+
+    void apply(@NonNull StatisticsAccumulator accumulator) {
+        if (accumulator.isEmpty()) return;
+
+        // SQLite on older devices does not support upserts
+        accumulator.forEachPoster((channel, day, name, userId, count, botCount) -> {
+            createPosterStatistic(channel, day, name, userId);
+            updatePosterStatistic(channel, day, name, userId, count, botCount);
+        });
+        accumulator.forEachHour((channel, day, hour, count) -> {
+            createHourStatistic(channel, day, hour);
+            updateHourStatistic(channel, day, hour, count);
+        });
+
+        if (accumulator.hasNegative()) {
+            deleteEmptyPosterStatistics();
+            deleteEmptyHourStatistics();
+        }
+    }
+    //</editor-fold>
 }
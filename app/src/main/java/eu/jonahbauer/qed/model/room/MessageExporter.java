@@ -0,0 +1,144 @@
+package eu.jonahbauer.qed.model.room;
+
+import android.database.Cursor;
+import android.util.Log;
+import android.util.JsonWriter;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.network.parser.chat.ChatLogParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import io.reactivex.rxjava3.core.ObservableEmitter;
+import io.reactivex.rxjava3.core.ObservableOnSubscribe;
+import io.reactivex.rxjava3.functions.Action;
+import io.reactivex.rxjava3.functions.Supplier;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+
+/**
+ * Exports the message table as newline-delimited JSON in the format read by {@link ChatLogParser}.
+ * The rows are streamed from a cursor straight into the output, so the export works in constant
+ * memory regardless of the size of the database. The query and the iteration run in a single
+ * transaction, so that the windows of the cursor form a consistent snapshot even when messages are
+ * inserted during the export. When the export fails or is cancelled, the incomplete output is discarded.
+ */
+public final class MessageExporter implements ObservableOnSubscribe<LongLongPair> {
+    private static final String LOG_TAG = MessageExporter.class.getName();
+    private static final String QUERY = "SELECT id, name, message, date, user_id, user_name, color, channel, bottag " +
+            "FROM message ORDER BY id";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Database mDatabase;
+    private final Supplier<OutputStream> mOut;
+    private final Action mDiscard;
+    private final boolean mCompress;
+
+    /**
+     * @param out the output stream, which is closed when the export is done
+     * @param discard deletes the output, called after the output stream has been closed when the
+     *                export did not complete
+     * @param compress whether the output should be gzip-compressed
+     */
+    public MessageExporter(@NonNull Database database, @NonNull Supplier<OutputStream> out,
+                           @NonNull Action discard, boolean compress) {
+        this.mDatabase = database;
+        this.mOut = out;
+        this.mDiscard = discard;
+        this.mCompress = compress;
+    }
+
+    @Override
+    public void subscribe(@NonNull ObservableEmitter<LongLongPair> emitter) throws Throwable {
+        boolean complete = false;
+        try {
+            complete = export(emitter);
+        } finally {
+            if (!complete) discard();
+        }
+        emitter.onComplete();
+    }
+
+    /**
+     * @return whether all messages have been written
+     */
+    private boolean export(@NonNull ObservableEmitter<LongLongPair> emitter) throws Throwable {
+        var stream = mOut.get();
+        if (mCompress) stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+
+        try (var writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            // the cursor is filled window by window, each of which would otherwise run the query again
+            return mDatabase.runInTransaction(() -> write(writer, emitter));
+        }
+    }
+
+    private boolean write(@NonNull BufferedWriter writer, @NonNull ObservableEmitter<LongLongPair> emitter) throws IOException {
+        try (var cursor = mDatabase.query(new SimpleSQLiteQuery(QUERY))) {
+            long count = cursor.getCount();
+            emitter.onNext(LongLongPair.of(0, count));
+
+            // one top-level value per line
+            var json = new JsonWriter(writer);
+            json.setLenient(true);
+
+            long index = 0;
+            long lastUpdate = System.currentTimeMillis();
+            while (cursor.moveToNext() && !emitter.isDisposed()) {
+                writePost(json, cursor);
+                writer.write('\n');
+
+                index++;
+                if (index % 1000 == 0) {
+                    long time = System.currentTimeMillis();
+                    if (time - lastUpdate > 33) {
+                        lastUpdate = time;
+                        emitter.onNext(LongLongPair.of(index, count));
+                    }
+                }
+            }
+            if (emitter.isDisposed()) return false;
+
+            // the parser expects the log to be terminated like the ones returned by the server
+            json.beginObject();
+            json.name("type").value("ok");
+            json.endObject();
+            writer.write('\n');
+            emitter.onNext(LongLongPair.of(count, count));
+            return true;
+        }
+    }
+
+    private void discard() {
+        try {
+            mDiscard.run();
+        } catch (Throwable t) {
+            Log.w(LOG_TAG, "Could not discard incomplete export.", t);
+        }
+    }
+
+    private static void writePost(@NonNull JsonWriter json, @NonNull Cursor cursor) throws IOException {
+        json.beginObject();
+        json.name("type").value("post");
+        json.name("id").value(cursor.getLong(0));
+        json.name("name").value(cursor.getString(1));
+        json.name("message").value(cursor.getString(2));
+        json.name("date").value(Message.DATE_TIME_FORMATTER.format(Converters.instantFromLong(cursor.getLong(3))));
+        json.name("user_id").value(cursor.getLong(4));
+        if (cursor.isNull(5)) {
+            json.name("username").nullValue();
+        } else {
+            json.name("username").value(cursor.getString(5));
+        }
+        json.name("color").value(cursor.getString(6));
+        json.name("channel").value(cursor.getString(7));
+        json.name("bottag").value(cursor.getInt(8));
+        json.endObject();
+    }
+}
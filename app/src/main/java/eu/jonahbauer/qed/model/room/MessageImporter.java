@@ -0,0 +1,202 @@
+package eu.jonahbauer.qed.model.room;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import eu.jonahbauer.qed.model.Message;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableOnSubscribe;
+import io.reactivex.rxjava3.functions.Function;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+
+/**
+ * Imports a stream of messages into the message table. The messages are inserted in chunks of
+ * {@value #CHUNK_SIZE}, each in its own transaction, using a single precompiled statement. In contrast
+ * to {@link MessageDao#insertSync(java.util.Collection)}, messages whose id is already present are
+ * skipped instead of replaced, so that importing the same log again is cheap.
+ * <br>
+ * Since every chunk is committed on its own, an import that is cancelled or fails midway keeps all
+ * chunks inserted so far. Once the importer has been {@linkplain #close() closed}, e.g. because the
+ * import was cancelled, all further messages are discarded. A chunk that is being inserted at that
+ * time is completed first.
+ */
+public class MessageImporter implements Consumer<Message>, Closeable {
+    private static final String LOG_TAG = MessageImporter.class.getName();
+    static final int CHUNK_SIZE = 2000;
+    private static final String INSERT = "INSERT OR IGNORE INTO message " +
+            "(id, name, message, date, user_id, user_name, color, channel, bottag) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final Database mDatabase;
+    private final MessageDao mDao;
+    private final SupportSQLiteStatement mStatement;
+    private final List<Message> mChunk = new ArrayList<>(CHUNK_SIZE);
+
+    private final Object mLock = new Object();
+    private volatile boolean mClosed;
+    private boolean mFlushing;
+
+    private long mInserted;
+    private long mSkipped;
+
+    @WorkerThread
+    public MessageImporter(@NonNull Database database) {
+        this.mDatabase = database;
+        this.mDao = database.messageDao();
+        this.mStatement = database.compileStatement(INSERT);
+    }
+
+    /**
+     * Imports all messages produced by the source, reporting the source's progress. The source is
+     * passed the importer and must feed it every message before completing.
+     * <br>
+     * The importer is closed once the source has terminated. When the import is cancelled, the
+     * importer is closed immediately, but a chunk that is currently being inserted is completed on
+     * the worker thread before the statement is released.
+     */
+    public static @NonNull Observable<LongLongPair> importAll(@NonNull Database database,
+                                                               @NonNull Function<Consumer<Message>, ObservableOnSubscribe<LongLongPair>> source) {
+        return Observable.using(
+                () -> new MessageImporter(database),
+                importer -> Observable.create(source.apply(importer))
+                                      .concatWith(Completable.fromAction(importer::flush)),
+                MessageImporter::close,
+                false
+        );
+    }
+
+    /**
+     * Imports the given messages, reporting the number of messages processed so far.
+     */
+    public static @NonNull Observable<LongLongPair> importAll(@NonNull Database database, @NonNull List<Message> messages) {
+        return importAll(database, importer -> emitter -> {
+            int count = messages.size();
+            for (int i = 0; i < count && !emitter.isDisposed(); i++) {
+                if (i % CHUNK_SIZE == 0) {
+                    emitter.onNext(LongLongPair.of(i, count));
+                }
+                importer.accept(messages.get(i));
+            }
+            emitter.onNext(LongLongPair.of(count, count));
+            emitter.onComplete();
+        });
+    }
+
+    @Override
+    @WorkerThread
+    public void accept(@NonNull Message message) {
+        if (mClosed) return;
+        mChunk.add(message);
+        if (mChunk.size() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Inserts all pending messages. Must be called after the last message has been
+     * {@linkplain #accept(Message) accepted}.
+     */
+    @WorkerThread
+    public void flush() {
+        synchronized (mLock) {
+            if (mClosed) {
+                mChunk.clear();
+                return;
+            }
+            mFlushing = true;
+        }
+
+        try {
+            if (mChunk.isEmpty()) return;
+
+            var counts = new long[2];
+            mDatabase.runInTransaction(() -> {
+                var accumulator = new StatisticsAccumulator();
+                for (Message message : mChunk) {
+                    bind(message);
+                    if (mStatement.executeInsert() != -1) {
+                        accumulator.add(message);
+                        counts[0]++;
+                    } else {
+                        counts[1]++;
+                    }
+                }
+                mDao.apply(accumulator);
+            });
+            mInserted += counts[0];
+            mSkipped += counts[1];
+            mChunk.clear();
+        } finally {
+            synchronized (mLock) {
+                mFlushing = false;
+                // the importer has been closed while flushing
+                if (mClosed) release();
+            }
+        }
+    }
+
+    private void bind(@NonNull Message message) {
+        mStatement.clearBindings();
+        mStatement.bindLong(1, message.getId());
+        mStatement.bindString(2, message.getRawName());
+        mStatement.bindString(3, message.getMessage());
+        mStatement.bindLong(4, Converters.instantToLong(message.getDate()));
+        mStatement.bindLong(5, message.getUserId());
+        if (message.getUserName() == null) {
+            mStatement.bindNull(6);
+        } else {
+            mStatement.bindString(6, message.getUserName());
+        }
+        mStatement.bindString(7, message.getColor());
+        mStatement.bindString(8, message.getChannel());
+        mStatement.bindLong(9, message.getBottag());
+    }
+
+    /**
+     * Returns the number of messages inserted so far.
+     */
+    public long getInserted() {
+        return mInserted;
+    }
+
+    /**
+     * Returns the number of messages skipped so far, because a message with the same id was
+     * already present.
+     */
+    public long getSkipped() {
+        return mSkipped;
+    }
+
+    /**
+     * Releases the precompiled statement. Pending messages that have not been
+     * {@linkplain #flush() flushed} are discarded. May be called from any thread. If a chunk is
+     * currently being inserted, the statement is released by the flushing thread once it is done.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (mLock) {
+            if (mClosed) return;
+            mClosed = true;
+            if (!mFlushing) release();
+        }
+    }
+
+    private void release() {
+        try {
+            mStatement.close();
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Could not close statement.", e);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package eu.jonahbauer.qed.model.room;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Records latency, row counts and threads of every statement executed on the {@link Database}.
+ * Statements are grouped by their SQL, with variable-length {@code IN (?, ?, ...)} lists collapsed.
+ * Transactions are recorded as a pseudo-statement {@value #TRANSACTION} spanning from the
+ * outermost {@code BEGIN} to the matching {@code END}.
+ * <br>
+ * Room's {@link androidx.room.RoomDatabase.QueryCallback} is invoked before a statement is executed
+ * and never sees its result, so it can neither measure latency nor count rows. Instead, the
+ * profiler wraps the {@link SupportSQLiteOpenHelper} via {@link #wrap(SupportSQLiteOpenHelper.Factory)}.
+ * The latency of a query covers everything from compiling the statement until the returned cursor
+ * is closed, i.e. including the time Room spends reading the rows.
+ */
+public final class QueryProfiler {
+    private static final String LOG_TAG = QueryProfiler.class.getName();
+    private static final QueryProfiler INSTANCE = new QueryProfiler();
+
+    public static final String TRANSACTION = "TRANSACTION";
+    /**
+     * The upper bounds of the latency histogram buckets in microseconds. The last bucket collects
+     * everything above the last bound.
+     */
+    public static final long[] BUCKETS = {250, 500, 1_000, 2_000, 4_000, 8_000, 16_000, 32_000, 64_000, 128_000, 256_000};
+    private static final int MAX_THREADS = 8;
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern THREAD_NUMBER = Pattern.compile("-\\d+$");
+
+    private final ConcurrentHashMap<String, StatementStatistics> mStatistics = new ConcurrentHashMap<>();
+    private final ThreadLocal<long[]> mTransaction = ThreadLocal.withInitial(() -> new long[2]);
+
+    public static @NonNull QueryProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    @VisibleForTesting
+    QueryProfiler() {}
+
+    /**
+     * Wraps the given factory such that all statements executed on databases opened by it are
+     * recorded by this profiler.
+     */
+    public @NonNull SupportSQLiteOpenHelper.Factory wrap(@NonNull SupportSQLiteOpenHelper.Factory factory) {
+        return configuration -> proxy(
+                SupportSQLiteOpenHelper.class,
+                factory.create(configuration),
+                (helper, method, args) -> {
+                    var result = method.invoke(helper, args);
+                    if (result instanceof SupportSQLiteDatabase) {
+                        return proxy(SupportSQLiteDatabase.class, result, new DatabaseHandler());
+                    }
+                    return result;
+                }
+        );
+    }
+
+    /**
+     * Returns a snapshot of the recorded statistics ordered by total time spent descending.
+     */
+    public @NonNull List<StatementStatistics> getStatistics() {
+        var out = new ArrayList<StatementStatistics>(mStatistics.size());
+        for (StatementStatistics statistics : mStatistics.values()) {
+            out.add(statistics.copy());
+        }
+        out.sort(Comparator.comparingLong(StatementStatistics::getTotalNanos).reversed());
+        return out;
+    }
+
+    public void reset() {
+        mStatistics.clear();
+    }
+
+    public void writeCsv(@NonNull Writer out) throws IOException {
+        out.write("statement,count,main_thread,rows,total_ms,mean_ms,max_ms,p50_ms,p95_ms,threads");
+        for (long bound : BUCKETS) {
+            out.write(",le_" + bound + "us");
+        }
+        out.write(",gt_" + BUCKETS[BUCKETS.length - 1] + "us\n");
+
+        for (StatementStatistics statistics : getStatistics()) {
+            out.write(escape(statistics.getSql()));
+            out.write(String.format(Locale.ROOT, ",%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,",
+                    statistics.getCount(),
+                    statistics.getMainThreadCount(),
+                    statistics.getRows(),
+                    statistics.getTotalNanos() / 1e6,
+                    statistics.getMeanNanos() / 1e6,
+                    statistics.getMaxNanos() / 1e6,
+                    statistics.getPercentileMicros(0.5) / 1e3,
+                    statistics.getPercentileMicros(0.95) / 1e3
+            ));
+            out.write(escape(String.join(" ", statistics.getThreads())));
+            for (long bucket : statistics.getHistogram()) {
+                out.write(",");
+                out.write(Long.toString(bucket));
+            }
+            out.write("\n");
+        }
+        out.flush();
+    }
+
+    @VisibleForTesting
+    void record(@NonNull String sql, long nanos, long rows, @NonNull String thread, boolean mainThread) {
+        var key = normalize(sql);
+        var statistics = mStatistics.computeIfAbsent(key, StatementStatistics::new);
+        if (statistics.record(nanos, rows, thread, mainThread)) {
+            Log.w(LOG_TAG, "Statement executed on main thread: " + key, new Throwable());
+        }
+    }
+
+    private void record(@NonNull String sql, long start, long rows) {
+        var thread = Thread.currentThread();
+        var mainThread = Looper.getMainLooper().getThread() == thread;
+        record(sql, System.nanoTime() - start, rows, thread.getName(), mainThread);
+    }
+
+    private static @NonNull String normalize(@NonNull String sql) {
+        return IN_LIST.matcher(sql.trim()).replaceAll("(?...)");
+    }
+
+    private static @NonNull String escape(@NonNull String value) {
+        return "\"" + value.replace("\"", "\"\"").replace('\n', ' ') + "\"";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(@NonNull Class<T> type, @NonNull Object delegate, @NonNull DelegatingHandler handler) {
+        return (T) Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    try {
+                        return handler.invoke(delegate, method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+        );
+    }
+
+    @FunctionalInterface
+    private interface DelegatingHandler {
+        Object invoke(Object delegate, Method method, Object[] args) throws Throwable;
+    }
+
+    private class DatabaseHandler implements DelegatingHandler {
+        @Override
+        public Object invoke(Object delegate, Method method, Object[] args) throws Throwable {
+            var name = method.getName();
+            switch (name) {
+                case "query": {
+                    var sql = args[0] instanceof SupportSQLiteQuery ? ((SupportSQLiteQuery) args[0]).getSql() : String.valueOf(args[0]);
+                    var start = System.nanoTime();
+                    var cursor = (Cursor) method.invoke(delegate, args);
+                    return new ProfilingCursor(cursor, sql, start);
+                }
+                case "compileStatement": {
+                    var sql = (String) args[0];
+                    var statement = method.invoke(delegate, args);
+                    return proxy(SupportSQLiteStatement.class, statement, new StatementHandler(sql));
+                }
+                case "execSQL":
+                case "insert":
+                case "update":
+                case "delete": {
+                    var start = System.nanoTime();
+                    var result = method.invoke(delegate, args);
+                    long rows = result instanceof Integer ? (Integer) result : 1;
+                    record("execSQL".equals(name) ? (String) args[0] : name.toUpperCase(Locale.ROOT) + " " + args[0], start, rows);
+                    return result;
+                }
+                case "beginTransaction":
+                case "beginTransactionNonExclusive":
+                case "beginTransactionWithListener":
+                case "beginTransactionWithListenerNonExclusive": {
+                    var transaction = mTransaction.get();
+                    if (transaction[0]++ == 0) transaction[1] = System.nanoTime();
+                    return method.invoke(delegate, args);
+                }
+                case "endTransaction": {
+                    try {
+                        return method.invoke(delegate, args);
+                    } finally {
+                        var transaction = mTransaction.get();
+                        if (transaction[0] > 0 && --transaction[0] == 0) {
+                            record(TRANSACTION, transaction[1], 0);
+                        }
+                    }
+                }
+                default:
+                    return method.invoke(delegate, args);
+            }
+        }
+    }
+
+    private class StatementHandler implements DelegatingHandler {
+        private final String mSql;
+
+        private StatementHandler(String sql) {
+            this.mSql = sql;
+        }
+
+        @Override
+        public Object invoke(Object delegate, Method method, Object[] args) throws Throwable {
+            var name = method.getName();
+            switch (name) {
+                case "execute":
+                case "executeInsert":
+                case "executeUpdateDelete":
+                case "simpleQueryForLong":
+                case "simpleQueryForString": {
+                    var start = System.nanoTime();
+                    var result = method.invoke(delegate, args);
+                    long rows;
+                    if ("executeUpdateDelete".equals(name)) {
+                        rows = (Integer) result;
+                    } else if ("executeInsert".equals(name)) {
+                        rows = (Long) result != -1 ? 1 : 0;
+                    } else if ("execute".equals(name)) {
+                        rows = 0;
+                    } else {
+                        rows = 1;
+                    }
+                    record(mSql, start, rows);
+                    return result;
+                }
+                default:
+                    return method.invoke(delegate, args);
+            }
+        }
+    }
+
+    private class ProfilingCursor extends CursorWrapper {
+        private final String mSql;
+        private final long mStart;
+        private boolean mRecorded;
+
+        public ProfilingCursor(Cursor cursor, String sql, long start) {
+            super(cursor);
+            this.mSql = sql;
+            this.mStart = start;
+        }
+
+        @Override
+        public void close() {
+            if (!mRecorded) {
+                mRecorded = true;
+                long rows = isClosed() ? 0 : getCount();
+                record(mSql, mStart, rows);
+            }
+            super.close();
+        }
+    }
+
+    /**
+     * Statistics for a single statement. Instances returned by {@link #getStatistics()} are
+     * snapshots and will not change anymore.
+     */
+    public static final class StatementStatistics {
+        private final @NonNull String mSql;
+        private long mCount;
+        private long mMainThreadCount;
+        private long mRows;
+        private long mTotalNanos;
+        private long mMaxNanos;
+        private final long[] mHistogram = new long[BUCKETS.length + 1];
+        private final Set<String> mThreads = new LinkedHashSet<>();
+
+        private StatementStatistics(@NonNull String sql) {
+            this.mSql = sql;
+        }
+
+        /**
+         * @return {@code true} if this is the first time the statement was executed on the main thread
+         */
+        private synchronized boolean record(long nanos, long rows, @NonNull String thread, boolean mainThread) {
+            mCount++;
+            mRows += rows;
+            mTotalNanos += nanos;
+            mMaxNanos = Math.max(mMaxNanos, nanos);
+            mHistogram[bucket(nanos / 1000)]++;
+
+            if (mThreads.size() < MAX_THREADS) {
+                mThreads.add(THREAD_NUMBER.matcher(thread).replaceFirst("-#"));
+            }
+
+            return mainThread && mMainThreadCount++ == 0;
+        }
+
+        private synchronized @NonNull StatementStatistics copy() {
+            var out = new StatementStatistics(mSql);
+            out.mCount = mCount;
+            out.mMainThreadCount = mMainThreadCount;
+            out.mRows = mRows;
+            out.mTotalNanos = mTotalNanos;
+            out.mMaxNanos = mMaxNanos;
+            System.arraycopy(mHistogram, 0, out.mHistogram, 0, mHistogram.length);
+            out.mThreads.addAll(mThreads);
+            return out;
+        }
+
+        private static int bucket(long micros) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (micros <= BUCKETS[i]) return i;
+            }
+            return BUCKETS.length;
+        }
+
+        public @NonNull String getSql() {
+            return mSql;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getMainThreadCount() {
+            return mMainThreadCount;
+        }
+
+        public long getRows() {
+            return mRows;
+        }
+
+        public long getTotalNanos() {
+            return mTotalNanos;
+        }
+
+        public long getMaxNanos() {
+            return mMaxNanos;
+        }
+
+        public long getMeanNanos() {
+            return mCount == 0 ? 0 : mTotalNanos / mCount;
+        }
+
+        public @NonNull long[] getHistogram() {
+            return mHistogram.clone();
+        }
+
+        public @NonNull Set<String> getThreads() {
+            return mThreads;
+        }
+
+        /**
+         * Estimates the given percentile from the histogram as the upper bound of the bucket it
+         * falls into. The overflow bucket is represented by the maximum latency.
+         */
+        public long getPercentileMicros(double percentile) {
+            long target = (long) Math.ceil(percentile * mCount);
+            long seen = 0;
+            for (int i = 0; i < mHistogram.length; i++) {
+                seen += mHistogram[i];
+                if (seen >= target && seen > 0) {
+                    return i < BUCKETS.length ? BUCKETS[i] : mMaxNanos / 1000;
+                }
+            }
+            return 0;
+        }
+    }
+}
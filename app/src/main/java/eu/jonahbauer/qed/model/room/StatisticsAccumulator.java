@@ -0,0 +1,105 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.annotation.NonNull;
+
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * Collects the changes a batch of inserted and replaced messages makes to the
+ * {@link eu.jonahbauer.qed.model.PosterStatistic} and {@link eu.jonahbauer.qed.model.HourStatistic}
+ * aggregates, so that each affected row only has to be updated once.
+ */
+class StatisticsAccumulator {
+    private final Map<PosterKey, long[]> mPosters = new HashMap<>();
+    private final Map<HourKey, long[]> mHours = new HashMap<>();
+    private boolean mNegative;
+
+    public void add(@NonNull Message message) {
+        accumulate(message.getChannel(), message.getDate(), message.getName(), message.getUserId(), message.isBot(), 1);
+    }
+
+    public void remove(@NonNull Message message) {
+        accumulate(message.getChannel(), message.getDate(), message.getName(), message.getUserId(), message.isBot(), -1);
+    }
+
+    void accumulate(@NonNull String channel, @NonNull Instant date, @NonNull String name, long userId, boolean bot, int delta) {
+        var dateTime = ZonedDateTime.ofInstant(date, NetworkConstants.SERVER_TIME_ZONE);
+        var day = dateTime.toLocalDate();
+
+        var poster = mPosters.computeIfAbsent(new PosterKey(channel, day, name, userId), key -> new long[2]);
+        poster[0] += delta;
+        if (bot) poster[1] += delta;
+
+        var hour = mHours.computeIfAbsent(new HourKey(channel, day, dateTime.getHour()), key -> new long[1]);
+        hour[0] += delta;
+
+        if (delta < 0) mNegative = true;
+    }
+
+    public boolean isEmpty() {
+        return mPosters.isEmpty();
+    }
+
+    /**
+     * Whether any counter may have dropped to zero, i.e. whether empty rows need to be cleaned up.
+     */
+    public boolean hasNegative() {
+        return mNegative;
+    }
+
+    public void forEachPoster(@NonNull PosterConsumer consumer) {
+        mPosters.forEach((key, value) -> {
+            if (value[0] != 0 || value[1] != 0) {
+                consumer.accept(key.getChannel(), key.getDay(), key.getName(), key.getUserId(), value[0], value[1]);
+            }
+        });
+    }
+
+    public void forEachHour(@NonNull HourConsumer consumer) {
+        mHours.forEach((key, value) -> {
+            if (value[0] != 0) {
+                consumer.accept(key.getChannel(), key.getDay(), key.getHour(), value[0]);
+            }
+        });
+    }
+
+    public void clear() {
+        mPosters.clear();
+        mHours.clear();
+        mNegative = false;
+    }
+
+    @Value
+    private static class PosterKey {
+        String channel;
+        LocalDate day;
+        String name;
+        long userId;
+    }
+
+    @Value
+    private static class HourKey {
+        String channel;
+        LocalDate day;
+        int hour;
+    }
+
+    @FunctionalInterface
+    interface PosterConsumer {
+        void accept(@NonNull String channel, @NonNull LocalDate day, @NonNull String name, long userId, long count, long botCount);
+    }
+
+    @FunctionalInterface
+    interface HourConsumer {
+        void accept(@NonNull String channel, @NonNull LocalDate day, int hour, long count);
+    }
+}
@@ -9,9 +9,11 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import eu.jonahbauer.qed.ConnectionStateMonitor;
 import eu.jonahbauer.qed.model.Album;
 import eu.jonahbauer.qed.model.room.AlbumDao;
 import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDGalleryPages;
@@ -55,7 +57,7 @@ public class AlbumListViewModel extends AndroidViewModel implements QEDPageRecei
     private void loadFromInternet() {
         this.mAlbums.setValue(StatusWrapper.preloaded(Collections.emptyList()));
         mDisposable.add(
-                QEDGalleryPages.getAlbumList(this)
+                QEDGalleryPages.getAlbumList(getApplication(), this)
         );
     }
 
@@ -104,7 +106,7 @@ public class AlbumListViewModel extends AndroidViewModel implements QEDPageRecei
     public void onError(List<Album> out, @NonNull Reason reason, @Nullable Throwable cause) {
         QEDPageReceiver.super.onError(out, reason, cause);
 
-        if (Reason.NETWORK.equals(reason)) {
+        if (Reason.NETWORK.equals(reason) && isUnreachable()) {
             mOffline.setValue(true);
             loadFromDatabase();
         } else {
@@ -112,6 +114,10 @@ public class AlbumListViewModel extends AndroidViewModel implements QEDPageRecei
         }
     }
 
+    private boolean isUnreachable() {
+        return ConnectionStateMonitor.isUnreachable(getApplication(), NetworkConstants.getGalleryServerList());
+    }
+
     @Override
     protected void onCleared() {
         super.onCleared();
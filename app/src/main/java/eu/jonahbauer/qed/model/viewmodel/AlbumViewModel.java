@@ -10,10 +10,12 @@ import androidx.annotation.StringRes;
 import androidx.lifecycle.*;
 
 import eu.jonahbauer.qed.BuildConfig;
+import eu.jonahbauer.qed.ConnectionStateMonitor;
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.model.Album;
 import eu.jonahbauer.qed.model.room.AlbumDao;
 import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDGalleryPages;
@@ -112,7 +114,7 @@ public class AlbumViewModel extends InfoViewModel<Album> {
 
         Callback callback = new Callback(!filter.isEmpty());
         mDisposable.add(
-                QEDGalleryPages.getAlbum(album, filter, callback)
+                QEDGalleryPages.getAlbum(getApplication(), album, filter, callback)
         );
     }
 
@@ -163,6 +165,10 @@ public class AlbumViewModel extends InfoViewModel<Album> {
         return Objects.requireNonNullElse(mFilter.getValue(), AlbumFilter.EMPTY);
     }
 
+    private boolean isUnreachable() {
+        return ConnectionStateMonitor.isUnreachable(getApplication(), NetworkConstants.getGalleryServerMain());
+    }
+
     private boolean isOffline() {
         return Objects.requireNonNullElse(mOffline.getValue(), false);
     }
@@ -205,7 +211,7 @@ public class AlbumViewModel extends InfoViewModel<Album> {
         public void onError(Album out, @NonNull Reason reason, @Nullable Throwable cause) {
             QEDPageReceiver.super.onError(out, reason, cause);
 
-            if (reason == Reason.NETWORK && out != null) {
+            if (reason == Reason.NETWORK && out != null && isUnreachable()) {
                 load(out, AlbumFilter.EMPTY, true);
             } else {
                 submit(StatusWrapper.error(out, reason));
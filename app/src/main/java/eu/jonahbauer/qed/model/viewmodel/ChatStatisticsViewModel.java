@@ -0,0 +1,133 @@
+package eu.jonahbauer.qed.model.viewmodel;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
+
+import eu.jonahbauer.qed.model.ChatStatistics;
+import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.model.room.MessageDao;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+import eu.jonahbauer.qed.util.StatusWrapper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+public class ChatStatisticsViewModel extends AndroidViewModel {
+    private static final String SAVED_CHANNEL = "statistics_channel";
+    private static final String SAVED_PERIOD = "statistics_period";
+    private static final int TOP_LIMIT = 10;
+
+    private final MessageDao mMessageDao;
+    private final MutableLiveData<String> mChannel;
+    private final MutableLiveData<Period> mPeriod;
+    private final MutableLiveData<StatusWrapper<ChatStatistics>> mStatistics = new MutableLiveData<>();
+    private final CompositeDisposable mDisposable = new CompositeDisposable();
+
+    public ChatStatisticsViewModel(@NonNull Application application, @NonNull SavedStateHandle savedStateHandle) {
+        super(application);
+        mMessageDao = Database.getInstance(application).messageDao();
+        mChannel = savedStateHandle.getLiveData(SAVED_CHANNEL, null);
+        mPeriod = savedStateHandle.getLiveData(SAVED_PERIOD, Period.MONTH);
+        load();
+    }
+
+    public void load(@Nullable String channel, @NonNull Period period) {
+        mChannel.setValue(channel);
+        mPeriod.setValue(period);
+        load();
+    }
+
+    /**
+     * Recomputes the aggregates from all stored messages and reloads the statistics afterwards.
+     */
+    public void rebuild() {
+        mDisposable.clear();
+        mStatistics.setValue(StatusWrapper.preloaded(null));
+        mDisposable.add(
+                mMessageDao.rebuildStatistics()
+                           .subscribeOn(Schedulers.io())
+                           .observeOn(AndroidSchedulers.mainThread())
+                           .subscribe(
+                                   this::load,
+                                   e -> mStatistics.setValue(StatusWrapper.error(null, e))
+                           )
+        );
+    }
+
+    private void load() {
+        mDisposable.clear();
+        mStatistics.setValue(StatusWrapper.preloaded(null));
+
+        var channel = mChannel.getValue();
+        var fromDay = mPeriod.getValue() != null ? mPeriod.getValue().getFromDay() : null;
+
+        mDisposable.add(
+                Single.zip(
+                        mMessageDao.getTotal(channel, fromDay, null),
+                        mMessageDao.getPostsPerDay(channel, fromDay, null),
+                        mMessageDao.getPostsPerHour(channel, fromDay, null).map(ChatStatisticsViewModel::toHourArray),
+                        mMessageDao.getTopPosters(channel, fromDay, null, TOP_LIMIT),
+                        mMessageDao.getTopChannels(channel, fromDay, null, TOP_LIMIT),
+                        ChatStatistics::new
+                )
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                statistics -> mStatistics.setValue(StatusWrapper.loaded(statistics)),
+                                e -> mStatistics.setValue(StatusWrapper.error(null, e))
+                        )
+        );
+    }
+
+    public LiveData<StatusWrapper<ChatStatistics>> getStatistics() {
+        return mStatistics;
+    }
+
+    public LiveData<String> getChannel() {
+        return mChannel;
+    }
+
+    public LiveData<Period> getPeriod() {
+        return mPeriod;
+    }
+
+    private static long[] toHourArray(@NonNull List<ChatStatistics.HourCount> counts) {
+        var out = new long[24];
+        for (var count : counts) {
+            out[count.getHour()] = count.getCount();
+        }
+        return out;
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mDisposable.clear();
+    }
+
+    public enum Period {
+        WEEK(7), MONTH(30), YEAR(365), ALL(-1);
+
+        private final int mDays;
+
+        Period(int days) {
+            this.mDays = days;
+        }
+
+        public @Nullable LocalDate getFromDay() {
+            if (mDays < 0) return null;
+            return LocalDate.now(NetworkConstants.SERVER_TIME_ZONE).minusDays(mDays - 1);
+        }
+    }
+}
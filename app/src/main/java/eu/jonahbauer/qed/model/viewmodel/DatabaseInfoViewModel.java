@@ -1,41 +1,98 @@
 package eu.jonahbauer.qed.model.viewmodel;
 
 import android.app.Application;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.util.StatusWrapper;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
+/**
+ * Base class for view models of objects from the qed database. The cached copy of an object (if any)
+ * is shown while the object is being loaded and in case the object cannot be loaded due to network
+ * problems.
+ */
 public abstract class DatabaseInfoViewModel<T> extends InfoViewModel<T> {
+    private static final String LOG_TAG = DatabaseInfoViewModel.class.getName();
+
     private final CompositeDisposable mDisposable = new CompositeDisposable();
     private final QEDPageReceiver<T> mReceiver = new QEDPageReceiver<>() {
         @Override
         public void onResult(@NonNull T out) {
             DatabaseInfoViewModel.this.onResult(out);
             submit(StatusWrapper.loaded(out));
+
+            //noinspection ResultOfMethodCallIgnored
+            saveCached(out).subscribeOn(Schedulers.io())
+                           .subscribe(
+                                   () -> {},
+                                   e -> Log.e(LOG_TAG, "Error inserting " + out + " into database.", e)
+                           );
         }
 
         @Override
         public void onError(T out, @NonNull Reason reason, @Nullable Throwable cause) {
             QEDPageReceiver.super.onError(out, reason, cause);
-            submit(StatusWrapper.error(out, reason));
+            if (mCached != null && Reason.NETWORK.equals(reason)) {
+                submit(StatusWrapper.error(mCached, reason));
+            } else {
+                submit(StatusWrapper.error(out, reason));
+            }
         }
     };
 
+    private @Nullable T mCached;
+
     public DatabaseInfoViewModel(@NonNull Application application) {
         super(application);
     }
 
     public final void load(@NonNull T value) {
+        mCached = null;
         submit(StatusWrapper.preloaded(value));
+        mDisposable.add(
+                loadCached(value).subscribeOn(Schedulers.io())
+                                 .observeOn(AndroidSchedulers.mainThread())
+                                 .subscribe(
+                                         this::onCached,
+                                         e -> Log.e(LOG_TAG, "Error loading " + value + " from database.", e)
+                                 )
+        );
         mDisposable.add(load(value, mReceiver));
     }
 
+    private void onCached(@NonNull T cached) {
+        var current = getValueStatus().getValue();
+        if (current == null) return;
+
+        if (current.getCode() == StatusWrapper.STATUS_PRELOADED) {
+            mCached = cached;
+            submit(StatusWrapper.preloaded(cached));
+        } else if (current.getCode() == StatusWrapper.STATUS_ERROR && Reason.NETWORK.equals(current.getReason())) {
+            mCached = cached;
+            submit(StatusWrapper.error(cached, current.getReason()));
+        }
+    }
+
     protected abstract Disposable load(@NonNull T value, @NonNull QEDPageReceiver<T> receiver);
 
+    /**
+     * Loads the cached copy of the given value.
+     */
+    protected abstract Maybe<T> loadCached(@NonNull T value);
+
+    /**
+     * Replaces the cached copy of the given value.
+     */
+    protected abstract Completable saveCached(@NonNull T value);
+
     protected abstract void onResult(@NonNull T out);
 
     @Override
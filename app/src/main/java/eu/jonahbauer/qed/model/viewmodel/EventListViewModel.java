@@ -1,12 +1,19 @@
 package eu.jonahbauer.qed.model.viewmodel;
 
+import android.app.Application;
+import android.util.Log;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
+import eu.jonahbauer.qed.ConnectionStateMonitor;
 import eu.jonahbauer.qed.model.Event;
+import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.model.room.DatabaseCacheDao;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDDBPages;
@@ -15,31 +22,83 @@ import eu.jonahbauer.qed.util.StatusWrapper;
 import java.util.Collections;
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+public class EventListViewModel extends AndroidViewModel implements QEDPageReceiver<List<Event>> {
+    private static final String LOG_TAG = EventListViewModel.class.getName();
 
-public class EventListViewModel extends ViewModel implements QEDPageReceiver<List<Event>> {
+    private final DatabaseCacheDao mCacheDao;
     private final MutableLiveData<StatusWrapper<List<Event>>> mEvents = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> mOffline = new MutableLiveData<>(false);
     private final CompositeDisposable mDisposable = new CompositeDisposable();
 
-    public EventListViewModel() {
+    public EventListViewModel(@NonNull Application application) {
+        super(application);
+        mCacheDao = Database.getInstance(application).databaseCacheDao();
         load();
     }
 
+    /**
+     * Shows the cached event list (if any) and refreshes it in the background.
+     */
     public void load() {
+        mOffline.setValue(false);
         mEvents.setValue(StatusWrapper.preloaded(Collections.emptyList()));
         mDisposable.add(
-                QEDDBPages.getEventList(this)
+                mCacheDao.getEvents()
+                         .subscribeOn(Schedulers.io())
+                         .observeOn(AndroidSchedulers.mainThread())
+                         .subscribe(
+                                 this::onCached,
+                                 e -> Log.e(LOG_TAG, "Error loading event list from database.", e)
+                         )
+        );
+        mDisposable.add(
+                QEDDBPages.getEventList(getApplication(), this)
         );
     }
 
+    private void onCached(@NonNull List<Event> events) {
+        var current = mEvents.getValue();
+        if (current == null || events.isEmpty()) return;
+
+        if (current.getCode() == StatusWrapper.STATUS_PRELOADED) {
+            mEvents.setValue(StatusWrapper.loaded(events));
+        } else if (current.getCode() == StatusWrapper.STATUS_ERROR && Reason.NETWORK.equals(current.getReason()) && isUnreachable()) {
+            mOffline.setValue(true);
+            mEvents.setValue(StatusWrapper.loaded(events));
+        }
+    }
+
     public LiveData<StatusWrapper<List<Event>>> getEvents() {
         return mEvents;
     }
 
+    public LiveData<Boolean> getOffline() {
+        return mOffline;
+    }
+
     @Override
     public void onResult(@NonNull List<Event> out) {
         if (out.size() > 0) {
-            this.mEvents.setValue(StatusWrapper.loaded(out));
+            mDisposable.add(
+                    mCacheDao.updateEvents(out)
+                             .subscribeOn(Schedulers.io())
+                             .onErrorReturn(e -> {
+                                 Log.e(LOG_TAG, "Error inserting event list into database.", e);
+                                 return true;
+                             })
+                             .observeOn(AndroidSchedulers.mainThread())
+                             .subscribe(changed -> {
+                                 // avoid redrawing the list when the cached list is already up-to-date
+                                 var current = mEvents.getValue();
+                                 if (changed || current == null || current.getCode() != StatusWrapper.STATUS_LOADED) {
+                                     mEvents.setValue(StatusWrapper.loaded(out));
+                                 }
+                             })
+            );
         } else {
             this.mEvents.setValue(StatusWrapper.error(Collections.emptyList(), Reason.EMPTY));
         }
@@ -48,7 +107,18 @@ public class EventListViewModel extends ViewModel implements QEDPageReceiver<Lis
     @Override
     public void onError(List<Event> out, @NonNull Reason reason, @Nullable Throwable cause) {
         QEDPageReceiver.super.onError(out, reason, cause);
-        this.mEvents.setValue(StatusWrapper.error(out, reason));
+
+        var current = mEvents.getValue();
+        if (Reason.NETWORK.equals(reason) && current != null && current.getCode() == StatusWrapper.STATUS_LOADED && isUnreachable()) {
+            // keep showing the cached list
+            mOffline.setValue(true);
+        } else {
+            this.mEvents.setValue(StatusWrapper.error(out, reason));
+        }
+    }
+
+    private boolean isUnreachable() {
+        return ConnectionStateMonitor.isUnreachable(getApplication(), NetworkConstants.getDatabaseServerEvents());
     }
 
     @Override
@@ -5,8 +5,11 @@ import androidx.annotation.NonNull;
 import androidx.annotation.StringRes;
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.model.Event;
+import eu.jonahbauer.qed.model.room.Database;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDDBPages;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.disposables.Disposable;
 
 import java.time.Instant;
@@ -21,6 +24,16 @@ public class EventViewModel extends DatabaseInfoViewModel<Event> {
         return QEDDBPages.getEvent(event, receiver);
     }
 
+    @Override
+    protected Maybe<Event> loadCached(@NonNull Event event) {
+        return Database.getInstance(getApplication()).databaseCacheDao().getEvent(event.getId());
+    }
+
+    @Override
+    protected Completable saveCached(@NonNull Event event) {
+        return Database.getInstance(getApplication()).databaseCacheDao().updateEvent(event);
+    }
+
     @Override
     public void onResult(@NonNull Event out) {
         out.setLoaded(Instant.now());
@@ -2,6 +2,7 @@ package eu.jonahbauer.qed.model.viewmodel;
 
 import android.app.Application;
 import android.net.Uri;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -9,28 +10,47 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import eu.jonahbauer.qed.model.LogIndex;
 import eu.jonahbauer.qed.model.LogRequest;
 import eu.jonahbauer.qed.model.LogRequest.FileLogRequest;
+import eu.jonahbauer.qed.model.LogSummary;
 import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.model.room.MessageImporter;
+import eu.jonahbauer.qed.network.parser.chat.LogSnapshot;
+import eu.jonahbauer.qed.networking.LogRequestResolver;
 import eu.jonahbauer.qed.ui.adapter.MessageAdapter;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.QEDPageStreamReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDChatPages;
 import eu.jonahbauer.qed.util.StatusWrapper;
+import eu.jonahbauer.qed.util.cache.LogCache;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.longs.LongLongImmutablePair;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
 
 public class LogViewModel extends AndroidViewModel {
+    private static final String LOG_TAG = LogViewModel.class.getName();
+
+    private final LogRequestResolver mResolver;
     private final MutableLiveData<StatusWrapper<List<Message>>> mMessages = new MutableLiveData<>();
     private final MutableLiveData<LongLongImmutablePair> mDownloadStatus = new MutableLiveData<>();
     private final MutableLiveData<LongLongImmutablePair> mParseStatus = new MutableLiveData<>();
+    private final MutableLiveData<StatusWrapper<LogSummary>> mSummary = new MutableLiveData<>();
+    private final MutableLiveData<IntList> mSearchResults = new MutableLiveData<>();
 
     private final MutableLiveData<LogRequest> mLogRequest = new MutableLiveData<>();
 
@@ -38,13 +58,43 @@ public class LogViewModel extends AndroidViewModel {
 
     private int mCheckedItemPosition = MessageAdapter.INVALID_POSITION;
 
+    /**
+     * The file the current log is parsed from, if any.
+     */
+    private @Nullable Uri mFile;
+    /**
+     * The cached log {@link #mFile} points to, if any. It is kept pinned, so that it is not evicted
+     * while it may still be parsed.
+     */
+    private @Nullable LogCache.Entry mEntry;
+    private @NonNull Disposable mSummaryDisposable = Disposable.disposed();
+
+    /**
+     * The search index of the currently loaded messages.
+     */
+    private @Nullable LogIndex mIndex;
+    private @Nullable String mSearchQuery;
+    private int mSearchPosition = -1;
+    private @NonNull Disposable mSearchDisposable = Disposable.disposed();
+
     public LogViewModel(@NonNull Application application) {
         super(application);
+        mResolver = new LogRequestResolver(application);
         mLogRequest.observeForever(logRequest -> {
             mDisposable.clear();
             mMessages.setValue(StatusWrapper.preloaded(Collections.emptyList()));
             mDownloadStatus.setValue(null);
             mParseStatus.setValue(null);
+            mSummaryDisposable.dispose();
+            mSummary.setValue(null);
+            mFile = null;
+            setEntry(null);
+
+            // the search query is kept and applied again as soon as the new log is indexed
+            mIndex = null;
+            mSearchDisposable.dispose();
+            mSearchPosition = -1;
+            mSearchResults.setValue(null);
 
             try {
                 if (logRequest instanceof FileLogRequest) {
@@ -59,12 +109,19 @@ public class LogViewModel extends AndroidViewModel {
 
                     parse(file);
                 } else {
-                    File tempDir = getApplication().getCacheDir();
-                    File file = File.createTempFile("chat", ".log", tempDir);
-                    file.deleteOnExit();
-
+                    // serve as much as possible from the local database and only download the rest
                     mDisposable.add(
-                            QEDChatPages.getChatLog(getApplication(), logRequest, Uri.fromFile(file), new DownloadListener())
+                            mResolver.resolve(logRequest)
+                                     .subscribeOn(Schedulers.io())
+                                     .observeOn(AndroidSchedulers.mainThread())
+                                     .subscribe(
+                                             this::onResolved,
+                                             e -> {
+                                                 Log.w(LOG_TAG, "Could not resolve " + logRequest + ".", e);
+                                                 onError(Reason.guess(e));
+                                             },
+                                             () -> download(logRequest)
+                                     )
                     );
                 }
             } catch (IOException e) {
@@ -73,6 +130,139 @@ public class LogViewModel extends AndroidViewModel {
         });
     }
 
+    private void download(@NonNull LogRequest logRequest) {
+        mDisposable.add(
+                QEDChatPages.getChatLog(getApplication(), logRequest, new DownloadListener())
+        );
+    }
+
+    private void onResolved(@NonNull LogRequestResolver.Result result) {
+        var downloaded = result.getDownloaded();
+        var count = result.getMessages().size();
+        mDownloadStatus.setValue(LongLongImmutablePair.of(downloaded, downloaded));
+        mParseStatus.setValue(LongLongImmutablePair.of(count, count));
+        new ParseListener(null).onResult(result.getMessages());
+    }
+
+    /**
+     * Writes the currently loaded messages to the given uri as a {@link LogSnapshot}, which can be
+     * opened again much faster than the original log. Fails when no messages have been loaded.
+     */
+    public @NonNull Completable export(@NonNull Uri uri) {
+        var messages = mMessages.getValue();
+        if (messages == null || messages.getCode() != StatusWrapper.STATUS_LOADED
+                || messages.getValue() == null || messages.getValue().isEmpty()) {
+            return Completable.error(new IllegalStateException("No messages have been loaded."));
+        }
+
+        var list = messages.getValue();
+        return Completable.fromAction(() -> {
+            var out = getApplication().getContentResolver().openOutputStream(uri);
+            if (out == null) throw new IOException("Could not open output stream for uri " + uri + ".");
+            LogSnapshot.write(out, list, LogSnapshot.FLAG_DEFLATE);
+        });
+    }
+
+    /**
+     * Saves the current log to the local database, skipping messages that are already present. Logs
+     * opened from a file are imported directly from that file, i.e. they need not have been loaded.
+     * @return an observable reporting the progress of the import
+     */
+    public @NonNull Observable<LongLongPair> save() {
+        var database = Database.getInstance(getApplication());
+        var logRequest = mLogRequest.getValue();
+        if (logRequest instanceof FileLogRequest) {
+            var file = ((FileLogRequest) logRequest).getFile();
+            return MessageImporter.importAll(database, importer -> QEDChatPages.streamChatLog(getApplication(), file, importer));
+        }
+
+        var messages = mMessages.getValue();
+        var list = messages != null && messages.getCode() == StatusWrapper.STATUS_LOADED
+                ? messages.getValue()
+                : Collections.<Message>emptyList();
+        return MessageImporter.importAll(database, list);
+    }
+
+    /**
+     * Computes a {@link LogSummary} of the current log. When the messages could not be loaded, e.g.
+     * because the log is too large, the summary is computed directly from the log file without
+     * keeping the messages in memory.
+     */
+    public void summarize() {
+        var summary = mSummary.getValue();
+        if (summary != null && summary.getCode() != StatusWrapper.STATUS_ERROR) return;
+
+        var messages = mMessages.getValue();
+        if (messages != null && messages.getCode() == StatusWrapper.STATUS_LOADED) {
+            var list = messages.getValue();
+            var listener = new SummaryListener();
+            mSummary.setValue(StatusWrapper.preloaded(null));
+            mSummaryDisposable = Single.fromCallable(() -> {
+                                           var out = new LogSummary();
+                                           list.forEach(out);
+                                           return out;
+                                       })
+                                       .subscribeOn(Schedulers.computation())
+                                       .observeOn(AndroidSchedulers.mainThread())
+                                       .subscribe(
+                                               listener::onResult,
+                                               e -> listener.onError(null, e)
+                                       );
+        } else if (mFile != null) {
+            mSummary.setValue(StatusWrapper.preloaded(null));
+            mSummaryDisposable = QEDChatPages.summarizeChatLog(getApplication(), mFile, new SummaryListener());
+        } else {
+            mSummary.setValue(StatusWrapper.error(null, Reason.EMPTY));
+        }
+    }
+
+    /**
+     * Searches the currently loaded messages for the given query. The positions of all matching
+     * messages are published via {@link #getSearchResults()}. When the search index is still being
+     * built, the results are published as soon as it is ready.
+     */
+    public void search(@Nullable String query) {
+        if (query != null && query.isBlank()) query = null;
+        if (Objects.equals(mSearchQuery, query)) return;
+
+        mSearchQuery = query;
+        mSearchPosition = -1;
+        mSearchDisposable.dispose();
+
+        var index = mIndex;
+        if (query == null || index == null) {
+            mSearchResults.setValue(null);
+        } else {
+            var finalQuery = query;
+            mSearchDisposable = Single.fromCallable(() -> index.find(finalQuery))
+                                      .subscribeOn(Schedulers.computation())
+                                      .observeOn(AndroidSchedulers.mainThread())
+                                      .subscribe(
+                                              mSearchResults::setValue,
+                                              e -> Log.e(LOG_TAG, "Could not search log.", e)
+                                      );
+        }
+    }
+
+    public @Nullable String getSearchQuery() {
+        return mSearchQuery;
+    }
+
+    public LiveData<IntList> getSearchResults() {
+        return mSearchResults;
+    }
+
+    /**
+     * Sets the index of the currently shown search result.
+     */
+    public void setSearchPosition(int searchPosition) {
+        this.mSearchPosition = searchPosition;
+    }
+
+    public int getSearchPosition() {
+        return mSearchPosition;
+    }
+
     public void load(@NonNull LogRequest logRequest) {
         if (!Objects.equals(mLogRequest.getValue(), logRequest)) {
             mCheckedItemPosition = MessageAdapter.INVALID_POSITION;
@@ -92,6 +282,10 @@ public class LogViewModel extends AndroidViewModel {
         return mParseStatus;
     }
 
+    public LiveData<StatusWrapper<LogSummary>> getSummary() {
+        return mSummary;
+    }
+
     public LiveData<LogRequest> getLogRequest() {
         return mLogRequest;
     }
@@ -107,8 +301,12 @@ public class LogViewModel extends AndroidViewModel {
     private void parse(Uri file) {
         mDisposable.clear();
         mParseStatus.setValue(null);
+        mFile = file;
+
+        // build the search index on the fly
+        var index = new LogIndex();
         mDisposable.add(
-                QEDChatPages.parseChatLog(getApplication(), file, new ParseListener())
+                QEDChatPages.parseChatLog(getApplication(), file, index, new ParseListener(index))
         );
     }
 
@@ -116,40 +314,105 @@ public class LogViewModel extends AndroidViewModel {
         mMessages.setValue(StatusWrapper.error(Collections.emptyList(), reason));
     }
 
+    private void setEntry(@Nullable LogCache.Entry entry) {
+        if (mEntry != null) mEntry.close();
+        mEntry = entry;
+    }
+
     @Override
     protected void onCleared() {
         super.onCleared();
         mDisposable.clear();
+        setEntry(null);
+        mSummaryDisposable.dispose();
+        mSearchDisposable.dispose();
+    }
+
+    private void setIndex(@Nullable LogIndex index, @NonNull List<Message> messages) {
+        if (index != null) {
+            onIndexed(index);
+        } else {
+            mDisposable.add(
+                    Single.fromCallable(() -> {
+                              var out = new LogIndex();
+                              messages.forEach(out);
+                              return out;
+                          })
+                          .subscribeOn(Schedulers.computation())
+                          .observeOn(AndroidSchedulers.mainThread())
+                          .subscribe(
+                                  this::onIndexed,
+                                  e -> Log.e(LOG_TAG, "Could not build search index.", e)
+                          )
+            );
+        }
+    }
+
+    private void onIndexed(@NonNull LogIndex index) {
+        mIndex = index;
+
+        // run pending search
+        var query = mSearchQuery;
+        mSearchQuery = null;
+        search(query);
     }
 
-    private class DownloadListener implements QEDPageStreamReceiver<Uri> {
+    private class DownloadListener implements QEDPageStreamReceiver<LogCache.Entry> {
         private long size;
 
         @Override
-        public void onResult(@NonNull Uri out) {
+        public void onResult(@NonNull LogCache.Entry out) {
             mDownloadStatus.setValue(LongLongImmutablePair.of(size, size));
-            parse(out);
+            setEntry(out);
+            parse(Uri.fromFile(out.getFile()));
         }
 
         @Override
-        public void onError(Uri out, @NonNull Reason reason, @Nullable Throwable cause) {
+        public void onError(LogCache.Entry out, @NonNull Reason reason, @Nullable Throwable cause) {
             QEDPageStreamReceiver.super.onError(out, reason, cause);
             LogViewModel.this.onError(reason);
         }
 
         @Override
-        public void onProgressUpdate(Uri obj, long done, long total) {
+        public void onProgressUpdate(LogCache.Entry obj, long done, long total) {
             this.size = done;
             mDownloadStatus.setValue(LongLongImmutablePair.of(done, total));
         }
     }
 
+    private class SummaryListener implements QEDPageStreamReceiver<LogSummary> {
+
+        @Override
+        public void onResult(@NonNull LogSummary out) {
+            if (out.getCount() > 0) {
+                mSummary.setValue(StatusWrapper.loaded(out));
+            } else {
+                mSummary.setValue(StatusWrapper.error(null, Reason.EMPTY));
+            }
+        }
+
+        @Override
+        public void onError(LogSummary out, @NonNull Reason reason, @Nullable Throwable cause) {
+            QEDPageStreamReceiver.super.onError(out, reason, cause);
+            mSummary.setValue(StatusWrapper.error(null, reason));
+        }
+    }
+
     private class ParseListener implements QEDPageStreamReceiver<List<Message>> {
+        private final @Nullable LogIndex index;
+
+        /**
+         * @param index the search index built while parsing or {@code null} if it still needs to be built
+         */
+        private ParseListener(@Nullable LogIndex index) {
+            this.index = index;
+        }
 
         @Override
         public void onResult(@NonNull List<Message> out) {
             if (out.size() > 0) {
                 mMessages.setValue(StatusWrapper.loaded(out));
+                setIndex(index, out);
             } else {
                 mMessages.setValue(StatusWrapper.error(Collections.emptyList(), Reason.EMPTY));
             }
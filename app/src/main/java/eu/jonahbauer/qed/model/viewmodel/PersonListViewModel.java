@@ -1,12 +1,19 @@
 package eu.jonahbauer.qed.model.viewmodel;
 
+import android.app.Application;
+import android.util.Log;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.*;
 
+import eu.jonahbauer.qed.ConnectionStateMonitor;
 import eu.jonahbauer.qed.model.Person;
 import eu.jonahbauer.qed.model.PersonFilter;
+import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.model.room.DatabaseCacheDao;
 import eu.jonahbauer.qed.ui.adapter.PersonAdapter;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDDBPages;
@@ -18,14 +25,19 @@ import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
-public class PersonListViewModel extends ViewModel implements QEDPageReceiver<List<Person>> {
+public class PersonListViewModel extends AndroidViewModel implements QEDPageReceiver<List<Person>> {
+    private static final String LOG_TAG = PersonListViewModel.class.getName();
     private static final String SAVED_FILTER = "person_filter";
     private static final String SAVED_EXPANDED = "person_filter_expanded";
     private static final String SAVED_SORT_MODE = "person_sort_mode";
 
+    private final DatabaseCacheDao mCacheDao;
     private final MutableLiveData<StatusWrapper<List<Person>>> mPersons = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> mOffline = new MutableLiveData<>(false);
 
     private final MutableLiveData<PersonFilter> mFilter;
     private final MediatorLiveData<StatusWrapper<List<Person>>> mFilteredPersons = new MediatorLiveData<>();
@@ -36,7 +48,9 @@ public class PersonListViewModel extends ViewModel implements QEDPageReceiver<Li
     private final MutableLiveData<PersonAdapter.SortMode> mSortMode;
     private final MutableLiveData<Boolean> mExpanded;
 
-    public PersonListViewModel(@NonNull SavedStateHandle savedStateHandle) {
+    public PersonListViewModel(@NonNull Application application, @NonNull SavedStateHandle savedStateHandle) {
+        super(application);
+        mCacheDao = Database.getInstance(application).databaseCacheDao();
         mFilter = savedStateHandle.getLiveData(SAVED_FILTER, PersonFilter.EMPTY);
         mSortMode = savedStateHandle.getLiveData(SAVED_SORT_MODE, PersonAdapter.SortMode.FIRST_NAME);
         mExpanded = savedStateHandle.getLiveData(SAVED_EXPANDED, false);
@@ -59,13 +73,38 @@ public class PersonListViewModel extends ViewModel implements QEDPageReceiver<Li
         load();
     }
 
+    /**
+     * Shows the cached person list (if any) and refreshes it in the background.
+     */
     public void load() {
+        mOffline.setValue(false);
         mPersons.setValue(StatusWrapper.preloaded(Collections.emptyList()));
         mDisposable.add(
-                QEDDBPages.getPersonList(this)
+                mCacheDao.getPersons()
+                         .subscribeOn(Schedulers.io())
+                         .observeOn(AndroidSchedulers.mainThread())
+                         .subscribe(
+                                 this::onCached,
+                                 e -> Log.e(LOG_TAG, "Error loading person list from database.", e)
+                         )
+        );
+        mDisposable.add(
+                QEDDBPages.getPersonList(getApplication(), this)
         );
     }
 
+    private void onCached(@NonNull List<Person> persons) {
+        var current = mPersons.getValue();
+        if (current == null || persons.isEmpty()) return;
+
+        if (current.getCode() == StatusWrapper.STATUS_PRELOADED) {
+            mPersons.setValue(StatusWrapper.loaded(persons));
+        } else if (current.getCode() == StatusWrapper.STATUS_ERROR && Reason.NETWORK.equals(current.getReason()) && isUnreachable()) {
+            mOffline.setValue(true);
+            mPersons.setValue(StatusWrapper.loaded(persons));
+        }
+    }
+
     public void filter(@NonNull PersonFilter filter) {
         mFilter.setValue(filter);
     }
@@ -90,10 +129,29 @@ public class PersonListViewModel extends ViewModel implements QEDPageReceiver<Li
         return mExpanded;
     }
 
+    public LiveData<Boolean> getOffline() {
+        return mOffline;
+    }
+
     @Override
     public void onResult(@NonNull List<Person> out) {
         if (out.size() > 0) {
-            this.mPersons.setValue(StatusWrapper.loaded(out));
+            mDisposable.add(
+                    mCacheDao.updatePersons(out)
+                             .subscribeOn(Schedulers.io())
+                             .onErrorReturn(e -> {
+                                 Log.e(LOG_TAG, "Error inserting person list into database.", e);
+                                 return true;
+                             })
+                             .observeOn(AndroidSchedulers.mainThread())
+                             .subscribe(changed -> {
+                                 // avoid redrawing the list when the cached list is already up-to-date
+                                 var current = mPersons.getValue();
+                                 if (changed || current == null || current.getCode() != StatusWrapper.STATUS_LOADED) {
+                                     mPersons.setValue(StatusWrapper.loaded(out));
+                                 }
+                             })
+            );
         } else {
             this.mPersons.setValue(StatusWrapper.error(Collections.emptyList(), Reason.EMPTY));
         }
@@ -102,7 +160,18 @@ public class PersonListViewModel extends ViewModel implements QEDPageReceiver<Li
     @Override
     public void onError(List<Person> out, @NonNull Reason reason, @Nullable Throwable cause) {
         QEDPageReceiver.super.onError(out, reason, cause);
-        this.mPersons.setValue(StatusWrapper.error(out, reason));
+
+        var current = mPersons.getValue();
+        if (Reason.NETWORK.equals(reason) && current != null && current.getCode() == StatusWrapper.STATUS_LOADED && isUnreachable()) {
+            // keep showing the cached list
+            mOffline.setValue(true);
+        } else {
+            this.mPersons.setValue(StatusWrapper.error(out, reason));
+        }
+    }
+
+    private boolean isUnreachable() {
+        return ConnectionStateMonitor.isUnreachable(getApplication(), NetworkConstants.getDatabaseServerPersons());
     }
 
     @Override
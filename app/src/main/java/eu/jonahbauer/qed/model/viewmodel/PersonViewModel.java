@@ -6,11 +6,14 @@ import androidx.annotation.StringRes;
 import androidx.lifecycle.*;
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.model.Person;
+import eu.jonahbauer.qed.model.room.Database;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDDBPages;
 import eu.jonahbauer.qed.util.Preferences;
 import eu.jonahbauer.qed.util.Preferences$Config;
 import eu.jonahbauer.qed.util.preferences.SharedPreferenceLiveData;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.disposables.Disposable;
 
 import java.time.Instant;
@@ -46,6 +49,16 @@ public class PersonViewModel extends DatabaseInfoViewModel<Person> {
         return QEDDBPages.getPerson(person, receiver);
     }
 
+    @Override
+    protected Maybe<Person> loadCached(@NonNull Person person) {
+        return Database.getInstance(getApplication()).databaseCacheDao().getPerson(person.getId());
+    }
+
+    @Override
+    protected Completable saveCached(@NonNull Person person) {
+        return Database.getInstance(getApplication()).databaseCacheDao().updatePerson(person);
+    }
+
     @Override
     public void onResult(@NonNull Person out) {
         out.setLoaded(Instant.now());
@@ -6,11 +6,14 @@ import androidx.annotation.NonNull;
 import androidx.annotation.StringRes;
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.model.Registration;
+import eu.jonahbauer.qed.model.room.Database;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.pages.QEDDBPages;
 
 import java.time.Instant;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.disposables.Disposable;
 
 public class RegistrationViewModel extends DatabaseInfoViewModel<Registration> {
@@ -24,6 +27,16 @@ public class RegistrationViewModel extends DatabaseInfoViewModel<Registration> {
         return QEDDBPages.getRegistration(registration, receiver);
     }
 
+    @Override
+    protected Maybe<Registration> loadCached(@NonNull Registration registration) {
+        return Database.getInstance(getApplication()).databaseCacheDao().getRegistration(registration.getId());
+    }
+
+    @Override
+    protected Completable saveCached(@NonNull Registration registration) {
+        return Database.getInstance(getApplication()).databaseCacheDao().updateRegistration(registration);
+    }
+
     @Override
     public void onResult(@NonNull Registration out) {
         out.setLoaded(Instant.now());
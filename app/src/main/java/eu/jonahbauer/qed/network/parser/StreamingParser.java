@@ -0,0 +1,18 @@
+package eu.jonahbauer.qed.network.parser;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A parser that can process a page while it is being read instead of requiring the whole page as a
+ * {@link String}.
+ */
+public interface StreamingParser<T> extends Parser<T> {
+    /**
+     * Parses the page read from the given reader into the given object.
+     */
+    @NonNull
+    T apply(@NonNull T obj, @NonNull Reader reader) throws IOException;
+}
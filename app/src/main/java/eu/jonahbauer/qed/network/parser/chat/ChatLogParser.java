@@ -27,9 +27,20 @@ public final class ChatLogParser implements ObservableOnSubscribe<LongLongPair>
     private final Supplier<InputStream> mIn;
     private final Consumer<Message> mOut;
 
+    /**
+     * Whether the consumer keeps the messages in memory. Only then parsing is aborted when memory
+     * becomes scarce.
+     */
+    private final boolean mRetaining;
+
     public ChatLogParser(Supplier<InputStream> in, Consumer<Message> out) {
+        this(in, out, true);
+    }
+
+    public ChatLogParser(Supplier<InputStream> in, Consumer<Message> out, boolean retaining) {
         this.mIn = in;
         this.mOut = out;
+        this.mRetaining = retaining;
     }
 
     @Override
@@ -39,7 +50,7 @@ public final class ChatLogParser implements ObservableOnSubscribe<LongLongPair>
             lineCount = reader.lines().count() - 2;
         }
 
-        if (lineCount > Integer.MAX_VALUE) {
+        if (mRetaining && lineCount > Integer.MAX_VALUE) {
             throw new LowMemoryException("Cannot process more than " + Integer.MAX_VALUE + " messages at once.");
         }
         emitter.onNext(LongLongPair.of(0, lineCount));
@@ -69,7 +80,7 @@ public final class ChatLogParser implements ObservableOnSubscribe<LongLongPair>
                     }
                 }
 
-                if (index % 1000 == 0) {
+                if (mRetaining && index % 1000 == 0) {
                     Runtime runtime = Runtime.getRuntime();
                     if (runtime.totalMemory() > runtime.maxMemory() * MAX_MEMORY_FACTOR) {
                         throw new LowMemoryException("Exceeded maximum allowed memory.");
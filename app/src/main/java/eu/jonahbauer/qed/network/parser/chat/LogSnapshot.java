@@ -0,0 +1,247 @@
+package eu.jonahbauer.qed.network.parser.chat;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.networking.exceptions.LowMemoryException;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import io.reactivex.rxjava3.core.ObservableEmitter;
+import io.reactivex.rxjava3.core.ObservableOnSubscribe;
+import io.reactivex.rxjava3.functions.Supplier;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+
+/**
+ * A compact binary format for chat logs that can be read back without any JSON parsing.
+ * <br>
+ * A snapshot starts with the {@linkplain #MAGIC magic bytes}, a version byte and a flags byte. The
+ * remainder, which is deflated when {@link #FLAG_DEFLATE} is set, consists of
+ * <ol>
+ *     <li>the number of messages,</li>
+ *     <li>a string table holding all distinct names, user names, colors and channels,</li>
+ *     <li>fixed-width columns for id, date, user id and bottag as well as string table indices
+ *     for name, user name, color and channel, and</li>
+ *     <li>the message texts.</li>
+ * </ol>
+ * All strings are stored as length-prefixed UTF-8. Dates are stored with second precision, which
+ * is the precision used by the chat server.
+ */
+public final class LogSnapshot implements ObservableOnSubscribe<LongLongPair> {
+    private static final byte[] MAGIC = {'Q', 'E', 'D', 'L', 'O', 'G'};
+    private static final int VERSION = 1;
+    public static final int FLAG_DEFLATE = 1;
+
+    private static final int NULL = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final double MAX_MEMORY_FACTOR = 0.75;
+
+    private final Supplier<InputStream> mIn;
+    private final Consumer<Message> mOut;
+
+    public LogSnapshot(Supplier<InputStream> in, Consumer<Message> out) {
+        this.mIn = in;
+        this.mOut = out;
+    }
+
+    /**
+     * Checks whether the given stream contains a snapshot. Does not close the stream.
+     */
+    public static boolean isSnapshot(@NonNull InputStream in) throws IOException {
+        var header = new byte[MAGIC.length];
+        int n = 0;
+        while (n < header.length) {
+            int read = in.read(header, n, header.length - n);
+            if (read == -1) return false;
+            n += read;
+        }
+        return Arrays.equals(MAGIC, header);
+    }
+
+    /**
+     * Writes the given messages as a snapshot. Closes the stream.
+     * @param flags a combination of the {@code FLAG_*} constants
+     */
+    public static void write(@NonNull OutputStream stream, @NonNull List<Message> messages, int flags) throws IOException {
+        try {
+            stream.write(MAGIC);
+            stream.write(VERSION);
+            stream.write(flags);
+        } catch (IOException | RuntimeException e) {
+            try {
+                stream.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        var deflater = (flags & FLAG_DEFLATE) != 0 ? new Deflater(Deflater.BEST_SPEED) : null;
+        var body = deflater != null ? new DeflaterOutputStream(stream, deflater, BUFFER_SIZE) : stream;
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(body, BUFFER_SIZE))) {
+            int count = messages.size();
+            out.writeInt(count);
+
+            // string table
+            var strings = new Object2IntOpenHashMap<String>();
+            strings.defaultReturnValue(NULL);
+            var table = new ArrayList<String>();
+            var names = new int[count];
+            var userNames = new int[count];
+            var colors = new int[count];
+            var channels = new int[count];
+            for (int i = 0; i < count; i++) {
+                var message = messages.get(i);
+                names[i] = intern(strings, table, message.getRawName());
+                userNames[i] = intern(strings, table, message.getUserName());
+                colors[i] = intern(strings, table, message.getColor());
+                channels[i] = intern(strings, table, message.getChannel());
+            }
+
+            out.writeInt(table.size());
+            for (String string : table) {
+                writeString(out, string);
+            }
+
+            // fixed-width columns
+            for (Message message : messages) out.writeLong(message.getId());
+            for (Message message : messages) out.writeLong(message.getDate().getEpochSecond());
+            for (Message message : messages) out.writeLong(message.getUserId());
+            for (Message message : messages) out.writeInt(message.getBottag());
+            for (int name : names) out.writeInt(name);
+            for (int userName : userNames) out.writeInt(userName);
+            for (int color : colors) out.writeInt(color);
+            for (int channel : channels) out.writeInt(channel);
+
+            // message texts
+            for (Message message : messages) {
+                writeString(out, message.getMessage());
+            }
+        } finally {
+            if (deflater != null) deflater.end();
+        }
+    }
+
+    @Override
+    public void subscribe(@NonNull ObservableEmitter<LongLongPair> emitter) throws Throwable {
+        try (var stream = new BufferedInputStream(mIn.get(), BUFFER_SIZE)) {
+            if (!isSnapshot(stream)) throw new IOException("Not a log snapshot.");
+
+            int version = stream.read();
+            if (version != VERSION) throw new IOException("Unsupported log snapshot version " + version + ".");
+            int flags = stream.read();
+            if (flags == -1) throw new EOFException();
+
+            var body = (flags & FLAG_DEFLATE) != 0
+                    ? new BufferedInputStream(new InflaterInputStream(stream), BUFFER_SIZE)
+                    : stream;
+            readBody(new DataInputStream(body), emitter);
+        }
+        emitter.onComplete();
+    }
+
+    private void readBody(@NonNull DataInputStream in, @NonNull ObservableEmitter<LongLongPair> emitter) throws IOException {
+        try (in) {
+            int count = in.readInt();
+            long required = 64L * count;
+            Runtime runtime = Runtime.getRuntime();
+            if (required > runtime.maxMemory() * MAX_MEMORY_FACTOR) {
+                throw new LowMemoryException("Cannot load " + count + " messages at once.");
+            }
+            emitter.onNext(LongLongPair.of(0, count));
+
+            var table = new String[in.readInt()];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = readString(in);
+            }
+
+            var ids = readLongs(in, count);
+            var dates = readLongs(in, count);
+            var userIds = readLongs(in, count);
+            var bottags = readInts(in, count);
+            var names = readInts(in, count);
+            var userNames = readInts(in, count);
+            var colors = readInts(in, count);
+            var channels = readInts(in, count);
+
+            long lastUpdate = System.currentTimeMillis();
+            for (int i = 0; i < count && !emitter.isDisposed(); i++) {
+                mOut.accept(new Message(
+                        ids[i],
+                        table[names[i]],
+                        readString(in),
+                        Instant.ofEpochSecond(dates[i]),
+                        userIds[i],
+                        userNames[i] == NULL ? null : table[userNames[i]],
+                        table[colors[i]],
+                        table[channels[i]],
+                        bottags[i]
+                ));
+
+                if (i % 1000 == 0) {
+                    long time = System.currentTimeMillis();
+                    if (time - lastUpdate > 33) {
+                        lastUpdate = time;
+                        emitter.onNext(LongLongPair.of(i, count));
+                    }
+                }
+            }
+            emitter.onNext(LongLongPair.of(count, count));
+        }
+    }
+
+    private static int intern(@NonNull Object2IntOpenHashMap<String> strings, @NonNull List<String> table, @Nullable String string) {
+        if (string == null) return NULL;
+
+        int index = strings.getInt(string);
+        if (index == NULL) {
+            index = table.size();
+            table.add(string);
+            strings.put(string, index);
+        }
+        return index;
+    }
+
+    private static void writeString(@NonNull DataOutputStream out, @NonNull String string) throws IOException {
+        var bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static @NonNull String readString(@NonNull DataInputStream in) throws IOException {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long[] readLongs(@NonNull DataInputStream in, int count) throws IOException {
+        var out = new long[count];
+        for (int i = 0; i < count; i++) out[i] = in.readLong();
+        return out;
+    }
+
+    private static int[] readInts(@NonNull DataInputStream in, int count) throws IOException {
+        var out = new int[count];
+        for (int i = 0; i < count; i++) out[i] = in.readInt();
+        return out;
+    }
+}
@@ -0,0 +1,121 @@
+package eu.jonahbauer.qed.network.parser.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import eu.jonahbauer.qed.network.parser.StreamingParser;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A parser for the tables listing all entities of one kind, e.g. {@code people_as_table}. These
+ * pages are large, so they can also be {@linkplain #apply(List, Reader) streamed}: each row is
+ * parsed as soon as it is complete and discarded afterwards, so that the page is never held in
+ * memory as a whole.
+ * <br>
+ * Rows are independent of each other and are parsed in parallel on the common {@link ForkJoinPool}
+ * once there are enough of them. The order of the rows is preserved.
+ */
+public abstract class DatabaseListParser<T> extends DatabaseParser<List<T>> implements StreamingParser<List<T>> {
+    /**
+     * The minimum number of rows for which parsing in parallel pays off.
+     */
+    @VisibleForTesting
+    static final int PARALLEL_THRESHOLD = 64;
+
+    private final String mRowQuery;
+
+    /**
+     * @param rowQuery a css query selecting the table rows, each containing one entity
+     */
+    protected DatabaseListParser(@NonNull String rowQuery) {
+        this.mRowQuery = rowQuery;
+    }
+
+    @NonNull
+    @Override
+    protected final List<T> parse(@NonNull List<T> list, Document document) {
+        return parse(list, document, true);
+    }
+
+    @NonNull
+    @VisibleForTesting
+    final List<T> parse(@NonNull List<T> list, @NonNull Document document, boolean parallel) {
+        list.clear();
+
+        var rows = document.select(mRowQuery);
+        if (parallel && rows.size() >= PARALLEL_THRESHOLD) {
+            rows.parallelStream()
+                .map(this::parseRow)
+                .filter(Objects::nonNull)
+                .forEachOrdered(list::add);
+        } else {
+            for (Element row : rows) {
+                var entity = parseRow(row);
+                if (entity != null) list.add(entity);
+            }
+        }
+        return list;
+    }
+
+    @NonNull
+    @Override
+    public final List<T> apply(@NonNull List<T> list, @NonNull Reader reader) throws IOException {
+        list.clear();
+
+        var pool = ForkJoinPool.commonPool();
+        var tasks = new ArrayList<ForkJoinTask<T>>();
+        try (var streamer = new StreamParser(Parser.htmlParser())) {
+            streamer.parse(reader, "");
+
+            Element row;
+            while ((row = streamer.selectNext(mRowQuery)) != null) {
+                // a detached row is not shared with the parser anymore
+                row.remove();
+                var detached = row;
+                tasks.add(pool.submit(() -> parseRow(detached)));
+            }
+        }
+
+        for (var task : tasks) {
+            var entity = task.join();
+            if (entity != null) list.add(entity);
+        }
+        return list;
+    }
+
+    /**
+     * Parses a single table row. Must not access anything outside the given row, since rows are
+     * parsed concurrently.
+     * @return the entity or {@code null} if the row could not be parsed
+     */
+    @Nullable
+    protected abstract T parseRow(@NonNull Element row);
+
+    /**
+     * Returns the first descendant of the given element with the given tag name in document order.
+     * Equivalent to {@code element.selectFirst(tag)}, but without parsing a css query for every cell.
+     */
+    @Nullable
+    protected static Element findFirst(@NonNull Element element, @NonNull String tag) {
+        for (Element child : element.children()) {
+            if (tag.equals(child.normalName())) return child;
+
+            var descendant = findFirst(child, tag);
+            if (descendant != null) return descendant;
+        }
+        return null;
+    }
+}
@@ -1,6 +1,5 @@
 package eu.jonahbauer.qed.network.parser.database;
 
-import android.net.Uri;
 import androidx.annotation.Nullable;
 import eu.jonahbauer.qed.network.parser.HtmlParser;
 import org.jsoup.nodes.Element;
@@ -16,10 +15,25 @@ public abstract class DatabaseParser<T> extends HtmlParser<T> {
     protected static Long parseIdFromHref(@Nullable Element element) {
         if (element == null) return null;
         try {
-            var href = Uri.parse(element.attr("href"));
-            return Long.parseLong(href.getLastPathSegment());
-        } catch (Exception e) {
+            return Long.parseLong(getLastPathSegment(element.attr("href")));
+        } catch (NumberFormatException e) {
             return null;
         }
     }
+
+    /**
+     * Extracts the last non-empty path segment of a link without {@link android.net.Uri}, which is
+     * not available outside of Android.
+     */
+    private static String getLastPathSegment(String href) {
+        int end = href.length();
+        int query = href.indexOf('?');
+        if (query != -1) end = query;
+        int fragment = href.indexOf('#');
+        if (fragment != -1 && fragment < end) end = fragment;
+
+        while (end > 0 && href.charAt(end - 1) == '/') end--;
+        int start = href.lastIndexOf('/', end - 1) + 1;
+        return href.substring(start, end);
+    }
 }
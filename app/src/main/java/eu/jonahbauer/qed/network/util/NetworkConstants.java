@@ -1,37 +1,209 @@
 package eu.jonahbauer.qed.network.util;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.net.URI;
 import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
 
 import lombok.experimental.UtilityClass;
 
+/**
+ * The urls of the QED servers. They are read whenever a request is made, so that tests and
+ * benchmarks can {@linkplain #setBaseUrls(String, String, String, String) redirect} all requests
+ * to a local stand-in server. Apart from that, they cannot be changed.
+ */
 @UtilityClass
 public class NetworkConstants {
-    public static final String CHAT_SERVER_LOGIN = "https://chat.qed-verein.de/rubychat/account";
-    public static final String CHAT_SERVER_LOGOUT = "https://chat.qed-verein.de/rubychat/account";
-    public static final String CHAT_SERVER_HISTORY = "https://chat.qed-verein.de/rubychat/history";
-    public static final String CHAT_WEBSOCKET = "wss://chat.qed-verein.de/websocket";
+    private static final String CHAT_BASE_URL = "https://chat.qed-verein.de";
+    private static final String CHAT_WEBSOCKET_BASE_URL = "wss://chat.qed-verein.de";
+    private static final String DATABASE_BASE_URL = "https://qeddb.qed-verein.de";
+    private static final String GALLERY_BASE_URL = "https://qedgallery.qed-verein.de";
+
+    private static volatile String CHAT_SERVER_MAIN;
+    private static volatile String CHAT_SERVER_LOGIN;
+    private static volatile String CHAT_SERVER_LOGOUT;
+    private static volatile String CHAT_SERVER_HISTORY;
+    private static volatile String CHAT_WEBSOCKET;
     public static final String CHAT_VERSION = "20171030131648";
 
-    public static final String DATABASE_SERVER_MAIN = "https://qeddb.qed-verein.de/";
-    public static final String DATABASE_SERVER_LOGIN = "https://qeddb.qed-verein.de/login";
-    public static final String DATABASE_SERVER_LOGOUT = "https://qeddb.qed-verein.de/logout";
-    public static final String DATABASE_SERVER_PERSONS = "https://qeddb.qed-verein.de/people_as_table";
-    public static final String DATABASE_SERVER_PERSON = "https://qeddb.qed-verein.de/people/%d";
-    public static final String DATABASE_SERVER_EVENTS = "https://qeddb.qed-verein.de/events_as_table";
-    public static final String DATABASE_SERVER_EVENT = "https://qeddb.qed-verein.de/events/%d";
-    public static final String DATABASE_SERVER_REGISTRATION = "https://qeddb.qed-verein.de/registrations/%d";
-
-    public static final String GALLERY_SERVER_LOGIN = "https://qedgallery.qed-verein.de/account.php";
-    public static final String GALLERY_SERVER_LOGOUT = "https://qedgallery.qed-verein.de/account.php?logout=logout";
-    public static final String GALLERY_SERVER_LIST = "https://qedgallery.qed-verein.de/album_list.php";
-    public static final String GALLERY_SERVER_ALBUM = "https://qedgallery.qed-verein.de/album_view.php?page=0&albumid=%d%s";
-    public static final String GALLERY_SERVER_MAIN = "https://qedgallery.qed-verein.de/";
-    public static final String GALLERY_SERVER_IMAGE_INFO = "https://qedgallery.qed-verein.de/image_view.php?imageid=%d";
-    public static final String GALLERY_SERVER_IMAGE = "https://qedgallery.qed-verein.de/image.php?type=%s&imageid=%d";
-    public static final String GALLERY_SERVER_IMAGE_VIEW = "https://qedgallery.qed-verein.de/image_view.php?imageid=%d";
+    private static volatile String DATABASE_SERVER_MAIN;
+    private static volatile String DATABASE_SERVER_LOGIN;
+    private static volatile String DATABASE_SERVER_LOGOUT;
+    private static volatile String DATABASE_SERVER_PERSONS;
+    private static volatile String DATABASE_SERVER_PERSON;
+    private static volatile String DATABASE_SERVER_EVENTS;
+    private static volatile String DATABASE_SERVER_EVENT;
+    private static volatile String DATABASE_SERVER_REGISTRATION;
+
+    private static volatile String GALLERY_SERVER_LOGIN;
+    private static volatile String GALLERY_SERVER_LOGOUT;
+    private static volatile String GALLERY_SERVER_LIST;
+    private static volatile String GALLERY_SERVER_ALBUM;
+    private static volatile String GALLERY_SERVER_MAIN;
+    private static volatile String GALLERY_SERVER_IMAGE_INFO;
+    private static volatile String GALLERY_SERVER_IMAGE;
+    private static volatile String GALLERY_SERVER_IMAGE_VIEW;
+
+    private static volatile Set<String> SERVER_HOSTS;
 
     public static final String GIT_HUB_API = "https://api.github.com/repos/jbb01/QED";
 
     public static final ZoneId SERVER_TIME_ZONE = ZoneId.of("Europe/Berlin");
     public static final String HOST = ".qed-verein.de";
+
+    static {
+        resetBaseUrls();
+    }
+
+    //<editor-fold desc="Getters" defaultstate="collapsed">
+    public static @NonNull String getChatServerMain() {
+        return CHAT_SERVER_MAIN;
+    }
+
+    public static @NonNull String getChatServerLogin() {
+        return CHAT_SERVER_LOGIN;
+    }
+
+    public static @NonNull String getChatServerLogout() {
+        return CHAT_SERVER_LOGOUT;
+    }
+
+    public static @NonNull String getChatServerHistory() {
+        return CHAT_SERVER_HISTORY;
+    }
+
+    public static @NonNull String getChatWebsocket() {
+        return CHAT_WEBSOCKET;
+    }
+
+    public static @NonNull String getDatabaseServerMain() {
+        return DATABASE_SERVER_MAIN;
+    }
+
+    public static @NonNull String getDatabaseServerLogin() {
+        return DATABASE_SERVER_LOGIN;
+    }
+
+    public static @NonNull String getDatabaseServerLogout() {
+        return DATABASE_SERVER_LOGOUT;
+    }
+
+    public static @NonNull String getDatabaseServerPersons() {
+        return DATABASE_SERVER_PERSONS;
+    }
+
+    public static @NonNull String getDatabaseServerPerson() {
+        return DATABASE_SERVER_PERSON;
+    }
+
+    public static @NonNull String getDatabaseServerEvents() {
+        return DATABASE_SERVER_EVENTS;
+    }
+
+    public static @NonNull String getDatabaseServerEvent() {
+        return DATABASE_SERVER_EVENT;
+    }
+
+    public static @NonNull String getDatabaseServerRegistration() {
+        return DATABASE_SERVER_REGISTRATION;
+    }
+
+    public static @NonNull String getGalleryServerLogin() {
+        return GALLERY_SERVER_LOGIN;
+    }
+
+    public static @NonNull String getGalleryServerLogout() {
+        return GALLERY_SERVER_LOGOUT;
+    }
+
+    public static @NonNull String getGalleryServerList() {
+        return GALLERY_SERVER_LIST;
+    }
+
+    public static @NonNull String getGalleryServerAlbum() {
+        return GALLERY_SERVER_ALBUM;
+    }
+
+    public static @NonNull String getGalleryServerMain() {
+        return GALLERY_SERVER_MAIN;
+    }
+
+    public static @NonNull String getGalleryServerImageInfo() {
+        return GALLERY_SERVER_IMAGE_INFO;
+    }
+
+    public static @NonNull String getGalleryServerImage() {
+        return GALLERY_SERVER_IMAGE;
+    }
+
+    public static @NonNull String getGalleryServerImageView() {
+        return GALLERY_SERVER_IMAGE_VIEW;
+    }
+    //</editor-fold>
+
+    /**
+     * Checks whether the given host is the host of one of the QED servers, i.e. of one of the
+     * {@linkplain #setBaseUrls(String, String, String, String) base urls} currently in use.
+     */
+    public static boolean isServerHost(@Nullable String host) {
+        return host != null && SERVER_HOSTS.contains(host.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Sends all requests to the QED servers to the given base urls instead, e.g. {@code http://localhost:8080/chat}.
+     * The base urls must not end with a slash.
+     */
+    @VisibleForTesting
+    public static synchronized void setBaseUrls(@NonNull String chat, @NonNull String chatWebSocket,
+                                                @NonNull String database, @NonNull String gallery) {
+        CHAT_SERVER_MAIN = chat;
+        CHAT_SERVER_LOGIN = chat + "/rubychat/account";
+        CHAT_SERVER_LOGOUT = chat + "/rubychat/account";
+        CHAT_SERVER_HISTORY = chat + "/rubychat/history";
+        CHAT_WEBSOCKET = chatWebSocket + "/websocket";
+
+        DATABASE_SERVER_MAIN = database + "/";
+        DATABASE_SERVER_LOGIN = database + "/login";
+        DATABASE_SERVER_LOGOUT = database + "/logout";
+        DATABASE_SERVER_PERSONS = database + "/people_as_table";
+        DATABASE_SERVER_PERSON = database + "/people/%d";
+        DATABASE_SERVER_EVENTS = database + "/events_as_table";
+        DATABASE_SERVER_EVENT = database + "/events/%d";
+        DATABASE_SERVER_REGISTRATION = database + "/registrations/%d";
+
+        GALLERY_SERVER_LOGIN = gallery + "/account.php";
+        GALLERY_SERVER_LOGOUT = gallery + "/account.php?logout=logout";
+        GALLERY_SERVER_LIST = gallery + "/album_list.php";
+        GALLERY_SERVER_ALBUM = gallery + "/album_view.php?page=0&albumid=%d%s";
+        GALLERY_SERVER_MAIN = gallery + "/";
+        GALLERY_SERVER_IMAGE_INFO = gallery + "/image_view.php?imageid=%d";
+        GALLERY_SERVER_IMAGE = gallery + "/image.php?type=%s&imageid=%d";
+        GALLERY_SERVER_IMAGE_VIEW = gallery + "/image_view.php?imageid=%d";
+
+        var hosts = new HashSet<String>();
+        for (String url : new String[] {chat, chatWebSocket, database, gallery}) {
+            hosts.add(host(url));
+        }
+        SERVER_HOSTS = Collections.unmodifiableSet(hosts);
+    }
+
+    /**
+     * Sends all requests to the QED servers again.
+     */
+    @VisibleForTesting
+    public static void resetBaseUrls() {
+        setBaseUrls(CHAT_BASE_URL, CHAT_WEBSOCKET_BASE_URL, DATABASE_BASE_URL, GALLERY_BASE_URL);
+    }
+
+    private static @NonNull String host(@NonNull String url) {
+        var host = URI.create(url).getHost();
+        if (host == null) throw new IllegalArgumentException("Base url " + url + " does not have a host.");
+        return host.toLowerCase(Locale.ROOT);
+    }
 }
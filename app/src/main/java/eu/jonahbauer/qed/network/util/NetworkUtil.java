@@ -9,10 +9,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import eu.jonahbauer.qed.networking.Feature;
 import lombok.experimental.UtilityClass;
+import okhttp3.Response;
 
 
 @UtilityClass
@@ -104,18 +104,22 @@ public class NetworkUtil {
     }
 
 
-    public static boolean isLoginError(Feature feature, HttpURLConnection connection) {
-        String location = connection.getHeaderField("Location");
+    /**
+     * Reads the body of the given response to a string.
+     */
+    @NonNull
+    public static String readPage(@NonNull Response response) throws IOException {
+        return new String(response.body().bytes(), StandardCharsets.UTF_8);
+    }
+
+    public static boolean isLoginError(Feature feature, Response response) {
+        String location = response.header("Location");
 
         switch (feature) {
             case CHAT:
-                Map<String, List<String>> headers = connection.getHeaderFields();
-                if (headers.containsKey("Set-Cookie")) {
-                    List<String> setCookie = headers.get("Set-Cookie");
-                    if (setCookie != null) for (String s : setCookie) {
-                        if (s.contains("userid=;") || s.contains("pwhash=;")) {
-                            return true;
-                        }
+                for (String s : response.headers("Set-Cookie")) {
+                    if (s.contains("userid=;") || s.contains("pwhash=;")) {
+                        return true;
                     }
                 }
             case GALLERY:
@@ -0,0 +1,120 @@
+package eu.jonahbauer.qed.networking;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import eu.jonahbauer.qed.ConnectionStateMonitor;
+import eu.jonahbauer.qed.model.CoveredRange;
+import eu.jonahbauer.qed.model.LogRequest.PostIntervalLogRequest;
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.model.room.MessageDao;
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+import eu.jonahbauer.qed.networking.pages.QEDChatPages;
+import eu.jonahbauer.qed.util.MessageUtils;
+import eu.jonahbauer.qed.util.Preferences;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.Disposable;
+
+/**
+ * Completes the local chat archive of the current channel in the background. Only those id ranges
+ * that are not yet {@linkplain CoveredRange covered} are downloaded, newest first and in batches of
+ * {@value #BATCH_SIZE} ids. Synchronization only happens while the {@link ConnectionStateMonitor}
+ * reports an unmetered connection and stops as soon as the connection becomes metered or is lost.
+ */
+public class ChatHistorySync {
+    private static final String LOG_TAG = ChatHistorySync.class.getName();
+
+    /**
+     * The number of message ids requested at once.
+     */
+    private static final long BATCH_SIZE = 5_000;
+
+    private final @NonNull Context mContext;
+    private final @NonNull MessageDao mMessageDao;
+    private final @NonNull LiveData<ConnectionStateMonitor.State> mConnectionState;
+
+    private volatile boolean mUnmetered;
+    private @NonNull Disposable mDisposable = Disposable.disposed();
+
+    private final Observer<ConnectionStateMonitor.State> mConnectionStateObserver = state -> update();
+    private final SharedPreferences.OnSharedPreferenceChangeListener mPreferenceListener = (preferences, key) -> {
+        if (Preferences.getChat().getKeys().getHistorySync().equals(key)) {
+            update();
+        } else if (Preferences.getChat().getKeys().getChannel().equals(key)) {
+            mDisposable.dispose();
+            update();
+        }
+    };
+
+    public ChatHistorySync(@NonNull Context context, @NonNull ConnectionStateMonitor connectionStateMonitor) {
+        this.mContext = context.getApplicationContext();
+        this.mMessageDao = Database.getInstance(context).messageDao();
+        this.mConnectionState = connectionStateMonitor.getConnectionState();
+    }
+
+    @MainThread
+    public void enable() {
+        Preferences.getSharedPreferences().registerOnSharedPreferenceChangeListener(mPreferenceListener);
+        mConnectionState.observeForever(mConnectionStateObserver);
+    }
+
+    @MainThread
+    public void disable() {
+        Preferences.getSharedPreferences().unregisterOnSharedPreferenceChangeListener(mPreferenceListener);
+        mConnectionState.removeObserver(mConnectionStateObserver);
+        mDisposable.dispose();
+    }
+
+    @MainThread
+    private void update() {
+        mUnmetered = mConnectionState.getValue() == ConnectionStateMonitor.State.CONNECTED;
+
+        if (!mUnmetered || !Preferences.getChat().isHistorySync()) {
+            mDisposable.dispose();
+        } else if (mDisposable.isDisposed()) {
+            var channel = Preferences.getChat().getChannel();
+            mDisposable = Completable.fromAction(() -> sync(channel))
+                                     .subscribeOn(NetworkScheduler.getInstance().get(NetworkScheduler.Priority.BACKGROUND, NetworkConstants.getChatServerHistory()))
+                                     .subscribe(
+                                             () -> Log.d(LOG_TAG, "Chat history of channel \"" + channel + "\" is up-to-date."),
+                                             e -> Log.w(LOG_TAG, "Could not synchronize chat history.", e)
+                                     );
+        }
+    }
+
+    @WorkerThread
+    private void sync(@NonNull String channel) throws IOException {
+        var newest = mMessageDao.findNewestIdSync();
+        if (newest == null) return;
+
+        var gaps = CoveredRange.gaps(mMessageDao.getCoverageSync(channel), 0, newest);
+        for (int i = gaps.size() - 1; i >= 0; i--) {
+            var gap = gaps.get(i);
+            for (long to = gap.secondLong(); to >= gap.firstLong(); to -= BATCH_SIZE) {
+                if (!mUnmetered || Thread.currentThread().isInterrupted()) return;
+
+                long from = Math.max(gap.firstLong(), to - BATCH_SIZE + 1);
+                var messages = new ArrayList<Message>();
+                var dateFixer = MessageUtils.dateFixer();
+                QEDChatPages.getChatLogSync(
+                        mContext,
+                        new PostIntervalLogRequest(channel, from, to),
+                        msg -> messages.add(dateFixer.apply(msg))
+                );
+                mMessageDao.insertRangeSync(channel, from, to, messages);
+            }
+        }
+    }
+}
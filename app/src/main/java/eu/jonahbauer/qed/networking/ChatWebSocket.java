@@ -42,6 +42,7 @@ public class ChatWebSocket extends ConnectableObservable<Message> {
     private final String mChannel;
 
     private WebSocket mWebSocket;
+    private volatile RequestTracer.Trace mTrace;
     private final Listener mWebSocketListener = new Listener();
 
     private volatile long mPosition = -100;
@@ -66,22 +67,25 @@ public class ChatWebSocket extends ConnectableObservable<Message> {
             throw new IllegalStateException();
         }
 
-        OkHttpClient client = new OkHttpClient.Builder()
+        // shares connection pool, tracing and timeouts with all other requests
+        OkHttpClient client = QEDHttpClient.getInstance().newBuilder()
                 .pingInterval(30, TimeUnit.SECONDS)
-                .connectTimeout(5, TimeUnit.SECONDS).build();
+                .build();
 
         // configure request
+        String url = NetworkConstants.getChatWebsocket()
+                + "?channel=" + mChannel
+                + "&version=" + "2"
+                + "&position=" + mPosition;
+        mTrace = RequestTracer.getInstance().start(url);
         Request.Builder request = new Request.Builder()
-                .url(NetworkConstants.CHAT_WEBSOCKET
-                        + "?channel=" + mChannel
-                        + "&version=" + "2"
-                        + "&position=" + mPosition
-                )
-                .addHeader("Origin", "https://chat.qed-verein.de");
+                .url(url)
+                .tag(RequestTracer.Trace.class, mTrace)
+                .addHeader("Origin", NetworkConstants.getChatServerMain());
 
         // add cookies
         try {
-            URI uri = new URI("https", "chat.qed-verein.de", "/websocket", null);
+            URI uri = new URI(NetworkConstants.getChatServerMain() + "/websocket");
             QEDCookieHandler.getInstance().get(uri, Collections.emptyMap())
                             .forEach((key, values) -> values.forEach(value -> request.addHeader(key, value)));
         } catch (URISyntaxException | IOException ignored) {}
@@ -143,6 +147,7 @@ public class ChatWebSocket extends ConnectableObservable<Message> {
         @Override
         public void onOpen(@NonNull WebSocket webSocket, @NonNull Response response) {
             if (BuildConfig.DEBUG) Log.d(LOG_TAG, "WebSocket opened.");
+            mTrace.finish(false);
             mOpen.set(true);
         }
 
@@ -193,6 +198,7 @@ public class ChatWebSocket extends ConnectableObservable<Message> {
         @Override
         public void onFailure(@NonNull WebSocket webSocket, @NonNull Throwable t, Response response) {
             if (BuildConfig.DEBUG) Log.d(LOG_TAG, "WebSocket failure.", t);
+            mTrace.finish(true);
 
             mPublishSubject.onError(t);
             mOpen.set(false);
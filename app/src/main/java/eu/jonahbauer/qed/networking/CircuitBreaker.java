@@ -0,0 +1,160 @@
+package eu.jonahbauer.qed.networking;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import eu.jonahbauer.qed.networking.exceptions.HostUnavailableException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of failing hosts, so that requests to a host that is down fail immediately instead of
+ * each waiting for its own connection to time out.
+ * <br>
+ * After {@value #FAILURE_THRESHOLD} consecutive failed requests a host is considered unavailable and
+ * all requests to it fail with a {@link HostUnavailableException}. Once the cooldown has passed, a
+ * single request is let through to probe the host. If it succeeds, the host is available again,
+ * otherwise the cooldown is doubled up to a maximum.
+ */
+public final class CircuitBreaker {
+    private static final CircuitBreaker INSTANCE = new CircuitBreaker(System::nanoTime);
+
+    @VisibleForTesting
+    static final int FAILURE_THRESHOLD = 3;
+    @VisibleForTesting
+    static final long MIN_COOLDOWN = TimeUnit.SECONDS.toNanos(15);
+    @VisibleForTesting
+    static final long MAX_COOLDOWN = TimeUnit.MINUTES.toNanos(2);
+
+    private final LongSupplier mClock;
+    private final Map<String, HostState> mHosts = new HashMap<>();
+    private final List<Consumer<Set<String>>> mListeners = new CopyOnWriteArrayList<>();
+
+    public static @NonNull CircuitBreaker getInstance() {
+        return INSTANCE;
+    }
+
+    @VisibleForTesting
+    CircuitBreaker(@NonNull LongSupplier clock) {
+        this.mClock = clock;
+    }
+
+    /**
+     * Checks whether a request to the given host may be sent. The outcome of the request must be
+     * reported using {@link #onSuccess(String)}, {@link #onFailure(String)} or {@link #onCancelled(String)}.
+     * @throws HostUnavailableException if the host is considered unavailable
+     */
+    public void acquire(@NonNull String host) throws HostUnavailableException {
+        synchronized (this) {
+            var state = mHosts.get(host);
+            if (state == null || state.mFailures < FAILURE_THRESHOLD) return;
+
+            if (!state.mProbing && mClock.getAsLong() >= state.mOpenUntil) {
+                state.mProbing = true;
+                return;
+            }
+        }
+        throw new HostUnavailableException(host);
+    }
+
+    public void onSuccess(@NonNull String host) {
+        boolean changed;
+        synchronized (this) {
+            var state = mHosts.remove(host);
+            changed = state != null && state.mFailures >= FAILURE_THRESHOLD;
+        }
+        if (changed) notifyListeners();
+    }
+
+    public void onFailure(@NonNull String host) {
+        boolean changed;
+        synchronized (this) {
+            var state = mHosts.computeIfAbsent(host, h -> new HostState());
+            state.mFailures++;
+            changed = state.mFailures == FAILURE_THRESHOLD;
+
+            if (changed) {
+                state.mCooldown = MIN_COOLDOWN;
+                state.mOpenUntil = mClock.getAsLong() + state.mCooldown;
+            } else if (state.mProbing) {
+                state.mCooldown = Math.min(MAX_COOLDOWN, state.mCooldown * 2);
+                state.mOpenUntil = mClock.getAsLong() + state.mCooldown;
+                state.mProbing = false;
+            }
+        }
+        if (changed) notifyListeners();
+    }
+
+    /**
+     * Reports that a request was cancelled before its outcome was known. If the request was probing
+     * the host, the next request will probe it instead.
+     */
+    public synchronized void onCancelled(@NonNull String host) {
+        var state = mHosts.get(host);
+        if (state != null) state.mProbing = false;
+    }
+
+    /**
+     * Considers all hosts available again, e.g. because the device has connected to another network.
+     */
+    public void reset() {
+        boolean changed;
+        synchronized (this) {
+            changed = !collectUnavailableHosts().isEmpty();
+            mHosts.clear();
+        }
+        if (changed) notifyListeners();
+    }
+
+    public synchronized boolean isAvailable(@NonNull String host) {
+        var state = mHosts.get(host);
+        return state == null || state.mFailures < FAILURE_THRESHOLD;
+    }
+
+    public synchronized @NonNull Set<String> getUnavailableHosts() {
+        return Collections.unmodifiableSet(collectUnavailableHosts());
+    }
+
+    /**
+     * Registers a listener that is notified with the {@linkplain #getUnavailableHosts() unavailable hosts}
+     * whenever a host becomes unavailable or available again. The listener may be called on any thread.
+     */
+    public void addListener(@NonNull Consumer<Set<String>> listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Consumer<Set<String>> listener) {
+        mListeners.remove(listener);
+    }
+
+    private @NonNull Set<String> collectUnavailableHosts() {
+        var out = new HashSet<String>();
+        mHosts.forEach((host, state) -> {
+            if (state.mFailures >= FAILURE_THRESHOLD) out.add(host);
+        });
+        return out;
+    }
+
+    private void notifyListeners() {
+        var hosts = getUnavailableHosts();
+        for (var listener : mListeners) {
+            listener.accept(hosts);
+        }
+    }
+
+    private static class HostState {
+        private int mFailures;
+        private long mCooldown;
+        private long mOpenUntil;
+        private boolean mProbing;
+    }
+}
@@ -0,0 +1,137 @@
+package eu.jonahbauer.qed.networking;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import eu.jonahbauer.qed.model.CoveredRange;
+import eu.jonahbauer.qed.model.LogRequest;
+import eu.jonahbauer.qed.model.LogRequest.DateIntervalLogRequest;
+import eu.jonahbauer.qed.model.LogRequest.PostIntervalLogRequest;
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.model.room.Database;
+import eu.jonahbauer.qed.model.room.MessageDao;
+import eu.jonahbauer.qed.networking.pages.QEDChatPages;
+import eu.jonahbauer.qed.util.MessageUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Maybe;
+import lombok.Value;
+
+/**
+ * Resolves {@link LogRequest}s from the local database where possible. The requested id range is
+ * split into parts that are {@linkplain CoveredRange covered} by the database and the remaining holes,
+ * of which only the holes are downloaded. Downloaded messages are not stored, since viewing a log
+ * should not save it.
+ */
+public class LogRequestResolver {
+    private final @NonNull Context mContext;
+    private final @NonNull MessageDao mMessageDao;
+
+    public LogRequestResolver(@NonNull Context context) {
+        this.mContext = context.getApplicationContext();
+        this.mMessageDao = Database.getInstance(context).messageDao();
+    }
+
+    /**
+     * Resolves the given log request. Completes without a value when no part of the request is
+     * available locally, in which case the request should be downloaded as usual.
+     */
+    public @NonNull Maybe<Result> resolve(@NonNull LogRequest request) {
+        return Maybe.fromCallable(() -> resolveSync(request));
+    }
+
+    @WorkerThread
+    private @Nullable Result resolveSync(@NonNull LogRequest request) throws IOException {
+        if (request instanceof PostIntervalLogRequest) {
+            var postInterval = (PostIntervalLogRequest) request;
+            var channel = postInterval.getChannel();
+            var coverage = mMessageDao.getCoverageSync(channel);
+            return resolve(channel, coverage, postInterval.getFrom(), postInterval.getTo(), null, null);
+        } else if (request instanceof DateIntervalLogRequest) {
+            // translate the date interval to an id interval using the messages directly before and after it
+            var dateInterval = (DateIntervalLogRequest) request;
+            var channel = dateInterval.getChannel();
+            var before = mMessageDao.findLastIdBeforeSync(channel, dateInterval.getFrom());
+            var after = mMessageDao.findFirstIdAfterSync(channel, dateInterval.getTo());
+            if (before == null || after == null) return null;
+
+            // unless both are covered, the id interval might extend far beyond the date interval
+            var coverage = mMessageDao.getCoverageSync(channel);
+            if (!isCovered(coverage, before) || !isCovered(coverage, after)) return null;
+
+            return resolve(channel, coverage, before + 1, after - 1, dateInterval.getFrom(), dateInterval.getTo());
+        } else {
+            return null;
+        }
+    }
+
+    @WorkerThread
+    private @Nullable Result resolve(@NonNull String channel, @NonNull List<CoveredRange> coverage, long from, long to,
+                                     @Nullable Instant fromDate, @Nullable Instant toDate) throws IOException {
+        if (from > to) return new Result(Collections.emptyList(), 0);
+
+        var gaps = CoveredRange.gaps(coverage, from, to);
+        if (gaps.size() == 1 && gaps.get(0).firstLong() == from && gaps.get(0).secondLong() == to) {
+            return null;
+        }
+
+        // messages inside the gaps may already be stored locally and are simply replaced
+        var messages = new Long2ObjectAVLTreeMap<Message>();
+        for (Message message : mMessageDao.findRangeSync(channel, from, to)) {
+            messages.put(message.getId(), message);
+        }
+
+        long downloaded = 0;
+        for (LongLongPair gap : gaps) {
+            var request = new PostIntervalLogRequest(channel, gap.firstLong(), gap.secondLong());
+            downloaded += QEDChatPages.getChatLogSync(mContext, request, msg -> messages.put(msg.getId(), msg));
+        }
+
+        // local messages have already been fixed when they were stored, fixing them again does not
+        // change them but lets the downloaded messages be fixed in their context
+        var dateFixer = MessageUtils.dateFixer();
+        var fixed = new ArrayList<Message>(messages.size());
+        for (Message message : messages.values()) {
+            fixed.add(dateFixer.apply(message));
+        }
+
+        if (fromDate == null || toDate == null) {
+            return new Result(fixed, downloaded);
+        } else {
+            var out = new ArrayList<Message>(fixed.size());
+            for (Message message : fixed) {
+                if (!message.getDate().isBefore(fromDate) && !message.getDate().isAfter(toDate)) {
+                    out.add(message);
+                }
+            }
+            return new Result(out, downloaded);
+        }
+    }
+
+    private static boolean isCovered(@NonNull List<CoveredRange> coverage, long id) {
+        for (CoveredRange range : coverage) {
+            if (range.getFrom() <= id && id <= range.getTo()) return true;
+        }
+        return false;
+    }
+
+    @Value
+    public static class Result {
+        @NonNull List<Message> messages;
+
+        /**
+         * The number of bytes downloaded to fill the gaps in the local database.
+         */
+        long downloaded;
+    }
+}
@@ -0,0 +1,399 @@
+package eu.jonahbauer.qed.networking;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import okhttp3.HttpUrl;
+
+/**
+ * Schedules network requests to the QED servers. In contrast to {@link Schedulers#io()}, the number
+ * of concurrent requests is limited, both in total and per host, and queued requests are started in
+ * the order of their {@link Priority}, so that e.g. the page the user is waiting for is not stuck
+ * behind the thumbnails of an album.
+ * <br>
+ * Requests are scheduled by subscribing on the {@linkplain #get(Priority, String) scheduler} for
+ * their priority and url. Disposing a subscription removes the request from the queue if it has not
+ * been started yet, so that e.g. the thumbnails of recycled views are never downloaded.
+ * <br>
+ * Like any {@link Scheduler.Worker}, the workers of these schedulers run their work sequentially and
+ * in order. Each worker with pending work occupies a single slot while it runs.
+ */
+public final class NetworkScheduler {
+    private static final int MAX_REQUESTS = 16;
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+
+    private static final NetworkScheduler INSTANCE = new NetworkScheduler(
+            MAX_REQUESTS, MAX_REQUESTS_PER_HOST, Executors.newCachedThreadPool(new NetworkThreadFactory())
+    );
+
+    /**
+     * The task whose slot is held by the current thread.
+     */
+    private static final ThreadLocal<Task> CURRENT = new ThreadLocal<>();
+
+    private final int mMaxRequests;
+    private final int mMaxRequestsPerHost;
+    private final Executor mExecutor;
+
+    private final TreeSet<Task> mQueue = new TreeSet<>();
+    private final Object2IntMap<String> mRunningPerHost = new Object2IntOpenHashMap<>();
+    private int mRunning;
+    private long mSequence;
+
+    public static @NonNull NetworkScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    @VisibleForTesting
+    NetworkScheduler(int maxRequests, int maxRequestsPerHost, @NonNull Executor executor) {
+        this.mMaxRequests = maxRequests;
+        this.mMaxRequestsPerHost = maxRequestsPerHost;
+        this.mExecutor = executor;
+    }
+
+    /**
+     * Returns a scheduler for requests with the given priority to the host of the given url.
+     */
+    public @NonNull Scheduler get(@NonNull Priority priority, @NonNull String url) {
+        var parsed = HttpUrl.parse(url);
+        return new HostScheduler(priority, parsed != null ? parsed.host() : "");
+    }
+
+    /**
+     * Sleeps for the given time. When called while running work of a network scheduler, its slot is
+     * given to other requests meanwhile, e.g. while waiting to retry a failed request. The slot is
+     * taken back afterwards regardless of the limits, which may hence be exceeded for a short time.
+     */
+    public static void sleep(long millis) throws InterruptedException {
+        var task = CURRENT.get();
+        if (task == null) {
+            Thread.sleep(millis);
+            return;
+        }
+
+        var scheduler = task.getScheduler();
+        scheduler.finished(task);
+        scheduler.promote();
+        try {
+            Thread.sleep(millis);
+        } finally {
+            scheduler.resumed(task);
+        }
+    }
+
+    /**
+     * Returns the number of requests that have been scheduled but not yet started.
+     */
+    @VisibleForTesting
+    synchronized int getQueueSize() {
+        return mQueue.size();
+    }
+
+    private synchronized void enqueue(@NonNull Task task) {
+        task.mSequence = mSequence++;
+        mQueue.add(task);
+    }
+
+    private synchronized void dequeue(@NonNull Task task) {
+        mQueue.remove(task);
+    }
+
+    private synchronized void resumed(@NonNull Task task) {
+        mRunning++;
+        mRunningPerHost.put(task.mHost, mRunningPerHost.getInt(task.mHost) + 1);
+    }
+
+    private synchronized void finished(@NonNull Task task) {
+        mRunning--;
+        int running = mRunningPerHost.getInt(task.mHost) - 1;
+        if (running > 0) {
+            mRunningPerHost.put(task.mHost, running);
+        } else {
+            mRunningPerHost.removeInt(task.mHost);
+        }
+    }
+
+    /**
+     * Starts queued requests in order of their priority as long as the limits permit.
+     */
+    private void promote() {
+        var ready = new ArrayList<Task>();
+        synchronized (this) {
+            var iterator = mQueue.iterator();
+            while (iterator.hasNext() && mRunning < mMaxRequests) {
+                var task = iterator.next();
+                int running = mRunningPerHost.getInt(task.mHost);
+                if (running >= getLimit(task.mPriority)) continue;
+
+                iterator.remove();
+                mRunning++;
+                mRunningPerHost.put(task.mHost, running + 1);
+                ready.add(task);
+            }
+        }
+
+        for (Task task : ready) {
+            mExecutor.execute(task);
+        }
+    }
+
+    /**
+     * Returns the maximum number of concurrent requests per host for the given priority. One request
+     * per host is reserved for requests the user is waiting for.
+     */
+    private int getLimit(@NonNull Priority priority) {
+        if (priority.compareTo(Priority.VISIBLE) <= 0) {
+            return mMaxRequestsPerHost;
+        } else {
+            return Math.max(1, mMaxRequestsPerHost - 1);
+        }
+    }
+
+    public enum Priority {
+        /**
+         * Requests the user is actively waiting for, e.g. the page that has just been opened.
+         */
+        INTERACTIVE,
+        /**
+         * Requests for content that is currently visible, e.g. thumbnails.
+         */
+        VISIBLE,
+        /**
+         * Requests for content that is likely to be needed soon.
+         */
+        PREFETCH,
+        /**
+         * Requests the user is not aware of, e.g. synchronization.
+         */
+        BACKGROUND
+    }
+
+    private final class HostScheduler extends Scheduler {
+        private final Priority mPriority;
+        private final String mHost;
+
+        private HostScheduler(@NonNull Priority priority, @NonNull String host) {
+            this.mPriority = priority;
+            this.mHost = host;
+        }
+
+        @Override
+        public @NonNull Worker createWorker() {
+            return new HostWorker(mPriority, mHost);
+        }
+    }
+
+    /**
+     * A worker that runs its work one after another. Work is queued within the worker, which requests
+     * a slot from the network scheduler whenever it has pending work and releases it once the queue
+     * has been drained.
+     */
+    private final class HostWorker extends Scheduler.Worker implements Runnable {
+        private final Priority mPriority;
+        private final String mHost;
+        private final CompositeDisposable mTasks = new CompositeDisposable();
+        private final ConcurrentLinkedQueue<WorkItem> mQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger mWip = new AtomicInteger();
+
+        private HostWorker(@NonNull Priority priority, @NonNull String host) {
+            this.mPriority = priority;
+            this.mHost = host;
+        }
+
+        @Override
+        public @NonNull Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            if (mTasks.isDisposed()) return Disposable.disposed();
+
+            if (delay > 0) {
+                // requests are not delayed in practice, so the delay is simply waited out on another scheduler
+                var delayed = Schedulers.computation().scheduleDirect(() -> schedule(run), delay, unit);
+                mTasks.add(delayed);
+                return delayed;
+            }
+
+            var item = new WorkItem(RxJavaPlugins.onSchedule(run), mTasks);
+            if (!mTasks.add(item)) return Disposable.disposed();
+
+            mQueue.offer(item);
+            if (mWip.getAndIncrement() == 0) {
+                var task = new Task(mPriority, mHost, this, mTasks);
+                if (mTasks.add(task)) {
+                    enqueue(task);
+                    promote();
+                }
+            }
+            return item;
+        }
+
+        /**
+         * Drains the queue. Called by a {@link Task} once a slot is available.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                WorkItem item;
+                while ((item = mQueue.poll()) != null) {
+                    if (mTasks.isDisposed()) {
+                        mQueue.clear();
+                        return;
+                    }
+                    item.run();
+                }
+                missed = mWip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void dispose() {
+            mTasks.dispose();
+            mQueue.clear();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return mTasks.isDisposed();
+        }
+    }
+
+    /**
+     * A single piece of work of a {@link HostWorker}. Disposing it while it is running interrupts the
+     * thread, so that a blocking request is cancelled.
+     */
+    private static final class WorkItem implements Runnable, Disposable {
+        private final Runnable mRunnable;
+        private final CompositeDisposable mParent;
+
+        private volatile boolean mDisposed;
+        private Thread mThread;
+
+        private WorkItem(@NonNull Runnable runnable, @NonNull CompositeDisposable parent) {
+            this.mRunnable = runnable;
+            this.mParent = parent;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (mDisposed) return;
+                mThread = Thread.currentThread();
+            }
+
+            try {
+                mRunnable.run();
+            } catch (Throwable t) {
+                RxJavaPlugins.onError(t);
+            } finally {
+                synchronized (this) {
+                    mThread = null;
+                    // do not leak an interrupt to the next piece of work on this thread
+                    //noinspection ResultOfMethodCallIgnored
+                    Thread.interrupted();
+                }
+                mParent.delete(this);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (mDisposed) return;
+            mDisposed = true;
+            mParent.delete(this);
+
+            synchronized (this) {
+                if (mThread != null && mThread != Thread.currentThread()) {
+                    mThread.interrupt();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return mDisposed;
+        }
+    }
+
+    /**
+     * A request for a slot by a {@link HostWorker} with pending work.
+     */
+    private final class Task implements Runnable, Disposable, Comparable<Task> {
+        private final Priority mPriority;
+        private final String mHost;
+        private final Runnable mRunnable;
+        private final CompositeDisposable mParent;
+
+        private long mSequence;
+        private volatile boolean mDisposed;
+
+        private Task(@NonNull Priority priority, @NonNull String host, @NonNull Runnable runnable, @NonNull CompositeDisposable parent) {
+            this.mPriority = priority;
+            this.mHost = host;
+            this.mRunnable = runnable;
+            this.mParent = parent;
+        }
+
+        @Override
+        public void run() {
+            CURRENT.set(this);
+            try {
+                if (!mDisposed) mRunnable.run();
+            } finally {
+                CURRENT.remove();
+                mParent.delete(this);
+                finished(this);
+                promote();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (mDisposed) return;
+            mDisposed = true;
+            mParent.delete(this);
+            dequeue(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return mDisposed;
+        }
+
+        private @NonNull NetworkScheduler getScheduler() {
+            return NetworkScheduler.this;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int result = mPriority.compareTo(other.mPriority);
+            if (result != 0) return result;
+            return Long.compare(mSequence, other.mSequence);
+        }
+    }
+
+    private static class NetworkThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            var thread = new Thread(runnable, "QEDNetwork-" + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package eu.jonahbauer.qed.networking;
+
+import androidx.annotation.NonNull;
+
+import eu.jonahbauer.qed.networking.cookies.QEDCookieHandler;
+import eu.jonahbauer.qed.networking.cookies.QEDCookiePolicy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.experimental.UtilityClass;
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+import okhttp3.JavaNetCookieJar;
+import okhttp3.OkHttpClient;
+
+/**
+ * Provides the {@link OkHttpClient} shared by all requests to the QED servers. Sharing a single
+ * client means sharing its connection pool, so that e.g. the thumbnails of an album are loaded over
+ * a few kept-alive connections instead of performing a TLS handshake for every image.
+ * <br>
+ * Cookies are read from and stored into the {@link QEDCookieHandler}, i.e. they are shared with any
+ * remaining {@link java.net.HttpURLConnection}s. Failed requests are retried by the {@link RetryInterceptor}.
+ */
+@UtilityClass
+public class QEDHttpClient {
+    private static final OkHttpClient INSTANCE = new OkHttpClient.Builder()
+            .cookieJar(new CookieBridge())
+            .eventListenerFactory(RequestTracer.getInstance())
+            .addInterceptor(new RetryInterceptor())
+            .followRedirects(false)
+            .followSslRedirects(false)
+            .connectTimeout(5, TimeUnit.SECONDS)
+            .readTimeout(1, TimeUnit.MINUTES)
+            .build();
+
+    public static @NonNull OkHttpClient getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * A {@link JavaNetCookieJar} for the {@link QEDCookieHandler}, which may not yet be initialized
+     * when the client is created. The first request to the QED servers waits for the cookie handler to
+     * become available. Requests to other hosts never carry cookies and don't wait.
+     */
+    private static class CookieBridge implements CookieJar {
+        private volatile JavaNetCookieJar mDelegate;
+
+        private @NonNull JavaNetCookieJar getDelegate() {
+            var delegate = mDelegate;
+            if (delegate == null) {
+                delegate = new JavaNetCookieJar(QEDCookieHandler.getInstance());
+                mDelegate = delegate;
+            }
+            return delegate;
+        }
+
+        @Override
+        public void saveFromResponse(@NonNull HttpUrl url, @NonNull List<Cookie> cookies) {
+            if (!QEDCookiePolicy.isAllowedHost(url.host())) return;
+            getDelegate().saveFromResponse(url, cookies);
+        }
+
+        @Override
+        public @NonNull List<Cookie> loadForRequest(@NonNull HttpUrl url) {
+            if (!QEDCookiePolicy.isAllowedHost(url.host())) return Collections.emptyList();
+            return getDelegate().loadForRequest(url);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package eu.jonahbauer.qed.networking;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Records the timings of the most recent requests to the QED servers, so that slow requests can be
+ * attributed to DNS, connecting, TLS, the server or parsing.
+ * <br>
+ * Every request is described by a {@link Trace}. The network timings are filled in by the
+ * {@link EventListener} this tracer creates for every call of the {@link QEDHttpClient}. Requests
+ * that should be traced beyond the HTTP call, e.g. to record the time spent parsing the response,
+ * are {@linkplain #start(String) started} explicitly and passed along as a
+ * {@linkplain Request.Builder#tag(Class, Object) tag} of the request. Such a trace is only complete
+ * once its owner {@linkplain Trace#finish(boolean) finishes} it, hence its total time spans all calls
+ * belonging to the request as well as parsing the response. All other calls are traced automatically
+ * and complete with the call.
+ * <br>
+ * Traces are kept in a fixed-size ring buffer that is written without locking. Statistics are
+ * computed from a snapshot of the buffer on demand.
+ */
+public final class RequestTracer implements EventListener.Factory {
+    private static final RequestTracer INSTANCE = new RequestTracer(512);
+
+    private final AtomicReferenceArray<Trace> mTraces;
+    private final AtomicLong mNext = new AtomicLong();
+
+    public static @NonNull RequestTracer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param capacity the size of the ring buffer, must be a power of two
+     */
+    @VisibleForTesting
+    RequestTracer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException();
+        this.mTraces = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Starts tracing a request to the given url. The trace should be passed to the request as a
+     * {@linkplain Request.Builder#tag(Class, Object) tag} and must be
+     * {@linkplain Trace#finish(boolean) finished} by the caller.
+     */
+    public @NonNull Trace start(@NonNull String url) {
+        var trace = new Trace(endpoint(url));
+        int index = (int) (mNext.getAndIncrement() & (mTraces.length() - 1));
+        mTraces.set(index, trace);
+        return trace;
+    }
+
+    @Override
+    public @NonNull EventListener create(@NonNull Call call) {
+        var request = call.request();
+        var trace = request.tag(Trace.class);
+        if (trace != null) {
+            return new TraceListener(trace, false);
+        } else {
+            return new TraceListener(start(request.url().toString()), true);
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < mTraces.length(); i++) {
+            mTraces.set(i, null);
+        }
+    }
+
+    /**
+     * Returns statistics of all completed requests in the buffer grouped by endpoint and ordered by
+     * total time spent descending.
+     */
+    public @NonNull List<EndpointStatistics> getStatistics() {
+        var traces = new LinkedHashMap<String, List<Trace>>();
+        for (int i = 0; i < mTraces.length(); i++) {
+            var trace = mTraces.get(i);
+            if (trace == null || !trace.isComplete()) continue;
+            traces.computeIfAbsent(trace.getEndpoint(), key -> new ArrayList<>()).add(trace);
+        }
+
+        var out = new ArrayList<EndpointStatistics>(traces.size());
+        traces.forEach((endpoint, list) -> out.add(new EndpointStatistics(endpoint, list)));
+        out.sort(Comparator.comparingLong(EndpointStatistics::getTotalNanos).reversed());
+        return out;
+    }
+
+    /**
+     * Groups urls by host and path. Numeric path segments, which are usually ids, and the query are
+     * dropped.
+     */
+    @VisibleForTesting
+    static @NonNull String endpoint(@NonNull String url) {
+        // web socket urls are not accepted by HttpUrl
+        if (url.regionMatches(true, 0, "ws:", 0, 3)) {
+            url = "http:" + url.substring(3);
+        } else if (url.regionMatches(true, 0, "wss:", 0, 4)) {
+            url = "https:" + url.substring(4);
+        }
+
+        var parsed = HttpUrl.parse(url);
+        if (parsed == null) return url;
+
+        var out = new StringBuilder(parsed.host());
+        for (String segment : parsed.pathSegments()) {
+            out.append('/');
+            out.append(!segment.isEmpty() && segment.chars().allMatch(Character::isDigit) ? "{id}" : segment);
+        }
+        return out.toString();
+    }
+
+    public enum Phase {
+        DNS, CONNECT, TLS, TTFB, PARSE, TOTAL
+    }
+
+    /**
+     * The timings of a single request. Durations are summed over all calls belonging to the request,
+     * e.g. including the retry after a re-login.
+     */
+    public static final class Trace {
+        private final @NonNull String mEndpoint;
+        private final long mStart = System.nanoTime();
+        private final AtomicLongArray mPhases = new AtomicLongArray(Phase.values().length);
+        private final AtomicLong mBytes = new AtomicLong();
+
+        private volatile long mEnd;
+        private volatile boolean mFailed;
+        private volatile boolean mRelogin;
+        private volatile boolean mFinished;
+
+        private Trace(@NonNull String endpoint) {
+            this.mEndpoint = endpoint;
+        }
+
+        /**
+         * Marks that the session had expired and the request had to be repeated after logging in.
+         */
+        public void setRelogin() {
+            mRelogin = true;
+        }
+
+        public void addParseNanos(long nanos) {
+            mPhases.addAndGet(Phase.PARSE.ordinal(), nanos);
+        }
+
+        /**
+         * Completes the trace. Further calls belonging to the request are not recorded anymore.
+         * Only the first call has an effect.
+         */
+        public void finish(boolean failed) {
+            if (mFinished) return;
+            mFailed = failed;
+            mEnd = System.nanoTime();
+            mFinished = true;
+        }
+
+        void add(@NonNull Phase phase, long nanos) {
+            if (!mFinished) mPhases.addAndGet(phase.ordinal(), nanos);
+        }
+
+        void addBytes(long bytes) {
+            if (!mFinished) mBytes.addAndGet(bytes);
+        }
+
+        public @NonNull String getEndpoint() {
+            return mEndpoint;
+        }
+
+        public boolean isComplete() {
+            return mEnd != 0;
+        }
+
+        public boolean isFailed() {
+            return mFailed;
+        }
+
+        public boolean isRelogin() {
+            return mRelogin;
+        }
+
+        public long getBytes() {
+            return mBytes.get();
+        }
+
+        public long getNanos(@NonNull Phase phase) {
+            if (phase == Phase.TOTAL) {
+                var end = mEnd;
+                return end == 0 ? 0 : end - mStart;
+            } else {
+                return mPhases.get(phase.ordinal());
+            }
+        }
+    }
+
+    /**
+     * Statistics of the requests to a single endpoint. Instances returned by {@link #getStatistics()}
+     * are snapshots and will not change anymore.
+     */
+    public static final class EndpointStatistics {
+        private final @NonNull String mEndpoint;
+        private final int mCount;
+        private final int mFailures;
+        private final int mRelogins;
+        private final long mBytes;
+        private final long[][] mSorted = new long[Phase.values().length][];
+
+        private EndpointStatistics(@NonNull String endpoint, @NonNull List<Trace> traces) {
+            this.mEndpoint = endpoint;
+            this.mCount = traces.size();
+
+            int failures = 0;
+            int relogins = 0;
+            long bytes = 0;
+            for (Phase phase : Phase.values()) {
+                mSorted[phase.ordinal()] = new long[mCount];
+            }
+            for (int i = 0; i < mCount; i++) {
+                var trace = traces.get(i);
+                if (trace.isFailed()) failures++;
+                if (trace.isRelogin()) relogins++;
+                bytes += trace.getBytes();
+                for (Phase phase : Phase.values()) {
+                    mSorted[phase.ordinal()][i] = trace.getNanos(phase);
+                }
+            }
+            for (long[] values : mSorted) {
+                Arrays.sort(values);
+            }
+
+            this.mFailures = failures;
+            this.mRelogins = relogins;
+            this.mBytes = bytes;
+        }
+
+        public @NonNull String getEndpoint() {
+            return mEndpoint;
+        }
+
+        public int getCount() {
+            return mCount;
+        }
+
+        public int getFailures() {
+            return mFailures;
+        }
+
+        public int getRelogins() {
+            return mRelogins;
+        }
+
+        public long getMeanBytes() {
+            return mCount == 0 ? 0 : mBytes / mCount;
+        }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (long nanos : mSorted[Phase.TOTAL.ordinal()]) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        /**
+         * Returns the given percentile of the duration of the given phase using the nearest-rank method.
+         */
+        public long getPercentileNanos(@NonNull Phase phase, double percentile) {
+            var values = mSorted[phase.ordinal()];
+            if (values.length == 0) return 0;
+
+            int rank = (int) Math.ceil(percentile * values.length);
+            return values[Math.max(0, Math.min(values.length - 1, rank - 1))];
+        }
+    }
+
+    private static final class TraceListener extends EventListener {
+        private final Trace mTrace;
+
+        /**
+         * Whether the trace was created for this call and hence ends with it.
+         */
+        private final boolean mOwner;
+
+        private long mDnsStart;
+        private long mConnectStart;
+        private long mSecureConnectStart;
+        private long mRequestEnd;
+
+        private TraceListener(@NonNull Trace trace, boolean owner) {
+            this.mTrace = trace;
+            this.mOwner = owner;
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            mDnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+            mTrace.add(Phase.DNS, System.nanoTime() - mDnsStart);
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy) {
+            mConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(@NonNull Call call) {
+            mSecureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+            mTrace.add(Phase.TLS, System.nanoTime() - mSecureConnectStart);
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            mTrace.add(Phase.CONNECT, System.nanoTime() - mConnectStart);
+        }
+
+        @Override
+        public void connectFailed(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy,
+                                  @Nullable Protocol protocol, @NonNull IOException ioe) {
+            mTrace.add(Phase.CONNECT, System.nanoTime() - mConnectStart);
+        }
+
+        @Override
+        public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+            mRequestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            mRequestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(@NonNull Call call) {
+            if (mRequestEnd != 0) mTrace.add(Phase.TTFB, System.nanoTime() - mRequestEnd);
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            mTrace.addBytes(byteCount);
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            if (mOwner) mTrace.finish(false);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            if (mOwner) mTrace.finish(true);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package eu.jonahbauer.qed.networking;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import eu.jonahbauer.qed.networking.exceptions.HostUnavailableException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries idempotent requests that failed because of a connection problem or a temporary server
+ * error, waiting an exponentially increasing, jittered delay between attempts. The outcome of every
+ * attempt is reported to the {@link CircuitBreaker}, which is also consulted before each attempt, so
+ * that retries stop as soon as the host is considered unavailable. While waiting, the request gives
+ * its slot in the {@link NetworkScheduler} to other requests.
+ */
+public final class RetryInterceptor implements Interceptor {
+    @VisibleForTesting
+    static final int MAX_RETRIES = 2;
+    /**
+     * The delay before the first retry in milliseconds.
+     */
+    @VisibleForTesting
+    static final long BASE_DELAY = 500;
+    /**
+     * The maximum delay between two attempts in milliseconds.
+     */
+    @VisibleForTesting
+    static final long MAX_DELAY = 4_000;
+
+    private final CircuitBreaker mCircuitBreaker;
+    private final Sleeper mSleeper;
+
+    public RetryInterceptor() {
+        this(CircuitBreaker.getInstance(), NetworkScheduler::sleep);
+    }
+
+    @VisibleForTesting
+    RetryInterceptor(@NonNull CircuitBreaker circuitBreaker, @NonNull Sleeper sleeper) {
+        this.mCircuitBreaker = circuitBreaker;
+        this.mSleeper = sleeper;
+    }
+
+    @Override
+    public @NonNull Response intercept(@NonNull Chain chain) throws IOException {
+        var request = chain.request();
+        var host = request.url().host();
+
+        boolean idempotent = isIdempotent(request);
+        IOException failure = null;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                mCircuitBreaker.acquire(host);
+            } catch (HostUnavailableException e) {
+                if (failure != null) e.addSuppressed(failure);
+                throw e;
+            }
+
+            boolean retry = idempotent && attempt < MAX_RETRIES;
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (chain.call().isCanceled() || isInterrupt(e)) {
+                    mCircuitBreaker.onCancelled(host);
+                    throw e;
+                }
+
+                mCircuitBreaker.onFailure(host);
+                if (!retry || !isRetryable(e)) throw e;
+
+                failure = e;
+                backoff(host, attempt);
+                continue;
+            }
+
+            if (!isServerError(response)) {
+                mCircuitBreaker.onSuccess(host);
+                return response;
+            }
+
+            mCircuitBreaker.onFailure(host);
+            if (!retry) return response;
+
+            response.close();
+            failure = null;
+            backoff(host, attempt);
+        }
+    }
+
+    private void backoff(@NonNull String host, int attempt) throws IOException {
+        try {
+            mSleeper.sleep(getDelay(attempt, ThreadLocalRandom.current()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            mCircuitBreaker.onCancelled(host);
+            var exception = new InterruptedIOException();
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the delay before the given retry in milliseconds. Half of the delay is random, so that
+     * requests that failed at the same time are not retried at the same time.
+     */
+    @VisibleForTesting
+    static long getDelay(int attempt, @NonNull Random random) {
+        long delay = Math.min(MAX_DELAY, BASE_DELAY << attempt);
+        return delay / 2 + (long) (random.nextDouble() * (delay / 2));
+    }
+
+    private static boolean isIdempotent(@NonNull Request request) {
+        var method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    /**
+     * Whether the given response indicates a problem of the server that is likely to be temporary.
+     */
+    private static boolean isServerError(@NonNull Response response) {
+        int code = response.code();
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Whether the given exception might not occur again. Unknown hosts and invalid certificates are
+     * not going to resolve themselves within a few seconds.
+     */
+    private static boolean isRetryable(@NonNull IOException exception) {
+        return !(exception instanceof UnknownHostException)
+                && !(exception instanceof SSLPeerUnverifiedException);
+    }
+
+    private static boolean isInterrupt(@NonNull IOException exception) {
+        return exception instanceof InterruptedIOException && !(exception instanceof SocketTimeoutException);
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+}
@@ -10,7 +10,7 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.concurrent.Callable;
 
-import javax.net.ssl.HttpsURLConnection;
+import okhttp3.Response;
 
 public final class AsyncLoadQEDPage extends BaseAsyncLoadQEDPage implements Callable<String> {
 
@@ -23,16 +23,25 @@ public final class AsyncLoadQEDPage extends BaseAsyncLoadQEDPage implements Call
         this.mUrl = mUrl;
     }
 
+    public @NonNull String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * The {@linkplain #getTrace() trace} of a successful request is left open, so that parsing the
+     * page can be recorded, and must be finished by the caller.
+     */
     @Override
     public String call() throws IOException, InvalidCredentialsException {
-        HttpsURLConnection httpsURLConnection = connectAndLogin(mUrl, mFeature);
-        if (httpsURLConnection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-            throw new IOException("Status Code is not 200.");
+        try (Response response = connectAndLogin(mUrl, mFeature)) {
+            if (response.code() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Status Code is not 200.");
+            }
+
+            return NetworkUtil.readPage(response);
+        } catch (IOException | RuntimeException e) {
+            finishTrace(true);
+            throw e;
         }
-
-        String out = NetworkUtil.readPage(httpsURLConnection);
-        httpsURLConnection.disconnect();
-
-        return out;
     }
 }
@@ -0,0 +1,186 @@
+package eu.jonahbauer.qed.networking.async;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+import eu.jonahbauer.qed.networking.Feature;
+import eu.jonahbauer.qed.networking.exceptions.InvalidCredentialsException;
+import eu.jonahbauer.qed.util.cache.PageCache;
+import eu.jonahbauer.qed.util.cache.Validators;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+
+import okhttp3.Response;
+
+/**
+ * Loads a page like {@link AsyncLoadQEDPage}, but keeps a copy in the {@link PageCache}. A cached copy
+ * is revalidated with a conditional request and only downloaded again when it has changed. The page
+ * is not read into memory, but returned as a {@link Page} that can be streamed.
+ */
+public final class AsyncLoadQEDPageCached extends BaseAsyncLoadQEDPage implements Callable<AsyncLoadQEDPageCached.Page> {
+    private final Feature mFeature;
+    private final String mUrl;
+    private final String mKey;
+    private final PageCache mCache;
+
+    public AsyncLoadQEDPageCached(@NonNull Feature feature, @NonNull String url, @NonNull PageCache cache) {
+        this.mFeature = feature;
+        this.mUrl = url;
+        this.mKey = PageCache.key(url);
+        this.mCache = cache;
+    }
+
+    public @NonNull String getUrl() {
+        return mUrl;
+    }
+
+    public @NonNull PageCache getCache() {
+        return mCache;
+    }
+
+    /**
+     * The {@linkplain #getTrace() trace} of a successful request is left open, so that parsing the
+     * page can be recorded, and must be finished by the caller.
+     *
+     * @return the page, which must be closed by the caller
+     */
+    @Override
+    public Page call() throws IOException, InvalidCredentialsException {
+        var cached = mCache.get(mKey);
+        var conditional = cached != null ? cached.getValidators() : null;
+
+        Response response = connectAndLogin(mUrl, mFeature, conditional != null ? conditional::apply : null);
+        try {
+            var code = response.code();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                response.close();
+                return new Page(mKey, cached.getValidators(), cached.getFile(), null);
+            } else if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Status Code is not 200.");
+            }
+
+            var validators = Validators.of(response, response.body().contentLength());
+            if (validators.isPresent()) {
+                var in = mCache.cache(mKey, response.body().byteStream(), validators);
+                return new Page(mKey, validators, null, new Body(response, in));
+            } else {
+                if (cached != null) mCache.remove(mKey);
+                return new Page(mKey, null, null, new Body(response, response.body().byteStream()));
+            }
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            finishTrace(true);
+            throw e;
+        }
+    }
+
+    /**
+     * A page loaded by {@link AsyncLoadQEDPageCached}. A modified page is read directly from the
+     * network, hence its content can only be read once.
+     */
+    public static final class Page implements Closeable {
+        private final @NonNull String mKey;
+        private final @Nullable Validators mValidators;
+        private final @Nullable File mFile;
+        private final @Nullable Body mBody;
+
+        private Page(@NonNull String key, @Nullable Validators validators, @Nullable File file, @Nullable Body body) {
+            this.mKey = key;
+            this.mValidators = validators;
+            this.mFile = file;
+            this.mBody = body;
+        }
+
+        /**
+         * Creates a page that has not been modified since it was cached in the given file.
+         */
+        @VisibleForTesting
+        public static @NonNull Page cached(@NonNull String key, @NonNull Validators validators, @NonNull File file) {
+            return new Page(key, validators, file, null);
+        }
+
+        /**
+         * Creates a modified page whose content is read from the body of the given response.
+         */
+        @VisibleForTesting
+        public static @NonNull Page modified(@NonNull String key, @Nullable Validators validators, @NonNull Response response) {
+            return new Page(key, validators, null, new Body(response, response.body().byteStream()));
+        }
+
+        public @NonNull String getKey() {
+            return mKey;
+        }
+
+        /**
+         * Returns the validators of the page or {@code null} if the page cannot be cached.
+         */
+        public @Nullable Validators getValidators() {
+            return mValidators;
+        }
+
+        /**
+         * Whether the page has been modified since it was last cached, i.e. whether any previously
+         * parsed version of the page is outdated.
+         */
+        public boolean isModified() {
+            return mFile == null;
+        }
+
+        /**
+         * Returns a reader for the content of the page, reading it from the cache if the page has not
+         * been modified.
+         */
+        public @NonNull Reader openReader() throws IOException {
+            return new InputStreamReader(openStream(), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the content of the page, reading it from the cache if the page has not been modified.
+         */
+        public @NonNull String getContent() throws IOException {
+            try (var in = openStream()) {
+                return new String(NetworkUtil.readAllBytes(in), StandardCharsets.UTF_8);
+            }
+        }
+
+        private @NonNull InputStream openStream() throws IOException {
+            if (mFile != null) return new FileInputStream(mFile);
+
+            assert mBody != null;
+            if (mBody.mOpened) throw new IllegalStateException("The content of a modified page can only be read once.");
+            mBody.mOpened = true;
+            return mBody.mStream;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (mBody != null) {
+                try (var ignored = mBody.mResponse) {
+                    mBody.mStream.close();
+                }
+            }
+        }
+    }
+
+    private static final class Body {
+        private final @NonNull Response mResponse;
+        private final @NonNull InputStream mStream;
+        private boolean mOpened;
+
+        private Body(@NonNull Response response, @NonNull InputStream stream) {
+            this.mResponse = response;
+            this.mStream = stream;
+        }
+    }
+}
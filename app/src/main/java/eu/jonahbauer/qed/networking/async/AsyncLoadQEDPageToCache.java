@@ -0,0 +1,209 @@
+package eu.jonahbauer.qed.networking.async;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import eu.jonahbauer.qed.networking.Feature;
+import eu.jonahbauer.qed.util.cache.LogCache;
+import eu.jonahbauer.qed.util.cache.Validators;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.regex.Pattern;
+
+import io.reactivex.rxjava3.core.ObservableEmitter;
+import io.reactivex.rxjava3.core.ObservableOnSubscribe;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+import lombok.RequiredArgsConstructor;
+import okhttp3.Response;
+
+/**
+ * Downloads a page into the {@link LogCache}. A cached copy is revalidated with a conditional
+ * request and only downloaded again when it has changed. An interrupted download is resumed with a
+ * range request as long as the server confirms that the page has not changed in the meantime, i.e.
+ * only when the partial download has a validator for the {@code If-Range} header.
+ * Once complete, the page is available as {@link #getEntry()}.
+ */
+@RequiredArgsConstructor
+public final class AsyncLoadQEDPageToCache extends BaseAsyncLoadQEDPage implements ObservableOnSubscribe<LongLongPair> {
+    private static final String LOG_TAG = AsyncLoadQEDPageToCache.class.getName();
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-\\d+/(\\d+|\\*)");
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final @NonNull Feature mFeature;
+    private final @NonNull String mUrl;
+    private final @NonNull LogCache mCache;
+    private final @NonNull String mKey;
+
+    /**
+     * Whether the page can never change, i.e. cached copies need not be revalidated.
+     */
+    private final boolean mImmutable;
+
+    private volatile @Nullable LogCache.Entry mEntry;
+
+    /**
+     * Returns the cached page once the download has completed. The caller takes ownership of the
+     * entry and has to {@linkplain LogCache.Entry#close() close} it, unless it {@linkplain #release() releases}
+     * it instead.
+     */
+    public @Nullable LogCache.Entry getEntry() {
+        return mEntry;
+    }
+
+    /**
+     * Closes the cached page, e.g. because the subscription was disposed before it could be handed
+     * to the caller.
+     */
+    public void release() {
+        var entry = mEntry;
+        if (entry != null) entry.close();
+    }
+
+    @Override
+    public void subscribe(@NonNull ObservableEmitter<LongLongPair> emitter) throws Throwable {
+        var cached = mCache.get(mKey);
+        if (cached != null && mImmutable) {
+            complete(cached, emitter);
+            return;
+        } else if (cached != null && (cached.getValidators() == null || !cached.getValidators().isPresent())) {
+            // cannot be revalidated
+            cached.close();
+            cached = null;
+        }
+
+        try {
+            cached = download(cached, emitter);
+        } finally {
+            if (cached != null) cached.close();
+        }
+    }
+
+    /**
+     * Revalidates the cached page or downloads it again.
+     * @return the cached page if it has not been handed to the emitter and still needs to be closed
+     */
+    private @Nullable LogCache.Entry download(@Nullable LogCache.Entry cached, @NonNull ObservableEmitter<LongLongPair> emitter) throws Throwable {
+        var partial = mCache.getPartial(mKey);
+        var offset = mCache.getPartialFile(mKey).length();
+        var ifRange = partial != null ? partial.getIfRange() : null;
+        if (ifRange == null) {
+            // without a validator, the server cannot tell whether the partial download is still valid
+            mCache.removePartial(mKey);
+            offset = 0;
+        }
+
+        var initial = connect(cached, offset, ifRange);
+        if (initial.code() == HTTP_RANGE_NOT_SATISFIABLE) {
+            // the partial download is broken, start over
+            initial.close();
+            finishTrace(true);
+            mCache.removePartial(mKey);
+            offset = 0;
+            initial = connect(cached, offset, null);
+        }
+
+        try (var response = initial) {
+            var code = response.code();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                complete(cached, emitter);
+                return null;
+            }
+
+            Validators validators;
+            if (code == HttpURLConnection.HTTP_PARTIAL && offset > 0) {
+                var range = CONTENT_RANGE.matcher(String.valueOf(response.header("Content-Range")));
+                if (!range.matches() || Long.parseLong(range.group(1)) != offset) {
+                    mCache.removePartial(mKey);
+                    throw new IOException("Unexpected Content-Range: " + response.header("Content-Range"));
+                }
+                var length = "*".equals(range.group(2)) ? -1 : Long.parseLong(range.group(2));
+                validators = Validators.of(response, length);
+                Log.d(LOG_TAG, "Resuming download of " + mUrl + " at " + offset + " bytes.");
+            } else if (code == HttpURLConnection.HTTP_OK) {
+                offset = 0;
+                validators = Validators.of(response, response.body().contentLength());
+            } else {
+                throw new IOException("Unexpected status code " + code + ".");
+            }
+
+            mCache.setPartial(mKey, validators);
+            try (
+                    InputStream in = response.body().byteStream();
+                    FileOutputStream out = new FileOutputStream(mCache.getPartialFile(mKey), offset > 0)
+            ) {
+                copyStream(in, out, offset, validators.getLength(), emitter);
+                if (emitter.isDisposed()) return cached;
+                out.flush();
+                out.getFD().sync();
+            }
+
+            var entry = mCache.commit(mKey, validators);
+            mEntry = entry;
+            if (emitter.isDisposed()) {
+                entry.close();
+            } else {
+                emitter.onComplete();
+            }
+            return cached;
+        } catch (IOException | RuntimeException e) {
+            finishTrace(true);
+            throw e;
+        } finally {
+            finishTrace(false);
+        }
+    }
+
+    private @NonNull Response connect(@Nullable LogCache.Entry cached, long offset, @Nullable String ifRange) throws IOException {
+        return connectAndLogin(mUrl, mFeature, request -> {
+            var validators = cached != null ? cached.getValidators() : null;
+            if (validators != null) {
+                validators.apply(request);
+            }
+
+            if (offset > 0) {
+                request.header("Range", "bytes=" + offset + "-");
+                if (ifRange != null) {
+                    request.header("If-Range", ifRange);
+                }
+            }
+        });
+    }
+
+    private void complete(@NonNull LogCache.Entry cached, @NonNull ObservableEmitter<LongLongPair> emitter) {
+        mEntry = cached;
+        if (emitter.isDisposed()) {
+            cached.close();
+            return;
+        }
+
+        var length = cached.getFile().length();
+        emitter.onNext(LongLongPair.of(length, length));
+        emitter.onComplete();
+    }
+
+    private void copyStream(@NonNull InputStream in,
+                            @NonNull FileOutputStream out,
+                            long offset,
+                            long contentLength,
+                            ObservableEmitter<LongLongPair> emitter) throws IOException {
+        byte[] buffer = new byte[4 * 1024]; // 4 kilobyte
+        long count = offset;
+        int n;
+        int i = 0;
+        while (-1 != (n = in.read(buffer)) && !emitter.isDisposed()) {
+            out.write(buffer, 0, n);
+            count += n;
+            i++;
+            if (i == 64) { // 64*4 = 256 kilobyte
+                i = 0;
+                emitter.onNext(LongLongPair.of(count, contentLength));
+            }
+        }
+        emitter.onNext(LongLongPair.of(count, contentLength));
+    }
+}
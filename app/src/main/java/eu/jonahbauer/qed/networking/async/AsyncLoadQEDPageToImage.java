@@ -4,46 +4,65 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import eu.jonahbauer.qed.networking.Feature;
-import eu.jonahbauer.qed.network.util.NetworkUtil;
 
 import java.io.IOException;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
-import javax.net.ssl.HttpsURLConnection;
+import okhttp3.Response;
 
 public final class AsyncLoadQEDPageToImage extends BaseAsyncLoadQEDPage implements Callable<Optional<Bitmap>> {
 
     private final Feature mFeature;
     private final String mUrl;
+    private final Consumer<byte[]> mProcessor;
 
     public AsyncLoadQEDPageToImage(@NonNull Feature mFeature,
                                    @NonNull String mUrl) {
+        this(mFeature, mUrl, null);
+    }
+
+    /**
+     * @param mProcessor a consumer that will receive the raw image data once it has been successfully decoded
+     */
+    public AsyncLoadQEDPageToImage(@NonNull Feature mFeature,
+                                   @NonNull String mUrl,
+                                   @Nullable Consumer<byte[]> mProcessor) {
         this.mFeature = mFeature;
         this.mUrl = mUrl;
+        this.mProcessor = mProcessor;
     }
 
     @Override
     public Optional<Bitmap> call() throws Exception {
-        HttpsURLConnection httpsURLConnection = connectAndLogin(mUrl, mFeature);
+        byte[] data;
+        try (Response response = connectAndLogin(mUrl, mFeature)) {
+            // thumbnails for image and video get redirected
+            if (response.code() == 302) {
+                return Optional.empty();
+            }
 
-        // thumbnails for image and video get redirected
-        if (httpsURLConnection.getResponseCode() == 302) {
-            return Optional.empty();
+            data = response.body().bytes();
+        } catch (IOException | RuntimeException e) {
+            finishTrace(true);
+            throw e;
+        } finally {
+            finishTrace(false);
         }
 
-        byte[] data = NetworkUtil.readAllBytes(httpsURLConnection.getInputStream());
-
-        httpsURLConnection.disconnect();
-
         Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length);
 
 
         if (bitmap == null) {
             throw new IOException("Could not load image from " + mUrl + ".");
         } else {
+            if (mProcessor != null) {
+                mProcessor.accept(data);
+            }
             return Optional.of(bitmap);
         }
     }
@@ -11,12 +11,11 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.util.function.Consumer;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import io.reactivex.rxjava3.core.ObservableEmitter;
 import io.reactivex.rxjava3.core.ObservableOnSubscribe;
 import it.unimi.dsi.fastutil.longs.LongLongPair;
 import lombok.RequiredArgsConstructor;
+import okhttp3.Response;
 
 @RequiredArgsConstructor
 public final class AsyncLoadQEDPageToStream extends BaseAsyncLoadQEDPage implements ObservableOnSubscribe<LongLongPair> {
@@ -24,27 +23,33 @@ public final class AsyncLoadQEDPageToStream extends BaseAsyncLoadQEDPage impleme
     private final @NonNull Feature mFeature;
     private final @NonNull String mUrl;
     private final @NonNull OutputStream mOutputStream;
-    private final @Nullable Consumer<HttpsURLConnection> processor;
+    private final @Nullable Consumer<Response> processor;
 
     @Override
     public void subscribe(@NonNull ObservableEmitter<LongLongPair> emitter) throws Throwable {
-        HttpsURLConnection httpsURLConnection = connectAndLogin(mUrl, mFeature);
-        if (httpsURLConnection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-            emitter.onError(new IOException("Status Code is not 200."));
-            return;
-        }
+        try (Response response = connectAndLogin(mUrl, mFeature)) {
+            if (response.code() != HttpURLConnection.HTTP_OK) {
+                finishTrace(true);
+                emitter.onError(new IOException("Status Code is not 200."));
+                return;
+            }
 
-        if (processor != null && !emitter.isDisposed()) {
-            processor.accept(httpsURLConnection);
-        }
+            if (processor != null && !emitter.isDisposed()) {
+                processor.accept(response);
+            }
 
-        // copy input stream to output stream
-        try (InputStream inputStream = httpsURLConnection.getInputStream(); mOutputStream) {
-            copyStream(inputStream, mOutputStream, httpsURLConnection.getContentLength(), emitter);
+            // copy input stream to output stream
+            var body = response.body();
+            try (InputStream inputStream = body.byteStream(); mOutputStream) {
+                copyStream(inputStream, mOutputStream, body.contentLength(), emitter);
+            }
+        } catch (IOException | RuntimeException e) {
+            finishTrace(true);
+            throw e;
+        } finally {
+            finishTrace(false);
         }
 
-        httpsURLConnection.disconnect();
-
         emitter.onComplete();
     }
 
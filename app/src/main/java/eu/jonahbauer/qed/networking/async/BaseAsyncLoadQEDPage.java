@@ -1,54 +1,93 @@
 package eu.jonahbauer.qed.networking.async;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import eu.jonahbauer.qed.networking.Feature;
 import eu.jonahbauer.qed.network.util.NetworkUtil;
-import eu.jonahbauer.qed.networking.cookies.QEDCookieHandler;
+import eu.jonahbauer.qed.networking.QEDHttpClient;
+import eu.jonahbauer.qed.networking.RequestTracer;
 import eu.jonahbauer.qed.networking.exceptions.InvalidCredentialsException;
 import eu.jonahbauer.qed.networking.login.QEDLogin;
 
 import java.io.IOException;
-import java.net.URL;
+import java.util.function.Consumer;
 
-import javax.net.ssl.HttpsURLConnection;
+import okhttp3.Request;
+import okhttp3.Response;
 
 abstract class BaseAsyncLoadQEDPage {
+    private volatile RequestTracer.Trace mTrace;
 
-    protected HttpsURLConnection connectAndLogin(String url, Feature feature) throws IOException, InvalidCredentialsException {
-        // try to connect
-        HttpsURLConnection httpsURLConnection = createConnection(url);
-        httpsURLConnection.connect();
+    /**
+     * Returns the trace of the most recent request, if any.
+     */
+    public @Nullable RequestTracer.Trace getTrace() {
+        return mTrace;
+    }
+
+    /**
+     * @return the response, which must be closed by the caller
+     */
+    protected Response connectAndLogin(String url, Feature feature) throws IOException, InvalidCredentialsException {
+        return connectAndLogin(url, feature, null);
+    }
+
+    /**
+     * Connects to the given url and logs in if necessary. The request is
+     * {@linkplain RequestTracer#start(String) traced} until the caller {@linkplain #finishTrace(boolean) finishes}
+     * the trace, unless connecting fails.
+     *
+     * @param configurer an optional callback used to set additional request headers before connecting
+     * @return the response, which must be closed by the caller
+     */
+    protected Response connectAndLogin(String url, Feature feature, @Nullable Consumer<Request.Builder> configurer) throws IOException, InvalidCredentialsException {
+        var trace = RequestTracer.getInstance().start(url);
+        mTrace = trace;
 
-        // check for login error
-        if (NetworkUtil.isLoginError(feature, httpsURLConnection)) {
-            httpsURLConnection.disconnect();
+        try {
+            // try to connect
+            long generation = QEDLogin.getGeneration(feature);
+            Response response = execute(url, configurer, trace);
 
-            // login
-            QEDLogin.login(feature);
+            // check for login error
+            if (NetworkUtil.isLoginError(feature, response)) {
+                response.close();
+                trace.setRelogin();
 
-            // retry connection
-            httpsURLConnection = createConnection(url);
-            httpsURLConnection.connect();
+                // login, unless a concurrent request already did
+                QEDLogin.login(feature, generation);
 
-            // check for login error once more
-            // if authentication failed after successful login -> throw exception
-            if (NetworkUtil.isLoginError(feature, httpsURLConnection)) {
-                throw new InvalidCredentialsException(new AssertionError("request not authenticated after login"));
+                // retry connection
+                response = execute(url, configurer, trace);
+
+                // check for login error once more
+                // if authentication failed after successful login -> throw exception
+                if (NetworkUtil.isLoginError(feature, response)) {
+                    response.close();
+                    throw new InvalidCredentialsException(new AssertionError("request not authenticated after login"));
+                }
             }
+
+            return response;
+        } catch (IOException | InvalidCredentialsException | RuntimeException e) {
+            trace.finish(true);
+            throw e;
         }
+    }
 
-        return httpsURLConnection;
+    /**
+     * Finishes the trace of the most recent request. Only the first call has an effect.
+     */
+    protected void finishTrace(boolean failed) {
+        var trace = mTrace;
+        if (trace != null) trace.finish(failed);
     }
 
     @NonNull
-    private HttpsURLConnection createConnection(String url) throws IOException {
-        QEDCookieHandler.await();
-        HttpsURLConnection httpsURLConnection = (HttpsURLConnection) (new URL(url).openConnection());
-        httpsURLConnection.setRequestMethod("GET");
-        httpsURLConnection.setInstanceFollowRedirects(false);
-        httpsURLConnection.setUseCaches(false);
-
-        return httpsURLConnection;
+    private Response execute(String url, @Nullable Consumer<Request.Builder> configurer, @NonNull RequestTracer.Trace trace) throws IOException {
+        Request.Builder request = new Request.Builder().url(url).get().tag(RequestTracer.Trace.class, trace);
+        if (configurer != null) configurer.accept(request);
+        return QEDHttpClient.getInstance().newCall(request.build()).execute();
     }
 }
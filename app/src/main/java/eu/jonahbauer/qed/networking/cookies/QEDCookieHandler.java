@@ -12,7 +12,7 @@ import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class QEDCookieHandler {
-    private static CookieManager INSTANCE;
+    private static volatile CookieManager INSTANCE;
 
     private static final ReentrantLock lock = new ReentrantLock();
     private static final Condition ready = lock.newCondition();
@@ -1,19 +1,28 @@
 package eu.jonahbauer.qed.networking.cookies;
 
+import androidx.annotation.Nullable;
+
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+
 import java.net.CookiePolicy;
 import java.net.HttpCookie;
 import java.net.URI;
 
 /**
- * A {@link CookiePolicy} that accepts only cookies for the host {@code qed-verein.de}.
+ * A {@link CookiePolicy} that accepts only cookies from the {@linkplain NetworkConstants#isServerHost(String) QED servers}.
  */
 public final class QEDCookiePolicy implements CookiePolicy {
-    private static final String ALLOWED_HOST = "qed-verein.de";
 
     @Override
     public boolean shouldAccept(URI uri, HttpCookie cookie) {
-        String host = uri.getHost();
+        return isAllowedHost(uri.getHost());
+    }
 
-        return host.endsWith(ALLOWED_HOST);
+    /**
+     * Checks whether cookies are accepted from the given host. Requests to other hosts never carry
+     * any cookies.
+     */
+    public static boolean isAllowedHost(@Nullable String host) {
+        return NetworkConstants.isServerHost(host);
     }
 }
@@ -2,9 +2,12 @@ package eu.jonahbauer.qed.networking.cookies;
 
 import android.content.SharedPreferences;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
 import org.json.JSONObject;
 
-import java.lang.reflect.Field;
 import java.net.CookieStore;
 import java.net.HttpCookie;
 import java.net.URI;
@@ -12,29 +15,55 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * A {@link CookieStore} that synchronizes the cookies with an instance of {@link SharedPreferences}.
  * <br>
+ * Cookies are read from an immutable snapshot without any locking, since they are needed for every
+ * request. Changes replace the snapshot and are written to the shared preferences in the background
+ * after a short delay, so that the cookies set while logging in end up in a single write. Only the
+ * entries that actually changed are written.
+ * <br>
  * This implementation is based on {@code java.net.InMemoryCookieStore}
  */
 public final class SharedPreferencesCookieStore implements CookieStore {
+    /**
+     * The delay in milliseconds after which changes are written to the shared preferences.
+     */
+    @VisibleForTesting
+    static final long FLUSH_DELAY = 2_000;
 
-    private final Map<URI, List<HttpCookie>> uriIndex;
-    private final ReentrantLock lock;
-    private final SharedPreferences sharedPreferences;
+    private final SharedPreferences mSharedPreferences;
+    private final Scheduler mScheduler;
+
+    private final Object mWriteLock = new Object();
+    private volatile Snapshot mSnapshot;
+
+    private final AtomicBoolean mFlushPending = new AtomicBoolean();
+    /**
+     * The serialized cookies as they are currently stored in the shared preferences.
+     */
+    private final Map<String, Set<String>> mPersisted = new HashMap<>();
 
     public SharedPreferencesCookieStore(SharedPreferences sharedPreferences) {
-        this.uriIndex = new HashMap<>();
-        this.lock = new ReentrantLock(false);
-        this.sharedPreferences = sharedPreferences;
+        this(sharedPreferences, Schedulers.io());
+    }
+
+    @VisibleForTesting
+    SharedPreferencesCookieStore(SharedPreferences sharedPreferences, Scheduler scheduler) {
+        this.mSharedPreferences = sharedPreferences;
+        this.mScheduler = scheduler;
 
         loadSharedPreferences();
     }
@@ -48,12 +77,21 @@ public final class SharedPreferencesCookieStore implements CookieStore {
             throw new NullPointerException("cookie is null");
         }
 
-        lock.lock();
-        try {
-            addIndex(uriIndex, getEffectiveURI(uri), cookie);
-        } finally {
-            lock.unlock();
+        var entry = new Entry(cookie, System.currentTimeMillis());
+        synchronized (mWriteLock) {
+            var index = new HashMap<>(mSnapshot.mIndex);
+            var key = getEffectiveURI(uri);
+            var cookies = index.get(key);
+            cookies = cookies != null ? new ArrayList<>(cookies) : new ArrayList<>();
+
+            // there may already have the same cookie, so remove it first
+            cookies.removeIf(e -> e.mCookie.equals(cookie));
+            cookies.add(entry);
+            index.put(key, cookies);
+
+            mSnapshot = new Snapshot(index);
         }
+        scheduleFlush(FLUSH_DELAY);
     }
 
     /**
@@ -69,18 +107,13 @@ public final class SharedPreferencesCookieStore implements CookieStore {
             throw new NullPointerException("uri is null");
         }
 
-        List<HttpCookie> cookies = new ArrayList<>();
-        // BEGIN Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
-        lock.lock();
-        try {
-            // check domainIndex first
-            getInternal1(cookies, uriIndex, uri.getHost());
-            // check uriIndex then
-            getInternal2(cookies, uriIndex, getEffectiveURI(uri));
-        } finally {
-            lock.unlock();
+        var candidates = mSnapshot.lookup(uri.getHost());
+        var cookies = new ArrayList<HttpCookie>(candidates.size());
+        for (HttpCookie cookie : candidates) {
+            if (!cookie.hasExpired()) {
+                cookies.add(cookie);
+            }
         }
-        // END Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
         return cookies;
     }
 
@@ -88,35 +121,15 @@ public final class SharedPreferencesCookieStore implements CookieStore {
      * Get all cookies in cookie store, except those have expired
      */
     public List<HttpCookie> getCookies() {
-        // BEGIN Android-changed: Remove cookieJar and domainIndex
         List<HttpCookie> rt = new ArrayList<>();
-
-        lock.lock();
-        try {
-            for (Map.Entry<URI, List<HttpCookie>> entry : uriIndex.entrySet()) {
-                boolean changed = false;
-                Iterator<HttpCookie> it = entry.getValue().iterator();
-                while (it.hasNext()) {
-                    HttpCookie cookie = it.next();
-                    if (cookie.hasExpired()) {
-                        changed = true;
-                        it.remove();
-                    } else if (!rt.contains(cookie)) {
-                        rt.add(cookie);
-                    }
-                }
-
-                if (changed) {
-                    updateSharedPreferences(entry.getKey());
+        for (List<Entry> entries : mSnapshot.mIndex.values()) {
+            for (Entry entry : entries) {
+                if (!entry.mCookie.hasExpired() && !rt.contains(entry.mCookie)) {
+                    rt.add(entry.mCookie);
                 }
             }
-        } finally {
-            rt = Collections.unmodifiableList(rt);
-            lock.unlock();
         }
-        // END Android-changed: Remove cookieJar and domainIndex
-
-        return rt;
+        return Collections.unmodifiableList(rt);
     }
 
     /**
@@ -124,14 +137,9 @@ public final class SharedPreferencesCookieStore implements CookieStore {
      * of this cookie store.
      */
     public List<URI> getURIs() {
-        lock.lock();
-        try {
-            List<URI> result = new ArrayList<>(uriIndex.keySet());
-            result.remove(null);
-            return Collections.unmodifiableList(result);
-        } finally {
-            lock.unlock();
-        }
+        List<URI> result = new ArrayList<>(mSnapshot.mIndex.keySet());
+        result.remove(null);
+        return Collections.unmodifiableList(result);
     }
 
     /**
@@ -143,45 +151,72 @@ public final class SharedPreferencesCookieStore implements CookieStore {
             throw new NullPointerException("cookie is null");
         }
 
-        lock.lock();
-        try {
-            uri = getEffectiveURI(uri);
-            if (uriIndex.get(uri) == null) {
-                return false;
+        synchronized (mWriteLock) {
+            var key = getEffectiveURI(uri);
+            var cookies = mSnapshot.mIndex.get(key);
+            if (cookies == null) return false;
+
+            var remaining = new ArrayList<>(cookies);
+            if (!remaining.removeIf(e -> e.mCookie.equals(ck))) return false;
+
+            var index = new HashMap<>(mSnapshot.mIndex);
+            if (remaining.isEmpty()) {
+                index.remove(key);
             } else {
-                List<HttpCookie> cookies = uriIndex.get(uri);
-                if (cookies != null) {
-                    if (cookies.remove(ck)) {
-                        updateSharedPreferences(uri);
-                        return true;
-                    } else {
-                        return false;
-                    }
-                } else {
-                    return false;
-                }
+                index.put(key, remaining);
             }
-        } finally {
-            lock.unlock();
+            mSnapshot = new Snapshot(index);
         }
+        scheduleFlush(FLUSH_DELAY);
+        return true;
     }
 
     /**
-     * Remove all cookies in this cookie store.
+     * Remove all cookies in this cookie store. The shared preferences are cleared immediately.
      */
     public boolean removeAll() {
-        lock.lock();
         boolean result;
+        synchronized (mWriteLock) {
+            result = !mSnapshot.mIndex.isEmpty();
+            mSnapshot = new Snapshot(Collections.emptyMap());
+        }
+        scheduleFlush(0);
+        return result;
+    }
 
-        try {
-            result = !uriIndex.isEmpty();
-            uriIndex.clear();
-            sharedPreferences.edit().clear().apply();
-        } finally {
-            lock.unlock();
+    /**
+     * Writes all pending changes to the shared preferences.
+     */
+    @VisibleForTesting
+    void flush() {
+        synchronized (mPersisted) {
+            mFlushPending.set(false);
+
+            var serialized = mSnapshot.serialize();
+            if (serialized.equals(mPersisted)) return;
+
+            var editor = mSharedPreferences.edit();
+            for (String key : mPersisted.keySet()) {
+                if (!serialized.containsKey(key)) {
+                    editor.remove(key);
+                }
+            }
+            serialized.forEach((key, cookies) -> {
+                if (!cookies.equals(mPersisted.get(key))) {
+                    editor.putStringSet(key, cookies);
+                }
+            });
+            editor.apply();
+
+            mPersisted.clear();
+            mPersisted.putAll(serialized);
         }
+    }
 
-        return result;
+    private void scheduleFlush(long delay) {
+        if (mFlushPending.compareAndSet(false, true) || delay == 0) {
+            mScheduler.scheduleDirect(this::flush, delay, TimeUnit.MILLISECONDS);
+        }
     }
 
 
@@ -199,7 +234,7 @@ public final class SharedPreferencesCookieStore implements CookieStore {
      * passed along.
      * And should be used for 'old' style cookies (aka Netscape type of cookies)
      */
-    private boolean netscapeDomainMatches(String domain, String host) {
+    private static boolean netscapeDomainMatches(String domain, String host) {
         if (domain == null || host == null) {
             return false;
         }
@@ -239,113 +274,11 @@ public final class SharedPreferencesCookieStore implements CookieStore {
         return false;
     }
 
-    private void getInternal1(List<HttpCookie> cookies, Map<URI, List<HttpCookie>> cookieIndex, String host) {
-        // BEGIN Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
-        // Use a separate list to handle cookies that need to be removed so
-        // that there is no conflict with iterators.
-        ArrayList<HttpCookie> toRemove = new ArrayList<>();
-        for (Map.Entry<URI, List<HttpCookie>> entry : cookieIndex.entrySet()) {
-            boolean changed = false;
-
-            List<HttpCookie> lst = entry.getValue();
-            for (HttpCookie c : lst) {
-                String domain = c.getDomain();
-                if ((c.getVersion() == 0 && netscapeDomainMatches(domain, host)) ||
-                        (c.getVersion() == 1 && HttpCookie.domainMatches(domain, host))) {
-
-                    // the cookie still in main cookie store
-                    if (!c.hasExpired()) {
-                        // don't add twice
-                        if (!cookies.contains(c)) {
-                            cookies.add(c);
-                            changed = true;
-                        }
-                    } else {
-                        toRemove.add(c);
-                        changed = true;
-                    }
-                }
-            }
-            // Clear up the cookies that need to be removed
-            for (HttpCookie c : toRemove) {
-                lst.remove(c);
-            }
-
-            toRemove.clear();
-
-            if (changed) {
-                updateSharedPreferences(entry.getKey());
-            }
-        }
-        // END Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
-    }
-
-    // @param cookies           [OUT] contains the found cookies
-    // @param cookieIndex       the index
-    // @param comparator        the prediction to decide whether or not
-    //                          a cookie in index should be returned
-    private void getInternal2(List<HttpCookie> cookies, Map<URI, List<HttpCookie>> cookieIndex, URI comparator) {
-        // BEGIN Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
-        // Removed cookieJar
-        for (URI index : cookieIndex.keySet()) {
-            if ((index == comparator) || (index != null && comparator.compareTo(index) == 0)) {
-                boolean changed = false;
-
-                List<HttpCookie> indexedCookies = cookieIndex.get(index);
-                // check the list of cookies associated with this domain
-                if (indexedCookies != null) {
-                    Iterator<HttpCookie> it = indexedCookies.iterator();
-                    while (it.hasNext()) {
-                        HttpCookie ck = it.next();
-                        // the cookie still in main cookie store
-                        if (!ck.hasExpired()) {
-                            // don't add twice
-                            if (!cookies.contains(ck)) {
-                                changed = true;
-                                cookies.add(ck);
-                            }
-                        } else {
-                            changed = true;
-                            it.remove();
-                        }
-                    }
-                } // end of indexedCookies != null
-
-                if (changed) {
-                    updateSharedPreferences(index);
-                }
-            } // end of comparator.compareTo(index) == 0
-        } // end of cookieIndex iteration
-        // END Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
-    }
-
-    // add 'cookie' indexed by 'index' into 'indexStore'
-    private void addIndex(Map<URI, List<HttpCookie>> indexStore, URI index, HttpCookie cookie) {
-        // Android-changed: "index" can be null. We only use the URI based
-        // index on Android and we want to support null URIs. The underlying
-        // store is a HashMap which will support null keys anyway.
-        // if (index != null) {
-        List<HttpCookie> cookies = indexStore.get(index);
-        if (cookies != null) {
-            // there may already have the same cookie, so remove it first
-            cookies.remove(cookie);
-
-            cookies.add(cookie);
-        } else {
-            cookies = new ArrayList<>();
-            cookies.add(cookie);
-            indexStore.put(index, cookies);
-        }
-
-        updateSharedPreferences(index);
-    }
-
-
     //
     // for cookie purpose, the effective uri should only be http://host
     // the path will be taken into account when path-match algorithm applied
     //
-    private URI getEffectiveURI(URI uri) {
+    private static URI getEffectiveURI(URI uri) {
         // Android-added: Fix NullPointerException
         if (uri == null) {
             return null;
@@ -363,84 +296,45 @@ public final class SharedPreferencesCookieStore implements CookieStore {
     }
 
     private void loadSharedPreferences() {
-        lock.lock();
-        try {
-            // Load cookies from sharedpreferences
-            sharedPreferences.getAll().forEach((index, cookies) -> {
-                if (!(cookies instanceof Set<?>)) return;
-
-                try {
-                    URI uri = new URI(index);
-
-                    ((Set<?>) cookies).stream()
-                                      .filter(c -> c instanceof String)
-                                      .map(c -> (String) c)
-                                      .map(this::deserializeCookie)
-                                      .filter(Objects::nonNull)
-                                      .forEach(cookie -> addIndex(uriIndex, uri, cookie));
-                } catch (Exception ignored) {}
-            });
-
-            // Store cookies to sharedpreferences
-            SharedPreferences.Editor editor = sharedPreferences.edit().clear();
-
-            uriIndex.forEach((index, cookies) -> {
-                Set<String> serializedCookies = cookies.stream()
-                                                       .map(this::serializeCookie)
-                                                       .filter(Objects::nonNull)
-                                                       .collect(Collectors.toSet());
-
-                if (serializedCookies != null && !serializedCookies.isEmpty()) {
-                    editor.putStringSet(index.toString(), serializedCookies);
+        var index = new HashMap<URI, List<Entry>>();
+        mSharedPreferences.getAll().forEach((key, cookies) -> {
+            if (!(cookies instanceof Set<?>)) return;
+
+            try {
+                var uri = new URI(key);
+                var entries = new ArrayList<Entry>();
+                var persisted = new HashSet<String>();
+                for (Object cookie : (Set<?>) cookies) {
+                    if (!(cookie instanceof String)) continue;
+                    persisted.add((String) cookie);
+
+                    var entry = deserializeCookie((String) cookie);
+                    if (entry != null) {
+                        entries.removeIf(e -> e.mCookie.equals(entry.mCookie));
+                        entries.add(entry);
+                    }
                 }
-            });
-
-            editor.apply();
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private void updateSharedPreferences(URI index) {
-        List<HttpCookie> cookies = uriIndex.get(index);
 
-        Set<String> serializedCookies = null;
-
-        if (cookies != null) {
-            serializedCookies = cookies.stream()
-                                       .map(this::serializeCookie)
-                                       .filter(Objects::nonNull)
-                                       .collect(Collectors.toSet());
-        }
+                mPersisted.put(key, persisted);
+                if (!entries.isEmpty()) index.put(uri, entries);
+            } catch (Exception ignored) {}
+        });
+        mSnapshot = new Snapshot(index);
 
-
-        lock.lock();
-        try {
-            if (serializedCookies != null && !serializedCookies.isEmpty()) {
-                sharedPreferences.edit()
-                                 .putStringSet(index.toString(), serializedCookies)
-                                 .apply();
-            } else {
-                sharedPreferences.edit()
-                                 .remove(index.toString())
-                                 .apply();
-            }
-        } finally {
-            lock.unlock();
-        }
+        // drop expired and invalid cookies from the shared preferences
+        scheduleFlush(FLUSH_DELAY);
     }
 
-    private String serializeCookie(HttpCookie cookie) {
+    private static @Nullable String serializeCookie(@NonNull Entry entry) {
         try {
-            Field whenCreated = HttpCookie.class.getDeclaredField("whenCreated");
-            whenCreated.setAccessible(true);
+            var cookie = entry.mCookie;
 
             JSONObject json = new JSONObject();
             json.put("comment", cookie.getComment());
             json.put("commenturl", cookie.getCommentURL());
             json.put("discard", cookie.getDiscard());
             json.put("domain", cookie.getDomain());
-            json.put("whenCreated", whenCreated.getLong(cookie));
+            json.put("whenCreated", entry.mWhenCreated);
             json.put("httponly", cookie.isHttpOnly());
             json.put("max-age", cookie.getMaxAge());
             json.put("path", cookie.getPath());
@@ -456,11 +350,8 @@ public final class SharedPreferencesCookieStore implements CookieStore {
         }
     }
 
-    private HttpCookie deserializeCookie(String string) {
+    private static @Nullable Entry deserializeCookie(@NonNull String string) {
         try {
-            Field whenCreated = HttpCookie.class.getDeclaredField("whenCreated");
-            whenCreated.setAccessible(true);
-
             JSONObject json = new JSONObject(string);
 
             String name = json.getString("name");
@@ -473,7 +364,7 @@ public final class SharedPreferencesCookieStore implements CookieStore {
             long oldMaxAge = json.getLong("max-age");
             if (oldMaxAge != -1) {
                 long expirationTime = json.getLong("whenCreated") + oldMaxAge * 1000;
-                long creationTime = whenCreated.getLong(out);
+                long creationTime = System.currentTimeMillis();
 
                 if (creationTime > expirationTime) {
                     return null;
@@ -493,9 +384,115 @@ public final class SharedPreferencesCookieStore implements CookieStore {
             if (json.has("secure")) out.setSecure(json.getBoolean("secure"));
             if (json.has("version")) out.setVersion(json.getInt("version"));
 
-            return out;
+            // keep the original representation, so that unchanged cookies are not written again
+            return new Entry(out, string);
         } catch (Exception e) {
             return null;
         }
     }
+
+    /**
+     * A cookie together with its creation time, which {@link HttpCookie} does not expose.
+     */
+    private static final class Entry {
+        private final HttpCookie mCookie;
+        private final long mWhenCreated;
+        private volatile String mSerialized;
+
+        private Entry(@NonNull HttpCookie cookie, long whenCreated) {
+            this.mCookie = cookie;
+            this.mWhenCreated = whenCreated;
+        }
+
+        private Entry(@NonNull HttpCookie cookie, @NonNull String serialized) {
+            this.mCookie = cookie;
+            this.mWhenCreated = -1;
+            this.mSerialized = serialized;
+        }
+
+        private @Nullable String serialize() {
+            var serialized = mSerialized;
+            if (serialized == null) {
+                serialized = mSerialized = serializeCookie(this);
+            }
+            return serialized;
+        }
+    }
+
+    /**
+     * An immutable view of all cookies indexed by the effective uri they were added with. The
+     * cookies matching a host are computed once per snapshot. They may include expired cookies.
+     */
+    private static final class Snapshot {
+        private final Map<URI, List<Entry>> mIndex;
+        private final Map<String, List<HttpCookie>> mLookups = new ConcurrentHashMap<>();
+
+        private Snapshot(@NonNull Map<URI, List<Entry>> index) {
+            this.mIndex = Collections.unmodifiableMap(index);
+        }
+
+        private @NonNull List<HttpCookie> lookup(@Nullable String host) {
+            if (host == null) return computeLookup(null);
+            return mLookups.computeIfAbsent(host.toLowerCase(Locale.ROOT), this::computeLookup);
+        }
+
+        private @NonNull List<HttpCookie> computeLookup(@Nullable String host) {
+            var cookies = new ArrayList<HttpCookie>();
+
+            // BEGIN Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
+            // check domainIndex first
+            for (List<Entry> entries : mIndex.values()) {
+                for (Entry entry : entries) {
+                    var c = entry.mCookie;
+                    String domain = c.getDomain();
+                    if ((c.getVersion() == 0 && netscapeDomainMatches(domain, host)) ||
+                            (c.getVersion() == 1 && HttpCookie.domainMatches(domain, host))) {
+                        // don't add twice
+                        if (!cookies.contains(c)) cookies.add(c);
+                    }
+                }
+            }
+
+            // check uriIndex then
+            URI comparator;
+            try {
+                comparator = new URI("http", host, null, null, null);
+            } catch (URISyntaxException e) {
+                comparator = null;
+            }
+            for (Map.Entry<URI, List<Entry>> index : mIndex.entrySet()) {
+                var key = index.getKey();
+                if ((key == comparator) || (key != null && comparator != null && comparator.compareTo(key) == 0)) {
+                    for (Entry entry : index.getValue()) {
+                        // don't add twice
+                        if (!cookies.contains(entry.mCookie)) cookies.add(entry.mCookie);
+                    }
+                }
+            }
+            // END Android-changed: b/25897688 InMemoryCookieStore ignores scheme (http/https)
+
+            return Collections.unmodifiableList(cookies);
+        }
+
+        /**
+         * Serializes all cookies that have not yet expired.
+         */
+        private @NonNull Map<String, Set<String>> serialize() {
+            var out = new HashMap<String, Set<String>>();
+            mIndex.forEach((index, entries) -> {
+                if (index == null) return;
+
+                var cookies = new HashSet<String>();
+                for (Entry entry : entries) {
+                    if (entry.mCookie.hasExpired()) continue;
+
+                    var serialized = entry.serialize();
+                    if (serialized != null) cookies.add(serialized);
+                }
+
+                if (!cookies.isEmpty()) out.put(index.toString(), cookies);
+            });
+            return out;
+        }
+    }
 }
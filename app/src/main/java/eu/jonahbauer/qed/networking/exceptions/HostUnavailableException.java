@@ -0,0 +1,13 @@
+package eu.jonahbauer.qed.networking.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request to a host that has recently been failing.
+ * @see eu.jonahbauer.qed.networking.CircuitBreaker
+ */
+public class HostUnavailableException extends IOException {
+    public HostUnavailableException(String host) {
+        super("Host " + host + " is unavailable.");
+    }
+}
@@ -0,0 +1,98 @@
+package eu.jonahbauer.qed.networking.login;
+
+import androidx.annotation.NonNull;
+
+import eu.jonahbauer.qed.networking.exceptions.InvalidCredentialsException;
+import eu.jonahbauer.qed.networking.exceptions.NetworkException;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Coordinates the logins to a single feature, so that concurrent requests noticing an expired
+ * session do not all log in on their own. The first request performs the login, while all other
+ * requests wait for its result.
+ * <br>
+ * Every successful login starts a new generation. A request that was sent before the current
+ * generation started was sent with the old session and may simply be retried without logging in
+ * again.
+ */
+final class LoginCoordinator {
+    private final Login mLogin;
+
+    private long mGeneration;
+    private Flight mFlight;
+
+    LoginCoordinator(@NonNull Login login) {
+        this.mLogin = login;
+    }
+
+    /**
+     * Returns the current generation. Must be called before sending a request whose response may be
+     * passed to {@link #login(long)}.
+     */
+    synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * Makes sure that a login has been performed after the given generation, either by performing
+     * it or by waiting for a concurrent login to complete. If the concurrent login fails, its
+     * exception is rethrown.
+     * @param generation the {@linkplain #getGeneration() generation} at the time the failed request was sent
+     */
+    void login(long generation) throws InvalidCredentialsException, NetworkException {
+        Flight flight;
+        boolean leader = false;
+        synchronized (this) {
+            if (mGeneration != generation) return;
+
+            flight = mFlight;
+            if (flight == null) {
+                flight = mFlight = new Flight();
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            boolean success = false;
+            try {
+                mLogin.login();
+                success = true;
+            } catch (InvalidCredentialsException | NetworkException | RuntimeException e) {
+                flight.mError = e;
+            } finally {
+                synchronized (this) {
+                    mFlight = null;
+                    if (success) mGeneration++;
+                }
+                flight.mDone.countDown();
+            }
+        } else {
+            try {
+                flight.mDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NetworkException(e);
+            }
+        }
+
+        var error = flight.mError;
+        if (error instanceof InvalidCredentialsException) {
+            throw (InvalidCredentialsException) error;
+        } else if (error instanceof NetworkException) {
+            throw (NetworkException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+    }
+
+    private static final class Flight {
+        private final CountDownLatch mDone = new CountDownLatch(1);
+        private volatile Exception mError;
+    }
+
+    @FunctionalInterface
+    interface Login {
+        void login() throws InvalidCredentialsException, NetworkException;
+    }
+}
@@ -21,6 +21,7 @@ import eu.jonahbauer.qed.activities.main.LoginFragmentArgs;
 import eu.jonahbauer.qed.crypt.PasswordStorage;
 import eu.jonahbauer.qed.crypt.PasswordUtils;
 import eu.jonahbauer.qed.networking.Feature;
+import eu.jonahbauer.qed.networking.QEDHttpClient;
 import eu.jonahbauer.qed.network.util.NetworkConstants;
 import eu.jonahbauer.qed.network.util.NetworkUtil;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
@@ -32,26 +33,33 @@ import eu.jonahbauer.qed.util.Preferences;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
 
 @UtilityClass
 public final class QEDLogin {
     private static final String LOG_TAG = QEDLogin.class.getName();
+    private static final MediaType FORM = MediaType.get("application/x-www-form-urlencoded");
+    private static final Map<Feature, LoginCoordinator> COORDINATORS = new EnumMap<>(Feature.class);
+
+    static {
+        for (Feature feature : Feature.values()) {
+            COORDINATORS.put(feature, new LoginCoordinator(() -> login(feature)));
+        }
+    }
 
     /**
      * Performs a login to the chat using stored username and password.
@@ -96,28 +104,18 @@ public final class QEDLogin {
                 "password", password
         ));
 
-        try {
-            HttpsURLConnection httpsURLConnection = (HttpsURLConnection) new URL(NetworkConstants.CHAT_SERVER_LOGIN).openConnection();
-            httpsURLConnection.setRequestMethod("POST");
-            httpsURLConnection.setDoOutput(true);
-            httpsURLConnection.setDoInput(true);
-            httpsURLConnection.setInstanceFollowRedirects(false);
-            httpsURLConnection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            httpsURLConnection.setRequestProperty("charset", "utf-8");
-            httpsURLConnection.setRequestProperty("Content-Length", Integer.toString(data.length));
-            httpsURLConnection.setUseCaches(false);
+        var request = new Request.Builder()
+                .url(NetworkConstants.getChatServerLogin())
+                .post(RequestBody.create(data, FORM))
+                .build();
 
-            DataOutputStream dataOutputStream = new DataOutputStream(httpsURLConnection.getOutputStream());
-            dataOutputStream.write(data);
-
-            httpsURLConnection.connect();
-
-            List<String> cookies = httpsURLConnection.getHeaderFields().get("Set-Cookie");
-
-            httpsURLConnection.disconnect();
-            dataOutputStream.close();
+        try {
+            List<String> cookies;
+            try (var response = QEDHttpClient.getInstance().newCall(request).execute()) {
+                cookies = response.headers("Set-Cookie");
+            }
 
-            if (cookies == null) {
+            if (cookies.isEmpty()) {
                 throw new InvalidCredentialsException();
             }
 
@@ -145,23 +143,14 @@ public final class QEDLogin {
     private static void loginDatabase(String username, char[] password) throws InvalidCredentialsException, NetworkException {
         byte[] data = null;
         try {
-            HttpsURLConnection httpsURLConnection = (HttpsURLConnection) new URL(NetworkConstants.DATABASE_SERVER_LOGIN).openConnection();
-            httpsURLConnection.setRequestMethod("GET");
-            httpsURLConnection.setDoInput(true);
-            httpsURLConnection.setInstanceFollowRedirects(false);
-            httpsURLConnection.connect();
-
-            String response = new String(NetworkUtil.readAllBytes(httpsURLConnection.getInputStream()), StandardCharsets.UTF_8);
-            Document responseDoc = Jsoup.parse(response);
-            String authenticityToken = responseDoc.select("input[name=authenticity_token]").val();
-
-            httpsURLConnection = (HttpsURLConnection) new URL(NetworkConstants.DATABASE_SERVER_LOGIN).openConnection();
-            httpsURLConnection.setRequestMethod("POST");
-            httpsURLConnection.setDoInput(true);
-            httpsURLConnection.setDoOutput(true);
-            httpsURLConnection.setInstanceFollowRedirects(false);
-            httpsURLConnection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            httpsURLConnection.setRequestProperty("charset", "utf-8");
+            var client = QEDHttpClient.getInstance();
+
+            String authenticityToken;
+            var tokenRequest = new Request.Builder().url(NetworkConstants.getDatabaseServerLogin()).get().build();
+            try (var response = client.newCall(tokenRequest).execute()) {
+                Document responseDoc = Jsoup.parse(NetworkUtil.readPage(response));
+                authenticityToken = responseDoc.select("input[name=authenticity_token]").val();
+            }
 
             data = PasswordUtils.encode(Map.of(
                     "account_name", username,
@@ -169,15 +158,16 @@ public final class QEDLogin {
                     "password", password
             ));
 
-            DataOutputStream dataOutputStream = new DataOutputStream(httpsURLConnection.getOutputStream());
-            dataOutputStream.write(data);
-
-            httpsURLConnection.connect();
-
-            int responseCode = httpsURLConnection.getResponseCode();
-            String location = httpsURLConnection.getHeaderField("Location");
-
-            httpsURLConnection.disconnect();
+            int responseCode;
+            String location;
+            var loginRequest = new Request.Builder()
+                    .url(NetworkConstants.getDatabaseServerLogin())
+                    .post(RequestBody.create(data, FORM))
+                    .build();
+            try (var response = client.newCall(loginRequest).execute()) {
+                responseCode = response.code();
+                location = response.header("Location");
+            }
 
             if (responseCode != 302 || location == null) {
                 throw new InvalidCredentialsException();
@@ -199,28 +189,18 @@ public final class QEDLogin {
                 "login", "Einloggen",
                 "password", password
         ));
-        try {
-            HttpsURLConnection httpsURLConnection = (HttpsURLConnection) new URL(NetworkConstants.GALLERY_SERVER_LOGIN).openConnection();
-            httpsURLConnection.setRequestMethod("POST");
-            httpsURLConnection.setDoOutput(true);
-            httpsURLConnection.setDoInput(true);
-            httpsURLConnection.setInstanceFollowRedirects(false);
-            httpsURLConnection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            httpsURLConnection.setRequestProperty("charset", "utf-8");
-            httpsURLConnection.setRequestProperty("Content-Length", Integer.toString(data.length));
-            httpsURLConnection.setUseCaches(false);
+        var request = new Request.Builder()
+                .url(NetworkConstants.getGalleryServerLogin())
+                .post(RequestBody.create(data, FORM))
+                .build();
 
-            DataOutputStream dataOutputStream = new DataOutputStream(httpsURLConnection.getOutputStream());
-            dataOutputStream.write(data);
-
-            httpsURLConnection.connect();
-
-            List<String> cookies = httpsURLConnection.getHeaderFields().get("Set-Cookie");
-
-            httpsURLConnection.disconnect();
-            dataOutputStream.close();
+        try {
+            List<String> cookies;
+            try (var response = QEDHttpClient.getInstance().newCall(request).execute()) {
+                cookies = response.headers("Set-Cookie");
+            }
 
-            if (cookies == null) {
+            if (cookies.isEmpty()) {
                 throw new InvalidCredentialsException();
             }
 
@@ -234,7 +214,7 @@ public final class QEDLogin {
             if (!hasUserId || !hasPwHash) {
                 throw new InvalidCredentialsException();
             }
-        } catch (java.io.IOException e) {
+        } catch (IOException e) {
             throw new NetworkException(e);
         } finally {
             PasswordUtils.wipe(data);
@@ -306,6 +286,30 @@ public final class QEDLogin {
         login(feature, true);
     }
 
+    /**
+     * Returns the login generation of the specified {@code Feature}, which changes with every
+     * successful {@linkplain #login(Feature, long) coordinated login}. Must be called before sending a
+     * request whose login error may be handled by {@link #login(Feature, long)}.
+     */
+    public static long getGeneration(@NonNull Feature feature) {
+        //noinspection ConstantConditions
+        return COORDINATORS.get(feature).getGeneration();
+    }
+
+    /**
+     * Like {@link #login(Feature)}, but concurrent calls perform only a single login and share its
+     * result. No login is performed if another login has succeeded since the given generation, i.e.
+     * after the request that failed was sent.
+     *
+     * @param generation the {@linkplain #getGeneration(Feature) generation} at the time the failed request was sent
+     * @throws InvalidCredentialsException if username and/or password are invalid
+     * @throws NetworkException if no network connection could be established
+     */
+    public static void login(@NonNull Feature feature, long generation) throws InvalidCredentialsException, NetworkException {
+        //noinspection ConstantConditions
+        COORDINATORS.get(feature).login(generation);
+    }
+
     /**
      * Tries to login to the specified {@code Feature} using stored username and password.
      * The {@link QEDCookieHandler} will take care of
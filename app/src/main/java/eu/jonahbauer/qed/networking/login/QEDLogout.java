@@ -1,73 +1,53 @@
 package eu.jonahbauer.qed.networking.login;
 
+import android.util.Log;
+
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 
+import eu.jonahbauer.qed.Application;
 import eu.jonahbauer.qed.crypt.PasswordStorage;
+import eu.jonahbauer.qed.model.room.Database;
 import eu.jonahbauer.qed.network.util.NetworkConstants;
+import eu.jonahbauer.qed.networking.QEDHttpClient;
 import eu.jonahbauer.qed.networking.cookies.QEDCookieHandler;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import eu.jonahbauer.qed.util.Preferences;
+import eu.jonahbauer.qed.util.cache.PageCache;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import lombok.experimental.UtilityClass;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
 
 @UtilityClass
 public class QEDLogout {
-    private static boolean logoutChat() {
-        try {
-            HttpsURLConnection httpsURLConnection = (HttpsURLConnection) new URL(NetworkConstants.CHAT_SERVER_LOGOUT).openConnection();
-            httpsURLConnection.setRequestMethod("POST");
-            httpsURLConnection.setDoOutput(true);
-            httpsURLConnection.setInstanceFollowRedirects(false);
-            httpsURLConnection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            httpsURLConnection.setRequestProperty("Content-Encoding", "utf-8");
+    private static final String LOG_TAG = QEDLogout.class.getName();
+    private static final MediaType FORM = MediaType.get("application/x-www-form-urlencoded");
 
-            try (OutputStream os = httpsURLConnection.getOutputStream()) {
-                os.write("logout=1".getBytes(StandardCharsets.UTF_8));
-            }
-
-            httpsURLConnection.connect();
-            httpsURLConnection.getResponseCode();
-
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
+    private static boolean logoutChat() {
+        var body = RequestBody.create("logout=1".getBytes(StandardCharsets.UTF_8), FORM);
+        return execute(new Request.Builder().url(NetworkConstants.getChatServerLogout()).post(body).build());
     }
 
     private static boolean logoutDatabase() {
-        try {
-            HttpsURLConnection httpsURLConnection = (HttpsURLConnection) new URL(NetworkConstants.DATABASE_SERVER_LOGOUT).openConnection();
-            httpsURLConnection.setRequestMethod("GET");
-            httpsURLConnection.setInstanceFollowRedirects(false);
-            httpsURLConnection.connect();
-            httpsURLConnection.getResponseCode();
-
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
+        return execute(new Request.Builder().url(NetworkConstants.getDatabaseServerLogout()).get().build());
     }
 
     private static boolean logoutGallery() {
-        try {
-            HttpsURLConnection httpsURLConnection = (HttpsURLConnection) new URL(NetworkConstants.GALLERY_SERVER_LOGOUT).openConnection();
-            httpsURLConnection.setRequestMethod("GET");
-            httpsURLConnection.setInstanceFollowRedirects(false);
-            httpsURLConnection.connect();
-            httpsURLConnection.getResponseCode();
+        return execute(new Request.Builder().url(NetworkConstants.getGalleryServerLogout()).get().build());
+    }
 
+    private static boolean execute(@NonNull Request request) {
+        //noinspection unused
+        try (var response = QEDHttpClient.getInstance().newCall(request).execute()) {
             return true;
         } catch (IOException e) {
             return false;
@@ -81,6 +61,37 @@ public class QEDLogout {
             Preferences.getGeneral().setUsername(null);
             PasswordStorage.clearCredentials();
             QEDCookieHandler.invalidate();
+            clearPageCache();
+            clearDatabaseCache();
+        }
+    }
+
+    /**
+     * Discards the cached pages, since they may contain information only visible to the current user.
+     */
+    private static void clearPageCache() {
+        var application = Application.getApplicationReference().get();
+        if (application == null) return;
+
+        try {
+            PageCache.getInstance(application).clear();
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Could not clear page cache.", e);
+        }
+    }
+
+    /**
+     * Discards the offline copies of persons, events and registrations, since they contain personal
+     * data only visible to the current user.
+     */
+    private static void clearDatabaseCache() {
+        var application = Application.getApplicationReference().get();
+        if (application == null) return;
+
+        try {
+            Database.getInstance(application).databaseCacheDao().clearSync();
+        } catch (RuntimeException e) {
+            Log.w(LOG_TAG, "Could not clear database cache.", e);
         }
     }
 
@@ -4,77 +4,140 @@ import android.content.Context;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
 import eu.jonahbauer.qed.model.LogRequest;
 import eu.jonahbauer.qed.model.LogRequest.FileLogRequest;
+import eu.jonahbauer.qed.model.LogSummary;
 import eu.jonahbauer.qed.model.Message;
 import eu.jonahbauer.qed.network.parser.chat.ChatLogParser;
+import eu.jonahbauer.qed.network.parser.chat.LogSnapshot;
 import eu.jonahbauer.qed.networking.Feature;
 import eu.jonahbauer.qed.network.util.NetworkConstants;
-import eu.jonahbauer.qed.networking.Reason;
+import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageToCache;
 import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageToStream;
 import eu.jonahbauer.qed.networking.async.QEDPageStreamReceiver;
 import eu.jonahbauer.qed.util.MessageUtils;
+import eu.jonahbauer.qed.util.cache.LogCache;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.annotations.CheckReturnValue;
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableOnSubscribe;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.functions.Supplier;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class QEDChatPages extends QEDPages {
 
+    /**
+     * Downloads the given log into the {@link LogCache}, reusing or resuming previous downloads of
+     * the same log where possible. The listener receives the cached log, which stays pinned in the
+     * cache until the listener {@linkplain LogCache.Entry#close() closes} it.
+     */
     @NonNull
     @CheckReturnValue
-    public static Disposable getChatLog(@NonNull Context context, @NonNull LogRequest logRequest, @NonNull Uri file, QEDPageStreamReceiver<Uri> listener) {
+    public static Disposable getChatLog(@NonNull Context context, @NonNull LogRequest logRequest, QEDPageStreamReceiver<LogCache.Entry> listener) {
         if (logRequest instanceof FileLogRequest) throw new IllegalStateException();
 
-        OutputStream out;
-        try {
-            out = context.getContentResolver().openOutputStream(file);
-            if (out == null) throw new IOException("Could not open output stream for uri " + file + ".");
-        } catch (IOException e) {
-            listener.onError(file, Reason.guess(e), e);
-            return Disposable.empty();
-        }
+        var cache = LogCache.getInstance(context);
+        var key = LogCache.key(logRequest);
 
-        AsyncLoadQEDPageToStream network = new AsyncLoadQEDPageToStream(
+        String url = NetworkConstants.getChatServerHistory() + logRequest.getQuery();
+        AsyncLoadQEDPageToCache network = new AsyncLoadQEDPageToCache(
                 Feature.CHAT,
-                NetworkConstants.CHAT_SERVER_HISTORY + logRequest.getQuery(),
-                out,
-                null
+                url,
+                cache,
+                key,
+                LogCache.isImmutable(logRequest)
         );
 
-        return run(
-                network,
-                listener,
-                file
-        );
+        return Observable.create(network)
+                         .subscribeOn(scheduler(url))
+                         .observeOn(AndroidSchedulers.mainThread())
+                         // the log is not handed to the listener when disposed in the meantime
+                         .doOnDispose(network::release)
+                         .subscribe(
+                                 progress -> listener.onProgressUpdate(null, progress.firstLong(), progress.secondLong()),
+                                 err -> listener.onError(null, err),
+                                 () -> listener.onResult(Objects.requireNonNull(network.getEntry()))
+                         );
+    }
+
+    /**
+     * Downloads and parses the given log on the calling thread. The messages are passed to the
+     * consumer in the order they are received from the server without any {@linkplain MessageUtils#dateFixer() date fixing}.
+     * @return the size of the downloaded log in bytes
+     */
+    @WorkerThread
+    public static long getChatLogSync(@NonNull Context context, @NonNull LogRequest logRequest, @NonNull Consumer<Message> consumer) throws IOException {
+        if (logRequest instanceof FileLogRequest) throw new IllegalStateException();
+
+        var file = File.createTempFile("chat", ".log", context.getCacheDir());
+        try {
+            try (var out = new FileOutputStream(file)) {
+                var network = new AsyncLoadQEDPageToStream(
+                        Feature.CHAT,
+                        NetworkConstants.getChatServerHistory() + logRequest.getQuery(),
+                        out,
+                        null
+                );
+                Observable.create(network).ignoreElements().blockingAwait();
+            }
+
+            Observable.create(new ChatLogParser(() -> new FileInputStream(file), consumer))
+                      .ignoreElements()
+                      .blockingAwait();
+            return file.length();
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
     }
 
     @NonNull
     @CheckReturnValue
     public static Disposable parseChatLog(@NonNull Context context, @NonNull Uri file, QEDPageStreamReceiver<List<Message>> listener) {
-        ArrayList<Message> out = new ArrayList<>();
+        return parseChatLog(context, file, null, listener);
+    }
 
-        Function<Message, Message> dateFixer = MessageUtils.dateFixer();
+    /**
+     * Parses the given log, which may either be a plain log as returned by the server or a
+     * {@link LogSnapshot}.
+     * @param observer an optional consumer that is passed every message on the parsing thread in
+     *                 the order the messages are added to the result, e.g. to build an index
+     */
+    @NonNull
+    @CheckReturnValue
+    public static Disposable parseChatLog(@NonNull Context context, @NonNull Uri file, @Nullable Consumer<Message> observer,
+                                          QEDPageStreamReceiver<List<Message>> listener) {
+        ArrayList<Message> out = new ArrayList<>();
 
         Supplier<InputStream> in = () -> context.getContentResolver().openInputStream(file);
-        Consumer<Message> consumer = msg -> out.add(dateFixer.apply(msg));
+        Consumer<Message> consumer = observer == null ? out::add : msg -> {
+            out.add(msg);
+            observer.accept(msg);
+        };
 
-        return Observable.create(new ChatLogParser(in, consumer))
+        return Observable.create(parser(in, consumer, true))
                 .subscribeOn(Schedulers.computation())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
@@ -88,4 +151,64 @@ public class QEDChatPages extends QEDPages {
                         () -> listener.onResult(out)
                 );
     }
+
+    /**
+     * Computes a {@link LogSummary} of the given log, which may either be a plain log as returned by
+     * the server or a {@link LogSnapshot}. In contrast to {@link #parseChatLog(Context, Uri, QEDPageStreamReceiver)},
+     * the messages are not kept in memory.
+     */
+    @NonNull
+    @CheckReturnValue
+    public static Disposable summarizeChatLog(@NonNull Context context, @NonNull Uri file, QEDPageStreamReceiver<LogSummary> listener) {
+        LogSummary summary = new LogSummary();
+
+        return Observable.create(streamChatLog(context, file, summary))
+                .subscribeOn(Schedulers.computation())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(
+                        progress -> listener.onProgressUpdate(summary, progress.firstLong(), progress.secondLong()),
+                        err -> listener.onError(summary, err),
+                        () -> listener.onResult(summary)
+                );
+    }
+
+    /**
+     * Streams all messages of the given log, which may either be a plain log as returned by the
+     * server or a {@link LogSnapshot}, to the given consumer without keeping them in memory.
+     */
+    public static @NonNull ObservableOnSubscribe<LongLongPair> streamChatLog(@NonNull Context context, @NonNull Uri file,
+                                                                             @NonNull Consumer<Message> out) {
+        Supplier<InputStream> in = () -> context.getContentResolver().openInputStream(file);
+        return parser(in, out, false);
+    }
+
+    /**
+     * Chooses the parser matching the format of the given log. Plain logs may be gzip-compressed.
+     * @param retaining whether the consumer keeps all messages in memory
+     */
+    private static ObservableOnSubscribe<LongLongPair> parser(@NonNull Supplier<InputStream> in,
+                                                              @NonNull Consumer<Message> out,
+                                                              boolean retaining) {
+        return emitter -> {
+            boolean snapshot;
+            boolean gzip;
+            try (var stream = new BufferedInputStream(in.get())) {
+                stream.mark(2);
+                gzip = stream.read() == (GZIPInputStream.GZIP_MAGIC & 0xFF)
+                        && stream.read() == (GZIPInputStream.GZIP_MAGIC >> 8);
+                stream.reset();
+                snapshot = !gzip && LogSnapshot.isSnapshot(stream);
+            }
+
+            if (snapshot) {
+                // snapshots are written from already fixed messages
+                new LogSnapshot(in, out).subscribe(emitter);
+            } else {
+                // compressed logs are created by exporting the message database
+                Supplier<InputStream> source = gzip ? () -> new GZIPInputStream(in.get()) : in;
+                Function<Message, Message> dateFixer = MessageUtils.dateFixer();
+                new ChatLogParser(source, msg -> out.accept(dateFixer.apply(msg)), retaining).subscribe(emitter);
+            }
+        };
+    }
 }
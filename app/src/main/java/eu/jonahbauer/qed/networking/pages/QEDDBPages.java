@@ -1,5 +1,7 @@
 package eu.jonahbauer.qed.networking.pages;
 
+import android.content.Context;
+
 import androidx.annotation.NonNull;
 
 import eu.jonahbauer.qed.model.Event;
@@ -14,7 +16,9 @@ import eu.jonahbauer.qed.networking.Feature;
 import eu.jonahbauer.qed.network.util.NetworkConstants;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPage;
+import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageCached;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
+import eu.jonahbauer.qed.util.cache.PageCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,7 +41,7 @@ public class QEDDBPages extends QEDPages {
 
         AsyncLoadQEDPage network = new AsyncLoadQEDPage(
                 Feature.DATABASE,
-                String.format(Locale.ROOT, NetworkConstants.DATABASE_SERVER_EVENT, event.getId())
+                String.format(Locale.ROOT, NetworkConstants.getDatabaseServerEvent(), event.getId())
         );
 
         return run(
@@ -50,15 +54,18 @@ public class QEDDBPages extends QEDPages {
 
     @NonNull
     @CheckReturnValue
-    public static Disposable getEventList(QEDPageReceiver<List<Event>> eventListReceiver) {
-        AsyncLoadQEDPage network = new AsyncLoadQEDPage(
+    public static Disposable getEventList(@NonNull Context context, QEDPageReceiver<List<Event>> eventListReceiver) {
+        AsyncLoadQEDPageCached network = new AsyncLoadQEDPageCached(
                 Feature.DATABASE,
-                NetworkConstants.DATABASE_SERVER_EVENTS
+                NetworkConstants.getDatabaseServerEvents(),
+                PageCache.getInstance(context)
         );
 
         return run(
                 network,
                 EventListParser.INSTANCE,
+                ArrayList::new,
+                List::addAll,
                 eventListReceiver,
                 new ArrayList<>()
         );
@@ -76,7 +83,7 @@ public class QEDDBPages extends QEDPages {
 
         AsyncLoadQEDPage network = new AsyncLoadQEDPage(
                 Feature.DATABASE,
-                String.format(Locale.ROOT, NetworkConstants.DATABASE_SERVER_PERSON, person.getId())
+                String.format(Locale.ROOT, NetworkConstants.getDatabaseServerPerson(), person.getId())
         );
 
         return run(
@@ -89,15 +96,18 @@ public class QEDDBPages extends QEDPages {
 
     @NonNull
     @CheckReturnValue
-    public static Disposable getPersonList(QEDPageReceiver<List<Person>> personListReceiver) {
-        AsyncLoadQEDPage network = new AsyncLoadQEDPage(
+    public static Disposable getPersonList(@NonNull Context context, QEDPageReceiver<List<Person>> personListReceiver) {
+        AsyncLoadQEDPageCached network = new AsyncLoadQEDPageCached(
                 Feature.DATABASE,
-                NetworkConstants.DATABASE_SERVER_PERSONS
+                NetworkConstants.getDatabaseServerPersons(),
+                PageCache.getInstance(context)
         );
 
         return run(
                 network,
                 PersonListParser.INSTANCE,
+                ArrayList::new,
+                List::addAll,
                 personListReceiver,
                 new ArrayList<>()
         );
@@ -114,7 +124,7 @@ public class QEDDBPages extends QEDPages {
 
         AsyncLoadQEDPage network = new AsyncLoadQEDPage(
                 Feature.DATABASE,
-                String.format(Locale.ROOT, NetworkConstants.DATABASE_SERVER_REGISTRATION, registration.getId())
+                String.format(Locale.ROOT, NetworkConstants.getDatabaseServerRegistration(), registration.getId())
         );
 
         return run(
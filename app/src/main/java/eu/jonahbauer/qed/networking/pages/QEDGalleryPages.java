@@ -1,9 +1,12 @@
 package eu.jonahbauer.qed.networking.pages;
 
+import android.content.Context;
 import android.graphics.Bitmap;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.util.Pair;
 
 import eu.jonahbauer.qed.model.Album;
 import eu.jonahbauer.qed.model.AlbumFilter;
@@ -12,25 +15,28 @@ import eu.jonahbauer.qed.network.parser.gallery.AlbumListParser;
 import eu.jonahbauer.qed.network.parser.gallery.AlbumParser;
 import eu.jonahbauer.qed.network.parser.gallery.ImageParser;
 import eu.jonahbauer.qed.networking.Feature;
+import eu.jonahbauer.qed.networking.NetworkScheduler;
 import eu.jonahbauer.qed.network.util.NetworkConstants;
 import eu.jonahbauer.qed.networking.Reason;
 import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPage;
+import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageCached;
 import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageToImage;
 import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageToStream;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.async.QEDPageStreamReceiver;
+import eu.jonahbauer.qed.util.cache.PageCache;
 
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.annotations.CheckReturnValue;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.Disposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
@@ -39,15 +45,18 @@ public class QEDGalleryPages extends QEDPages {
 
     @NonNull
     @CheckReturnValue
-    public static Disposable getAlbumList(QEDPageReceiver<List<Album>> albumListReceiver) {
-        AsyncLoadQEDPage network = new AsyncLoadQEDPage(
+    public static Disposable getAlbumList(@NonNull Context context, QEDPageReceiver<List<Album>> albumListReceiver) {
+        AsyncLoadQEDPageCached network = new AsyncLoadQEDPageCached(
                 Feature.GALLERY,
-                NetworkConstants.GALLERY_SERVER_LIST
+                NetworkConstants.getGalleryServerList(),
+                PageCache.getInstance(context)
         );
 
         return run(
                 network,
                 AlbumListParser.INSTANCE,
+                ArrayList::new,
+                List::addAll,
                 albumListReceiver,
                 new ArrayList<>()
         );
@@ -55,7 +64,7 @@ public class QEDGalleryPages extends QEDPages {
 
     @NonNull
     @CheckReturnValue
-    public static Disposable getAlbum(@NonNull Album album, @Nullable AlbumFilter filter, QEDPageReceiver<Album> albumReceiver) {
+    public static Disposable getAlbum(@NonNull Context context, @NonNull Album album, @Nullable AlbumFilter filter, QEDPageReceiver<Album> albumReceiver) {
         if (album.getId() == Album.NO_ID) {
             albumReceiver.onError(album, Reason.NOT_FOUND, null);
             return Disposable.disposed();
@@ -67,19 +76,38 @@ public class QEDGalleryPages extends QEDPages {
             filterString = filter.toString();
         }
 
-        AsyncLoadQEDPage network = new AsyncLoadQEDPage(
+        AsyncLoadQEDPageCached network = new AsyncLoadQEDPageCached(
                 Feature.GALLERY,
-                String.format(Locale.ROOT, NetworkConstants.GALLERY_SERVER_ALBUM, album.getId(), filterString)
+                String.format(Locale.ROOT, NetworkConstants.getGalleryServerAlbum(), album.getId(), filterString),
+                PageCache.getInstance(context)
         );
 
+        long id = album.getId();
         return run(
                 network,
                 AlbumParser.INSTANCE,
+                () -> new Album(id),
+                QEDGalleryPages::restoreAlbum,
                 albumReceiver,
                 album
         );
     }
 
+    /**
+     * Copies the properties and images of a parsed album, which is kept in the {@link PageCache}. The
+     * lists are copied as well, because the parser and the caller modify them in place.
+     */
+    @VisibleForTesting
+    static void restoreAlbum(@NonNull Album album, @NonNull Album parsed) {
+        album.set(parsed);
+        album.setPersons(new ArrayList<>(parsed.getPersons()));
+        album.setDates(new ArrayList<>(parsed.getDates()));
+        album.setUploadDates(new ArrayList<>(parsed.getUploadDates()));
+        album.setCategories(new ArrayList<>(parsed.getCategories()));
+        album.getImages().clear();
+        album.getImages().addAll(parsed.getImages());
+    }
+
     @NonNull
     @CheckReturnValue
     public static Disposable getImageInfo(@NonNull Image image, QEDPageReceiver<Image> imageInfoReceiver) {
@@ -90,7 +118,7 @@ public class QEDGalleryPages extends QEDPages {
 
         AsyncLoadQEDPage network = new AsyncLoadQEDPage(
                 Feature.GALLERY,
-                String.format(Locale.ROOT, NetworkConstants.GALLERY_SERVER_IMAGE_INFO, image.getId())
+                String.format(Locale.ROOT, NetworkConstants.getGalleryServerImageInfo(), image.getId())
         );
 
         return run(
@@ -109,14 +137,15 @@ public class QEDGalleryPages extends QEDPages {
             return Disposable.disposed();
         }
 
+        String url = String.format(Locale.ROOT, NetworkConstants.getGalleryServerImage(), mode.mQuery, image.getId());
         AsyncLoadQEDPageToStream network = new AsyncLoadQEDPageToStream(
                 Feature.GALLERY,
-                String.format(Locale.ROOT, NetworkConstants.GALLERY_SERVER_IMAGE, mode.mQuery, image.getId()),
+                url,
                 outputStream,
-                connection -> {
+                response -> {
                     if (image.getFormat() != null) return;
 
-                    var contentType = connection.getHeaderField(HEADER_CONTENT_TYPE);
+                    var contentType = response.header(HEADER_CONTENT_TYPE);
                     if (contentType != null && !contentType.startsWith("text")) {
                         image.setFormat(contentType);
                     }
@@ -124,6 +153,7 @@ public class QEDGalleryPages extends QEDPages {
         );
 
         return run(
+                url,
                 network,
                 imageReceiver,
                 tag
@@ -133,18 +163,38 @@ public class QEDGalleryPages extends QEDPages {
     @NonNull
     @CheckReturnValue
     public static Single<Optional<Bitmap>> getThumbnail(@NonNull Image image) {
+        return getThumbnail(image, null);
+    }
+
+    /**
+     * Downloads the thumbnail for the given image.
+     * @param processor a consumer that will receive the raw thumbnail data on a background thread
+     */
+    @NonNull
+    @CheckReturnValue
+    public static Single<Optional<Bitmap>> getThumbnail(@NonNull Image image, @Nullable Consumer<byte[]> processor) {
         if (image.getId() == Image.NO_ID) {
             return Single.error(new NullPointerException());
         }
 
-        AsyncLoadQEDPageToImage network = new AsyncLoadQEDPageToImage(
-                Feature.GALLERY,
-                String.format(Locale.ROOT, NetworkConstants.GALLERY_SERVER_IMAGE, Mode.THUMBNAIL.mQuery, image.getId())
-        );
-
-        return Single.fromCallable(network)
-                     .subscribeOn(Schedulers.io())
-                     .observeOn(AndroidSchedulers.mainThread());
+        String url = String.format(Locale.ROOT, NetworkConstants.getGalleryServerImage(), Mode.THUMBNAIL.mQuery, image.getId());
+
+        // the raw data is passed along, so that every caller's processor receives it
+        Single<Pair<Optional<Bitmap>, byte[]>> download = SINGLE_FLIGHT.get(url, AsyncLoadQEDPageToImage.class, () -> {
+            var data = new byte[1][];
+            var network = new AsyncLoadQEDPageToImage(Feature.GALLERY, url, bytes -> data[0] = bytes);
+            return Single.fromCallable(network)
+                         .map(bitmap -> Pair.create(bitmap, data[0]))
+                         .subscribeOn(NetworkScheduler.getInstance().get(NetworkScheduler.Priority.VISIBLE, url));
+        });
+
+        return download.map(pair -> {
+                           if (processor != null && pair.second != null) {
+                               processor.accept(pair.second);
+                           }
+                           return pair.first;
+                       })
+                       .observeOn(AndroidSchedulers.mainThread());
     }
 
     public enum Mode {
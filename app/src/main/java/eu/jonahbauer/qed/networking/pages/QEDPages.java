@@ -1,32 +1,109 @@
 package eu.jonahbauer.qed.networking.pages;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.util.Pair;
 
+import eu.jonahbauer.qed.networking.NetworkScheduler;
+import eu.jonahbauer.qed.networking.RequestTracer;
 import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPage;
-import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageToStream;
+import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageCached;
 import eu.jonahbauer.qed.networking.async.QEDPageReceiver;
 import eu.jonahbauer.qed.networking.async.QEDPageStreamReceiver;
 import eu.jonahbauer.qed.network.parser.Parser;
+import eu.jonahbauer.qed.network.parser.StreamingParser;
+import eu.jonahbauer.qed.util.cache.PageCache;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.annotations.CheckReturnValue;
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableOnSubscribe;
+import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import it.unimi.dsi.fastutil.longs.LongLongPair;
 
+/**
+ * Pages are requested by the user and are therefore loaded with {@linkplain NetworkScheduler.Priority#INTERACTIVE interactive}
+ * priority.
+ */
 abstract class QEDPages {
+    static final SingleFlight SINGLE_FLIGHT = new SingleFlight();
 
+    /**
+     * Loads and parses a page. Concurrent requests for the same page share a single download, but
+     * each response is parsed separately.
+     */
     @NonNull
     @CheckReturnValue
     static <T> Disposable run(@NonNull AsyncLoadQEDPage network,
                               @NonNull Parser<T> parser,
                               @NonNull QEDPageReceiver<T> listener,
                               @NonNull T object) {
-        return Single.fromCallable(network)
-                     .subscribeOn(Schedulers.io())
-                     .observeOn(Schedulers.computation())
-                     .map(str -> parser.apply(object, str))
+        Single<Pair<String, RequestTracer.Trace>> download = SINGLE_FLIGHT.get(
+                network.getUrl(),
+                AsyncLoadQEDPage.class,
+                () -> Single.fromCallable(() -> Pair.create(network.call(), network.getTrace()))
+                            .subscribeOn(scheduler(network.getUrl()))
+        );
+
+        return download.observeOn(Schedulers.computation())
+                       .map(page -> {
+                           long start = System.nanoTime();
+                           try {
+                               return parser.apply(object, page.first);
+                           } catch (RuntimeException e) {
+                               finish(page.second, true);
+                               throw e;
+                           } finally {
+                               trace(page.second, start);
+                               finish(page.second, false);
+                           }
+                       })
+                       .observeOn(AndroidSchedulers.mainThread())
+                       .subscribe(
+                               listener::onResult,
+                               err -> listener.onError(object, err)
+                       );
+    }
+
+    /**
+     * Like {@link #run(AsyncLoadQEDPage, Parser, QEDPageReceiver, Object)}, but when the page has not
+     * been modified since the last visit, the result of parsing it back then is copied into the object
+     * using the given restorer instead of parsing the page again.
+     * <br>
+     * The page is always parsed into a fresh object created by the factory, which is kept in the
+     * {@link PageCache} and copied into the object of the caller using the restorer. Hence, the
+     * restorer must copy everything the caller or a later parser may modify. Concurrent requests for
+     * the same page with the same parser share both download and parsing.
+     */
+    @NonNull
+    @CheckReturnValue
+    static <T> Disposable run(@NonNull AsyncLoadQEDPageCached network,
+                              @NonNull Parser<T> parser,
+                              @NonNull Supplier<T> factory,
+                              @NonNull BiConsumer<T, T> restorer,
+                              @NonNull QEDPageReceiver<T> listener,
+                              @NonNull T object) {
+        var cache = network.getCache();
+        Single<T> parsed = SINGLE_FLIGHT.get(network.getUrl(), parser, () ->
+                Single.using(
+                        network::call,
+                        page -> Single.fromCallable(() -> parse(page, parser, cache, factory, network.getTrace())),
+                        AsyncLoadQEDPageCached.Page::close
+                ).subscribeOn(scheduler(network.getUrl()))
+        );
+
+        return parsed.map(result -> {
+                         restorer.accept(object, result);
+                         return object;
+                     })
                      .observeOn(AndroidSchedulers.mainThread())
                      .subscribe(
                              listener::onResult,
@@ -34,13 +111,65 @@ abstract class QEDPages {
                      );
     }
 
+    /**
+     * Parses the given page into a fresh object, reusing the result of a previous visit if the page
+     * has not been modified. The result is shared and must not be modified. The page is parsed while
+     * it is being downloaded if the parser supports it, in which case the time recorded for parsing
+     * includes waiting for the rest of the page. The trace is finished once the page has been parsed.
+     */
+    @VisibleForTesting
+    static <T> T parse(@NonNull AsyncLoadQEDPageCached.Page page,
+                       @NonNull Parser<T> parser,
+                       @NonNull PageCache cache,
+                       @NonNull Supplier<T> factory,
+                       @Nullable RequestTracer.Trace trace) throws IOException {
+        try {
+            var validators = page.getValidators();
+            if (validators != null && !page.isModified()) {
+                var previous = cache.getParsed(page.getKey(), validators, parser);
+                if (previous != null) return previous;
+            }
+
+            T object = factory.get();
+            T out;
+            if (parser instanceof StreamingParser) {
+                long start = System.nanoTime();
+                try (var reader = page.openReader()) {
+                    //noinspection unchecked
+                    out = ((StreamingParser<T>) parser).apply(object, reader);
+                } finally {
+                    trace(trace, start);
+                }
+            } else {
+                var content = page.getContent();
+                long start = System.nanoTime();
+                try {
+                    out = parser.apply(object, content);
+                } finally {
+                    trace(trace, start);
+                }
+            }
+
+            if (validators != null) {
+                cache.putParsed(page.getKey(), validators, parser, out);
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            finish(trace, true);
+            throw e;
+        } finally {
+            finish(trace, false);
+        }
+    }
+
     @NonNull
     @CheckReturnValue
-    static <T> Disposable run(@NonNull AsyncLoadQEDPageToStream network,
+    static <T> Disposable run(@NonNull String url,
+                              @NonNull ObservableOnSubscribe<LongLongPair> network,
                               @NonNull QEDPageStreamReceiver<T> listener,
                               @NonNull T object) {
         return Observable.create(network)
-                         .subscribeOn(Schedulers.io())
+                         .subscribeOn(scheduler(url))
                          .observeOn(AndroidSchedulers.mainThread())
                          .subscribe(
                                  progress -> listener.onProgressUpdate(object, progress.firstLong(), progress.secondLong()),
@@ -48,4 +177,19 @@ abstract class QEDPages {
                                  () -> listener.onResult(object)
                          );
     }
+
+    private static void trace(@Nullable RequestTracer.Trace trace, long parseStart) {
+        if (trace != null) trace.addParseNanos(System.nanoTime() - parseStart);
+    }
+
+    /**
+     * Finishes the trace of a page once it has been parsed. Only the first call has an effect.
+     */
+    private static void finish(@Nullable RequestTracer.Trace trace, boolean failed) {
+        if (trace != null) trace.finish(failed);
+    }
+
+    static @NonNull Scheduler scheduler(@NonNull String url) {
+        return NetworkScheduler.getInstance().get(NetworkScheduler.Priority.INTERACTIVE, url);
+    }
 }
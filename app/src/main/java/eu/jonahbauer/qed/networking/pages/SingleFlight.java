@@ -0,0 +1,59 @@
+package eu.jonahbauer.qed.networking.pages;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import io.reactivex.rxjava3.core.Single;
+import lombok.Value;
+
+/**
+ * Deduplicates concurrent requests. Callers asking for a request that is already in flight share
+ * the existing {@link Single} instead of starting a new one. Each caller may dispose its subscription
+ * independently, the request itself is only cancelled once all callers have disposed.
+ * <br>
+ * Requests are identified by their url and a tag describing what is done with the response, e.g. the
+ * parser, so that the same page may still be processed in different ways concurrently.
+ */
+final class SingleFlight {
+    private final Map<Key, Single<?>> mInFlight = new HashMap<>();
+
+    /**
+     * Returns the request with the given url and tag that is currently in flight or creates a new one
+     * using the given factory.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized @NonNull <T> Single<T> get(@NonNull String url, @NonNull Object tag, @NonNull Supplier<Single<T>> factory) {
+        var key = new Key(url, tag);
+        var existing = (Single<T>) mInFlight.get(key);
+        if (existing != null) return existing;
+
+        var shared = new Single<?>[1];
+        shared[0] = factory.get()
+                           .doFinally(() -> remove(key, shared[0]))
+                           .toObservable()
+                           .share()
+                           .singleOrError();
+        mInFlight.put(key, shared[0]);
+        return (Single<T>) shared[0];
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     */
+    synchronized int size() {
+        return mInFlight.size();
+    }
+
+    private synchronized void remove(@NonNull Key key, @NonNull Single<?> single) {
+        mInFlight.remove(key, single);
+    }
+
+    @Value
+    private static class Key {
+        @NonNull String url;
+        @NonNull Object tag;
+    }
+}
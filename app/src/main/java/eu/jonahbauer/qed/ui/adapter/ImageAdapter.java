@@ -11,6 +11,7 @@ import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.appcompat.content.res.AppCompatResources;
 import eu.jonahbauer.qed.R;
 import eu.jonahbauer.qed.databinding.ListItemImageBinding;
@@ -19,6 +20,7 @@ import eu.jonahbauer.qed.model.room.AlbumDao;
 import eu.jonahbauer.qed.model.room.Database;
 import eu.jonahbauer.qed.networking.pages.QEDGalleryPages;
 import eu.jonahbauer.qed.util.Preferences;
+import eu.jonahbauer.qed.util.cache.ThumbnailCache;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -31,6 +33,7 @@ public class ImageAdapter extends ArrayAdapter<Image> {
 
     private final Context mContext;
     private final AlbumDao mAlbumDao;
+    private final ThumbnailCache mThumbnailCache;
 
     private final List<Image> mImageList;
     private boolean mOfflineMode;
@@ -40,6 +43,7 @@ public class ImageAdapter extends ArrayAdapter<Image> {
 
         this.mContext = context;
         this.mAlbumDao = Database.getInstance(context.getApplicationContext()).albumDao();
+        this.mThumbnailCache = ThumbnailCache.getInstance(context);
 
         this.mImageList = imageList;
         this.mOfflineMode = Preferences.getGallery().isOfflineMode();
@@ -87,6 +91,10 @@ public class ImageAdapter extends ArrayAdapter<Image> {
         applyThumbnail(binding, null);
         binding.getDisposable().add(
                 mAlbumDao.findImageById(image.getId())
+                         .map(img -> {
+                             img.setThumbnail(mThumbnailCache.get(img.getThumbnailKey()));
+                             return img;
+                         })
                          .subscribeOn(Schedulers.io())
                          .observeOn(AndroidSchedulers.mainThread())
                          .subscribe(
@@ -118,8 +126,7 @@ public class ImageAdapter extends ArrayAdapter<Image> {
 
     private void downloadThumbnail(Image image, ListItemImageBinding binding) {
         binding.getDisposable().addAll(
-                QEDGalleryPages.getThumbnail(image)
-                               .doOnSuccess(optional -> optional.ifPresent(bitmap -> saveThumbnail(image, bitmap)))
+                QEDGalleryPages.getThumbnail(image, data -> saveThumbnail(image, data))
                                .subscribe(
                                        optional -> {
                                            image.setThumbnail(optional.orElse(null));
@@ -135,9 +142,19 @@ public class ImageAdapter extends ArrayAdapter<Image> {
         );
     }
 
-    private void saveThumbnail(Image image, Bitmap bitmap) {
+    @WorkerThread
+    private void saveThumbnail(Image image, byte[] data) {
+        String key;
+        try {
+            key = mThumbnailCache.put(data);
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Could not save thumbnail to cache.", e);
+            return;
+        }
+
+        image.setThumbnailKey(key);
         //noinspection ResultOfMethodCallIgnored
-        mAlbumDao.insertThumbnail(image.getId(), bitmap)
+        mAlbumDao.insertThumbnail(image.getId(), key)
                  .subscribeOn(Schedulers.io())
                  .observeOn(AndroidSchedulers.mainThread())
                  .subscribe(() -> {}, err -> Log.e(LOG_TAG, "Could not save thumbnail to database.", err));
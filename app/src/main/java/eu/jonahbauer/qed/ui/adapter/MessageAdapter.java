@@ -61,6 +61,7 @@ public class MessageAdapter extends ArrayAdapter<Message> {
     private final LinearLayout mathPreload;
 
     private int mCheckedItemPosition = INVALID_POSITION;
+    private int mHighlightedItemPosition = INVALID_POSITION;
 
     public MessageAdapter(@NonNull ListView list, @Nullable LinearLayout mathPreload) {
         this(list, mathPreload, null, null, false);
@@ -182,7 +183,7 @@ public class MessageAdapter extends ArrayAdapter<Message> {
 
         var root = mExtended ? view : (View) view.getParent();
         savePosition(position, root);
-        root.setActivated(position == mCheckedItemPosition);
+        root.setActivated(isActivated(position));
         return root;
     }
 
@@ -234,6 +235,7 @@ public class MessageAdapter extends ArrayAdapter<Message> {
     public void clear() {
         super.clear();
         mCheckedItemPosition = INVALID_POSITION;
+        mHighlightedItemPosition = INVALID_POSITION;
         reload();
     }
 
@@ -280,17 +282,10 @@ public class MessageAdapter extends ArrayAdapter<Message> {
 
     public void setCheckedItemPosition(int position) {
         if (mCheckedItemPosition != position) {
-            var oldCheckedView = getViewForPosition(mCheckedItemPosition);
-            if (oldCheckedView != null) {
-                oldCheckedView.setActivated(false);
-            }
-
+            var oldPosition = mCheckedItemPosition;
             mCheckedItemPosition = position;
-
-            var newCheckedView = getViewForPosition(mCheckedItemPosition);
-            if (newCheckedView != null) {
-                newCheckedView.setActivated(true);
-            }
+            updateActivated(oldPosition);
+            updateActivated(position);
         }
     }
 
@@ -298,6 +293,31 @@ public class MessageAdapter extends ArrayAdapter<Message> {
         return mCheckedItemPosition;
     }
 
+    /**
+     * Highlights the item at the given position in the same way as the checked item, e.g. to mark
+     * a search result.
+     */
+    public void setHighlightedItemPosition(int position) {
+        if (mHighlightedItemPosition != position) {
+            var oldPosition = mHighlightedItemPosition;
+            mHighlightedItemPosition = position;
+            updateActivated(oldPosition);
+            updateActivated(position);
+        }
+    }
+
+    private boolean isActivated(int position) {
+        return position != INVALID_POSITION
+                && (position == mCheckedItemPosition || position == mHighlightedItemPosition);
+    }
+
+    private void updateActivated(int position) {
+        var view = getViewForPosition(position);
+        if (view != null) {
+            view.setActivated(isActivated(position));
+        }
+    }
+
     private @Nullable View getViewForPosition(int position) {
         var firstPosition = mListView.getFirstVisiblePosition();
         var lastPosition = firstPosition + mListView.getChildCount() - 1;
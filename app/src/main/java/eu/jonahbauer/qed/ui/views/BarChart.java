@@ -0,0 +1,66 @@
+package eu.jonahbauer.qed.ui.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import eu.jonahbauer.qed.util.Colors;
+
+/**
+ * A minimal bar chart without axes or labels, e.g. for visualizing the distribution of posts over
+ * the hours of a day.
+ */
+public class BarChart extends View {
+    private static final float GAP_RATIO = 0.2f;
+
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private @NonNull long[] mValues = new long[0];
+    private long mMax;
+
+    public BarChart(Context context) {
+        this(context, null);
+    }
+
+    public BarChart(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public BarChart(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        mPaint.setColor(Colors.getPrimaryColor(context));
+    }
+
+    public void setValues(@Nullable long[] values) {
+        mValues = values != null ? values : new long[0];
+        mMax = 0;
+        for (long value : mValues) {
+            if (value > mMax) mMax = value;
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (mValues.length == 0 || mMax == 0) return;
+
+        float left = getPaddingLeft();
+        float bottom = getHeight() - getPaddingBottom();
+        float width = getWidth() - getPaddingLeft() - getPaddingRight();
+        float height = bottom - getPaddingTop();
+
+        float slot = width / mValues.length;
+        // leave a gap between bars only if there is enough space for it
+        float gap = slot >= 4 ? slot * GAP_RATIO : 0;
+        for (int i = 0; i < mValues.length; i++) {
+            if (mValues[i] <= 0) continue;
+            float top = bottom - height * mValues[i] / mMax;
+            canvas.drawRect(left + i * slot + gap / 2, top, left + (i + 1) * slot - gap / 2, bottom, mPaint);
+        }
+    }
+}
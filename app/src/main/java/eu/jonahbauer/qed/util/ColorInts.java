@@ -0,0 +1,135 @@
+package eu.jonahbauer.qed.util;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Size;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * The parts of {@link android.graphics.Color} needed by {@link Colors} and the chat messages,
+ * implemented in plain Java so that they can be used and benchmarked outside of Android. The
+ * results are identical to those of {@link android.graphics.Color}.
+ */
+@UtilityClass
+public class ColorInts {
+    public static final @ColorInt int BLACK = 0xFF000000;
+    public static final @ColorInt int WHITE = 0xFFFFFFFF;
+
+    public static int alpha(@ColorInt int color) {
+        return color >>> 24;
+    }
+
+    public static int red(@ColorInt int color) {
+        return (color >> 16) & 0xFF;
+    }
+
+    public static int green(@ColorInt int color) {
+        return (color >> 8) & 0xFF;
+    }
+
+    public static int blue(@ColorInt int color) {
+        return color & 0xFF;
+    }
+
+    public static @ColorInt int rgb(int red, int green, int blue) {
+        return 0xFF000000 | (red << 16) | (green << 8) | blue;
+    }
+
+    public static @ColorInt int argb(int alpha, int red, int green, int blue) {
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Parses a color of the form {@code #RRGGBB} or {@code #AARRGGBB}. Unlike {@link android.graphics.Color#parseColor(String)}
+     * color names are not supported.
+     * @throws IllegalArgumentException if the color cannot be parsed
+     */
+    public static @ColorInt int parseColor(@NonNull String color) {
+        int length = color.length();
+        if (length == 0 || color.charAt(0) != '#' || (length != 7 && length != 9)) {
+            throw new IllegalArgumentException("Unknown color");
+        }
+
+        long value = Long.parseLong(color.substring(1), 16);
+        if (length == 7) {
+            value |= 0xFF000000L;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Converts a color to its hue (in {@code [0, 360)}), saturation and value (both in {@code [0, 1]}).
+     */
+    public static void colorToHSV(@ColorInt int color, @NonNull @Size(3) float[] hsv) {
+        int red = red(color);
+        int green = green(color);
+        int blue = blue(color);
+
+        int min = Math.min(red, Math.min(green, blue));
+        int max = Math.max(red, Math.max(green, blue));
+        int delta = max - min;
+
+        float value = max / 255f;
+        float hue, saturation;
+        if (delta == 0) {
+            hue = 0;
+            saturation = 0;
+        } else {
+            saturation = delta / (float) max;
+            if (red == max) {
+                hue = (green - blue) / (float) delta;
+            } else if (green == max) {
+                hue = 2 + (blue - red) / (float) delta;
+            } else {
+                hue = 4 + (red - green) / (float) delta;
+            }
+
+            hue *= 60;
+            if (hue < 0) hue += 360;
+        }
+
+        hsv[0] = hue;
+        hsv[1] = saturation;
+        hsv[2] = value;
+    }
+
+    /**
+     * Converts hue, saturation and value to an opaque color.
+     * @see #colorToHSV(int, float[])
+     */
+    public static @ColorInt int HSVToColor(@NonNull @Size(3) float[] hsv) {
+        float saturation = clamp(hsv[1]);
+        float value = clamp(hsv[2]);
+
+        int v = round(value * 255);
+        if (Math.abs(saturation) <= 1f / (1 << 12)) {
+            return rgb(v, v, v);
+        }
+
+        float hx = (hsv[0] < 0 || hsv[0] >= 360) ? 0 : hsv[0] / 60;
+        float w = (float) Math.floor(hx);
+        float f = hx - w;
+
+        int p = round((1 - saturation) * value * 255);
+        int q = round((1 - (saturation * f)) * value * 255);
+        int t = round((1 - (saturation * (1 - f))) * value * 255);
+
+        switch ((int) w) {
+            case 0: return rgb(v, t, p);
+            case 1: return rgb(q, v, p);
+            case 2: return rgb(p, v, t);
+            case 3: return rgb(p, q, v);
+            case 4: return rgb(t, p, v);
+            default: return rgb(v, p, q);
+        }
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0, Math.min(1, value));
+    }
+
+    private static int round(float value) {
+        return (int) Math.floor(value + 0.5f);
+    }
+}
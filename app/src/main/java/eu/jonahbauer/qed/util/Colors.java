@@ -22,11 +22,11 @@ public class Colors {
      * Multiplies two colors component-wise.
      */
     public static @ColorInt int multiply(@ColorInt int color1, @ColorInt int color2) {
-        return Color.argb(
-                Color.alpha(color1) * Color.alpha(color2) / 255,
-                Color.red(color1) * Color.red(color2) / 255,
-                Color.green(color1) * Color.green(color2) / 255,
-                Color.blue(color1) * Color.blue(color2) / 255
+        return ColorInts.argb(
+                ColorInts.alpha(color1) * ColorInts.alpha(color2) / 255,
+                ColorInts.red(color1) * ColorInts.red(color2) / 255,
+                ColorInts.green(color1) * ColorInts.green(color2) / 255,
+                ColorInts.blue(color1) * ColorInts.blue(color2) / 255
         );
     }
 
@@ -95,7 +95,7 @@ public class Colors {
             md5.update((byte) 'c');
             var blue = getComponentFromBytes(md5.digest());
 
-            return Color.rgb(red, green, blue);
+            return ColorInts.rgb(red, green, blue);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
@@ -117,10 +117,10 @@ public class Colors {
      * Calculates the squared distance of two argb colors.
      */
     public static int distance(@ColorInt int a, @ColorInt int b) {
-        var alpha = Color.alpha(a) - Color.alpha(b);
-        var red = Color.red(a) - Color.red(b);
-        var green = Color.green(a) - Color.green(b);
-        var blue = Color.blue(a) - Color.blue(b);
+        var alpha = ColorInts.alpha(a) - ColorInts.alpha(b);
+        var red = ColorInts.red(a) - ColorInts.red(b);
+        var green = ColorInts.green(a) - ColorInts.green(b);
+        var blue = ColorInts.blue(a) - ColorInts.blue(b);
         return alpha * alpha + red * red + green * green + blue * blue;
     }
 
@@ -215,7 +215,7 @@ public class Colors {
      */
     public static @ColorInt int transformColor(@ColorInt int color) {
         float[] hsv = new float[3];
-        Color.colorToHSV(color, hsv);
+        ColorInts.colorToHSV(color, hsv);
 
         // sat(x > 155/255) = 1
         // sat(0) = 0
@@ -226,7 +226,7 @@ public class Colors {
             hsv[1] = -(hsv[1] - 1.2156863f) * hsv[1] * 2.7065556f;
             hsv[1] = MathUtils.clamp(hsv[1], 0, 1);
         }
-        color = Color.HSVToColor(hsv);
+        color = ColorInts.HSVToColor(hsv);
 
         // ensure a minimum contrast
         // see https://www.w3.org/TR/WCAG20/#contrast-ratiodef
@@ -234,9 +234,9 @@ public class Colors {
         final var minimumContrast = 2;
 
         // see ColorSpace.Rgb#getEotf()
-        double r = Math.pow(Color.red(color) / 255.0, 2.2);
-        double g = Math.pow(Color.green(color) / 255.0, 2.2);
-        double b = Math.pow(Color.blue(color) / 255.0, 2.2);
+        double r = Math.pow(ColorInts.red(color) / 255.0, 2.2);
+        double g = Math.pow(ColorInts.green(color) / 255.0, 2.2);
+        double b = Math.pow(ColorInts.blue(color) / 255.0, 2.2);
 
         var luminance = (float) ((0.2126 * r) + (0.7152 * g) + (0.0722 * b));
         var contrast = 1.05f / (luminance + 0.05f);
@@ -245,7 +245,7 @@ public class Colors {
             var factor = targetLuminance / luminance;
 
             // see ColorSpace.Rgb.getOetf()
-            color = Color.rgb(
+            color = ColorInts.rgb(
                     (int) (Math.pow(r * factor, 1 / 2.2) * 255),
                     (int) (Math.pow(g * factor, 1 / 2.2) * 255),
                     (int) (Math.pow(b * factor, 1 / 2.2) * 255)
@@ -40,6 +40,8 @@ import java.util.stream.Collectors;
                 @Preference(name = "katex", type = boolean.class),
                 @Preference(name = "colorful", type = boolean.class),
                 @Preference(name = "db_max_result", type = int.class, defaultValue = "50_000"),
+                @Preference(name = "history_sync", type = boolean.class),
+                @Preference(name = "export_db", type = void.class),
                 @Preference(name = "delete_db", type = void.class)
         }),
         @PreferenceGroup(name = "database", prefix = "preferences_database_", suffix = "_key", value = {
@@ -0,0 +1,180 @@
+package eu.jonahbauer.qed.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.functions.Action;
+
+/**
+ * The initialization steps performed when the app is started.
+ * <br>
+ * Background {@linkplain #add(String, Action, String...) tasks} run on a {@link Scheduler} as soon
+ * as all of their dependencies have completed, so that independent tasks run in parallel with each
+ * other and with the steps {@linkplain #run(String, Runnable) run} on the main thread. A task fails
+ * when one of its dependencies fails. The duration of every step is recorded as a {@link Phase} and
+ * reported to the listener as soon as the step has finished.
+ */
+public final class StartupGraph {
+    private final Scheduler mScheduler;
+    private final Consumer<Phase> mListener;
+    private final long mStart = System.nanoTime();
+
+    private final Map<String, Completable> mTasks = new LinkedHashMap<>();
+    private final ConcurrentLinkedQueue<Phase> mPhases = new ConcurrentLinkedQueue<>();
+
+    public StartupGraph(@NonNull Scheduler scheduler) {
+        this(scheduler, phase -> {});
+    }
+
+    /**
+     * @param listener called with each finished phase on the thread the step ran on
+     */
+    public StartupGraph(@NonNull Scheduler scheduler, @NonNull Consumer<Phase> listener) {
+        this.mScheduler = scheduler;
+        this.mListener = listener;
+    }
+
+    /**
+     * Adds a task that is run on the scheduler once all its dependencies have completed. The
+     * dependencies must have been added before.
+     * @throws IllegalArgumentException if a task with the same name already exists or a dependency does not exist
+     */
+    public synchronized @NonNull StartupGraph add(@NonNull String name, @NonNull Action action, @NonNull String... dependencies) {
+        if (mTasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate task " + name + ".");
+        }
+
+        var before = new ArrayList<Completable>(dependencies.length);
+        for (String dependency : dependencies) {
+            var task = mTasks.get(dependency);
+            if (task == null) throw new IllegalArgumentException("Unknown dependency " + dependency + " of task " + name + ".");
+            before.add(task);
+        }
+
+        var task = Completable.merge(before)
+                .andThen(Completable.fromAction(() -> measure(name, action)).subscribeOn(mScheduler))
+                .cache();
+        mTasks.put(name, task);
+        return this;
+    }
+
+    /**
+     * Starts all tasks that have not yet been started.
+     */
+    public synchronized void start() {
+        for (Completable task : mTasks.values()) {
+            // errors are logged when they occur
+            //noinspection ResultOfMethodCallIgnored
+            task.subscribe(() -> {}, e -> {});
+        }
+    }
+
+    /**
+     * Returns a {@link Completable} that completes once the given task has completed, starting the
+     * task if necessary.
+     * @throws IllegalArgumentException if the task does not exist
+     */
+    public synchronized @NonNull Completable get(@NonNull String name) {
+        var task = mTasks.get(name);
+        if (task == null) throw new IllegalArgumentException("Unknown task " + name + ".");
+        return task;
+    }
+
+    /**
+     * Runs the given step on the calling thread.
+     */
+    public void run(@NonNull String name, @NonNull Runnable step) {
+        try {
+            measure(name, step::run);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    /**
+     * Returns the steps that have finished so far in the order they were started.
+     */
+    public @NonNull List<Phase> getPhases() {
+        var out = new ArrayList<>(mPhases);
+        out.sort(Comparator.comparingLong(Phase::getStartNanos));
+        return out;
+    }
+
+    private void measure(@NonNull String name, @NonNull Action action) throws Throwable {
+        var thread = Thread.currentThread().getName();
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            action.run();
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            long end = System.nanoTime();
+            var phase = new Phase(name, thread, start - mStart, end - start, error);
+            mPhases.add(phase);
+            mListener.accept(phase);
+        }
+    }
+
+    public static final class Phase {
+        private final @NonNull String mName;
+        private final @NonNull String mThread;
+        private final long mStartNanos;
+        private final long mDurationNanos;
+        private final @Nullable Throwable mError;
+
+        private Phase(@NonNull String name, @NonNull String thread, long startNanos, long durationNanos, @Nullable Throwable error) {
+            this.mName = name;
+            this.mThread = thread;
+            this.mStartNanos = startNanos;
+            this.mDurationNanos = durationNanos;
+            this.mError = error;
+        }
+
+        public @NonNull String getName() {
+            return mName;
+        }
+
+        public @NonNull String getThread() {
+            return mThread;
+        }
+
+        /**
+         * Returns the time this phase was started at relative to the creation of the startup graph.
+         */
+        public long getStartNanos() {
+            return mStartNanos;
+        }
+
+        public long getDurationNanos() {
+            return mDurationNanos;
+        }
+
+        public @Nullable Throwable getError() {
+            return mError;
+        }
+
+        public boolean isFailed() {
+            return mError != null;
+        }
+
+        @Override
+        public @NonNull String toString() {
+            return mName + " on " + mThread + ": +" + mStartNanos / 1_000_000 + " ms, " + mDurationNanos / 1_000_000 + " ms"
+                    + (mError != null ? " (failed)" : "");
+        }
+    }
+}
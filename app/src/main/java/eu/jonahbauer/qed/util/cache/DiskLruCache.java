@@ -0,0 +1,306 @@
+package eu.jonahbauer.qed.util.cache;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import eu.jonahbauer.qed.util.FileUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * A size-bounded file cache. Each entry is stored as a single file in the cache directory and
+ * entries are evicted in least-recently-used order once the total size exceeds the configured
+ * maximum. Entries that are {@linkplain #pin(String) pinned} are not evicted until they are unpinned.
+ * <br>
+ * Writes are atomic: data is written to a temporary file first and only renamed to its final
+ * name once it has been completely written and synced to disk. Hence, a reader will never observe
+ * a partially written entry.
+ */
+public class DiskLruCache {
+    private static final String LOG_TAG = DiskLruCache.class.getName();
+    private static final Pattern KEY_PATTERN = Pattern.compile("[a-z0-9_-]{1,120}");
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final @NonNull File mDirectory;
+    private final long mMaxSize;
+
+    /**
+     * Maps the keys of all entries to their size in access order, i.e. the least-recently-used
+     * entry comes first.
+     */
+    private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Maps the keys of all pinned entries to the number of times they have been pinned.
+     */
+    private final Object2IntMap<String> mPins = new Object2IntOpenHashMap<>();
+    private long mSize;
+    private boolean mInitialized;
+
+    public DiskLruCache(@NonNull File directory, long maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize <= 0");
+        this.mDirectory = directory;
+        this.mMaxSize = maxSize;
+    }
+
+    /**
+     * Returns the file for the given key or {@code null} if no such entry exists. The returned file
+     * must not be modified.
+     */
+    public synchronized @Nullable File get(@NonNull String key) {
+        validateKey(key);
+        initialize();
+
+        if (mEntries.get(key) == null) return null;
+
+        var file = getFile(key);
+        if (!file.exists()) {
+            removeEntry(key);
+            return null;
+        }
+
+        // persist access order across restarts
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    public synchronized boolean contains(@NonNull String key) {
+        validateKey(key);
+        initialize();
+        return mEntries.containsKey(key);
+    }
+
+    /**
+     * Atomically stores the given data under the given key, replacing any existing entry. Unless the
+     * key is {@linkplain #pin(String) pinned}, the returned file may already have been evicted when
+     * the data is larger than the maximum size.
+     */
+    public synchronized @NonNull File put(@NonNull String key, @NonNull byte[] data) throws IOException {
+        return put(key, out -> out.write(data));
+    }
+
+    /**
+     * Atomically stores the data written by the given writer under the given key, replacing any
+     * existing entry. If the writer throws an exception, the cache remains unchanged.
+     */
+    public synchronized @NonNull File put(@NonNull String key, @NonNull Writer writer) throws IOException {
+        validateKey(key);
+        initialize();
+
+        var file = getFile(key);
+        var temp = new File(mDirectory, key + TEMP_SUFFIX);
+        try (var out = new FileOutputStream(temp)) {
+            writer.write(out);
+            out.flush();
+            out.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw e;
+        }
+
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("Could not rename " + temp + " to " + file + ".");
+        }
+
+        addEntry(key, file);
+        return file;
+    }
+
+    /**
+     * Atomically moves the given file into this cache under the given key, replacing any existing
+     * entry. The file must already have been synced to disk and reside on the same file system as
+     * the cache directory.
+     */
+    public synchronized @NonNull File put(@NonNull String key, @NonNull File source) throws IOException {
+        validateKey(key);
+        initialize();
+
+        var file = getFile(key);
+        if (!source.renameTo(file)) {
+            throw new IOException("Could not rename " + source + " to " + file + ".");
+        }
+
+        addEntry(key, file);
+        return file;
+    }
+
+    /**
+     * Prevents the entry with the given key from being evicted until it is {@linkplain #unpin(String) unpinned}
+     * as often as it has been pinned. The key may be pinned before the entry is inserted, so that it
+     * is not evicted by the insertion itself. Pinned entries may still be replaced or removed explicitly.
+     */
+    public synchronized void pin(@NonNull String key) {
+        validateKey(key);
+        mPins.put(key, mPins.getInt(key) + 1);
+    }
+
+    /**
+     * Releases a pin of the entry with the given key. Once it is no longer pinned, the entry may be
+     * evicted again, immediately if it is larger than the maximum size.
+     */
+    public synchronized void unpin(@NonNull String key) {
+        validateKey(key);
+        int pins = mPins.getInt(key);
+        if (pins <= 0) throw new IllegalStateException("Cache entry " + key + " is not pinned.");
+
+        if (pins == 1) {
+            mPins.removeInt(key);
+            if (mInitialized) trimToSize();
+        } else {
+            mPins.put(key, pins - 1);
+        }
+    }
+
+    public synchronized void remove(@NonNull String key) {
+        validateKey(key);
+        initialize();
+
+        if (mEntries.containsKey(key)) {
+            removeEntry(key);
+            //noinspection ResultOfMethodCallIgnored
+            getFile(key).delete();
+        }
+    }
+
+    /**
+     * Removes all entries from this cache.
+     */
+    public synchronized void clear() throws IOException {
+        mEntries.clear();
+        mSize = 0;
+        if (mDirectory.exists()) {
+            FileUtils.cleanDirectory(mDirectory);
+        }
+    }
+
+    /**
+     * Returns the total size in bytes of all entries in this cache.
+     */
+    public synchronized long size() {
+        initialize();
+        return mSize;
+    }
+
+    public @NonNull File getDirectory() {
+        return mDirectory;
+    }
+
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    private @NonNull File getFile(@NonNull String key) {
+        return new File(mDirectory, key);
+    }
+
+    private void addEntry(@NonNull String key, @NonNull File file) {
+        removeEntry(key);
+        long length = file.length();
+        mEntries.put(key, length);
+        mSize += length;
+        trimToSize();
+    }
+
+    private void removeEntry(@NonNull String key) {
+        var size = mEntries.remove(key);
+        if (size != null) mSize -= size;
+    }
+
+    /**
+     * Evicts least-recently-used entries that are not pinned until the total size is below the maximum size.
+     */
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+        while (mSize > mMaxSize && iterator.hasNext()) {
+            var entry = iterator.next();
+            if (mPins.containsKey(entry.getKey())) continue;
+            iterator.remove();
+            mSize -= entry.getValue();
+
+            if (!getFile(entry.getKey()).delete()) {
+                Log.w(LOG_TAG, "Could not evict cache entry " + entry.getKey() + ".");
+            }
+        }
+    }
+
+    /**
+     * Lazily builds the in-memory index from the files in the cache directory using their last
+     * modification time as an approximation of the access order.
+     */
+    private void initialize() {
+        if (mInitialized) return;
+        mInitialized = true;
+
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Log.e(LOG_TAG, "Could not create cache directory " + mDirectory + ".");
+            return;
+        }
+
+        var files = mDirectory.listFiles();
+        if (files == null) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (var file : files) {
+            var name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX) || !KEY_PATTERN.matcher(name).matches()) {
+                // left over from an interrupted write
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                continue;
+            }
+
+            long length = file.length();
+            mEntries.put(name, length);
+            mSize += length;
+        }
+
+        trimToSize();
+    }
+
+    /**
+     * Returns the hex-encoded SHA-256 hash of the given data, which is always a valid key.
+     */
+    static @NonNull String hash(@NonNull byte[] data) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(data);
+            var out = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                out[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+                out[2 * i + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(out);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is not supported.", e);
+        }
+    }
+
+    private static void validateKey(@NonNull String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid cache key: \"" + key + "\".");
+        }
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(@NonNull FileOutputStream out) throws IOException;
+    }
+}
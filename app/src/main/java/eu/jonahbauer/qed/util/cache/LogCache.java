@@ -0,0 +1,267 @@
+package eu.jonahbauer.qed.util.cache;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import eu.jonahbauer.qed.model.LogRequest;
+import eu.jonahbauer.qed.model.LogRequest.DateIntervalLogRequest;
+import eu.jonahbauer.qed.util.FileUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A size-bounded cache for downloaded chat logs. Logs are identified by their
+ * {@linkplain #normalize(String) normalized} {@linkplain LogRequest#getQuery() query}.
+ * <br>
+ * Along with each log the cache stores the {@link Validators} returned by the server, so that a
+ * cached log can be revalidated with a conditional request instead of being downloaded again.
+ * Downloads in progress are written to a separate partial file which survives an interrupted
+ * download and can be resumed with a range request.
+ * <br>
+ * Cached logs are {@linkplain Entry#close() pinned} while they are in use, so that they are not
+ * evicted while being parsed, even when they are larger than the cache itself.
+ */
+public final class LogCache {
+    private static final String LOG_TAG = LogCache.class.getName();
+    private static final String DIRECTORY = "logs";
+    private static final long MAX_SIZE = 32L * 1024 * 1024; // 32 MiB
+
+    /**
+     * Partial downloads that have not been resumed within this time are discarded.
+     */
+    private static final long PARTIAL_MAX_AGE = TimeUnit.DAYS.toMillis(1);
+    private static final String META_SUFFIX = ".meta";
+
+    private static LogCache INSTANCE;
+
+    private final DiskLruCache mCache;
+    private final File mMetaDirectory;
+    private final File mPartialDirectory;
+    private boolean mInitialized;
+
+    public static synchronized @NonNull LogCache getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            var directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+            INSTANCE = new LogCache(directory, MAX_SIZE);
+        }
+        return INSTANCE;
+    }
+
+    @VisibleForTesting
+    LogCache(@NonNull File directory, long maxSize) {
+        this.mCache = new DiskLruCache(new File(directory, "data"), maxSize);
+        this.mMetaDirectory = new File(directory, "meta");
+        this.mPartialDirectory = new File(directory, "partial");
+    }
+
+    /**
+     * Returns the cache key for the given log request.
+     */
+    public static @NonNull String key(@NonNull LogRequest request) {
+        return DiskLruCache.hash(normalize(request.getQuery()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Normalizes a query string by sorting its parameters, so that equivalent queries map to the
+     * same cache entry.
+     */
+    @VisibleForTesting
+    static @NonNull String normalize(@NonNull String query) {
+        if (query.startsWith("?")) query = query.substring(1);
+
+        var parameters = query.split("&");
+        Arrays.sort(parameters);
+
+        var out = new StringBuilder();
+        for (String parameter : parameters) {
+            if (parameter.isEmpty()) continue;
+            if (out.length() > 0) out.append('&');
+            out.append(parameter);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Checks whether the response to the given request can never change. Cached logs for such a
+     * request may be used without revalidation.
+     */
+    public static boolean isImmutable(@NonNull LogRequest request) {
+        return request instanceof DateIntervalLogRequest
+                && ((DateIntervalLogRequest) request).getTo().isBefore(Instant.now());
+    }
+
+    /**
+     * Returns the cached log with the given key or {@code null} if there is no such log. The log is
+     * pinned until the returned entry is {@linkplain Entry#close() closed}.
+     */
+    @WorkerThread
+    public synchronized @Nullable Entry get(@NonNull String key) {
+        initialize();
+
+        var meta = new File(mMetaDirectory, key);
+        var file = mCache.get(key);
+        if (file == null) {
+            // the log has been evicted
+            //noinspection ResultOfMethodCallIgnored
+            meta.delete();
+            return null;
+        }
+
+        mCache.pin(key);
+        return new Entry(key, file, Validators.read(meta));
+    }
+
+    /**
+     * Returns the file a download of the log with the given key should be written to. The file
+     * may already contain the beginning of the log from an earlier, interrupted download.
+     */
+    public @NonNull File getPartialFile(@NonNull String key) {
+        return new File(mPartialDirectory, key);
+    }
+
+    /**
+     * Returns the validators of the partial download of the log with the given key or {@code null}
+     * if there is no partial download.
+     */
+    @WorkerThread
+    public synchronized @Nullable Validators getPartial(@NonNull String key) {
+        initialize();
+
+        if (!getPartialFile(key).exists()) return null;
+        return Validators.read(new File(mPartialDirectory, key + META_SUFFIX));
+    }
+
+    /**
+     * Starts a new partial download of the log with the given key.
+     */
+    @WorkerThread
+    public synchronized void setPartial(@NonNull String key, @NonNull Validators validators) throws IOException {
+        initialize();
+        Validators.write(new File(mPartialDirectory, key + META_SUFFIX), validators);
+    }
+
+    @WorkerThread
+    public synchronized void removePartial(@NonNull String key) {
+        //noinspection ResultOfMethodCallIgnored
+        getPartialFile(key).delete();
+        //noinspection ResultOfMethodCallIgnored
+        new File(mPartialDirectory, key + META_SUFFIX).delete();
+    }
+
+    /**
+     * Moves the completed partial download of the log with the given key into the cache, replacing
+     * any previously cached version. The log is pinned until the returned entry is {@linkplain Entry#close() closed}.
+     */
+    @WorkerThread
+    public synchronized @NonNull Entry commit(@NonNull String key, @NonNull Validators validators) throws IOException {
+        initialize();
+
+        var meta = new File(mMetaDirectory, key);
+        //noinspection ResultOfMethodCallIgnored
+        meta.delete();
+
+        mCache.pin(key);
+        try {
+            var file = mCache.put(key, getPartialFile(key));
+            removePartial(key);
+            Validators.write(meta, validators);
+            return new Entry(key, file, validators);
+        } catch (IOException | RuntimeException e) {
+            mCache.unpin(key);
+            throw e;
+        }
+    }
+
+    @WorkerThread
+    public synchronized void clear() throws IOException {
+        mCache.clear();
+        if (mMetaDirectory.exists()) FileUtils.cleanDirectory(mMetaDirectory);
+        if (mPartialDirectory.exists()) FileUtils.cleanDirectory(mPartialDirectory);
+    }
+
+    /**
+     * Discards stale partial downloads and the validators of evicted logs.
+     */
+    private void initialize() {
+        if (mInitialized) return;
+        mInitialized = true;
+
+        for (File directory : new File[] {mMetaDirectory, mPartialDirectory}) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                Log.e(LOG_TAG, "Could not create cache directory " + directory + ".");
+            }
+        }
+
+        var metas = mMetaDirectory.listFiles();
+        if (metas != null) {
+            for (File meta : metas) {
+                if (!new File(mCache.getDirectory(), meta.getName()).exists()) {
+                    //noinspection ResultOfMethodCallIgnored
+                    meta.delete();
+                }
+            }
+        }
+
+        var partials = mPartialDirectory.listFiles();
+        if (partials != null) {
+            var threshold = System.currentTimeMillis() - PARTIAL_MAX_AGE;
+            for (File partial : partials) {
+                if (partial.lastModified() < threshold) {
+                    //noinspection ResultOfMethodCallIgnored
+                    partial.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * A cached log. The log is not evicted until the entry is closed.
+     */
+    public final class Entry implements Closeable {
+        private final @NonNull String mKey;
+        private final @NonNull File mFile;
+        private final @Nullable Validators mValidators;
+        private final AtomicBoolean mClosed = new AtomicBoolean();
+
+        private Entry(@NonNull String key, @NonNull File file, @Nullable Validators validators) {
+            this.mKey = key;
+            this.mFile = file;
+            this.mValidators = validators;
+        }
+
+        public @NonNull File getFile() {
+            return mFile;
+        }
+
+        public @Nullable Validators getValidators() {
+            return mValidators;
+        }
+
+        /**
+         * Releases the log, so that it may be evicted again. Only the first call has an effect.
+         */
+        @Override
+        public void close() {
+            if (mClosed.compareAndSet(false, true)) {
+                mCache.unpin(mKey);
+            }
+        }
+
+        @Override
+        public @NonNull String toString() {
+            return "LogCache.Entry(file=" + mFile + ", validators=" + mValidators + ")";
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package eu.jonahbauer.qed.util.cache;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import eu.jonahbauer.qed.network.parser.Parser;
+import eu.jonahbauer.qed.util.FileUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import lombok.Value;
+
+/**
+ * A size-bounded cache for downloaded pages that can be revalidated with a conditional request.
+ * Pages are identified by their url and only cached when the server returned {@link Validators}.
+ * <br>
+ * Pages are {@linkplain #cache(String, InputStream, Validators) written} while they are being read, so
+ * that they never have to be held in memory as a whole.
+ * <br>
+ * In addition to the raw pages, the cache keeps the results of parsing the most recently used pages
+ * in memory, so that a page which has not been modified need not be parsed again.
+ */
+public final class PageCache {
+    private static final String LOG_TAG = PageCache.class.getName();
+    private static final String DIRECTORY = "pages";
+    private static final long MAX_SIZE = 8L * 1024 * 1024; // 8 MiB
+    private static final int MAX_PARSED = 16;
+
+    private static PageCache INSTANCE;
+
+    private final DiskLruCache mCache;
+    private final File mMetaDirectory;
+    private final File mTempDirectory;
+    private final LruCache<String, Parsed<?>> mParsed = new LruCache<>(MAX_PARSED);
+    private boolean mInitialized;
+
+    public static synchronized @NonNull PageCache getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            var directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+            INSTANCE = new PageCache(directory);
+        }
+        return INSTANCE;
+    }
+
+    private PageCache(@NonNull File directory) {
+        this.mCache = new DiskLruCache(new File(directory, "data"), MAX_SIZE);
+        this.mMetaDirectory = new File(directory, "meta");
+        this.mTempDirectory = new File(directory, "tmp");
+    }
+
+    /**
+     * Returns the cache key for the given url.
+     */
+    public static @NonNull String key(@NonNull String url) {
+        return DiskLruCache.hash(url.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the cached page with the given key or {@code null} if there is no such page.
+     */
+    @WorkerThread
+    public synchronized @Nullable Entry get(@NonNull String key) {
+        initialize();
+
+        var meta = new File(mMetaDirectory, key);
+        var file = mCache.get(key);
+        if (file == null) {
+            // the page has been evicted
+            //noinspection ResultOfMethodCallIgnored
+            meta.delete();
+            return null;
+        }
+
+        var validators = Validators.read(meta);
+        if (validators == null || !validators.isPresent()) {
+            // cannot be revalidated
+            remove(key);
+            return null;
+        }
+        return new Entry(file, validators);
+    }
+
+    /**
+     * Returns a stream reading the given page, which stores the page once it has been read
+     * completely, replacing any previously cached version. If the stream is closed before, the page
+     * is not stored.
+     */
+    @WorkerThread
+    public @NonNull InputStream cache(@NonNull String key, @NonNull InputStream page, @NonNull Validators validators) throws IOException {
+        synchronized (this) {
+            initialize();
+        }
+        var temp = File.createTempFile(key, ".tmp", mTempDirectory);
+        return new CachingInputStream(page, key, temp, validators);
+    }
+
+    private synchronized void commit(@NonNull String key, @NonNull File temp, @NonNull Validators validators) throws IOException {
+        initialize();
+
+        var meta = new File(mMetaDirectory, key);
+        //noinspection ResultOfMethodCallIgnored
+        meta.delete();
+
+        mCache.put(key, temp);
+        Validators.write(meta, validators);
+    }
+
+    @WorkerThread
+    public synchronized void remove(@NonNull String key) {
+        mCache.remove(key);
+        mParsed.remove(key);
+        //noinspection ResultOfMethodCallIgnored
+        new File(mMetaDirectory, key).delete();
+    }
+
+    /**
+     * Returns the result of parsing the page with the given key and validators using the given
+     * parser or {@code null} if the page has not been parsed with that parser since it was last
+     * modified.
+     */
+    public @Nullable <T> T getParsed(@NonNull String key, @NonNull Validators validators, @NonNull Parser<T> parser) {
+        var parsed = mParsed.get(key);
+        if (parsed == null || parsed.getParser() != parser || !Objects.equals(parsed.getValidators(), validators)) {
+            return null;
+        }
+
+        //noinspection unchecked
+        return (T) parsed.getValue();
+    }
+
+    /**
+     * Remembers the result of parsing the page with the given key and validators using the given
+     * parser. The value must not be modified afterwards.
+     */
+    public <T> void putParsed(@NonNull String key, @NonNull Validators validators, @NonNull Parser<T> parser, @NonNull T value) {
+        mParsed.put(key, new Parsed<>(validators, parser, value));
+    }
+
+    @WorkerThread
+    public synchronized void clear() throws IOException {
+        mParsed.evictAll();
+        mCache.clear();
+        if (mMetaDirectory.exists()) FileUtils.cleanDirectory(mMetaDirectory);
+        if (mTempDirectory.exists()) FileUtils.cleanDirectory(mTempDirectory);
+    }
+
+    /**
+     * Discards the validators of evicted pages and incomplete pages.
+     */
+    private void initialize() {
+        if (mInitialized) return;
+        mInitialized = true;
+
+        for (File directory : new File[] {mMetaDirectory, mTempDirectory}) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                Log.e(LOG_TAG, "Could not create cache directory " + directory + ".");
+            }
+        }
+
+        try {
+            FileUtils.cleanDirectory(mTempDirectory);
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(LOG_TAG, "Could not clean cache directory " + mTempDirectory + ".", e);
+        }
+
+        var metas = mMetaDirectory.listFiles();
+        if (metas != null) {
+            for (File meta : metas) {
+                if (!new File(mCache.getDirectory(), meta.getName()).exists()) {
+                    //noinspection ResultOfMethodCallIgnored
+                    meta.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies everything read from a stream into a temporary file, which is committed to the cache
+     * once the end of the stream is reached.
+     */
+    private class CachingInputStream extends InputStream {
+        private final InputStream mIn;
+        private final String mKey;
+        private final File mTemp;
+        private final Validators mValidators;
+        private final FileOutputStream mOut;
+        private boolean mDone;
+
+        private CachingInputStream(@NonNull InputStream in, @NonNull String key, @NonNull File temp, @NonNull Validators validators) throws IOException {
+            this.mIn = in;
+            this.mKey = key;
+            this.mTemp = temp;
+            this.mValidators = validators;
+            this.mOut = new FileOutputStream(temp);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = mIn.read();
+            if (b == -1) {
+                complete();
+            } else if (!mDone) {
+                mOut.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            int n = mIn.read(b, off, len);
+            if (n == -1) {
+                complete();
+            } else if (!mDone) {
+                mOut.write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return mIn.available();
+        }
+
+        private void complete() {
+            if (mDone) return;
+            mDone = true;
+
+            try {
+                mOut.flush();
+                mOut.getFD().sync();
+                mOut.close();
+                commit(mKey, mTemp, mValidators);
+            } catch (IOException e) {
+                Log.w(LOG_TAG, "Could not cache page " + mKey + ".", e);
+                //noinspection ResultOfMethodCallIgnored
+                mTemp.delete();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                mIn.close();
+            } finally {
+                if (!mDone) {
+                    mDone = true;
+                    mOut.close();
+                    //noinspection ResultOfMethodCallIgnored
+                    mTemp.delete();
+                }
+            }
+        }
+    }
+
+    @Value
+    public static class Entry {
+        @NonNull File file;
+        @NonNull Validators validators;
+    }
+
+    @Value
+    private static class Parsed<T> {
+        @NonNull Validators validators;
+        @NonNull Parser<T> parser;
+        @NonNull T value;
+    }
+}
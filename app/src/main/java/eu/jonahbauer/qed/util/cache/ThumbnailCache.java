@@ -0,0 +1,69 @@
+package eu.jonahbauer.qed.util.cache;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A content-addressed store for gallery thumbnails. Thumbnails are stored exactly as they were
+ * downloaded, without being decoded and re-encoded, and are identified by the SHA-256 hash of
+ * their content. The database only stores that {@linkplain eu.jonahbauer.qed.model.Image#getThumbnailKey() key}.
+ */
+public final class ThumbnailCache {
+    private static final String DIRECTORY = "thumbnails";
+    private static final long MAX_SIZE = 64L * 1024 * 1024; // 64 MiB
+
+    private static ThumbnailCache INSTANCE;
+
+    private final DiskLruCache mCache;
+
+    public static synchronized @NonNull ThumbnailCache getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            var directory = new File(context.getApplicationContext().getFilesDir(), DIRECTORY);
+            INSTANCE = new ThumbnailCache(new DiskLruCache(directory, MAX_SIZE));
+        }
+        return INSTANCE;
+    }
+
+    private ThumbnailCache(@NonNull DiskLruCache cache) {
+        this.mCache = cache;
+    }
+
+    /**
+     * Stores the given encoded thumbnail and returns the key under which it can be retrieved.
+     */
+    @WorkerThread
+    public @NonNull String put(@NonNull byte[] data) throws IOException {
+        var key = DiskLruCache.hash(data);
+        if (!mCache.contains(key)) {
+            mCache.put(key, data);
+        }
+        return key;
+    }
+
+    /**
+     * Decodes the thumbnail stored under the given key.
+     * @return the decoded thumbnail or {@code null} if there is no such thumbnail (anymore)
+     */
+    @WorkerThread
+    public @Nullable Bitmap get(@Nullable String key) {
+        if (key == null) return null;
+
+        var file = mCache.get(key);
+        if (file == null) return null;
+
+        return BitmapFactory.decodeFile(file.getPath());
+    }
+
+    @WorkerThread
+    public void clear() throws IOException {
+        mCache.clear();
+    }
+}
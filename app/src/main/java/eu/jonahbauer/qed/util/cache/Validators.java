@@ -0,0 +1,99 @@
+package eu.jonahbauer.qed.util.cache;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+import lombok.Value;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * The validators of a cached response as returned by the server.
+ */
+@Value
+public class Validators {
+    private static final String LOG_TAG = Validators.class.getName();
+
+    @Nullable String etag;
+    @Nullable String lastModified;
+
+    /**
+     * The total length of the response body in bytes or {@code -1} if unknown.
+     */
+    long length;
+
+    public static @NonNull Validators of(@NonNull Response response, long length) {
+        return new Validators(
+                response.header("ETag"),
+                response.header("Last-Modified"),
+                length
+        );
+    }
+
+    /**
+     * Checks whether a conditional request can be made using these validators.
+     */
+    public boolean isPresent() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Adds the headers of a conditional request using these validators to the given request.
+     */
+    public void apply(@NonNull Request.Builder request) {
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+    }
+
+    /**
+     * Returns a validator suitable for the {@code If-Range} header. Only strong validators may
+     * be used, hence weak entity tags are ignored.
+     */
+    public @Nullable String getIfRange() {
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        } else {
+            return lastModified;
+        }
+    }
+
+    static @Nullable Validators read(@NonNull File file) {
+        if (!file.exists()) return null;
+
+        try (var in = new FileInputStream(file)) {
+            var properties = new Properties();
+            properties.load(in);
+            return new Validators(
+                    properties.getProperty("etag"),
+                    properties.getProperty("last-modified"),
+                    Long.parseLong(properties.getProperty("length", "-1"))
+            );
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(LOG_TAG, "Could not read validators from " + file + ".", e);
+            return null;
+        }
+    }
+
+    static void write(@NonNull File file, @NonNull Validators validators) throws IOException {
+        var properties = new Properties();
+        if (validators.getEtag() != null) properties.setProperty("etag", validators.getEtag());
+        if (validators.getLastModified() != null) properties.setProperty("last-modified", validators.getLastModified());
+        properties.setProperty("length", Long.toString(validators.getLength()));
+
+        try (var out = new FileOutputStream(file)) {
+            properties.store(out, null);
+        }
+    }
+}
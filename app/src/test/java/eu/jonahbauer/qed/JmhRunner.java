@@ -0,0 +1,50 @@
+package eu.jonahbauer.qed;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the JMH benchmarks of the unit test source set and writes the results as JSON, so that they
+ * can be compared between builds. The benchmarks are skipped unless the build is started with
+ * {@code -Pbenchmark}, optionally followed by a regular expression selecting the benchmarks to run,
+ * e.g. {@code -Pbenchmark=ColorsBenchmark}.
+ */
+public class JmhRunner {
+    private static final String DEFAULT_INCLUDE = "eu\\.jonahbauer\\.qed\\..*Benchmark";
+
+    @Test
+    public void run() throws RunnerException {
+        Assume.assumeTrue("Benchmarks are only run with -Pbenchmark.", Boolean.getBoolean("qed.benchmark"));
+
+        var include = System.getProperty("qed.benchmark.include", "");
+        var result = new File(System.getProperty("qed.benchmark.result", "jmh.json"));
+        var parent = result.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            //noinspection ResultOfMethodCallIgnored
+            parent.mkdirs();
+        }
+
+        var options = new OptionsBuilder()
+                .include(include.isEmpty() ? DEFAULT_INCLUDE : include)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.getPath())
+                .build();
+        new Runner(options).run();
+    }
+}
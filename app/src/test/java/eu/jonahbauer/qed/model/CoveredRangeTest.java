@@ -0,0 +1,45 @@
+package eu.jonahbauer.qed.model;
+
+import it.unimi.dsi.fastutil.longs.LongLongPair;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CoveredRangeTest {
+
+    @Test
+    public void testGapsWithoutCoverage() {
+        assertEquals(List.of(LongLongPair.of(0, 100)), CoveredRange.gaps(List.of(), 0, 100));
+    }
+
+    @Test
+    public void testGapsBetweenRanges() {
+        var ranges = List.of(
+                new CoveredRange("", 10, 19),
+                new CoveredRange("", 30, 39),
+                new CoveredRange("", 40, 49)
+        );
+        assertEquals(
+                List.of(LongLongPair.of(0, 9), LongLongPair.of(20, 29), LongLongPair.of(50, 100)),
+                CoveredRange.gaps(ranges, 0, 100)
+        );
+    }
+
+    @Test
+    public void testGapsAreClippedToInterval() {
+        var ranges = List.of(
+                new CoveredRange("", 0, 15),
+                new CoveredRange("", 25, 35),
+                new CoveredRange("", 50, 60)
+        );
+        assertEquals(List.of(LongLongPair.of(16, 24), LongLongPair.of(36, 40)), CoveredRange.gaps(ranges, 10, 40));
+    }
+
+    @Test
+    public void testNoGapsWhenFullyCovered() {
+        var ranges = List.of(new CoveredRange("", 0, 100));
+        assertEquals(List.of(), CoveredRange.gaps(ranges, 20, 80));
+    }
+}
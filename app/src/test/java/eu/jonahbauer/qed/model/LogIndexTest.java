@@ -0,0 +1,45 @@
+package eu.jonahbauer.qed.model;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LogIndexTest {
+
+    private static LogIndex index() {
+        var index = new LogIndex();
+        index.add("Alice", "Hello World, hello!");
+        index.add("Bob", "world peace");
+        index.add("Carol", "Hallo Welt");
+        return index;
+    }
+
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("foo", "bar", "baz1", "über"), LogIndex.tokenize("Foo-Bar  baz1 (Über)"));
+        assertEquals(List.of(), LogIndex.tokenize(" ,. "));
+    }
+
+    @Test
+    public void testLastTokenIsPrefix() {
+        var index = index();
+        assertEquals(IntList.of(0, 1), index.find("wor"));
+        assertEquals(IntList.of(0, 2), index.find("H"));
+        assertEquals(IntList.of(1), index.find("bo"));
+    }
+
+    @Test
+    public void testOtherTokensAreExact() {
+        var index = index();
+        assertEquals(IntList.of(0), index.find("hello wor"));
+        assertEquals(IntList.of(), index.find("hell wor"));
+    }
+
+    @Test
+    public void testEmptyQuery() {
+        assertEquals(IntList.of(), index().find("  "));
+    }
+}
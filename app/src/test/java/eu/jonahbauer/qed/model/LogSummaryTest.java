@@ -0,0 +1,83 @@
+package eu.jonahbauer.qed.model;
+
+import eu.jonahbauer.qed.network.parser.chat.ChatLogParser;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import io.reactivex.rxjava3.core.Observable;
+
+import static org.junit.Assert.*;
+
+public class LogSummaryTest {
+
+    /**
+     * Summarizes the fixture {@code chat_log.txt}, which contains six posts from monday, tuesday and
+     * sunday of the same week, two of them by the bot "Ente".
+     */
+    private static LogSummary summarize() {
+        var summary = new LogSummary();
+        var parser = new ChatLogParser(
+                () -> Objects.requireNonNull(LogSummaryTest.class.getResourceAsStream("/chat_log.txt")),
+                summary,
+                false
+        );
+        Observable.create(parser).ignoreElements().blockingAwait();
+        return summary;
+    }
+
+    @Test
+    public void testCounts() {
+        var summary = summarize();
+        assertEquals(6, summary.getCount());
+        assertEquals(2, summary.getBotCount());
+        assertEquals(1 / 3d, summary.getBotShare(), 1e-9);
+        assertEquals(3, summary.getNameCount());
+    }
+
+    @Test
+    public void testFirstAndLast() {
+        var summary = summarize();
+        assertEquals(Instant.parse("2023-01-02T09:15:00Z"), summary.getFirst());
+        assertEquals(Instant.parse("2023-01-08T08:00:00Z"), summary.getLast());
+    }
+
+    @Test
+    public void testHoursInServerTimeZone() {
+        var expected = new long[24];
+        expected[0] = 1;
+        expected[9] = 1;
+        expected[10] = 2;
+        expected[23] = 2;
+        assertArrayEquals(expected, summarize().getHours());
+    }
+
+    @Test
+    public void testWeekdays() {
+        assertArrayEquals(new long[] {2, 2, 0, 0, 0, 0, 2}, summarize().getWeekdays());
+    }
+
+    @Test
+    public void testNames() {
+        var names = summarize().getNames(2);
+        assertEquals(List.of("Alice", "Ente"), names.stream().map(ChatStatistics.NameCount::getName).collect(Collectors.toList()));
+        assertEquals(3, names.get(0).getCount());
+        assertEquals(0, names.get(0).getBotCount());
+        assertEquals(2, names.get(1).getCount());
+        assertEquals(2, names.get(1).getBotCount());
+    }
+
+    @Test
+    public void testChannels() {
+        var channels = summarize().getChannels();
+        assertEquals(List.of("", "test"), channels.stream().map(ChatStatistics.NameCount::getName).collect(Collectors.toList()));
+        assertEquals(4, channels.get(0).getCount());
+        assertEquals(1, channels.get(0).getBotCount());
+        assertEquals(2, channels.get(1).getCount());
+        assertEquals(1, channels.get(1).getBotCount());
+    }
+}
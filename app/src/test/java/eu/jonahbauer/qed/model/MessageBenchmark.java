@@ -0,0 +1,25 @@
+package eu.jonahbauer.qed.model;
+
+import eu.jonahbauer.qed.network.parser.chat.ChatLogGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+
+@State(Scope.Benchmark)
+public class MessageBenchmark {
+    private String mJson;
+
+    @Setup
+    public void setup() {
+        mJson = new ChatLogGenerator(0).message(4711, Instant.parse("2023-08-01T12:00:00Z"));
+    }
+
+    @Benchmark
+    public Message parseJsonMessage() {
+        return Message.parseJsonMessage(mJson);
+    }
+}
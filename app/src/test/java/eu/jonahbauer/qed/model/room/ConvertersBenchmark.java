@@ -0,0 +1,68 @@
+package eu.jonahbauer.qed.model.room;
+
+import eu.jonahbauer.qed.model.Person;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class ConvertersBenchmark {
+    private Instant mInstant;
+    private List<LocalDate> mDates;
+    private Map<String, String> mMap;
+    private List<String> mStrings;
+    private List<Person> mPersons;
+
+    @Setup
+    public void setup() {
+        mInstant = Instant.parse("2023-08-01T12:00:00Z");
+
+        mDates = new ArrayList<>();
+        mStrings = new ArrayList<>();
+        mMap = new HashMap<>();
+        mPersons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            mDates.add(LocalDate.of(2023, 1, 1).plusDays(i));
+            mStrings.add("Kategorie " + i);
+            mMap.put("key" + i, "value " + i);
+
+            var person = new Person(i);
+            person.setUsername("Benutzer" + i);
+            mPersons.add(person);
+        }
+    }
+
+    @Benchmark
+    public Instant instant() {
+        return Converters.instantFromLong(Converters.instantToLong(mInstant));
+    }
+
+    @Benchmark
+    public List<LocalDate> localDateList() {
+        return Converters.localDateListFromBlob(Converters.localDateListToBlob(mDates));
+    }
+
+    @Benchmark
+    public Map<String, String> map() {
+        return Converters.mapFromString(Converters.mapToString(mMap));
+    }
+
+    @Benchmark
+    public List<String> stringList() {
+        return Converters.stringListFromString(Converters.stringListToString(mStrings));
+    }
+
+    @Benchmark
+    public List<Person> personList() {
+        return Converters.personListFromString(Converters.personListToString(mPersons));
+    }
+}
@@ -0,0 +1,120 @@
+package eu.jonahbauer.qed.model.room;
+
+import androidx.sqlite.db.SupportSQLiteStatement;
+import eu.jonahbauer.qed.model.Message;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MessageImporterTest {
+    private Database mDatabase;
+    private SupportSQLiteStatement mStatement;
+    private final AtomicInteger mInserts = new AtomicInteger();
+
+    @Before
+    public void init() {
+        mDatabase = Mockito.mock(Database.class);
+        mStatement = Mockito.mock(SupportSQLiteStatement.class);
+        when(mDatabase.compileStatement(anyString())).thenReturn(mStatement);
+        when(mDatabase.messageDao()).thenReturn(Mockito.mock(MessageDao.class));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(mDatabase).runInTransaction(any(Runnable.class));
+    }
+
+    @Test
+    public void testImportsInChunks() throws Exception {
+        when(mStatement.executeInsert()).then(invocation -> (long) mInserts.incrementAndGet());
+
+        var messages = messages(MessageImporter.CHUNK_SIZE * 2 + 1);
+        MessageImporter.importAll(mDatabase, messages).test().await().assertComplete();
+
+        assertEquals(messages.size(), mInserts.get());
+        verify(mDatabase, Mockito.times(3)).runInTransaction(any(Runnable.class));
+        verify(mStatement).close();
+    }
+
+    @Test
+    public void testSkipsExistingMessages() {
+        var importer = new MessageImporter(mDatabase);
+        when(mStatement.executeInsert()).thenReturn(1L, -1L, 3L);
+
+        messages(3).forEach(importer::accept);
+        importer.flush();
+
+        assertEquals(2, importer.getInserted());
+        assertEquals(1, importer.getSkipped());
+    }
+
+    @Test
+    public void testCancelMidImport() throws Exception {
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(mStatement.executeInsert()).then(invocation -> {
+            int count = mInserts.incrementAndGet();
+            if (count == MessageImporter.CHUNK_SIZE + 1) {
+                // block in the middle of the second chunk
+                entered.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return (long) count;
+        });
+
+        // a scheduler that does not interrupt the worker on dispose
+        var observer = MessageImporter.importAll(mDatabase, messages(MessageImporter.CHUNK_SIZE * 3))
+                                      .subscribeOn(Schedulers.from(runnable -> new Thread(runnable).start()))
+                                      .test();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // cancel while the second chunk is being inserted
+        observer.dispose();
+        verify(mStatement, never()).close();
+
+        release.countDown();
+        verify(mStatement, timeout(5000)).close();
+
+        // the second chunk is completed, the third one is discarded
+        assertEquals(MessageImporter.CHUNK_SIZE * 2, mInserts.get());
+        Thread.sleep(100);
+        assertEquals(MessageImporter.CHUNK_SIZE * 2, mInserts.get());
+    }
+
+    @Test
+    public void testAcceptAfterCloseIsIgnored() throws Exception {
+        var importer = new MessageImporter(mDatabase);
+        importer.close();
+
+        messages(3).forEach(importer::accept);
+        importer.flush();
+
+        verify(mStatement, never()).executeInsert();
+        verify(mStatement).close();
+    }
+
+    private static List<Message> messages(int count) {
+        var out = new ArrayList<Message>(count);
+        var date = Instant.parse("2023-06-01T12:00:00Z");
+        for (int i = 0; i < count; i++) {
+            out.add(new Message(i, "Alice", "Hello " + i, date.plusSeconds(i), 1, "alice", "FF0000", "", 0));
+        }
+        return out;
+    }
+}
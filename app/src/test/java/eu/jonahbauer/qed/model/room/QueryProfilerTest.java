@@ -0,0 +1,70 @@
+package eu.jonahbauer.qed.model.room;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class QueryProfilerTest {
+
+    @Test
+    public void testRecordAggregatesPerStatement() {
+        var profiler = new QueryProfiler();
+        profiler.record("SELECT * FROM message", 100_000, 10, "RxCachedThreadScheduler-1", false);
+        profiler.record("SELECT * FROM message", 3_000_000, 20, "RxCachedThreadScheduler-2", false);
+        profiler.record("DELETE FROM message", 1_000_000, 5, "RxCachedThreadScheduler-1", false);
+
+        var statistics = profiler.getStatistics();
+        assertEquals(2, statistics.size());
+
+        var select = statistics.get(0);
+        assertEquals("SELECT * FROM message", select.getSql());
+        assertEquals(2, select.getCount());
+        assertEquals(30, select.getRows());
+        assertEquals(3_100_000, select.getTotalNanos());
+        assertEquals(3_000_000, select.getMaxNanos());
+        assertEquals(1, select.getThreads().size());
+        assertTrue(select.getThreads().contains("RxCachedThreadScheduler-#"));
+    }
+
+    @Test
+    public void testInListsAreCollapsed() {
+        var profiler = new QueryProfiler();
+        profiler.record("SELECT * FROM message WHERE id IN (?,?)", 1, 0, "main", false);
+        profiler.record("SELECT * FROM message WHERE id IN (?, ?, ?)", 1, 0, "main", false);
+
+        var statistics = profiler.getStatistics();
+        assertEquals(1, statistics.size());
+        assertEquals("SELECT * FROM message WHERE id IN (?...)", statistics.get(0).getSql());
+    }
+
+    @Test
+    public void testPercentiles() {
+        var profiler = new QueryProfiler();
+        for (int i = 0; i < 19; i++) {
+            profiler.record("SELECT 1", 200_000, 1, "main", false); // 200 µs
+        }
+        profiler.record("SELECT 1", 1_000_000_000, 1, "main", false); // 1 s
+
+        var statement = profiler.getStatistics().get(0);
+        assertEquals(250, statement.getPercentileMicros(0.5));
+        assertEquals(250, statement.getPercentileMicros(0.95));
+        assertEquals(1_000_000, statement.getPercentileMicros(1));
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        var profiler = new QueryProfiler();
+        profiler.record("SELECT \"name\" FROM message", 2_000_000, 3, "main", false);
+
+        var out = new StringWriter();
+        profiler.writeCsv(out);
+        var lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("statement,count,main_thread,rows,total_ms"));
+        assertTrue(lines[1].startsWith("\"SELECT \"\"name\"\" FROM message\",1,0,3,2.000,2.000,2.000,2.000,2.000,\"main\""));
+        assertEquals(lines[0].split(",").length, lines[1].split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)").length);
+    }
+}
@@ -0,0 +1,60 @@
+package eu.jonahbauer.qed.model.room;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StatisticsAccumulatorTest {
+
+    @Test
+    public void testGroupsByServerLocalDayAndHour() {
+        var accumulator = new StatisticsAccumulator();
+        // 2023-01-01 23:30 UTC is already 2023-01-02 00:30 in Europe/Berlin
+        accumulator.accumulate("", Instant.parse("2023-01-01T23:30:00Z"), "Alice", 1, false, 1);
+        accumulator.accumulate("", Instant.parse("2023-01-01T23:45:00Z"), "Alice", 1, true, 1);
+
+        var posters = new ArrayList<String>();
+        accumulator.forEachPoster((channel, day, name, userId, count, botCount) -> {
+            posters.add(channel + "|" + day + "|" + name + "|" + userId + "|" + count + "|" + botCount);
+        });
+        assertEquals(List.of("|2023-01-02|Alice|1|2|1"), posters);
+
+        var hours = new ArrayList<String>();
+        accumulator.forEachHour((channel, day, hour, count) -> hours.add(day + "|" + hour + "|" + count));
+        assertEquals(List.of("2023-01-02|0|2"), hours);
+    }
+
+    @Test
+    public void testReplacingMessageCancelsOut() {
+        var accumulator = new StatisticsAccumulator();
+        var date = Instant.parse("2023-06-01T12:00:00Z");
+        accumulator.accumulate("test", date, "Bob", 2, false, -1);
+        accumulator.accumulate("test", date, "Bob", 2, false, 1);
+
+        assertTrue(accumulator.hasNegative());
+        accumulator.forEachPoster((channel, day, name, userId, count, botCount) -> fail());
+        accumulator.forEachHour((channel, day, hour, count) -> fail());
+    }
+
+    @Test
+    public void testMovedMessage() {
+        var accumulator = new StatisticsAccumulator();
+        accumulator.accumulate("test", Instant.parse("2023-06-01T12:00:00Z"), "Bob", 2, false, -1);
+        accumulator.accumulate("test", Instant.parse("2023-06-02T12:00:00Z"), "Bob", 2, false, 1);
+
+        var counts = new ArrayList<Long>();
+        var days = new ArrayList<LocalDate>();
+        accumulator.forEachPoster((channel, day, name, userId, count, botCount) -> {
+            days.add(day);
+            counts.add(count);
+        });
+        assertEquals(2, counts.size());
+        assertEquals(-1L, (long) counts.get(days.indexOf(LocalDate.of(2023, 6, 1))));
+        assertEquals(1L, (long) counts.get(days.indexOf(LocalDate.of(2023, 6, 2))));
+    }
+}
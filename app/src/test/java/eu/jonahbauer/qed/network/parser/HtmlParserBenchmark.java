@@ -0,0 +1,84 @@
+package eu.jonahbauer.qed.network.parser;
+
+import eu.jonahbauer.qed.model.Album;
+import eu.jonahbauer.qed.model.Event;
+import eu.jonahbauer.qed.model.Image;
+import eu.jonahbauer.qed.model.Person;
+import eu.jonahbauer.qed.model.Registration;
+import eu.jonahbauer.qed.network.parser.database.EventListParser;
+import eu.jonahbauer.qed.network.parser.database.EventParser;
+import eu.jonahbauer.qed.network.parser.database.PersonListParser;
+import eu.jonahbauer.qed.network.parser.database.PersonParser;
+import eu.jonahbauer.qed.network.parser.database.RegistrationParser;
+import eu.jonahbauer.qed.network.parser.gallery.AlbumListParser;
+import eu.jonahbauer.qed.network.parser.gallery.AlbumParser;
+import eu.jonahbauer.qed.network.parser.gallery.ImageParser;
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Parses each of the fixture pages with the corresponding {@link HtmlParser}.
+ */
+@State(Scope.Benchmark)
+public class HtmlParserBenchmark {
+    @Param({
+            "person.html", "person_list.html", "event.html", "event_list.html", "registration.html",
+            "album_list.html", "album.html", "image.html"
+    })
+    public String page;
+
+    private String mHtml;
+    private Function<String, Object> mParser;
+
+    @Setup
+    public void setup() throws IOException {
+        try (var in = getClass().getResourceAsStream("/" + page)) {
+            mHtml = new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+        }
+
+        switch (page) {
+            case "person.html":
+                mParser = html -> PersonParser.INSTANCE.apply(new Person(1), html);
+                break;
+            case "person_list.html":
+                mParser = html -> PersonListParser.INSTANCE.apply(new ArrayList<>(), html);
+                break;
+            case "event.html":
+                mParser = html -> EventParser.INSTANCE.apply(new Event(1), html);
+                break;
+            case "event_list.html":
+                mParser = html -> EventListParser.INSTANCE.apply(new ArrayList<>(), html);
+                break;
+            case "registration.html":
+                mParser = html -> RegistrationParser.INSTANCE.apply(new Registration(1), html);
+                break;
+            case "album_list.html":
+                mParser = html -> AlbumListParser.INSTANCE.apply(new ArrayList<>(), html);
+                break;
+            case "album.html":
+                mParser = html -> AlbumParser.INSTANCE.apply(new Album(1), html);
+                break;
+            case "image.html":
+                mParser = html -> ImageParser.INSTANCE.apply(new Image(1), html);
+                break;
+            default:
+                throw new IllegalArgumentException(page);
+        }
+    }
+
+    @Benchmark
+    public Object parse() {
+        return mParser.apply(mHtml);
+    }
+}
@@ -0,0 +1,66 @@
+package eu.jonahbauer.qed.network.parser.chat;
+
+import eu.jonahbauer.qed.model.Message;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Random;
+
+/**
+ * Generates chat logs in the format of the chat server, i.e. one JSON message per line followed by
+ * a final {@code ok}.
+ */
+public final class ChatLogGenerator {
+    private static final String[] NAMES = {"Alice", "Bob", "Carol", "Dave", "Eve", "Mallory", "Trent", "Peggy"};
+    private static final String[] WORDS = {"hallo", "welt", "wer", "kommt", "heute", "zur", "akademie", "?", "!", "ja", "nein", "QED"};
+
+    private final Random mRandom;
+
+    public ChatLogGenerator(long seed) {
+        this.mRandom = new Random(seed);
+    }
+
+    /**
+     * Generates a single message with the given id and date.
+     */
+    public String message(long id, Instant date) {
+        var name = NAMES[mRandom.nextInt(NAMES.length)];
+        var text = new StringBuilder();
+        for (int i = 0, count = 1 + mRandom.nextInt(12); i < count; i++) {
+            if (i > 0) text.append(' ');
+            text.append(WORDS[mRandom.nextInt(WORDS.length)]);
+        }
+
+        try {
+            return new JSONObject()
+                    .put("type", "post")
+                    .put("id", id)
+                    .put("name", name)
+                    .put("message", text.toString())
+                    .put("username", mRandom.nextBoolean() ? name.toLowerCase() : JSONObject.NULL)
+                    .put("user_id", mRandom.nextInt(1000))
+                    .put("color", String.format("%06x", mRandom.nextInt(0x1000000)))
+                    .put("date", Message.DATE_TIME_FORMATTER.format(date))
+                    .put("channel", "")
+                    .put("bottag", 0)
+                    .toString();
+        } catch (JSONException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Generates a log of the given number of messages, one every ten seconds starting at the given instant.
+     */
+    public byte[] log(int count, Instant start) {
+        var out = new StringBuilder(count * 200);
+        for (int i = 0; i < count; i++) {
+            out.append(message(i + 1, start.plusSeconds(10L * i))).append('\n');
+        }
+        out.append("{\"type\":\"ok\"}\n");
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
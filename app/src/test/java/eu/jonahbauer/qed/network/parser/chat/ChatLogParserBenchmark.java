@@ -0,0 +1,32 @@
+package eu.jonahbauer.qed.network.parser.chat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+
+import io.reactivex.rxjava3.core.Observable;
+
+@State(Scope.Benchmark)
+public class ChatLogParserBenchmark {
+    @Param({"1000", "100000"})
+    public int messages;
+
+    private byte[] mLog;
+
+    @Setup
+    public void setup() {
+        mLog = new ChatLogGenerator(0).log(messages, Instant.parse("2023-01-01T00:00:00Z"));
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        var parser = new ChatLogParser(() -> new ByteArrayInputStream(mLog), blackhole::consume, false);
+        Observable.create(parser).ignoreElements().blockingAwait();
+    }
+}
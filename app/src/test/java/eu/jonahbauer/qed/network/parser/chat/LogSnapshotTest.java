@@ -0,0 +1,121 @@
+package eu.jonahbauer.qed.network.parser.chat;
+
+import eu.jonahbauer.qed.model.Message;
+import io.reactivex.rxjava3.core.Observable;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LogSnapshotTest {
+    private static final Instant DATE = Instant.parse("2023-06-01T12:00:00Z");
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        var messages = messages();
+        assertMessagesEqual(messages, read(write(messages, 0)));
+    }
+
+    @Test
+    public void testRoundTripDeflate() throws IOException {
+        var messages = messages();
+        var deflated = write(messages, LogSnapshot.FLAG_DEFLATE);
+        assertMessagesEqual(messages, read(deflated));
+        assertTrue(deflated.length < write(messages, 0).length);
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        assertTrue(read(write(List.of(), LogSnapshot.FLAG_DEFLATE)).isEmpty());
+    }
+
+    @Test
+    public void testNullUserName() throws IOException {
+        var messages = List.of(new Message(1, "Alice", "Hello", DATE, 0, null, "FF0000", "", 0));
+        var result = read(write(messages, 0));
+        assertMessagesEqual(messages, result);
+        assertNull(result.get(0).getUserName());
+    }
+
+    @Test
+    public void testStringsAreStoredOnce() throws IOException {
+        var one = List.of(message(1, "Hello"));
+        var two = List.of(message(1, "Hello"), message(2, "World"));
+
+        // the second message only adds its fixed-width columns and its text
+        int columns = 3 * Long.BYTES + 5 * Integer.BYTES;
+        int text = Integer.BYTES + "World".length();
+        assertEquals(columns + text, write(two, 0).length - write(one, 0).length);
+    }
+
+    @Test
+    public void testStreamIsClosedWhenHeaderFails() {
+        var stream = new OutputStream() {
+            boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException();
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+        };
+
+        assertThrows(IOException.class, () -> LogSnapshot.write(stream, messages(), 0));
+        assertTrue(stream.closed);
+    }
+
+    private static byte[] write(List<Message> messages, int flags) throws IOException {
+        var out = new ByteArrayOutputStream();
+        LogSnapshot.write(out, messages, flags);
+        return out.toByteArray();
+    }
+
+    private static List<Message> read(byte[] snapshot) {
+        var out = new ArrayList<Message>();
+        Observable.create(new LogSnapshot(() -> new ByteArrayInputStream(snapshot), out::add)).blockingSubscribe();
+        return out;
+    }
+
+    private static List<Message> messages() {
+        var out = new ArrayList<Message>();
+        for (int i = 0; i < 100; i++) {
+            out.add(new Message(
+                    i, "User " + i % 7, "Hello wörld " + i, DATE.plusSeconds(i), i % 7,
+                    i % 3 == 0 ? null : "user" + i % 7, "FF000" + i % 2, i % 5 == 0 ? "test" : "", i % 2
+            ));
+        }
+        return out;
+    }
+
+    private static Message message(long id, String text) {
+        return new Message(id, "Alice", text, DATE, 1, "alice", "FF0000", "", 0);
+    }
+
+    private static void assertMessagesEqual(List<Message> expected, List<Message> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            var e = expected.get(i);
+            var a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getRawName(), a.getRawName());
+            assertEquals(e.getMessage(), a.getMessage());
+            assertEquals(e.getDate(), a.getDate());
+            assertEquals(e.getUserId(), a.getUserId());
+            assertEquals(e.getUserName(), a.getUserName());
+            assertEquals(e.getColor(), a.getColor());
+            assertEquals(e.getChannel(), a.getChannel());
+            assertEquals(e.getBottag(), a.getBottag());
+        }
+    }
+}
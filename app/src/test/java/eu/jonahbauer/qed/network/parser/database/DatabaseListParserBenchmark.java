@@ -0,0 +1,97 @@
+package eu.jonahbauer.qed.network.parser.database;
+
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compares sequential, parallel and streamed parsing of the list fixtures scaled up to the size of
+ * real tables, i.e. well beyond the {@linkplain DatabaseListParser#PARALLEL_THRESHOLD parallel threshold}.
+ */
+@State(Scope.Benchmark)
+public class DatabaseListParserBenchmark {
+    @Param({"person_list.html", "event_list.html"})
+    public String page;
+
+    @Param({"250", "2500"})
+    public int rows;
+
+    @Param({"sequential", "parallel", "streamed"})
+    public String mode;
+
+    private DatabaseListParser<?> mParser;
+    private Document mDocument;
+    private String mHtml;
+
+    @Setup
+    public void setup() throws IOException {
+        String table;
+        switch (page) {
+            case "person_list.html":
+                mParser = PersonListParser.INSTANCE;
+                table = "#people_table tbody";
+                break;
+            case "event_list.html":
+                mParser = EventListParser.INSTANCE;
+                table = "#events_table tbody";
+                break;
+            default:
+                throw new IllegalArgumentException(page);
+        }
+
+        mDocument = scale(table);
+        mHtml = mDocument.outerHtml();
+
+        int count = parse().size();
+        if (count < DatabaseListParser.PARALLEL_THRESHOLD) {
+            throw new IllegalStateException("Only " + count + " rows were parsed from " + page + ".");
+        }
+    }
+
+    @Benchmark
+    public List<?> parse() throws IOException {
+        switch (mode) {
+            case "sequential":
+                return mParser.parse(new ArrayList<>(), mDocument, false);
+            case "parallel":
+                return mParser.parse(new ArrayList<>(), mDocument, true);
+            case "streamed":
+                return mParser.apply(new ArrayList<>(), new StringReader(mHtml));
+            default:
+                throw new IllegalArgumentException(mode);
+        }
+    }
+
+    /**
+     * Loads the fixture and repeats the rows of the given table until it has at least {@link #rows} rows.
+     */
+    private Document scale(String table) throws IOException {
+        String html;
+        try (var in = getClass().getResourceAsStream("/" + page)) {
+            html = new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+        }
+
+        var document = Jsoup.parse(html);
+        var tbody = Objects.requireNonNull(document.selectFirst(table));
+        var original = new ArrayList<>(tbody.children());
+        if (original.isEmpty()) throw new IllegalStateException("The table of " + page + " is empty.");
+
+        for (int i = original.size(); i < rows; i++) {
+            tbody.appendChild(original.get(i % original.size()).clone());
+        }
+        return document;
+    }
+}
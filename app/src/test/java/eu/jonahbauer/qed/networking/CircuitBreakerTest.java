@@ -0,0 +1,102 @@
+package eu.jonahbauer.qed.networking;
+
+import eu.jonahbauer.qed.networking.exceptions.HostUnavailableException;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Set;
+
+import static eu.jonahbauer.qed.networking.CircuitBreaker.*;
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    private static final String HOST = "qedgallery.qed-verein.de";
+
+    private long mNow;
+
+    @Test
+    public void testHostIsUnavailableAfterConsecutiveFailures() throws Exception {
+        var breaker = new CircuitBreaker(() -> mNow);
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            breaker.acquire(HOST);
+            breaker.onFailure(HOST);
+        }
+        breaker.acquire(HOST);
+        breaker.onSuccess(HOST);
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            breaker.acquire(HOST);
+            breaker.onFailure(HOST);
+        }
+        assertFalse(breaker.isAvailable(HOST));
+        assertEquals(Set.of(HOST), breaker.getUnavailableHosts());
+        assertThrows(HostUnavailableException.class, () -> breaker.acquire(HOST));
+
+        // other hosts are not affected
+        breaker.acquire("qeddb.qed-verein.de");
+    }
+
+    @Test
+    public void testSingleProbeAfterCooldown() throws Exception {
+        var breaker = unavailable();
+
+        mNow += MIN_COOLDOWN;
+        breaker.acquire(HOST);
+        assertThrows(HostUnavailableException.class, () -> breaker.acquire(HOST));
+
+        breaker.onSuccess(HOST);
+        assertTrue(breaker.isAvailable(HOST));
+        breaker.acquire(HOST);
+    }
+
+    @Test
+    public void testFailedProbeDoublesCooldown() throws Exception {
+        var breaker = unavailable();
+
+        mNow += MIN_COOLDOWN;
+        breaker.acquire(HOST);
+        breaker.onFailure(HOST);
+
+        mNow += MIN_COOLDOWN;
+        assertThrows(HostUnavailableException.class, () -> breaker.acquire(HOST));
+
+        mNow += MIN_COOLDOWN;
+        breaker.acquire(HOST);
+    }
+
+    @Test
+    public void testCancelledProbeAllowsAnotherProbe() throws Exception {
+        var breaker = unavailable();
+
+        mNow += MIN_COOLDOWN;
+        breaker.acquire(HOST);
+        breaker.onCancelled(HOST);
+        breaker.acquire(HOST);
+    }
+
+    @Test
+    public void testListenersAreNotifiedOfChanges() throws Exception {
+        var breaker = new CircuitBreaker(() -> mNow);
+        var changes = new ArrayList<Set<String>>();
+        breaker.addListener(changes::add);
+
+        for (int i = 0; i < FAILURE_THRESHOLD + 1; i++) {
+            breaker.onFailure(HOST);
+        }
+        breaker.reset();
+        assertEquals(2, changes.size());
+        assertEquals(Set.of(HOST), changes.get(0));
+        assertEquals(Set.of(), changes.get(1));
+        breaker.acquire(HOST);
+    }
+
+    private CircuitBreaker unavailable() throws Exception {
+        var breaker = new CircuitBreaker(() -> mNow);
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            breaker.acquire(HOST);
+            breaker.onFailure(HOST);
+        }
+        return breaker;
+    }
+}
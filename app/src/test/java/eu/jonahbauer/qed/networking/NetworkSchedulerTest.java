@@ -0,0 +1,155 @@
+package eu.jonahbauer.qed.networking;
+
+import eu.jonahbauer.qed.networking.NetworkScheduler.Priority;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NetworkSchedulerTest {
+    private static final String HOST_A = "https://a.example.org/page";
+    private static final String HOST_B = "https://b.example.org/page";
+
+    @Test
+    public void testQueuedRequestsAreStartedInOrderOfPriority() {
+        var started = new ArrayList<Runnable>();
+        var scheduler = new NetworkScheduler(1, 1, started::add);
+        var order = new ArrayList<String>();
+
+        scheduler.get(Priority.BACKGROUND, HOST_A).scheduleDirect(() -> order.add("first"));
+        scheduler.get(Priority.BACKGROUND, HOST_A).scheduleDirect(() -> order.add("background"));
+        scheduler.get(Priority.PREFETCH, HOST_A).scheduleDirect(() -> order.add("prefetch"));
+        scheduler.get(Priority.INTERACTIVE, HOST_A).scheduleDirect(() -> order.add("interactive"));
+        scheduler.get(Priority.VISIBLE, HOST_A).scheduleDirect(() -> order.add("visible"));
+        scheduler.get(Priority.INTERACTIVE, HOST_A).scheduleDirect(() -> order.add("interactive 2"));
+        assertEquals(1, started.size());
+        assertEquals(5, scheduler.getQueueSize());
+
+        runAll(started);
+        assertEquals(List.of("first", "interactive", "interactive 2", "visible", "prefetch", "background"), order);
+        assertEquals(0, scheduler.getQueueSize());
+    }
+
+    @Test
+    public void testConcurrentRequestsPerHostAreLimited() {
+        var started = new ArrayList<Runnable>();
+        var scheduler = new NetworkScheduler(16, 2, started::add);
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.get(Priority.VISIBLE, HOST_A).scheduleDirect(() -> {});
+        }
+        assertEquals(2, started.size());
+        assertEquals(1, scheduler.getQueueSize());
+
+        // other hosts are not affected
+        scheduler.get(Priority.VISIBLE, HOST_B).scheduleDirect(() -> {});
+        assertEquals(3, started.size());
+
+        // one request per host is reserved for visible and interactive requests
+        scheduler.get(Priority.BACKGROUND, HOST_B).scheduleDirect(() -> {});
+        assertEquals(3, started.size());
+
+        started.remove(0).run();
+        assertEquals(3, started.size());
+        assertEquals(1, scheduler.getQueueSize());
+    }
+
+    @Test
+    public void testDisposingQueuedRequestRemovesIt() {
+        var started = new ArrayList<Runnable>();
+        var scheduler = new NetworkScheduler(1, 1, started::add);
+        var order = new ArrayList<String>();
+
+        scheduler.get(Priority.INTERACTIVE, HOST_A).scheduleDirect(() -> order.add("first"));
+        var disposable = scheduler.get(Priority.VISIBLE, HOST_A).scheduleDirect(() -> order.add("recycled"));
+        scheduler.get(Priority.VISIBLE, HOST_A).scheduleDirect(() -> order.add("visible"));
+        assertEquals(2, scheduler.getQueueSize());
+
+        disposable.dispose();
+        assertEquals(1, scheduler.getQueueSize());
+
+        runAll(started);
+        assertEquals(List.of("first", "visible"), order);
+    }
+
+    @Test
+    public void testWorkerRunsWorkSequentially() {
+        var started = new ArrayList<Runnable>();
+        var scheduler = new NetworkScheduler(16, 4, started::add);
+        var order = new ArrayList<String>();
+
+        var worker = scheduler.get(Priority.VISIBLE, HOST_A).createWorker();
+        worker.schedule(() -> {
+            order.add("first");
+            worker.schedule(() -> order.add("third"));
+        });
+        worker.schedule(() -> order.add("second"));
+
+        // a worker occupies a single slot
+        assertEquals(1, started.size());
+        assertEquals(0, scheduler.getQueueSize());
+
+        runAll(started);
+        assertEquals(List.of("first", "second", "third"), order);
+
+        // once drained, new work requests a slot again
+        worker.schedule(() -> order.add("fourth"));
+        assertEquals(1, started.size());
+        runAll(started);
+        assertEquals(List.of("first", "second", "third", "fourth"), order);
+    }
+
+    @Test
+    public void testDisposedWorkerDropsPendingWork() {
+        var started = new ArrayList<Runnable>();
+        var scheduler = new NetworkScheduler(16, 4, started::add);
+        var order = new ArrayList<String>();
+
+        var worker = scheduler.get(Priority.VISIBLE, HOST_A).createWorker();
+        worker.schedule(() -> {
+            order.add("first");
+            worker.dispose();
+        });
+        worker.schedule(() -> order.add("second"));
+
+        runAll(started);
+        assertEquals(List.of("first"), order);
+        assertTrue(worker.isDisposed());
+    }
+
+    @Test
+    public void testSleepingRequestReleasesItsSlot() throws InterruptedException {
+        var started = new ArrayList<Runnable>();
+        var scheduler = new NetworkScheduler(1, 1, started::add);
+        var sizes = new ArrayList<Integer>();
+
+        scheduler.get(Priority.VISIBLE, HOST_A).scheduleDirect(() -> {
+            try {
+                NetworkScheduler.sleep(1);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            sizes.add(started.size());
+        });
+        scheduler.get(Priority.VISIBLE, HOST_A).scheduleDirect(() -> {});
+        assertEquals(1, started.size());
+        assertEquals(1, scheduler.getQueueSize());
+
+        started.remove(0).run();
+        assertEquals(List.of(1), sizes);
+        assertEquals(0, scheduler.getQueueSize());
+
+        runAll(started);
+        scheduler.get(Priority.VISIBLE, HOST_A).scheduleDirect(() -> {});
+        assertEquals(1, started.size());
+    }
+
+    private static void runAll(List<Runnable> started) {
+        while (!started.isEmpty()) {
+            started.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package eu.jonahbauer.qed.networking;
+
+import eu.jonahbauer.qed.networking.RequestTracer.Phase;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.Request;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestTracerTest {
+
+    @Test
+    public void testEndpointDropsIdsAndQuery() {
+        assertEquals("qeddb.qed-verein.de/people/{id}", RequestTracer.endpoint("https://qeddb.qed-verein.de/people/123"));
+        assertEquals("qedgallery.qed-verein.de/image_view.php", RequestTracer.endpoint("https://qedgallery.qed-verein.de/image_view.php?imageid=42"));
+        assertEquals("chat.qed-verein.de/websocket", RequestTracer.endpoint("wss://chat.qed-verein.de/websocket?channel=&position=-100"));
+        assertEquals("not a url", RequestTracer.endpoint("not a url"));
+    }
+
+    @Test
+    public void testStatisticsAreGroupedByEndpoint() {
+        var tracer = new RequestTracer(16);
+        for (int i = 1; i <= 10; i++) {
+            var trace = tracer.start("https://qeddb.qed-verein.de/people/" + i);
+            trace.add(Phase.TTFB, i * 1_000_000L);
+            trace.addBytes(1024);
+            trace.addParseNanos(500_000);
+            if (i == 10) trace.setRelogin();
+            trace.finish(i == 1);
+        }
+        tracer.start("https://qedgallery.qed-verein.de/album_list.php").finish(false);
+
+        // incomplete requests are not included
+        tracer.start("https://qedgallery.qed-verein.de/album_list.php");
+
+        var statistics = tracer.getStatistics();
+        assertEquals(2, statistics.size());
+
+        var people = statistics.stream()
+                               .filter(endpoint -> endpoint.getEndpoint().equals("qeddb.qed-verein.de/people/{id}"))
+                               .findFirst()
+                               .orElseThrow();
+        assertEquals(10, people.getCount());
+        assertEquals(1, people.getFailures());
+        assertEquals(1, people.getRelogins());
+        assertEquals(1024, people.getMeanBytes());
+        assertEquals(5_000_000, people.getPercentileNanos(Phase.TTFB, 0.5));
+        assertEquals(10_000_000, people.getPercentileNanos(Phase.TTFB, 0.95));
+        assertEquals(500_000, people.getPercentileNanos(Phase.PARSE, 0.95));
+    }
+
+    @Test
+    public void testBufferKeepsMostRecentTraces() {
+        var tracer = new RequestTracer(4);
+        for (int i = 0; i < 10; i++) {
+            tracer.start("https://qeddb.qed-verein.de/events/" + i).finish(false);
+        }
+        assertEquals(4, tracer.getStatistics().get(0).getCount());
+
+        tracer.reset();
+        assertTrue(tracer.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void testFinishedTraceIgnoresLaterCalls() {
+        var tracer = new RequestTracer(4);
+        var trace = tracer.start("wss://chat.qed-verein.de/websocket");
+        trace.add(Phase.CONNECT, 1_000);
+        trace.finish(false);
+        long total = trace.getNanos(Phase.TOTAL);
+
+        trace.add(Phase.CONNECT, 1_000);
+        trace.finish(true);
+        assertEquals(1_000, trace.getNanos(Phase.CONNECT));
+        assertEquals(total, trace.getNanos(Phase.TOTAL));
+        assertFalse(trace.isFailed());
+    }
+
+    @Test
+    public void testExplicitTraceOutlivesItsCalls() {
+        var tracer = new RequestTracer(4);
+        var trace = tracer.start("https://qeddb.qed-verein.de/people/1");
+        var call = call(new Request.Builder().url("https://qeddb.qed-verein.de/people/1").tag(RequestTracer.Trace.class, trace));
+
+        // e.g. the first call of a request that has to log in again
+        tracer.create(call).callEnd(call);
+        assertFalse(trace.isComplete());
+
+        trace.finish(false);
+        assertTrue(trace.isComplete());
+    }
+
+    @Test
+    public void testAutomaticTraceEndsWithItsCall() {
+        var tracer = new RequestTracer(4);
+        var call = call(new Request.Builder().url("https://qeddb.qed-verein.de/people/1"));
+        tracer.create(call).callFailed(call, new IOException());
+
+        var statistics = tracer.getStatistics();
+        assertEquals(1, statistics.size());
+        assertEquals(1, statistics.get(0).getFailures());
+    }
+
+    private static Call call(Request.Builder request) {
+        var call = mock(Call.class);
+        when(call.request()).thenReturn(request.build());
+        return call;
+    }
+}
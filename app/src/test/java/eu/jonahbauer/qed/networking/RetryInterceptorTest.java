@@ -0,0 +1,169 @@
+package eu.jonahbauer.qed.networking;
+
+import eu.jonahbauer.qed.networking.exceptions.HostUnavailableException;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static eu.jonahbauer.qed.networking.RetryInterceptor.*;
+import static org.junit.Assert.*;
+
+public class RetryInterceptorTest {
+    private static final Request GET = new Request.Builder().url("https://qedgallery.qed-verein.de/album_list.php").build();
+
+    private final List<Long> mSleeps = new ArrayList<>();
+    private final CircuitBreaker mCircuitBreaker = new CircuitBreaker(System::nanoTime);
+    private final RetryInterceptor mInterceptor = new RetryInterceptor(mCircuitBreaker, mSleeps::add);
+
+    @Test
+    public void testConnectionFailureIsRetried() throws IOException {
+        var chain = new FakeChain(GET, new ConnectException(), 200);
+        try (var response = mInterceptor.intercept(chain.proxy())) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(2, chain.mCalls);
+        assertEquals(1, mSleeps.size());
+    }
+
+    @Test
+    public void testServerErrorIsRetriedUpToLimit() throws IOException {
+        var chain = new FakeChain(GET, 503, 503, 503, 200);
+        try (var response = mInterceptor.intercept(chain.proxy())) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(MAX_RETRIES + 1, chain.mCalls);
+        assertEquals(MAX_RETRIES, mSleeps.size());
+    }
+
+    @Test
+    public void testPostIsNotRetried() {
+        var post = GET.newBuilder().post(RequestBody.create(new byte[0])).build();
+        var chain = new FakeChain(post, new ConnectException(), 200);
+        assertThrows(ConnectException.class, () -> mInterceptor.intercept(chain.proxy()));
+        assertEquals(1, chain.mCalls);
+    }
+
+    @Test
+    public void testUnknownHostIsNotRetried() {
+        var chain = new FakeChain(GET, new UnknownHostException(), 200);
+        assertThrows(UnknownHostException.class, () -> mInterceptor.intercept(chain.proxy()));
+        assertEquals(1, chain.mCalls);
+    }
+
+    @Test
+    public void testFailingHostFailsFast() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            var chain = new FakeChain(GET, new UnknownHostException());
+            assertThrows(UnknownHostException.class, () -> mInterceptor.intercept(chain.proxy()));
+        }
+
+        var chain = new FakeChain(GET, 200);
+        assertThrows(HostUnavailableException.class, () -> mInterceptor.intercept(chain.proxy()));
+        assertEquals(0, chain.mCalls);
+    }
+
+    @Test
+    public void testEveryAttemptIsReported() {
+        var chain = new FakeChain(GET, new ConnectException(), new ConnectException(), new ConnectException());
+        assertThrows(ConnectException.class, () -> mInterceptor.intercept(chain.proxy()));
+        assertEquals(MAX_RETRIES + 1, chain.mCalls);
+        assertFalse(mCircuitBreaker.isAvailable(GET.url().host()));
+    }
+
+    @Test
+    public void testRetriesStopWhenHostBecomesUnavailable() {
+        var host = GET.url().host();
+        for (int i = 1; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            mCircuitBreaker.onFailure(host);
+        }
+
+        var chain = new FakeChain(GET, new ConnectException(), 200);
+        var e = assertThrows(HostUnavailableException.class, () -> mInterceptor.intercept(chain.proxy()));
+        assertEquals(1, chain.mCalls);
+        assertTrue(e.getSuppressed()[0] instanceof ConnectException);
+    }
+
+    @Test
+    public void testDelayIsJitteredAndBounded() {
+        var random = new Random(0);
+        for (int attempt = 0; attempt < 10; attempt++) {
+            long max = Math.min(MAX_DELAY, BASE_DELAY << attempt);
+            for (int i = 0; i < 100; i++) {
+                long delay = getDelay(attempt, random);
+                assertTrue(delay >= max / 2);
+                assertTrue(delay <= max);
+            }
+        }
+    }
+
+    /**
+     * A chain answering each call with the next of the given outcomes, either a status code or an exception.
+     */
+    private static class FakeChain {
+        private final Request mRequest;
+        private final Queue<Object> mOutcomes;
+        private int mCalls;
+
+        private FakeChain(Request request, Object... outcomes) {
+            this.mRequest = request;
+            this.mOutcomes = new ArrayDeque<>(List.of(outcomes));
+        }
+
+        private Interceptor.Chain proxy() {
+            var call = (Call) Proxy.newProxyInstance(
+                    Call.class.getClassLoader(),
+                    new Class<?>[] {Call.class},
+                    (proxy, method, args) -> {
+                        if ("isCanceled".equals(method.getName())) return false;
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+            );
+            return (Interceptor.Chain) Proxy.newProxyInstance(
+                    Interceptor.Chain.class.getClassLoader(),
+                    new Class<?>[] {Interceptor.Chain.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "request":
+                                return mRequest;
+                            case "call":
+                                return call;
+                            case "proceed":
+                                return proceed((Request) args[0]);
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+            );
+        }
+
+        private Response proceed(Request request) throws IOException {
+            mCalls++;
+            var outcome = mOutcomes.remove();
+            if (outcome instanceof IOException) throw (IOException) outcome;
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code((Integer) outcome)
+                    .message("")
+                    .body(ResponseBody.create("", null))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package eu.jonahbauer.qed.networking.cookies;
+
+import eu.jonahbauer.qed.network.util.NetworkConstants;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.HttpCookie;
+import java.net.URI;
+
+import static org.junit.Assert.*;
+
+public class QEDCookiePolicyTest {
+
+    @After
+    public void tearDown() {
+        NetworkConstants.resetBaseUrls();
+    }
+
+    @Test
+    public void testServerHostsAreAllowed() {
+        assertTrue(QEDCookiePolicy.isAllowedHost("chat.qed-verein.de"));
+        assertTrue(QEDCookiePolicy.isAllowedHost("qeddb.qed-verein.de"));
+        assertTrue(QEDCookiePolicy.isAllowedHost("QEDGallery.qed-verein.de"));
+    }
+
+    @Test
+    public void testOtherHostsAreRejected() {
+        assertFalse(QEDCookiePolicy.isAllowedHost(null));
+        assertFalse(QEDCookiePolicy.isAllowedHost("example.com"));
+        assertFalse(QEDCookiePolicy.isAllowedHost("fakeqed-verein.de"));
+        assertFalse(QEDCookiePolicy.isAllowedHost("localhost"));
+    }
+
+    @Test
+    public void testRedirectedBaseUrlsAreAllowed() {
+        NetworkConstants.setBaseUrls(
+                "http://localhost:8080/chat",
+                "ws://localhost:8080/chat",
+                "http://localhost:8080/db",
+                "http://127.0.0.1:8080/gallery"
+        );
+
+        assertTrue(QEDCookiePolicy.isAllowedHost("localhost"));
+        assertTrue(QEDCookiePolicy.isAllowedHost("127.0.0.1"));
+        assertFalse(QEDCookiePolicy.isAllowedHost("chat.qed-verein.de"));
+        assertTrue(new QEDCookiePolicy().shouldAccept(URI.create("http://localhost:8080/chat/rubychat/account"), new HttpCookie("userid", "1")));
+    }
+}
@@ -0,0 +1,129 @@
+package eu.jonahbauer.qed.networking.cookies;
+
+import android.content.SharedPreferences;
+import eu.jonahbauer.qed.MockSharedPreferences;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SharedPreferencesCookieStoreTest {
+    private static final URI CHAT = URI.create("https://chat.qed-verein.de/rubychat/account");
+    private static final URI DATABASE = URI.create("https://qeddb.qed-verein.de/login");
+    private static final URI OTHER = URI.create("https://example.com/");
+
+    private SharedPreferences mSharedPreferences;
+    private TestScheduler mScheduler;
+    private SharedPreferencesCookieStore mStore;
+
+    @Before
+    public void init() {
+        mSharedPreferences = Mockito.spy(new MockSharedPreferences());
+        mScheduler = new TestScheduler();
+        mStore = new SharedPreferencesCookieStore(mSharedPreferences, mScheduler);
+    }
+
+    @Test
+    public void testGetReturnsCookiesMatchingDomain() {
+        mStore.add(CHAT, cookie("userid", "1", ".qed-verein.de"));
+        mStore.add(CHAT, cookie("pwhash", "abc", null));
+
+        assertEquals(2, mStore.get(CHAT).size());
+        assertEquals(1, mStore.get(DATABASE).size());
+        assertEquals("userid", mStore.get(DATABASE).get(0).getName());
+        assertTrue(mStore.get(OTHER).isEmpty());
+    }
+
+    @Test
+    public void testGetSeesReplacedCookie() {
+        mStore.add(CHAT, cookie("userid", "1", ".qed-verein.de"));
+        assertEquals("1", mStore.get(CHAT).get(0).getValue());
+
+        mStore.add(CHAT, cookie("userid", "2", ".qed-verein.de"));
+        assertEquals(1, mStore.get(CHAT).size());
+        assertEquals("2", mStore.get(CHAT).get(0).getValue());
+    }
+
+    @Test
+    public void testWritesAreCoalesced() {
+        mScheduler.advanceTimeBy(SharedPreferencesCookieStore.FLUSH_DELAY, TimeUnit.MILLISECONDS);
+        Mockito.clearInvocations(mSharedPreferences);
+
+        mStore.add(CHAT, cookie("userid", "1", ".qed-verein.de"));
+        mStore.add(CHAT, cookie("pwhash", "abc", ".qed-verein.de"));
+        mStore.add(DATABASE, cookie("session", "xyz", null));
+        verify(mSharedPreferences, never()).edit();
+
+        mScheduler.advanceTimeBy(SharedPreferencesCookieStore.FLUSH_DELAY, TimeUnit.MILLISECONDS);
+        verify(mSharedPreferences, times(1)).edit();
+        assertEquals(2, mSharedPreferences.getAll().size());
+    }
+
+    @Test
+    public void testUnchangedCookiesAreNotWritten() {
+        mStore.add(CHAT, cookie("userid", "1", ".qed-verein.de"));
+        mScheduler.advanceTimeBy(SharedPreferencesCookieStore.FLUSH_DELAY, TimeUnit.MILLISECONDS);
+
+        var store = new SharedPreferencesCookieStore(mSharedPreferences, mScheduler);
+        Mockito.clearInvocations(mSharedPreferences);
+        mScheduler.advanceTimeBy(SharedPreferencesCookieStore.FLUSH_DELAY, TimeUnit.MILLISECONDS);
+
+        verify(mSharedPreferences, never()).edit();
+        assertEquals(1, store.get(CHAT).size());
+    }
+
+    @Test
+    public void testCookiesArePersisted() {
+        mStore.add(CHAT, cookie("userid", "1", ".qed-verein.de"));
+        mScheduler.advanceTimeBy(SharedPreferencesCookieStore.FLUSH_DELAY, TimeUnit.MILLISECONDS);
+
+        var store = new SharedPreferencesCookieStore(mSharedPreferences, mScheduler);
+        var cookies = store.get(DATABASE);
+        assertEquals(1, cookies.size());
+        assertEquals("userid", cookies.get(0).getName());
+        assertEquals("1", cookies.get(0).getValue());
+    }
+
+    @Test
+    public void testRemoveAllClearsSharedPreferencesImmediately() {
+        mStore.add(CHAT, cookie("userid", "1", ".qed-verein.de"));
+        mScheduler.advanceTimeBy(SharedPreferencesCookieStore.FLUSH_DELAY, TimeUnit.MILLISECONDS);
+        assertFalse(mSharedPreferences.getAll().isEmpty());
+
+        assertTrue(mStore.removeAll());
+        assertTrue(mStore.get(CHAT).isEmpty());
+
+        mScheduler.triggerActions();
+        assertTrue(mSharedPreferences.getAll().isEmpty());
+    }
+
+    @Test
+    public void testExpiredCookieIsNotReturned() {
+        var cookie = cookie("userid", "1", ".qed-verein.de");
+        cookie.setMaxAge(0);
+        mStore.add(CHAT, cookie);
+
+        assertTrue(mStore.get(CHAT).isEmpty());
+        assertTrue(mStore.getCookies().isEmpty());
+
+        mScheduler.advanceTimeBy(SharedPreferencesCookieStore.FLUSH_DELAY, TimeUnit.MILLISECONDS);
+        assertTrue(mSharedPreferences.getAll().isEmpty());
+    }
+
+    private static HttpCookie cookie(String name, String value, String domain) {
+        var cookie = new HttpCookie(name, value);
+        cookie.setVersion(0);
+        if (domain != null) cookie.setDomain(domain);
+        cookie.setPath("/");
+        return cookie;
+    }
+}
@@ -0,0 +1,88 @@
+package eu.jonahbauer.qed.networking.login;
+
+import eu.jonahbauer.qed.networking.exceptions.InvalidCredentialsException;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LoginCoordinatorTest {
+
+    @Test
+    public void testConcurrentLoginsArePerformedOnce() throws Exception {
+        var count = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var coordinator = new LoginCoordinator(() -> {
+            count.incrementAndGet();
+            started.countDown();
+            awaitUninterruptibly(release);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            var generation = coordinator.getGeneration();
+            var futures = new ArrayList<Future<?>>();
+            futures.add(executor.submit(() -> { coordinator.login(generation); return null; }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> { coordinator.login(generation); return null; }));
+            }
+
+            release.countDown();
+            for (var future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, count.get());
+        assertEquals(1, coordinator.getGeneration());
+    }
+
+    @Test
+    public void testStaleGenerationSkipsLogin() throws Exception {
+        var count = new AtomicInteger();
+        var coordinator = new LoginCoordinator(count::incrementAndGet);
+
+        coordinator.login(0);
+        coordinator.login(0);
+        assertEquals(1, count.get());
+
+        coordinator.login(1);
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testFailedLoginIsRethrownAndRetried() throws Exception {
+        var count = new AtomicInteger();
+        var coordinator = new LoginCoordinator(() -> {
+            count.incrementAndGet();
+            throw new InvalidCredentialsException();
+        });
+
+        assertThrows(InvalidCredentialsException.class, () -> coordinator.login(0));
+        assertEquals(0, coordinator.getGeneration());
+
+        assertThrows(InvalidCredentialsException.class, () -> coordinator.login(0));
+        assertEquals(2, count.get());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package eu.jonahbauer.qed.networking.pages;
+
+import eu.jonahbauer.qed.model.Album;
+import eu.jonahbauer.qed.network.parser.gallery.AlbumParser;
+import eu.jonahbauer.qed.network.util.NetworkUtil;
+import eu.jonahbauer.qed.networking.RequestTracer;
+import eu.jonahbauer.qed.networking.async.AsyncLoadQEDPageCached.Page;
+import eu.jonahbauer.qed.util.cache.PageCache;
+import eu.jonahbauer.qed.util.cache.Validators;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Objects;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+public class QEDPagesTest {
+    private static final String KEY = "album";
+    private static final String FILTERED_KEY = "album_filtered";
+    private static final Validators VALIDATORS = new Validators("\"1\"", null, -1);
+    private static final Validators FILTERED_VALIDATORS = new Validators("\"2\"", null, -1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PageCache mCache;
+    private String mAlbum;
+    private String mFilteredAlbum;
+
+    @Before
+    public void init() throws IOException {
+        var parsed = new HashMap<String, Object>();
+        mCache = Mockito.mock(PageCache.class);
+        doAnswer(invocation -> parsed.get(invocation.<String>getArgument(0)))
+                .when(mCache).getParsed(anyString(), any(), any());
+        doAnswer(invocation -> parsed.put(invocation.getArgument(0), invocation.getArgument(3)))
+                .when(mCache).putParsed(anyString(), any(), any(), any());
+
+        try (var in = getClass().getResourceAsStream("/album.html")) {
+            mAlbum = new String(NetworkUtil.readAllBytes(Objects.requireNonNull(in)), StandardCharsets.UTF_8);
+        }
+
+        // keep only the first image
+        var document = Jsoup.parse(mAlbum);
+        var images = document.select(".imagetable img");
+        assertTrue(images.size() > 1);
+        images.subList(1, images.size()).forEach(Element::remove);
+        mFilteredAlbum = document.outerHtml();
+    }
+
+    @Test
+    public void testUnmodifiedPageIsRestoredAfterFilter() throws IOException {
+        var album = new Album(1);
+
+        // load album
+        var result = QEDPages.parse(modified(KEY, VALIDATORS, mAlbum), AlbumParser.INSTANCE, mCache, () -> new Album(1), null);
+        assertNotSame(album, result);
+        QEDGalleryPages.restoreAlbum(album, result);
+        int count = album.getImages().size();
+        assertTrue(count > 1);
+
+        // filter, parsing into the same album
+        var filtered = QEDPages.parse(modified(FILTERED_KEY, FILTERED_VALIDATORS, mFilteredAlbum), AlbumParser.INSTANCE, mCache, () -> new Album(1), null);
+        QEDGalleryPages.restoreAlbum(album, filtered);
+        // the parser modifies the album in place
+        AlbumParser.INSTANCE.apply(album, mFilteredAlbum);
+        assertEquals(1, album.getImages().size());
+
+        // remove filter, server responds with 304
+        var file = folder.newFile();
+        Files.write(file.toPath(), mAlbum.getBytes(StandardCharsets.UTF_8));
+        var unfiltered = QEDPages.parse(Page.cached(KEY, VALIDATORS, file), AlbumParser.INSTANCE, mCache, () -> new Album(1), null);
+        assertSame(result, unfiltered);
+        QEDGalleryPages.restoreAlbum(album, unfiltered);
+        assertEquals(count, album.getImages().size());
+    }
+
+    @Test
+    public void testCallerModificationsDoNotAffectCache() throws IOException {
+        var album = new Album(1);
+        var result = QEDPages.parse(modified(KEY, VALIDATORS, mAlbum), AlbumParser.INSTANCE, mCache, () -> new Album(1), null);
+        QEDGalleryPages.restoreAlbum(album, result);
+        int count = album.getImages().size();
+
+        album.getImages().clear();
+        album.getPersons().clear();
+        album.getCategories().clear();
+
+        assertEquals(count, result.getImages().size());
+    }
+
+    @Test
+    public void testTraceIsFinishedAfterParsing() throws IOException {
+        var trace = RequestTracer.getInstance().start("https://qedgallery.qed-verein.de/album_view.php?albumid=1");
+        QEDPages.parse(modified(KEY, VALIDATORS, mAlbum), AlbumParser.INSTANCE, mCache, () -> new Album(1), trace);
+        assertTrue(trace.isComplete());
+        assertFalse(trace.isFailed());
+        assertTrue(trace.getNanos(RequestTracer.Phase.PARSE) > 0);
+
+        // server responds with 304
+        var file = folder.newFile();
+        Files.write(file.toPath(), mAlbum.getBytes(StandardCharsets.UTF_8));
+        var cached = RequestTracer.getInstance().start("https://qedgallery.qed-verein.de/album_view.php?albumid=1");
+        QEDPages.parse(Page.cached(KEY, VALIDATORS, file), AlbumParser.INSTANCE, mCache, () -> new Album(1), cached);
+        assertTrue(cached.isComplete());
+    }
+
+    private static Page modified(String key, Validators validators, String content) {
+        var response = new Response.Builder()
+                .request(new Request.Builder().url("https://qedgallery.qed-verein.de/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(content, null))
+                .build();
+        return Page.modified(key, validators, response);
+    }
+}
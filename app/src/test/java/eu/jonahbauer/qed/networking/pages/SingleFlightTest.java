@@ -0,0 +1,75 @@
+package eu.jonahbauer.qed.networking.pages;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareRequest() {
+        var flight = new SingleFlight();
+        var subject = SingleSubject.<String>create();
+        var subscriptions = new AtomicInteger();
+
+        var first = flight.get("url", "tag", () -> subject.doOnSubscribe(d -> subscriptions.incrementAndGet())).test();
+        var second = flight.get("url", "tag", () -> Single.<String>error(new AssertionError())).test();
+        assertEquals(1, subscriptions.get());
+
+        subject.onSuccess("page");
+        first.assertValue("page");
+        second.assertValue("page");
+        assertEquals(0, flight.size());
+    }
+
+    @Test
+    public void testDifferentTagsDoNotShareRequest() {
+        var flight = new SingleFlight();
+
+        flight.get("url", "a", SingleSubject::<String>create).test();
+        flight.get("url", "b", SingleSubject::<String>create).test();
+        assertEquals(2, flight.size());
+    }
+
+    @Test
+    public void testDisposingOneCallerKeepsRequest() {
+        var flight = new SingleFlight();
+        var subject = SingleSubject.<String>create();
+
+        var first = flight.get("url", "tag", () -> subject).test();
+        var second = flight.get("url", "tag", () -> subject).test();
+
+        first.dispose();
+        assertTrue(subject.hasObservers());
+
+        subject.onSuccess("page");
+        second.assertValue("page");
+    }
+
+    @Test
+    public void testDisposingAllCallersCancelsRequest() {
+        var flight = new SingleFlight();
+        var subject = SingleSubject.<String>create();
+
+        var first = flight.get("url", "tag", () -> subject).test();
+        var second = flight.get("url", "tag", () -> subject).test();
+
+        first.dispose();
+        second.dispose();
+        assertFalse(subject.hasObservers());
+        assertEquals(0, flight.size());
+    }
+
+    @Test
+    public void testCompletedRequestIsNotReused() {
+        var flight = new SingleFlight();
+
+        flight.get("url", "tag", () -> Single.just("old")).test().assertValue("old");
+        flight.get("url", "tag", () -> Single.just("new")).test().assertValue("new");
+    }
+}
@@ -0,0 +1,63 @@
+package eu.jonahbauer.qed.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColorIntsTest {
+
+    @Test
+    public void testParseColor() {
+        assertEquals(0xFF3F51B5, ColorInts.parseColor("#3f51b5"));
+        assertEquals(0x803F51B5, ColorInts.parseColor("#803F51B5"));
+        assertThrows(IllegalArgumentException.class, () -> ColorInts.parseColor("3f51b5"));
+        assertThrows(IllegalArgumentException.class, () -> ColorInts.parseColor("#3f51b"));
+        assertThrows(IllegalArgumentException.class, () -> ColorInts.parseColor("#red"));
+        assertThrows(IllegalArgumentException.class, () -> ColorInts.parseColor("#gggggg"));
+    }
+
+    @Test
+    public void testComponents() {
+        int color = ColorInts.argb(0x12, 0x34, 0x56, 0x78);
+        assertEquals(0x12345678, color);
+        assertEquals(0x12, ColorInts.alpha(color));
+        assertEquals(0x34, ColorInts.red(color));
+        assertEquals(0x56, ColorInts.green(color));
+        assertEquals(0x78, ColorInts.blue(color));
+        assertEquals(0xFF345678, ColorInts.rgb(0x34, 0x56, 0x78));
+    }
+
+    @Test
+    public void testColorToHSV() {
+        var hsv = new float[3];
+
+        ColorInts.colorToHSV(0xFFFF0000, hsv);
+        assertArrayEquals(new float[] {0, 1, 1}, hsv, 0);
+
+        ColorInts.colorToHSV(0xFF0000FF, hsv);
+        assertArrayEquals(new float[] {240, 1, 1}, hsv, 0);
+
+        ColorInts.colorToHSV(0xFF808080, hsv);
+        assertArrayEquals(new float[] {0, 0, 128 / 255f}, hsv, 0);
+
+        ColorInts.colorToHSV(0xFFFF00FF, hsv);
+        assertArrayEquals(new float[] {300, 1, 1}, hsv, 0);
+    }
+
+    @Test
+    public void testHSVToColor() {
+        assertEquals(0xFF00FF00, ColorInts.HSVToColor(new float[] {120, 1, 1}));
+        assertEquals(0xFF808080, ColorInts.HSVToColor(new float[] {42, 0, 128 / 255f}));
+        assertEquals(0xFFFF0000, ColorInts.HSVToColor(new float[] {360, 1, 1}));
+        assertEquals(0xFFFFFFFF, ColorInts.HSVToColor(new float[] {0, -1, 2}));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        var hsv = new float[3];
+        for (int color : new int[] {0xFF3F51B5, 0xFFE91E63, 0xFF009688, 0xFFFFC107, 0xFF795548}) {
+            ColorInts.colorToHSV(color, hsv);
+            assertEquals(color, ColorInts.HSVToColor(hsv));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package eu.jonahbauer.qed.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+@State(Scope.Benchmark)
+public class ColorsBenchmark {
+    private static final String NAME = "Stefani Rivas";
+
+    private int[] mColors;
+
+    @Setup
+    public void setup() {
+        var random = new Random(0);
+        mColors = new int[1024];
+        for (int i = 0; i < mColors.length; i++) {
+            mColors[i] = ColorInts.rgb(100 + random.nextInt(156), 100 + random.nextInt(156), 100 + random.nextInt(156));
+        }
+    }
+
+    @Benchmark
+    public int getColorForName() {
+        return Colors.getColorForName(NAME);
+    }
+
+    @Benchmark
+    public String findColor() throws InterruptedException {
+        return Colors.findColor(NAME, mColors[0], 0, 1024);
+    }
+
+    @Benchmark
+    public void transformColor(Blackhole blackhole) {
+        for (int color : mColors) {
+            blackhole.consume(Colors.transformColor(color));
+        }
+    }
+}
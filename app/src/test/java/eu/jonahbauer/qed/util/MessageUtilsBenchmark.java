@@ -0,0 +1,45 @@
+package eu.jonahbauer.qed.util;
+
+import eu.jonahbauer.qed.model.Message;
+import eu.jonahbauer.qed.network.parser.chat.ChatLogGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class MessageUtilsBenchmark {
+    private static final int MESSAGES = 10_000;
+
+    private List<Message> mMessages;
+
+    /**
+     * Generates messages around the end of daylight saving time, so that some of them need fixing.
+     */
+    @Setup
+    public void setup() {
+        var generator = new ChatLogGenerator(0);
+        var start = Instant.parse("2023-10-28T23:00:00Z");
+
+        mMessages = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            // every tenth message was sent an hour earlier in local time
+            var date = start.plusSeconds(i).minusSeconds(i % 10 == 0 ? 3600 : 0);
+            mMessages.add(Message.parseJsonMessage(generator.message(i, date)));
+        }
+    }
+
+    @Benchmark
+    public void dateFixer(Blackhole blackhole) {
+        var fixer = MessageUtils.dateFixer();
+        for (var message : mMessages) {
+            blackhole.consume(fixer.apply(message));
+        }
+    }
+}
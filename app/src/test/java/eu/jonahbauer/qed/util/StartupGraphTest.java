@@ -0,0 +1,109 @@
+package eu.jonahbauer.qed.util;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class StartupGraphTest {
+
+    @Test
+    public void testTaskRunsAfterDependencies() {
+        var order = new CopyOnWriteArrayList<String>();
+        var graph = new StartupGraph(Schedulers.io())
+                .add("a", () -> order.add("a"))
+                .add("b", () -> order.add("b"), "a")
+                .add("c", () -> order.add("c"), "a", "b");
+        graph.start();
+
+        assertTrue(graph.get("c").blockingAwait(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b", "c"), order);
+    }
+
+    @Test
+    public void testIndependentTasksRunInParallel() {
+        var b = new CountDownLatch(1);
+        var c = new CountDownLatch(1);
+        var graph = new StartupGraph(Schedulers.io())
+                .add("a", () -> {})
+                .add("b", () -> {
+                    b.countDown();
+                    assertTrue(c.await(5, TimeUnit.SECONDS));
+                }, "a")
+                .add("c", () -> {
+                    c.countDown();
+                    assertTrue(b.await(5, TimeUnit.SECONDS));
+                }, "a");
+        graph.start();
+
+        assertTrue(graph.get("b").mergeWith(graph.get("c")).blockingAwait(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTaskRunsOnce() {
+        var count = new AtomicInteger();
+        var graph = new StartupGraph(Schedulers.io())
+                .add("a", count::incrementAndGet)
+                .add("b", () -> {}, "a")
+                .add("c", () -> {}, "a");
+        graph.start();
+
+        assertTrue(graph.get("b").mergeWith(graph.get("c")).blockingAwait(5, TimeUnit.SECONDS));
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testFailurePropagatesToDependents() {
+        var run = new AtomicBoolean();
+        var graph = new StartupGraph(Schedulers.io())
+                .add("a", () -> { throw new IllegalStateException(); })
+                .add("b", () -> run.set(true), "a");
+        graph.start();
+
+        assertNotNull(graph.get("b").blockingGet());
+        assertFalse(run.get());
+
+        var phases = graph.getPhases();
+        assertEquals(1, phases.size());
+        assertEquals("a", phases.get(0).getName());
+        assertTrue(phases.get(0).getError() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testRunRecordsPhase() {
+        var graph = new StartupGraph(Schedulers.io());
+        graph.run("main", () -> {});
+
+        var phases = graph.getPhases();
+        assertEquals(1, phases.size());
+        assertEquals("main", phases.get(0).getName());
+        assertEquals(Thread.currentThread().getName(), phases.get(0).getThread());
+        assertFalse(phases.get(0).isFailed());
+    }
+
+    @Test
+    public void testListenerIsCalledForEachPhase() {
+        var phases = new CopyOnWriteArrayList<StartupGraph.Phase>();
+        var graph = new StartupGraph(Schedulers.io(), phases::add)
+                .add("a", () -> {})
+                .add("b", () -> { throw new IllegalStateException(); }, "a");
+        graph.start();
+        graph.run("main", () -> {});
+
+        assertNotNull(graph.get("b").blockingGet());
+        assertEquals(3, phases.size());
+        assertTrue(phases.stream().anyMatch(phase -> phase.getName().equals("b") && phase.isFailed()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDependencyThrows() {
+        new StartupGraph(Schedulers.io()).add("a", () -> {}, "b");
+    }
+}
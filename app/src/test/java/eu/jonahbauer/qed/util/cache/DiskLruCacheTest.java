@@ -0,0 +1,152 @@
+package eu.jonahbauer.qed.util.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class DiskLruCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        var cache = new DiskLruCache(folder.getRoot(), 1024);
+        cache.put("foo", new byte[] {1, 2, 3});
+
+        var file = cache.get("foo");
+        assertNotNull(file);
+        assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(file.toPath()));
+        assertEquals(3, cache.size());
+        assertNull(cache.get("bar"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        var cache = new DiskLruCache(folder.getRoot(), 10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+        cache.put("c", new byte[4]);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertFalse(new File(folder.getRoot(), "b").exists());
+        assertEquals(8, cache.size());
+    }
+
+    @Test
+    public void testOversizeEntryIsEvicted() throws IOException {
+        var cache = new DiskLruCache(folder.getRoot(), 10);
+        cache.put("a", new byte[4]);
+
+        var file = cache.put("b", new byte[16]);
+        assertFalse(file.exists());
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("a"));
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testPinnedEntryIsNotEvicted() throws IOException {
+        var cache = new DiskLruCache(folder.getRoot(), 10);
+        cache.put("a", new byte[4]);
+        cache.pin("a");
+        cache.put("b", new byte[4]);
+        cache.put("c", new byte[4]);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+
+        cache.unpin("a");
+        cache.put("d", new byte[4]);
+        assertFalse(cache.contains("a"));
+    }
+
+    @Test
+    public void testPinnedOversizeEntryIsEvictedWhenUnpinned() throws IOException {
+        var cache = new DiskLruCache(new File(folder.getRoot(), "cache"), 10);
+        var source = folder.newFile("source");
+        Files.write(source.toPath(), new byte[16]);
+
+        cache.pin("foo");
+        cache.pin("foo");
+        var file = cache.put("foo", source);
+        assertTrue(file.exists());
+        assertEquals(file, cache.get("foo"));
+
+        cache.unpin("foo");
+        assertTrue(file.exists());
+
+        // evicted as soon as it is no longer in use
+        cache.unpin("foo");
+        assertFalse(file.exists());
+        assertFalse(cache.contains("foo"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnpinWithoutPin() {
+        new DiskLruCache(folder.getRoot(), 1024).unpin("foo");
+    }
+
+    @Test
+    public void testFailedWriteLeavesCacheUnchanged() throws IOException {
+        var cache = new DiskLruCache(folder.getRoot(), 1024);
+        cache.put("foo", new byte[] {1});
+
+        assertThrows(IOException.class, () -> cache.put("foo", out -> {
+            out.write(new byte[] {2, 3});
+            throw new IOException();
+        }));
+
+        var file = cache.get("foo");
+        assertNotNull(file);
+        assertArrayEquals(new byte[] {1}, Files.readAllBytes(file.toPath()));
+        assertArrayEquals(new String[] {"foo"}, folder.getRoot().list());
+    }
+
+    @Test
+    public void testPutMovesFile() throws IOException {
+        var cache = new DiskLruCache(new File(folder.getRoot(), "cache"), 1024);
+        var source = folder.newFile("source");
+        Files.write(source.toPath(), new byte[] {1, 2});
+
+        var file = cache.put("foo", source);
+        assertFalse(source.exists());
+        assertEquals(file, cache.get("foo"));
+        assertArrayEquals(new byte[] {1, 2}, Files.readAllBytes(file.toPath()));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testHashIsValidKey() {
+        var key = DiskLruCache.hash(new byte[] {1, 2, 3});
+        assertEquals(64, key.length());
+        assertFalse(new DiskLruCache(folder.getRoot(), 1024).contains(key));
+    }
+
+    @Test
+    public void testIndexIsRestoredFromDisk() throws IOException {
+        var cache = new DiskLruCache(folder.getRoot(), 1024);
+        cache.put("foo", new byte[5]);
+        assertTrue(new File(folder.getRoot(), "bar.tmp").createNewFile());
+
+        var restored = new DiskLruCache(folder.getRoot(), 1024);
+        assertTrue(restored.contains("foo"));
+        assertEquals(5, restored.size());
+        assertFalse(new File(folder.getRoot(), "bar.tmp").exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidKey() {
+        new DiskLruCache(folder.getRoot(), 1024).get("../foo");
+    }
+}
@@ -0,0 +1,94 @@
+package eu.jonahbauer.qed.util.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class LogCacheTest {
+    private static final Validators VALIDATORS = new Validators("\"etag\"", null, 8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNormalizeSortsParameters() {
+        assertEquals(
+                LogCache.normalize("?mode=postinterval&channel=&from=1&to=2"),
+                LogCache.normalize("?to=2&from=1&channel=&mode=postinterval")
+        );
+    }
+
+    @Test
+    public void testNormalizeKeepsEmptyValues() {
+        assertEquals("channel=&mode=postrecent", LogCache.normalize("?mode=postrecent&channel="));
+        assertNotEquals(LogCache.normalize("?mode=postrecent&channel="), LogCache.normalize("?mode=postrecent&channel=foo"));
+    }
+
+    @Test
+    public void testNormalizeDropsEmptyParameters() {
+        assertEquals("channel=&mode=postrecent", LogCache.normalize("mode=postrecent&&channel=&"));
+    }
+
+    @Test
+    public void testCommitMovesPartialDownload() throws IOException {
+        var cache = new LogCache(folder.getRoot(), 1024);
+        var file = download(cache, "a", 8);
+
+        try (var entry = cache.get("a")) {
+            assertNotNull(entry);
+            assertEquals(file, entry.getFile());
+            assertEquals(VALIDATORS, entry.getValidators());
+        }
+        assertFalse(cache.getPartialFile("a").exists());
+        assertNull(cache.getPartial("a"));
+    }
+
+    @Test
+    public void testEntryInUseIsNotEvicted() throws IOException {
+        var cache = new LogCache(folder.getRoot(), 12);
+        download(cache, "a", 8);
+
+        var entry = cache.get("a");
+        assertNotNull(entry);
+        download(cache, "b", 8);
+        assertTrue(entry.getFile().exists());
+        assertNull(cache.get("b"));
+
+        entry.close();
+        download(cache, "c", 8);
+        assertFalse(entry.getFile().exists());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testOversizeEntryIsEvictedOnceClosed() throws IOException {
+        var cache = new LogCache(folder.getRoot(), 4);
+        writePartial(cache, "a", 8);
+
+        var entry = cache.commit("a", VALIDATORS);
+        assertTrue(entry.getFile().exists());
+
+        entry.close();
+        entry.close();
+        assertFalse(entry.getFile().exists());
+        assertNull(cache.get("a"));
+    }
+
+    private static File download(LogCache cache, String key, int length) throws IOException {
+        writePartial(cache, key, length);
+        try (var entry = cache.commit(key, VALIDATORS)) {
+            return entry.getFile();
+        }
+    }
+
+    private static void writePartial(LogCache cache, String key, int length) throws IOException {
+        cache.setPartial(key, VALIDATORS);
+        Files.write(cache.getPartialFile(key).toPath(), new byte[length]);
+    }
+}
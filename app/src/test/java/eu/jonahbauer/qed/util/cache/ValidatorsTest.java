@@ -0,0 +1,48 @@
+package eu.jonahbauer.qed.util.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ValidatorsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        var file = new File(folder.getRoot(), "meta");
+        var validators = new Validators("\"abc\"", "Wed, 21 Oct 2015 07:28:00 GMT", 1234);
+
+        Validators.write(file, validators);
+        assertEquals(validators, Validators.read(file));
+    }
+
+    @Test
+    public void testWriteAndReadWithoutValidators() throws IOException {
+        var file = new File(folder.getRoot(), "meta");
+        var validators = new Validators(null, null, -1);
+
+        Validators.write(file, validators);
+        var read = Validators.read(file);
+        assertEquals(validators, read);
+        assertNotNull(read);
+        assertFalse(read.isPresent());
+    }
+
+    @Test
+    public void testReadMissingFile() {
+        assertNull(Validators.read(new File(folder.getRoot(), "missing")));
+    }
+
+    @Test
+    public void testIfRangeIgnoresWeakEtag() {
+        assertEquals("\"abc\"", new Validators("\"abc\"", "date", -1).getIfRange());
+        assertEquals("date", new Validators("W/\"abc\"", "date", -1).getIfRange());
+        assertNull(new Validators("W/\"abc\"", null, -1).getIfRange());
+    }
+}